@@ -0,0 +1,67 @@
+-- =====================================================
+-- LUNARi Carrito - Post-Payment Outbox
+-- Migration Script: Add transactional outbox for post-payment side effects
+-- Version: 1.0
+-- Date: 2026-10-16
+-- =====================================================
+
+-- =====================================================
+-- Table: outbox_evento (Outbox Event)
+-- Description: Stock reduction and points award events written in the
+-- same transaction that approves the payment, dispatched by OutboxDispatcher
+-- =====================================================
+CREATE TABLE IF NOT EXISTS outbox_evento (
+    id_evento UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tipo VARCHAR(30) NOT NULL CHECK (tipo IN (
+        'REDUCIR_STOCK',
+        'OTORGAR_PUNTOS'
+    )),
+    id_pedido UUID NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL UNIQUE,
+    payload TEXT NOT NULL,
+    estado VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE' CHECK (estado IN (
+        'PENDIENTE',
+        'EN_PROCESO',
+        'PROCESADO',
+        'FALLIDO'
+    )),
+    intentos INTEGER NOT NULL DEFAULT 0 CHECK (intentos >= 0),
+    proximo_intento_el TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    ultimo_error TEXT,
+    creado_el TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    procesado_el TIMESTAMP WITH TIME ZONE,
+
+    -- Foreign key constraint
+    CONSTRAINT fk_outbox_pedido
+        FOREIGN KEY (id_pedido)
+        REFERENCES pedido(id_pedido)
+        ON DELETE CASCADE
+);
+
+-- Add comment to table
+COMMENT ON TABLE outbox_evento IS 'Transactional outbox for post-payment actions (stock reduction, points award)';
+
+-- Add column comments
+COMMENT ON COLUMN outbox_evento.idempotency_key IS 'Event type + order number; sent downstream so retries are applied once';
+COMMENT ON COLUMN outbox_evento.estado IS 'Event status: PENDIENTE, EN_PROCESO (leased), PROCESADO, FALLIDO (dead letter)';
+COMMENT ON COLUMN outbox_evento.proximo_intento_el IS 'Next dispatch attempt (backoff) or lease expiry while EN_PROCESO';
+
+-- Create indexes for performance
+-- Dispatcher polls by status and due time
+CREATE INDEX IF NOT EXISTS idx_outbox_estado_proximo ON outbox_evento(estado, proximo_intento_el)
+    WHERE estado IN ('PENDIENTE', 'EN_PROCESO');
+CREATE INDEX IF NOT EXISTS idx_outbox_pedido ON outbox_evento(id_pedido);
+
+-- =====================================================
+-- Verify table created
+-- =====================================================
+
+SELECT
+    column_name,
+    data_type,
+    character_maximum_length,
+    is_nullable
+FROM information_schema.columns
+WHERE table_name = 'outbox_evento'
+  AND table_schema = 'public'
+ORDER BY ordinal_position;
@@ -0,0 +1,31 @@
+-- =====================================================
+-- LUNARi Carrito - Order Number Sequence
+-- Migration Script: Add block-allocated sequence for order numbers
+-- Version: 1.0
+-- Date: 2026-10-16
+-- =====================================================
+
+-- =====================================================
+-- Sequence: pedido_numero_seq
+-- Description: Used by SequenceOrderNumberGenerator (lunari.order-number.strategy=sequence).
+-- Each nextval reserves a block of INCREMENT BY numbers for one carrito instance,
+-- so INCREMENT BY is the block size. Each replica reads it at startup and uses it
+-- in place of lunari.order-number.block-size when they differ
+-- =====================================================
+CREATE SEQUENCE IF NOT EXISTS pedido_numero_seq
+    START WITH 1
+    INCREMENT BY 50;
+
+COMMENT ON SEQUENCE pedido_numero_seq IS 'Order number blocks (hi/lo); INCREMENT BY = lunari.order-number.block-size';
+
+-- =====================================================
+-- Verify sequence created
+-- =====================================================
+
+SELECT
+    sequence_name,
+    start_value,
+    increment
+FROM information_schema.sequences
+WHERE sequence_name = 'pedido_numero_seq'
+  AND sequence_schema = 'public';
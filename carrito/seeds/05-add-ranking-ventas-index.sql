@@ -0,0 +1,30 @@
+-- =====================================================
+-- LUNARi Carrito - Best-Sellers Ranking
+-- Migration Script: Index completed orders by completion time
+-- Version: 1.0
+-- Date: 2026-10-16
+-- =====================================================
+
+-- =====================================================
+-- Index: idx_pedido_completado_el
+-- Description: RankingVentasService keeps the best-sellers ranking in
+-- memory and periodically rebuilds it from the orders completed within
+-- the longest window (lunari.ranking.ventanas, 30 days by default).
+-- The partial index keeps that rebuild a range scan over recent
+-- completed orders instead of a scan of the whole sales history.
+-- =====================================================
+CREATE INDEX IF NOT EXISTS idx_pedido_completado_el ON pedido(completado_el)
+    WHERE estado_pedido = 'COMPLETADO';
+
+COMMENT ON INDEX idx_pedido_completado_el IS 'Completed orders by completion time (best-sellers ranking rebuild)';
+
+-- =====================================================
+-- Verify index created
+-- =====================================================
+
+SELECT
+    indexname,
+    indexdef
+FROM pg_indexes
+WHERE tablename = 'pedido'
+  AND indexname = 'idx_pedido_completado_el';
@@ -2,29 +2,53 @@ package cl.duoc.lunari.api.cart.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuración para procesamiento asíncrono de tareas en segundo plano
  * Habilita la ejecución de métodos anotados con @Async
+ *
+ * Con spring.threads.virtual.enabled=true los executors usan un hilo virtual por tarea,
+ * limitados por concurrencia en lugar de por tamaño de pool; al alcanzar el límite
+ * las nuevas tareas esperan en vez de ser rechazadas
+ *
+ * También habilita @Scheduled para el despacho periódico del outbox (OutboxDispatcher)
  */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${lunari.async.virtual.concurrency-limit:200}")
+    private int virtualConcurrencyLimit;
+
+    @Value("${lunari.async.virtual.batch-concurrency-limit:50}")
+    private int virtualBatchConcurrencyLimit;
+
     /**
      * Configura el executor de tareas asíncronas
      * Pool de hilos dedicado para jobs de post-procesamiento de pagos
      */
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("async-job-", virtualConcurrencyLimit);
+        }
+
         logger.info("Configurando ThreadPoolTaskExecutor para tareas asíncronas");
 
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -35,10 +59,9 @@ public class AsyncConfig {
         executor.setQueueCapacity(100);        // Cola de tareas pendientes
         executor.setThreadNamePrefix("async-job-");
 
-        // Política de rechazo cuando el pool está lleno
-        executor.setRejectedExecutionHandler((r, e) -> {
-            logger.warn("Tarea rechazada por el executor: Cola llena. Tarea: {}", r.toString());
-        });
+        // Política de rechazo cuando el pool está lleno: el hilo que envía la tarea la ejecuta
+        // (backpressure sobre el despachador del outbox en lugar de descartar trabajo)
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
 
         // Comportamiento al shutdown
         executor.setWaitForTasksToCompleteOnShutdown(true);
@@ -57,6 +80,10 @@ public class AsyncConfig {
      */
     @Bean(name = "batchTaskExecutor")
     public Executor batchTaskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("batch-job-", virtualBatchConcurrencyLimit);
+        }
+
         logger.info("Configurando ThreadPoolTaskExecutor para tareas batch");
 
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -72,4 +99,20 @@ public class AsyncConfig {
 
         return executor;
     }
+
+    /**
+     * Executor de hilos virtuales: un hilo por tarea, con límite de concurrencia
+     * para no saturar los servicios y la base de datos aguas abajo
+     */
+    private Executor virtualThreadExecutor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setTaskTerminationTimeout(60_000);
+
+        logger.info("Executor de hilos virtuales configurado - Prefijo: {}, ConcurrencyLimit: {}",
+                threadNamePrefix, concurrencyLimit);
+
+        return executor;
+    }
 }
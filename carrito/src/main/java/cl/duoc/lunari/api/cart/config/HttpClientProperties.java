@@ -0,0 +1,63 @@
+package cl.duoc.lunari.api.cart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración del cliente HTTP compartido para llamadas a usuario e inventario
+ */
+@Configuration
+@ConfigurationProperties(prefix = "lunari.services.http")
+@Getter
+@Setter
+public class HttpClientProperties {
+
+    /**
+     * Máximo de conexiones abiertas en total
+     */
+    private int maxTotal = 200;
+
+    /**
+     * Máximo de conexiones abiertas por host (usuario, inventario)
+     */
+    private int maxPerRoute = 50;
+
+    /**
+     * Tiempo máximo para establecer la conexión TCP
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Tiempo máximo de inactividad del socket mientras se leen datos
+     */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Tiempo máximo de espera de la respuesta una vez enviada la petición
+     */
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Tiempo máximo de espera por una conexión libre del pool (falla rápido si está saturado)
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Tiempo que se mantiene viva una conexión reutilizable si el servidor no indica otro
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Las conexiones inactivas por más de este tiempo se cierran
+     */
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    /**
+     * Vida máxima de una conexión, para repartir carga tras cambios en el balanceador
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
@@ -1,14 +1,78 @@
 package cl.duoc.lunari.api.cart.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Cliente HTTP para comunicación entre servicios (usuario, inventario)
+ * Pool de conexiones keep-alive con límites por host y timeouts, para que una
+ * instancia lenta no pueda retener indefinidamente los hilos de carrito
+ */
 @Configuration
 public class RestTemplateConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(RestTemplateConfig.class);
+
+    @Bean
+    public PoolingHttpClientConnectionManager servicesConnectionManager(HttpClientProperties properties,
+                                                                       MeterRegistry meterRegistry) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(properties.getTimeToLive()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        // Métricas de saturación del pool: httpcomponents.httpclient.pool.*
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "lunari-services")
+                .bindTo(meterRegistry);
+
+        logger.info("Pool HTTP configurado - MaxTotal: {}, MaxPerRoute: {}, ConnectTimeout: {}, ResponseTimeout: {}",
+                properties.getMaxTotal(), properties.getMaxPerRoute(),
+                properties.getConnectTimeout(), properties.getResponseTimeout());
+
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient servicesHttpClient(PoolingHttpClientConnectionManager servicesConnectionManager,
+                                                  HttpClientProperties properties) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(properties.getResponseTimeout()))
+                .setConnectionKeepAlive(TimeValue.of(properties.getKeepAlive()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(servicesConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient servicesHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(servicesHttpClient));
     }
-}
\ No newline at end of file
+}
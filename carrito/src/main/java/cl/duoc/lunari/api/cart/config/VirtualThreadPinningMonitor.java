@@ -0,0 +1,83 @@
+package cl.duoc.lunari.api.cart.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Diagnóstico de pinning de hilos virtuales (solo en modo hilos virtuales)
+ * Escucha el evento JFR jdk.VirtualThreadPinned: un hilo virtual que bloquea dentro de un
+ * bloque synchronized o código nativo retiene su hilo portador y anula la ganancia de throughput
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Counter pinnedCounter;
+
+    @Value("${lunari.virtual-threads.pinning-threshold:20ms}")
+    private Duration threshold;
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Hilos virtuales que quedaron fijados a su hilo portador más allá del umbral")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, event -> {
+            pinnedCounter.increment();
+            RecordedFrame frame = firstApplicationFrame(event);
+            logger.warn("Hilo virtual fijado {} ms en {}",
+                    event.getDuration().toMillis(),
+                    frame != null ? frame.getMethod().getType().getName() + "." + frame.getMethod().getName() : "desconocido");
+        });
+        recordingStream.startAsync();
+
+        logger.info("Monitor de pinning de hilos virtuales activo - Umbral: {}", threshold);
+    }
+
+    /**
+     * Primer frame fuera del JDK: normalmente el código que bloqueó mientras estaba fijado
+     */
+    private RecordedFrame firstApplicationFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return null;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return event.getStackTrace().getFrames().isEmpty() ? null : event.getStackTrace().getFrames().get(0);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
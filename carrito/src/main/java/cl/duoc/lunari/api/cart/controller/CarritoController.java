@@ -5,12 +5,15 @@ import cl.duoc.lunari.api.cart.model.Carrito;
 import cl.duoc.lunari.api.cart.model.CarritoItem;
 import cl.duoc.lunari.api.cart.service.CarritoService;
 import cl.duoc.lunari.api.payload.ApiResponse;
+import cl.duoc.lunari.api.payload.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,6 +26,12 @@ public class CarritoController {
 
     private final CarritoService carritoService;
 
+    @Value("${lunari.pagination.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${lunari.pagination.max-limit:100}")
+    private int maxLimit;
+
     /**
      * Obtiene el carrito activo de un usuario o crea uno nuevo
      */
@@ -58,13 +67,41 @@ public class CarritoController {
      * Obtiene todos los carritos de un usuario
      */
     @GetMapping("/usuario/{usuarioId}/todos")
-    public ResponseEntity<ApiResponse<List<CarritoResponseDto>>> obtenerCarritosPorUsuario(@PathVariable UUID usuarioId) {
+    public ResponseEntity<ApiResponse<List<CarritoResponseDto>>> obtenerCarritosPorUsuario(
+            @PathVariable UUID usuarioId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
         try {
-            List<Carrito> carritos = carritoService.obtenerCarritosPorUsuario(usuarioId);
-            List<CarritoResponseDto> response = carritos.stream()
+            if (limit == null && cursor == null) {
+                List<Carrito> carritos = carritoService.obtenerCarritosPorUsuario(usuarioId);
+                List<CarritoResponseDto> response = carritos.stream()
+                        .map(CarritoResponseDto::fromEntity)
+                        .toList();
+                return ResponseEntity.ok(ApiResponse.success(response));
+            }
+
+            // Paginado por keyset (creadoEl, id), más recientes primero
+            OffsetDateTime antesDeCreadoEl = null;
+            UUID antesDeId = null;
+            if (cursor != null && !cursor.isBlank()) {
+                try {
+                    KeysetCursor.Claves claves = KeysetCursor.decode(cursor);
+                    antesDeCreadoEl = claves.creadoEl();
+                    antesDeId = claves.id();
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(ApiResponse.error(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+                }
+            }
+
+            // Se pide una fila extra para saber si hay página siguiente
+            int tamano = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+            List<CarritoResponseDto> response = carritoService
+                    .obtenerCarritosPorUsuario(usuarioId, antesDeCreadoEl, antesDeId, tamano + 1).stream()
                     .map(CarritoResponseDto::fromEntity)
                     .toList();
-            return ResponseEntity.ok(ApiResponse.success(response));
+            return KeysetCursor.page(response, tamano,
+                    ultimo -> KeysetCursor.encode(ultimo.getCreadoEl(), ultimo.getId()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error al obtener carritos", 
@@ -151,6 +188,22 @@ public class CarritoController {
         }
     }
 
+    /**
+     * Recalcula el total estimado desde los items (verificación del total incremental)
+     */
+    @PostMapping("/{carritoId}/recalcular")
+    public ResponseEntity<ApiResponse<CarritoResponseDto>> recalcularTotal(@PathVariable UUID carritoId) {
+        try {
+            Carrito carrito = carritoService.recalcularTotalCarrito(carritoId);
+            CarritoResponseDto response = CarritoResponseDto.fromEntity(carrito);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error al recalcular total: " + e.getMessage(), 
+                          HttpStatus.BAD_REQUEST.value()));
+        }
+    }
+
     /**
      * Vacía el carrito
      */
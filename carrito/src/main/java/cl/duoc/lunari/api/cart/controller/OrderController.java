@@ -5,6 +5,7 @@ import cl.duoc.lunari.api.cart.model.EstadoPedido;
 import cl.duoc.lunari.api.cart.model.Pedido;
 import cl.duoc.lunari.api.cart.service.OrderService;
 import cl.duoc.lunari.api.payload.ApiResponse;
+import cl.duoc.lunari.api.payload.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,10 +14,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -34,6 +37,12 @@ public class OrderController {
 
     private final OrderService orderService;
 
+    @Value("${lunari.pagination.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${lunari.pagination.max-limit:100}")
+    private int maxLimit;
+
     /**
      * Obtiene un pedido por su ID
      *
@@ -118,34 +127,46 @@ public class OrderController {
     }
 
     /**
-     * Obtiene todos los pedidos de un usuario
+     * Obtiene los pedidos de un usuario
+     * Sin limit ni cursor retorna el historial completo; con limit retorna una página y, si hay más,
+     * el cursor de la siguiente en el header X-Next-Cursor
      *
      * @param usuarioId ID del usuario
+     * @param limit Tamaño de página opcional
+     * @param cursor Cursor de la página siguiente (header X-Next-Cursor de la respuesta anterior)
      * @return Lista de pedidos del usuario
      */
     @GetMapping("/usuario/{usuarioId}")
     @Operation(
         summary = "Obtener pedidos de un usuario",
-        description = "Retorna todos los pedidos de un usuario ordenados por fecha de creación descendente"
+        description = "Retorna los pedidos de un usuario con sus items y pago, ordenados por fecha de creación descendente. " +
+                      "Con limit se pagina por cursor (header X-Next-Cursor)"
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "200",
             description = "Lista de pedidos retornada exitosamente"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Cursor inválido"
         )
     })
     public ResponseEntity<ApiResponse<List<PedidoResponseDto>>> getOrdersByUsuario(
             @Parameter(description = "ID del usuario", required = true)
-            @PathVariable UUID usuarioId
+            @PathVariable UUID usuarioId,
+            @Parameter(description = "Tamaño de página (máximo lunari.pagination.max-limit)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor de la página siguiente")
+            @RequestParam(required = false) String cursor
     ) {
         log.debug("Obteniendo pedidos del usuario: {}", usuarioId);
 
-        List<Pedido> pedidos = orderService.getOrdersByUsuario(usuarioId);
-        List<PedidoResponseDto> response = pedidos.stream()
-                .map(PedidoResponseDto::fromEntity)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(ApiResponse.success(response));
+        if (limit == null && cursor == null) {
+            List<Pedido> pedidos = orderService.getOrdersByUsuario(usuarioId);
+            return ResponseEntity.ok(ApiResponse.success(toDtos(pedidos)));
+        }
+        return paginarHistorial(usuarioId, null, limit, cursor);
     }
 
     /**
@@ -153,12 +174,15 @@ public class OrderController {
      *
      * @param usuarioId ID del usuario
      * @param estado Estado del pedido
+     * @param limit Tamaño de página opcional
+     * @param cursor Cursor de la página siguiente (header X-Next-Cursor de la respuesta anterior)
      * @return Lista de pedidos filtrados
      */
     @GetMapping("/usuario/{usuarioId}/estado/{estado}")
     @Operation(
         summary = "Obtener pedidos por usuario y estado",
-        description = "Retorna los pedidos de un usuario filtrados por estado específico"
+        description = "Retorna los pedidos de un usuario filtrados por estado específico, con sus items y pago. " +
+                      "Con limit se pagina por cursor (header X-Next-Cursor)"
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -174,19 +198,15 @@ public class OrderController {
             @Parameter(description = "ID del usuario", required = true)
             @PathVariable UUID usuarioId,
             @Parameter(description = "Estado del pedido (CREADO, PAGO_PENDIENTE, PAGO_COMPLETADO, PROCESANDO, COMPLETADO, CANCELADO, FALLIDO)", required = true)
-            @PathVariable String estado
+            @PathVariable String estado,
+            @Parameter(description = "Tamaño de página (máximo lunari.pagination.max-limit)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor de la página siguiente")
+            @RequestParam(required = false) String cursor
     ) {
+        EstadoPedido estadoPedido;
         try {
-            log.debug("Obteniendo pedidos del usuario {} con estado: {}", usuarioId, estado);
-
-            EstadoPedido estadoPedido = EstadoPedido.valueOf(estado.toUpperCase());
-            List<Pedido> pedidos = orderService.getOrdersByUsuarioAndEstado(usuarioId, estadoPedido);
-            List<PedidoResponseDto> response = pedidos.stream()
-                    .map(PedidoResponseDto::fromEntity)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(ApiResponse.success(response));
-
+            estadoPedido = EstadoPedido.valueOf(estado.toUpperCase());
         } catch (IllegalArgumentException e) {
             log.warn("Estado de pedido inválido: {}", estado);
             return ResponseEntity
@@ -194,6 +214,13 @@ public class OrderController {
                     .body(ApiResponse.error("Estado de pedido inválido: " + estado,
                             HttpStatus.BAD_REQUEST.value()));
         }
+        log.debug("Obteniendo pedidos del usuario {} con estado: {}", usuarioId, estadoPedido);
+
+        if (limit == null && cursor == null) {
+            List<Pedido> pedidos = orderService.getOrdersByUsuarioAndEstado(usuarioId, estadoPedido);
+            return ResponseEntity.ok(ApiResponse.success(toDtos(pedidos)));
+        }
+        return paginarHistorial(usuarioId, estadoPedido, limit, cursor);
     }
 
     /**
@@ -302,4 +329,40 @@ public class OrderController {
                     .body(ApiResponse.error(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR.value()));
         }
     }
+
+    /**
+     * Página del historial por keyset (creadoEl, id) acotada a lunari.pagination.max-limit
+     */
+    private ResponseEntity<ApiResponse<List<PedidoResponseDto>>> paginarHistorial(
+            UUID usuarioId, EstadoPedido estado, Integer limit, String cursor) {
+
+        OffsetDateTime antesDeCreadoEl = null;
+        UUID antesDeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                KeysetCursor.Claves claves = KeysetCursor.decode(cursor);
+                antesDeCreadoEl = claves.creadoEl();
+                antesDeId = claves.id();
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+            }
+        }
+
+        // Se pide una fila extra para saber si hay página siguiente
+        int tamano = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        List<Pedido> pedidos = orderService.getOrderHistory(usuarioId, estado, antesDeCreadoEl, antesDeId, tamano + 1);
+        return KeysetCursor.page(toDtos(pedidos), tamano,
+                ultimo -> KeysetCursor.encode(ultimo.getCreadoEl(), ultimo.getId()));
+    }
+
+    /**
+     * Convierte pedidos (con items y pago ya cargados) a DTOs
+     */
+    private List<PedidoResponseDto> toDtos(List<Pedido> pedidos) {
+        return pedidos.stream()
+                .map(PedidoResponseDto::fromEntity)
+                .collect(Collectors.toList());
+    }
 }
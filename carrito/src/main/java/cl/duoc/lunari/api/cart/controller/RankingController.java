@@ -0,0 +1,95 @@
+package cl.duoc.lunari.api.cart.controller;
+
+import cl.duoc.lunari.api.cart.dto.ProductoVendidoResponseDto;
+import cl.duoc.lunari.api.cart.service.RankingVentasService;
+import cl.duoc.lunari.api.payload.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controlador REST para rankings de ventas
+ * Sirve el ranking de más vendidos mantenido en memoria, sin recorrer el historial de ventas
+ */
+@RestController
+@RequestMapping("/api/v1/ranking")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Ranking", description = "API para rankings de productos más vendidos")
+public class RankingController {
+
+    private final RankingVentasService rankingVentasService;
+
+    @Value("${lunari.pagination.max-limit:100}")
+    private int maxLimit;
+
+    /**
+     * Obtiene los productos más vendidos en una ventana de tiempo
+     *
+     * @param ventana Ventana de tiempo (ej: 24h, 7d, 30d)
+     * @param limit Cantidad de productos a retornar
+     * @return Ranking de productos más vendidos
+     */
+    @GetMapping("/mas-vendidos")
+    @Operation(
+        summary = "Obtener productos más vendidos",
+        description = "Retorna los productos con más unidades vendidas en pedidos completados dentro de la ventana " +
+                      "(lunari.ranking.ventanas), de mayor a menor"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Ranking retornado exitosamente"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Ventana no soportada"
+        )
+    })
+    public ResponseEntity<ApiResponse<List<ProductoVendidoResponseDto>>> getMasVendidos(
+            @Parameter(description = "Ventana de tiempo (ej: 24h, 7d, 30d)")
+            @RequestParam(defaultValue = "7d") String ventana,
+            @Parameter(description = "Cantidad de productos (máximo lunari.pagination.max-limit)")
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        Duration duracion;
+        try {
+            duracion = DurationStyle.detectAndParse(ventana);
+        } catch (IllegalArgumentException e) {
+            return ventanaInvalida(ventana);
+        }
+        if (!rankingVentasService.getVentanas().contains(duracion)) {
+            return ventanaInvalida(ventana);
+        }
+
+        List<RankingVentasService.ProductoVendido> ranking =
+                rankingVentasService.masVendidos(duracion, Math.min(Math.max(limit, 1), maxLimit));
+
+        List<ProductoVendidoResponseDto> response = new ArrayList<>(ranking.size());
+        for (int i = 0; i < ranking.size(); i++) {
+            RankingVentasService.ProductoVendido vendido = ranking.get(i);
+            response.add(new ProductoVendidoResponseDto(i + 1, vendido.productoId(), vendido.cantidad()));
+        }
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    private ResponseEntity<ApiResponse<List<ProductoVendidoResponseDto>>> ventanaInvalida(String ventana) {
+        log.warn("Ventana de ranking no soportada: {}", ventana);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Ventana no soportada: " + ventana + ". Valores permitidos: "
+                        + rankingVentasService.getVentanas(), HttpStatus.BAD_REQUEST.value()));
+    }
+}
@@ -0,0 +1,17 @@
+package cl.duoc.lunari.api.cart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Posición de un producto en el ranking de más vendidos de una ventana de tiempo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoVendidoResponseDto {
+    private int posicion;
+    private Long productoId;
+    private long cantidadVendida;
+}
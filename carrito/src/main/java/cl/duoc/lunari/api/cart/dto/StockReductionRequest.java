@@ -20,6 +20,11 @@ public class StockReductionRequest {
     @NotEmpty(message = "La lista de items no puede estar vacía")
     private List<StockItem> items;
 
+    /**
+     * Referencia del pedido; inventario la usa como clave de idempotencia
+     */
+    private String referencia;
+
     /**
      * Representa un item individual para reducción de stock
      */
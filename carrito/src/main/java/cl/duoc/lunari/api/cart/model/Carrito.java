@@ -6,13 +6,16 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
 @Table(name = "Carrito")
+@DynamicUpdate // total_estimado se mantiene con UPDATEs incrementales; guardar el carrito no debe pisarlo
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,7 +58,8 @@ public class Carrito {
 
     @PrePersist
     protected void onCreate() {
-        creadoEl = OffsetDateTime.now();
+        // Precisión de microsegundos como la columna: creadoEl es clave del cursor de paginación
+        creadoEl = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
         actualizadoEl = OffsetDateTime.now();
         if (fechaExpiracion == null) {
             fechaExpiracion = OffsetDateTime.now().plusDays(30);
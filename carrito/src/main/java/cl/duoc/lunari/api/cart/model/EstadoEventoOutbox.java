@@ -0,0 +1,35 @@
+package cl.duoc.lunari.api.cart.model;
+
+/**
+ * Estados posibles para un evento del outbox
+ *
+ * Flujo típico:
+ * PENDIENTE → EN_PROCESO → PROCESADO
+ *
+ * Flujos alternativos:
+ * - EN_PROCESO → PENDIENTE (falló el despacho, se reintenta con backoff)
+ * - EN_PROCESO → FALLIDO (se agotaron los reintentos; requiere revisión manual)
+ */
+public enum EstadoEventoOutbox {
+
+    /**
+     * Evento registrado, esperando ser despachado
+     */
+    PENDIENTE,
+
+    /**
+     * Evento reclamado por un despachador; si la instancia cae, se vuelve a
+     * reclamar cuando vence el lease
+     */
+    EN_PROCESO,
+
+    /**
+     * Evento despachado exitosamente
+     */
+    PROCESADO,
+
+    /**
+     * Evento descartado tras agotar los reintentos (dead letter)
+     */
+    FALLIDO
+}
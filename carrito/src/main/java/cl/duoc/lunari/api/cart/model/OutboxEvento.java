@@ -0,0 +1,117 @@
+package cl.duoc.lunari.api.cart.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Entidad OutboxEvento
+ * Acción posterior al pago registrada en la misma transacción que aprueba el pago,
+ * y despachada después por OutboxDispatcher con reintentos
+ */
+@Entity
+@Table(name = "outbox_evento", indexes = {
+        @Index(name = "idx_outbox_estado_proximo", columnList = "estado, proximo_intento_el"),
+        @Index(name = "idx_outbox_pedido", columnList = "id_pedido")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvento {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id_evento")
+    private UUID id;
+
+    @Column(name = "tipo", nullable = false, length = 30)
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "Tipo de evento no puede estar vacío")
+    private TipoEventoOutbox tipo;
+
+    @Column(name = "id_pedido", nullable = false)
+    @NotNull(message = "ID de pedido no puede estar vacío")
+    private UUID pedidoId;
+
+    /**
+     * Clave de idempotencia (tipo + número de pedido); se envía al servicio destino
+     * para que un reintento no aplique el efecto dos veces
+     */
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 100)
+    @NotNull(message = "Clave de idempotencia no puede estar vacía")
+    private String idempotencyKey;
+
+    /**
+     * Cuerpo de la solicitud al servicio destino, serializado como JSON
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    @NotNull(message = "Payload no puede estar vacío")
+    private String payload;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "Estado no puede estar vacío")
+    private EstadoEventoOutbox estado = EstadoEventoOutbox.PENDIENTE;
+
+    @Column(name = "intentos", nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "proximo_intento_el", nullable = false)
+    private OffsetDateTime proximoIntentoEl;
+
+    @Column(name = "ultimo_error", columnDefinition = "TEXT")
+    private String ultimoError;
+
+    @Column(name = "creado_el", nullable = false, updatable = false)
+    private OffsetDateTime creadoEl;
+
+    @Column(name = "procesado_el")
+    private OffsetDateTime procesadoEl;
+
+    @PrePersist
+    protected void onCreate() {
+        creadoEl = OffsetDateTime.now();
+        if (proximoIntentoEl == null) {
+            proximoIntentoEl = creadoEl;
+        }
+    }
+
+    /**
+     * Marca el evento como reclamado por un despachador hasta que venza el lease
+     */
+    public void marcarEnProceso(OffsetDateTime leaseHasta) {
+        this.estado = EstadoEventoOutbox.EN_PROCESO;
+        this.proximoIntentoEl = leaseHasta;
+    }
+
+    /**
+     * Marca el evento como despachado exitosamente
+     */
+    public void marcarComoProcesado() {
+        this.estado = EstadoEventoOutbox.PROCESADO;
+        this.procesadoEl = OffsetDateTime.now();
+        this.ultimoError = null;
+    }
+
+    /**
+     * Registra un intento fallido: reprograma el evento o lo deja en dead letter
+     *
+     * @param error Descripción del error
+     * @param proximoIntento Momento del siguiente reintento, o null si no quedan reintentos
+     */
+    public void registrarFallo(String error, OffsetDateTime proximoIntento) {
+        this.intentos = (intentos == null ? 0 : intentos) + 1;
+        this.ultimoError = error;
+        if (proximoIntento == null) {
+            this.estado = EstadoEventoOutbox.FALLIDO;
+        } else {
+            this.estado = EstadoEventoOutbox.PENDIENTE;
+            this.proximoIntentoEl = proximoIntento;
+        }
+    }
+}
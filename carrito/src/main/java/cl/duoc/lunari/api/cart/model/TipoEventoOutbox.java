@@ -0,0 +1,17 @@
+package cl.duoc.lunari.api.cart.model;
+
+/**
+ * Tipos de eventos del outbox (acciones posteriores a un pago aprobado)
+ */
+public enum TipoEventoOutbox {
+
+    /**
+     * Reducir en inventario el stock de los items del pedido
+     */
+    REDUCIR_STOCK,
+
+    /**
+     * Otorgar al usuario los puntos ganados con el pedido
+     */
+    OTORGAR_PUNTOS
+}
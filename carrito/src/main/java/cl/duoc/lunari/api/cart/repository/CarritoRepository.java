@@ -2,11 +2,14 @@ package cl.duoc.lunari.api.cart.repository;
 
 import cl.duoc.lunari.api.cart.model.Carrito;
 import cl.duoc.lunari.api.cart.model.EstadoCarrito;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +21,24 @@ public interface CarritoRepository extends JpaRepository<Carrito, UUID> {
     Optional<Carrito> findByUsuarioIdAndEstado(UUID usuarioId, EstadoCarrito estado);
     
     List<Carrito> findByUsuarioId(UUID usuarioId);
+
+    /**
+     * Primera página de carritos de un usuario (orden estable por fecha de creación e ID)
+     */
+    @Query("SELECT c FROM Carrito c WHERE c.usuarioId = :usuarioId ORDER BY c.creadoEl DESC, c.id DESC")
+    List<Carrito> findPaginaByUsuarioId(@Param("usuarioId") UUID usuarioId, Pageable pageable);
+
+    /**
+     * Página siguiente por keyset: carritos anteriores al último de la página previa
+     */
+    @Query("SELECT c FROM Carrito c WHERE c.usuarioId = :usuarioId " +
+           "AND (c.creadoEl < :creadoEl OR (c.creadoEl = :creadoEl AND c.id < :id)) " +
+           "ORDER BY c.creadoEl DESC, c.id DESC")
+    List<Carrito> findPaginaByUsuarioIdAntesDe(
+            @Param("usuarioId") UUID usuarioId,
+            @Param("creadoEl") OffsetDateTime creadoEl,
+            @Param("id") UUID id,
+            Pageable pageable);
     
     List<Carrito> findByEstado(EstadoCarrito estado);
     
@@ -31,4 +52,39 @@ public interface CarritoRepository extends JpaRepository<Carrito, UUID> {
     List<Carrito> findByCreadoElBetween(OffsetDateTime fechaInicio, OffsetDateTime fechaFin);
     
     boolean existsByUsuarioIdAndEstado(UUID usuarioId, EstadoCarrito estado);
+
+    /**
+     * Aplica la diferencia de un item mutado al total estimado en un solo UPDATE atómico,
+     * sin leer el carrito ni re-agregar sus items (mutaciones concurrentes no se pisan)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Carrito c SET c.totalEstimado = COALESCE(c.totalEstimado, 0) + :delta, c.actualizadoEl = :ahora " +
+           "WHERE c.id = :carritoId")
+    int incrementarTotalEstimado(@Param("carritoId") UUID carritoId,
+                                 @Param("delta") BigDecimal delta,
+                                 @Param("ahora") OffsetDateTime ahora);
+
+    /**
+     * Recalcula el total estimado desde los items y servicios adicionales (verificación completa)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Carrito c SET c.totalEstimado = " +
+           "COALESCE((SELECT SUM(ci.subtotal) FROM CarritoItem ci WHERE ci.carrito.id = c.id), 0) + " +
+           "COALESCE((SELECT SUM(csa.precioAdicional) FROM CarritoServicioAdicional csa WHERE csa.carritoItem.carrito.id = c.id), 0) " +
+           "WHERE c.id = :carritoId")
+    int recalcularTotalEstimado(@Param("carritoId") UUID carritoId);
+
+    /**
+     * Corrige los carritos en un estado cuyo total incremental se desvió del recalculado
+     *
+     * @return Cantidad de carritos corregidos (0 si los totales incrementales son consistentes)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Carrito c SET c.totalEstimado = " +
+           "COALESCE((SELECT SUM(ci.subtotal) FROM CarritoItem ci WHERE ci.carrito.id = c.id), 0) + " +
+           "COALESCE((SELECT SUM(csa.precioAdicional) FROM CarritoServicioAdicional csa WHERE csa.carritoItem.carrito.id = c.id), 0) " +
+           "WHERE c.estado = :estado AND COALESCE(c.totalEstimado, -1) <> " +
+           "COALESCE((SELECT SUM(ci.subtotal) FROM CarritoItem ci WHERE ci.carrito.id = c.id), 0) + " +
+           "COALESCE((SELECT SUM(csa.precioAdicional) FROM CarritoServicioAdicional csa WHERE csa.carritoItem.carrito.id = c.id), 0)")
+    int corregirTotalesDesviados(@Param("estado") EstadoCarrito estado);
 }
\ No newline at end of file
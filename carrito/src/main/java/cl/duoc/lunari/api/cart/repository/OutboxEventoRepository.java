@@ -0,0 +1,75 @@
+package cl.duoc.lunari.api.cart.repository;
+
+import cl.duoc.lunari.api.cart.model.EstadoEventoOutbox;
+import cl.duoc.lunari.api.cart.model.EstadoPedido;
+import cl.duoc.lunari.api.cart.model.OutboxEvento;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio para la entidad OutboxEvento
+ * Proporciona métodos de acceso a datos para el outbox de acciones post-pago
+ */
+@Repository
+public interface OutboxEventoRepository extends JpaRepository<OutboxEvento, UUID> {
+
+    /**
+     * Bloquea un lote de eventos listos para despachar (pendientes o con lease vencido)
+     * Usa FOR UPDATE SKIP LOCKED: varias instancias pueden despachar en paralelo
+     * sin reclamar los mismos eventos
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvento e WHERE e.estado IN :estados AND e.proximoIntentoEl <= :ahora " +
+            "ORDER BY e.proximoIntentoEl")
+    List<OutboxEvento> findEventosParaDespachar(
+            @Param("estados") Collection<EstadoEventoOutbox> estados,
+            @Param("ahora") OffsetDateTime ahora,
+            Pageable pageable
+    );
+
+    /**
+     * Verifica si ya existe un evento con la clave de idempotencia
+     */
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Cuenta los eventos de un pedido que aún no están en el estado indicado
+     */
+    long countByPedidoIdAndEstadoNot(UUID pedidoId, EstadoEventoOutbox estado);
+
+    /**
+     * Pedidos en los estados indicados cuyos eventos de outbox están todos en el estado dado
+     * Usado por la reconciliación para completar pedidos que quedaron sin marcar
+     */
+    @Query("SELECT DISTINCT e.pedidoId FROM OutboxEvento e, Pedido p WHERE p.id = e.pedidoId " +
+            "AND p.estadoPedido IN :estadosPedido " +
+            "AND NOT EXISTS (SELECT 1 FROM OutboxEvento o WHERE o.pedidoId = e.pedidoId AND o.estado <> :estado)")
+    List<UUID> findPedidosConTodosLosEventosEn(
+            @Param("estadosPedido") Collection<EstadoPedido> estadosPedido,
+            @Param("estado") EstadoEventoOutbox estado,
+            Pageable pageable
+    );
+
+    /**
+     * Cuenta eventos por estado
+     */
+    long countByEstado(EstadoEventoOutbox estado);
+
+    /**
+     * Encuentra eventos por estado (ej. FALLIDO para revisión manual)
+     */
+    List<OutboxEvento> findByEstadoOrderByCreadoElAsc(EstadoEventoOutbox estado);
+}
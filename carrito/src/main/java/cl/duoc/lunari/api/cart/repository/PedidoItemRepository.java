@@ -1,11 +1,13 @@
 package cl.duoc.lunari.api.cart.repository;
 
+import cl.duoc.lunari.api.cart.model.EstadoPedido;
 import cl.duoc.lunari.api.cart.model.PedidoItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -39,16 +41,27 @@ public interface PedidoItemRepository extends JpaRepository<PedidoItem, UUID> {
 
     /**
      * Suma la cantidad total de un producto vendido
+     * Recorre todo el historial del producto; para rankings usar RankingVentasService
      */
     @Query("SELECT COALESCE(SUM(pi.cantidad), 0) FROM PedidoItem pi WHERE pi.productoId = :productoId")
     Long sumCantidadByProductoId(@Param("productoId") Long productoId);
 
     /**
      * Encuentra los productos más vendidos
+     * Agrega todo pedido_item en cada llamada; para rankings usar RankingVentasService
      */
     @Query("SELECT pi.productoId, SUM(pi.cantidad) as total " +
            "FROM PedidoItem pi " +
            "GROUP BY pi.productoId " +
            "ORDER BY total DESC")
     List<Object[]> findProductosMasVendidos();
-}
+
+    /**
+     * Ventas de los pedidos en un estado completados desde una fecha, una fila por item:
+     * (pedidoId, completadoEl, productoId, cantidad). Base de la reconstrucción del ranking
+     */
+    @Query("SELECT p.id, p.completadoEl, pi.productoId, pi.cantidad " +
+           "FROM PedidoItem pi JOIN pi.pedido p " +
+           "WHERE p.estadoPedido = :estado AND p.completadoEl >= :desde")
+    List<Object[]> findVentasDesde(@Param("estado") EstadoPedido estado, @Param("desde") OffsetDateTime desde);
+}
\ No newline at end of file
@@ -2,12 +2,17 @@ package cl.duoc.lunari.api.cart.repository;
 
 import cl.duoc.lunari.api.cart.model.EstadoPedido;
 import cl.duoc.lunari.api.cart.model.Pedido;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +24,14 @@ import java.util.UUID;
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, UUID> {
 
+    /**
+     * Carga un pedido bloqueando su fila (SELECT ... FOR UPDATE) hasta el fin de la transacción
+     * Serializa a quienes deciden sobre el mismo pedido, p. ej. los eventos de outbox que terminan en paralelo
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Pedido p WHERE p.id = :id")
+    Optional<Pedido> findByIdForUpdate(@Param("id") UUID id);
+
     /**
      * Encuentra un pedido por su número de pedido
      */
@@ -34,6 +47,70 @@ public interface PedidoRepository extends JpaRepository<Pedido, UUID> {
      */
     List<Pedido> findByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(UUID usuarioId, EstadoPedido estadoPedido);
 
+    /**
+     * Encuentra todos los pedidos de un usuario con items y pago en una sola consulta
+     */
+    @EntityGraph(attributePaths = {"items", "pago"})
+    List<Pedido> findWithItemsAndPagoByUsuarioIdOrderByCreadoElDesc(UUID usuarioId);
+
+    /**
+     * Encuentra pedidos de un usuario por estado con items y pago en una sola consulta
+     */
+    @EntityGraph(attributePaths = {"items", "pago"})
+    List<Pedido> findWithItemsAndPagoByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(UUID usuarioId, EstadoPedido estadoPedido);
+
+    /**
+     * Primera página del historial de un usuario (solo IDs, orden estable por fecha e ID)
+     * La paginación se hace sobre IDs para no paginar en memoria un fetch join de colección
+     */
+    @Query("SELECT p.id FROM Pedido p WHERE p.usuarioId = :usuarioId ORDER BY p.creadoEl DESC, p.id DESC")
+    List<UUID> findHistorialIds(@Param("usuarioId") UUID usuarioId, Pageable pageable);
+
+    /**
+     * Página siguiente del historial por keyset: pedidos anteriores al último de la página previa
+     */
+    @Query("SELECT p.id FROM Pedido p WHERE p.usuarioId = :usuarioId " +
+           "AND (p.creadoEl < :creadoEl OR (p.creadoEl = :creadoEl AND p.id < :id)) " +
+           "ORDER BY p.creadoEl DESC, p.id DESC")
+    List<UUID> findHistorialIdsAntesDe(
+            @Param("usuarioId") UUID usuarioId,
+            @Param("creadoEl") OffsetDateTime creadoEl,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
+
+    /**
+     * Primera página del historial de un usuario filtrado por estado (solo IDs)
+     */
+    @Query("SELECT p.id FROM Pedido p WHERE p.usuarioId = :usuarioId AND p.estadoPedido = :estado " +
+           "ORDER BY p.creadoEl DESC, p.id DESC")
+    List<UUID> findHistorialIdsPorEstado(
+            @Param("usuarioId") UUID usuarioId,
+            @Param("estado") EstadoPedido estado,
+            Pageable pageable
+    );
+
+    /**
+     * Página siguiente del historial filtrado por estado (keyset)
+     */
+    @Query("SELECT p.id FROM Pedido p WHERE p.usuarioId = :usuarioId AND p.estadoPedido = :estado " +
+           "AND (p.creadoEl < :creadoEl OR (p.creadoEl = :creadoEl AND p.id < :id)) " +
+           "ORDER BY p.creadoEl DESC, p.id DESC")
+    List<UUID> findHistorialIdsPorEstadoAntesDe(
+            @Param("usuarioId") UUID usuarioId,
+            @Param("estado") EstadoPedido estado,
+            @Param("creadoEl") OffsetDateTime creadoEl,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
+
+    /**
+     * Carga una página de pedidos con items y pago mediante fetch join
+     */
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.items LEFT JOIN FETCH p.pago " +
+           "WHERE p.id IN :ids ORDER BY p.creadoEl DESC, p.id DESC")
+    List<Pedido> findWithItemsAndPagoByIdIn(@Param("ids") Collection<UUID> ids);
+
     /**
      * Encuentra pedidos por estado
      */
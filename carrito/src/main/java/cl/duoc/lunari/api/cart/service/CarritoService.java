@@ -12,6 +12,8 @@ import cl.duoc.lunari.api.cart.service.client.UsuarioServiceClient;
 import cl.duoc.lunari.api.cart.service.client.InventarioServiceClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -91,9 +93,13 @@ public class CarritoService {
         // Verificar si el item ya existe en el carrito
         Optional<CarritoItem> itemExistente = carritoItemRepository
                 .findByCarritoIdAndServicioId(carritoId, servicioId);        CarritoItem item;
+        BigDecimal subtotalAnterior = BigDecimal.ZERO;
         if (itemExistente.isPresent()) {
             // Actualizar cantidad del item existente
             item = itemExistente.get();
+            if (item.getSubtotal() != null) {
+                subtotalAnterior = item.getSubtotal();
+            }
             item.setCantidad(item.getCantidad() + cantidad);
             item.setPersonalizaciones(personalizaciones);
             // Asegurar que el precio unitario no sea null
@@ -119,7 +125,7 @@ public class CarritoService {
         item = carritoItemRepository.save(item);
         
         // Actualizar total del carrito
-        actualizarTotalCarrito(carritoId);
+        actualizarTotalCarrito(carritoId, subtotal.subtract(subtotalAnterior));
         
         return item;
     }
@@ -139,17 +145,19 @@ public class CarritoService {
 
         if (nuevaCantidad <= 0) {
             // Eliminar item si la cantidad es 0 o menor
+            BigDecimal totalItem = calcularTotalItem(item);
             carritoItemRepository.delete(item);
-            actualizarTotalCarrito(item.getCarrito().getId());
+            actualizarTotalCarrito(item.getCarrito().getId(), totalItem.negate());
             return null;
         }
 
+        BigDecimal subtotalAnterior = item.getSubtotal() != null ? item.getSubtotal() : BigDecimal.ZERO;
         item.setCantidad(nuevaCantidad);
         BigDecimal subtotal = item.getPrecioUnitario().multiply(BigDecimal.valueOf(nuevaCantidad));
         item.setSubtotal(subtotal);
 
         item = carritoItemRepository.save(item);
-        actualizarTotalCarrito(item.getCarrito().getId());
+        actualizarTotalCarrito(item.getCarrito().getId(), subtotal.subtract(subtotalAnterior));
         
         return item;
     }
@@ -188,7 +196,7 @@ public class CarritoService {
         servicioAdicional = carritoServicioAdicionalRepository.save(servicioAdicional);
         
         // Actualizar total del carrito
-        actualizarTotalCarrito(item.getCarrito().getId());
+        actualizarTotalCarrito(item.getCarrito().getId(), servicioAdicional.getPrecioAdicional());
         
         return servicioAdicional;
     }
@@ -203,8 +211,9 @@ public class CarritoService {
                 .orElseThrow(() -> new RuntimeException("Item no encontrado: " + itemId));
 
         UUID carritoId = item.getCarrito().getId();
+        BigDecimal totalItem = calcularTotalItem(item);
         carritoItemRepository.delete(item);
-        actualizarTotalCarrito(carritoId);
+        actualizarTotalCarrito(carritoId, totalItem.negate());
     }
 
     /**
@@ -219,30 +228,60 @@ public class CarritoService {
 
         UUID carritoId = servicioAdicional.getCarritoItem().getCarrito().getId();
         carritoServicioAdicionalRepository.delete(servicioAdicional);
-        actualizarTotalCarrito(carritoId);
+        actualizarTotalCarrito(carritoId, servicioAdicional.getPrecioAdicional().negate());
     }
 
     /**
-     * Actualiza el total estimado del carrito
+     * Actualiza el total estimado del carrito con la diferencia del item mutado
+     * Un solo UPDATE atómico en lugar de re-agregar items y servicios adicionales
      */
-    private void actualizarTotalCarrito(UUID carritoId) {
-        log.debug("Actualizando total del carrito: {}", carritoId);
+    private void actualizarTotalCarrito(UUID carritoId, BigDecimal delta) {
+        if (delta == null || delta.signum() == 0) {
+            return;
+        }
+        log.debug("Actualizando total del carrito: {} (delta {})", carritoId, delta);
+        carritoRepository.incrementarTotalEstimado(carritoId, delta, OffsetDateTime.now());
+    }
 
-        // Calcular subtotal de items
-        BigDecimal subtotalItems = carritoItemRepository.calculateSubtotalByCarritoId(carritoId);
-        if (subtotalItems == null) subtotalItems = BigDecimal.ZERO;
+    /**
+     * Aporte de un item al total: su subtotal más sus servicios adicionales
+     */
+    private BigDecimal calcularTotalItem(CarritoItem item) {
+        BigDecimal total = item.getSubtotal() != null ? item.getSubtotal() : BigDecimal.ZERO;
+        if (item.getServiciosAdicionales() != null) {
+            for (CarritoServicioAdicional servicioAdicional : item.getServiciosAdicionales()) {
+                total = total.add(servicioAdicional.getPrecioAdicional());
+            }
+        }
+        return total;
+    }
 
-        // Calcular total de servicios adicionales
-        BigDecimal totalServiciosAdicionales = carritoServicioAdicionalRepository
-                .calculateTotalServiciosAdicionalesByCarritoId(carritoId);
-        if (totalServiciosAdicionales == null) totalServiciosAdicionales = BigDecimal.ZERO;
+    /**
+     * Recalcula el total estimado de un carrito desde sus items (verificación bajo demanda)
+     */
+    public Carrito recalcularTotalCarrito(UUID carritoId) {
+        log.info("Recalculando total del carrito: {}", carritoId);
 
-        BigDecimal totalEstimado = subtotalItems.add(totalServiciosAdicionales);
+        if (carritoRepository.recalcularTotalEstimado(carritoId) == 0) {
+            throw new CarritoNotFoundException(carritoId);
+        }
+        return obtenerCarritoPorId(carritoId);
+    }
 
-        carritoRepository.findById(carritoId).ifPresent(carrito -> {
-            carrito.setTotalEstimado(totalEstimado);
-            carritoRepository.save(carrito);
-        });
+    /**
+     * Verificación periódica de los totales incrementales de carritos activos
+     * Corrige y reporta los carritos cuyo total se desvió del recalculado
+     */
+    @Scheduled(fixedDelayString = "${lunari.carrito.verificacion-totales.intervalo:1h}",
+               initialDelayString = "${lunari.carrito.verificacion-totales.intervalo:1h}")
+    public int verificarTotalesCarritos() {
+        int corregidos = carritoRepository.corregirTotalesDesviados(EstadoCarrito.ACTIVO);
+        if (corregidos > 0) {
+            log.warn("Verificación de totales: {} carritos activos tenían un total desviado y fueron corregidos", corregidos);
+        } else {
+            log.debug("Verificación de totales: sin desviaciones");
+        }
+        return corregidos;
     }
 
     /**
@@ -263,6 +302,20 @@ public class CarritoService {
         return carritoRepository.findByUsuarioId(usuarioId);
     }
 
+    /**
+     * Obtiene una página de carritos de un usuario por keyset (más recientes primero)
+     * antesDeCreadoEl/antesDeId son las claves del último carrito de la página anterior (null para la primera)
+     */
+    @Transactional(readOnly = true)
+    public List<Carrito> obtenerCarritosPorUsuario(UUID usuarioId, OffsetDateTime antesDeCreadoEl,
+                                                   UUID antesDeId, int limit) {
+        if (antesDeCreadoEl == null || antesDeId == null) {
+            return carritoRepository.findPaginaByUsuarioId(usuarioId, PageRequest.of(0, limit));
+        }
+        return carritoRepository.findPaginaByUsuarioIdAntesDe(usuarioId, antesDeCreadoEl, antesDeId,
+                PageRequest.of(0, limit));
+    }
+
     /**
      * Procesa un carrito (cambia estado a PROCESADO)
      */
@@ -21,7 +21,8 @@ public interface CheckoutService {
 
     /**
      * Confirma el pago y completa el checkout
-     * Procesa el pago, actualiza stock, asigna puntos
+     * Procesa el pago y, si fue aprobado, deja registradas en el outbox
+     * la reducción de stock y la asignación de puntos
      *
      * @param token Token de Transbank
      * @return Pedido completado
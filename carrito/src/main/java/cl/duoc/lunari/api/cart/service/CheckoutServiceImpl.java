@@ -9,7 +9,6 @@ import cl.duoc.lunari.api.cart.model.Pedido;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,22 +25,16 @@ public class CheckoutServiceImpl implements CheckoutService {
     private final CarritoService carritoService;
     private final OrderService orderService;
     private final PaymentService paymentService;
-    private final StockReductionJob stockReductionJob;
-    private final PointsAwardJob pointsAwardJob;
 
     @Autowired
     public CheckoutServiceImpl(
             CarritoService carritoService,
             OrderService orderService,
-            PaymentService paymentService,
-            StockReductionJob stockReductionJob,
-            PointsAwardJob pointsAwardJob
+            PaymentService paymentService
     ) {
         this.carritoService = carritoService;
         this.orderService = orderService;
         this.paymentService = paymentService;
-        this.stockReductionJob = stockReductionJob;
-        this.pointsAwardJob = pointsAwardJob;
     }
 
     @Override
@@ -76,45 +69,16 @@ public class CheckoutServiceImpl implements CheckoutService {
         logger.info("Confirmando checkout con token: {}", token);
 
         // 1. Confirmar pago (esto actualiza el estado del pago y pedido)
+        // Si fue aprobado, la reducción de stock y la asignación de puntos quedan registradas
+        // en el outbox dentro de la misma transacción; OutboxDispatcher las despacha y
+        // marca el pedido como COMPLETADO cuando ambas terminan
         Pago pago = paymentService.confirmPayment(token);
 
-        // 2. Si el pago fue aprobado, procesar acciones posteriores
         if (pago.estaAprobado()) {
-            logger.info("Pago aprobado - Iniciando procesamiento posterior");
-
-            // Aquí llamaremos a los jobs de forma asíncrona
-            // Los jobs se encargarán de reducir stock y asignar puntos
-            processPostPaymentActions(pago.getPedido());
+            logger.info("Pago aprobado - Acciones post-pago registradas para pedido: {}",
+                    pago.getPedido().getNumeroPedido());
         }
 
         return pago.getPedido();
     }
-
-    /**
-     * Procesa acciones posteriores al pago aprobado de forma asíncrona
-     */
-    @Async("taskExecutor")
-    public void processPostPaymentActions(Pedido pedido) {
-        logger.info("Procesando acciones post-pago para pedido: {}", pedido.getNumeroPedido());
-
-        try {
-            // 1. Reducir stock en inventario (async)
-            stockReductionJob.execute(pedido);
-
-            // 2. Asignar puntos al usuario (async)
-            pointsAwardJob.execute(pedido);
-
-            // 3. Marcar pedido como COMPLETADO
-            // Nota: Esto se hace de forma optimista. Si los jobs fallan, quedan registrados
-            // en los logs para reconciliación manual
-            orderService.markOrderComplete(pedido.getId(), pedido.getTotalPuntosGanados());
-
-            logger.info("Acciones post-pago completadas para pedido: {}", pedido.getNumeroPedido());
-
-        } catch (Exception e) {
-            logger.error("Error en acciones post-pago para pedido: {}", pedido.getNumeroPedido(), e);
-            // En caso de error, el pedido queda en estado PAGO_COMPLETADO
-            // Los jobs de reconciliación pueden procesarlo posteriormente
-        }
-    }
 }
@@ -0,0 +1,109 @@
+package cl.duoc.lunari.api.cart.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generador de números de pedido por nodo y tiempo (estilo snowflake), sin acceso a base de datos
+ * Identificador de 63 bits: 41 bits de milisegundos desde 2025-01-01, 10 bits de nodo
+ * (lunari.order-number.node-id, único por réplica) y 12 bits de secuencia por milisegundo.
+ * Si el reloj retrocede se sigue avanzando sobre el último instante emitido en vez de repetir
+ */
+@Component
+@ConditionalOnProperty(name = "lunari.order-number.strategy", havingValue = "node-time")
+public class NodeTimeOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeTimeOrderNumberGenerator.class);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    // Último estado emitido: (milisegundos desde EPOCH << SEQUENCE_BITS) | secuencia
+    private final AtomicLong ultimo = new AtomicLong();
+
+    @Autowired
+    public NodeTimeOrderNumberGenerator(@Value("${lunari.order-number.node-id:-1}") long nodeId) {
+        this(nodeId >= 0 ? nodeId : derivarNodeId(), System::currentTimeMillis);
+    }
+
+    NodeTimeOrderNumberGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("lunari.order-number.node-id debe estar entre 0 y " + MAX_NODE);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        logger.info("Generador de números de pedido por nodo y tiempo - Nodo: {}", nodeId);
+    }
+
+    @Override
+    public String next() {
+        long id = nextId();
+        long millis = (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+        String datePart = LocalDate.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).format(DATE_FORMAT);
+
+        String orderNumber = PREFIJO + datePart + "-" + Long.toString(id, 36).toUpperCase();
+        logger.debug("Número de pedido generado: {}", orderNumber);
+        return orderNumber;
+    }
+
+    /**
+     * Reserva el siguiente (instante, secuencia) con CAS, sin locks
+     * Al agotar la secuencia de un milisegundo se toma prestado el siguiente
+     */
+    long nextId() {
+        long actual;
+        long nuevo;
+        do {
+            actual = ultimo.get();
+            long ahora = clock.getAsLong() - EPOCH;
+            long instante = actual >>> SEQUENCE_BITS;
+            if (ahora > instante) {
+                nuevo = ahora << SEQUENCE_BITS;
+            } else {
+                // Mismo milisegundo o reloj atrasado: la secuencia desborda al siguiente instante
+                nuevo = actual + 1;
+            }
+        } while (!ultimo.compareAndSet(actual, nuevo));
+
+        long instante = nuevo >>> SEQUENCE_BITS;
+        long secuencia = nuevo & MAX_SEQUENCE;
+        return (instante << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | secuencia;
+    }
+
+    /**
+     * Sin node-id configurado se deriva del hostname (p. ej. el nombre del pod).
+     * Dos réplicas pueden colisionar en el hash, por eso en producción debe fijarse explícitamente
+     */
+    private static long derivarNodeId() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "localhost";
+            }
+        }
+        long nodeId = Math.floorMod(host.hashCode(), MAX_NODE + 1);
+        logger.warn("lunari.order-number.node-id no configurado, derivado del hostname {}: {}", host, nodeId);
+        return nodeId;
+    }
+}
@@ -0,0 +1,22 @@
+package cl.duoc.lunari.api.cart.service;
+
+/**
+ * Estrategia de generación de números de pedido
+ * Las implementaciones deben ser seguras entre hilos y entre réplicas de carrito
+ * sin coordinarse mediante un lock compartido (lunari.order-number.strategy)
+ */
+public interface OrderNumberGenerator {
+
+    String PREFIJO = "ORD-";
+
+    /**
+     * Genera el siguiente número de pedido
+     *
+     * ORD-YYYYMMDD-<sufijo>: 8 dígitos de la secuencia (sequence) o el id en base 36, hasta
+     * 13 caracteres (node-time). Sin el prefijo ORD- debe caber en el buy_order de Transbank
+     * (ver PaymentServiceImpl.buyOrder)
+     *
+     * @return Número de pedido, único entre réplicas
+     */
+    String next();
+}
@@ -4,6 +4,7 @@ import cl.duoc.lunari.api.cart.model.Carrito;
 import cl.duoc.lunari.api.cart.model.EstadoPedido;
 import cl.duoc.lunari.api.cart.model.Pedido;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -45,6 +46,18 @@ public interface OrderService {
      */
     List<Pedido> getOrdersByUsuario(UUID usuarioId);
 
+    /**
+     * Obtiene una página del historial de pedidos de un usuario (keyset), con items y pago
+     *
+     * @param usuarioId ID del usuario
+     * @param estado Estado del pedido (null para todos)
+     * @param antesDeCreadoEl Fecha de creación del último pedido de la página anterior (null para la primera)
+     * @param antesDeId ID del último pedido de la página anterior (null para la primera)
+     * @param limit Tamaño de la página
+     * @return Pedidos ordenados por fecha de creación descendente
+     */
+    List<Pedido> getOrderHistory(UUID usuarioId, EstadoPedido estado, OffsetDateTime antesDeCreadoEl, UUID antesDeId, int limit);
+
     /**
      * Obtiene pedidos de un usuario por estado
      *
@@ -81,9 +94,9 @@ public interface OrderService {
     Pedido cancelOrder(UUID orderId);
 
     /**
-     * Genera un número de pedido único
+     * Genera un número de pedido único entre réplicas
      *
-     * @return Número de pedido en formato ORD-YYYYMMDD-XXXXX
+     * @return Número de pedido en formato ORD-YYYYMMDD-<sufijo> (ver OrderNumberGenerator)
      */
     String generateOrderNumber();
 }
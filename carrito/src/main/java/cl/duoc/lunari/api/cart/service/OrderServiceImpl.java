@@ -8,15 +8,18 @@ import cl.duoc.lunari.api.cart.repository.PedidoRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementación del servicio de gestión de pedidos
@@ -26,13 +29,17 @@ import java.util.concurrent.atomic.AtomicLong;
 public class OrderServiceImpl implements OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
-    private static final AtomicLong orderCounter = new AtomicLong(1);
 
     private final PedidoRepository pedidoRepository;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public OrderServiceImpl(PedidoRepository pedidoRepository) {
+    public OrderServiceImpl(PedidoRepository pedidoRepository, OrderNumberGenerator orderNumberGenerator,
+                            ApplicationEventPublisher eventPublisher) {
         this.pedidoRepository = pedidoRepository;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -94,13 +101,36 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public List<Pedido> getOrdersByUsuario(UUID usuarioId) {
-        return pedidoRepository.findByUsuarioIdOrderByCreadoElDesc(usuarioId);
+        return pedidoRepository.findWithItemsAndPagoByUsuarioIdOrderByCreadoElDesc(usuarioId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Pedido> getOrderHistory(UUID usuarioId, EstadoPedido estado, OffsetDateTime antesDeCreadoEl,
+                                        UUID antesDeId, int limit) {
+        Pageable pagina = PageRequest.of(0, limit);
+        boolean primeraPagina = antesDeCreadoEl == null || antesDeId == null;
+        List<UUID> ids;
+        if (estado == null) {
+            ids = primeraPagina
+                    ? pedidoRepository.findHistorialIds(usuarioId, pagina)
+                    : pedidoRepository.findHistorialIdsAntesDe(usuarioId, antesDeCreadoEl, antesDeId, pagina);
+        } else {
+            ids = primeraPagina
+                    ? pedidoRepository.findHistorialIdsPorEstado(usuarioId, estado, pagina)
+                    : pedidoRepository.findHistorialIdsPorEstadoAntesDe(usuarioId, estado, antesDeCreadoEl, antesDeId, pagina);
+        }
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return pedidoRepository.findWithItemsAndPagoByIdIn(ids);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Pedido> getOrdersByUsuarioAndEstado(UUID usuarioId, EstadoPedido estado) {
-        return pedidoRepository.findByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(usuarioId, estado);
+        return pedidoRepository.findWithItemsAndPagoByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(usuarioId, estado);
     }
 
     @Override
@@ -131,7 +161,16 @@ public class OrderServiceImpl implements OrderService {
             pedido.setTotalPuntosGanados(puntosGanados);
         }
 
-        return pedidoRepository.save(pedido);
+        Pedido savedPedido = pedidoRepository.save(pedido);
+
+        // El ranking de más vendidos suma estas cantidades cuando la transacción confirma
+        Map<Long, Integer> cantidadesPorProducto = new HashMap<>();
+        for (PedidoItem item : pedido.getItems()) {
+            cantidadesPorProducto.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
+        }
+        eventPublisher.publishEvent(new PedidoCompletadoEvent(pedido.getId(), pedido.getCompletadoEl(), cantidadesPorProducto));
+
+        return savedPedido;
     }
 
     @Override
@@ -153,14 +192,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public String generateOrderNumber() {
-        // Formato: ORD-YYYYMMDD-XXXXX
-        String datePart = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long counter = orderCounter.getAndIncrement();
-        String counterPart = String.format("%05d", counter % 100000);
-
-        String orderNumber = "ORD-" + datePart + "-" + counterPart;
-        logger.debug("Número de pedido generado: {}", orderNumber);
-
-        return orderNumber;
+        // Formato: ORD-YYYYMMDD-<sufijo>, el sufijo lo define la estrategia configurada
+        return orderNumberGenerator.next();
     }
 }
@@ -0,0 +1,122 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.dto.AwardPointsRequest;
+import cl.duoc.lunari.api.cart.dto.StockReductionRequest;
+import cl.duoc.lunari.api.cart.model.OutboxEvento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Despachador del outbox de acciones post-pago
+ * Reclama lotes de eventos pendientes y los ejecuta en paralelo sobre el taskExecutor,
+ * independiente de los hilos que atienden requests. Puede deshabilitarse por instancia
+ * (lunari.outbox.dispatcher.enabled=false) para escalar el despacho por separado
+ */
+@Component
+@ConditionalOnProperty(name = "lunari.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxService outboxService;
+    private final StockReductionJob stockReductionJob;
+    private final PointsAwardJob pointsAwardJob;
+    private final Executor taskExecutor;
+
+    @Autowired
+    public OutboxDispatcher(
+            OutboxService outboxService,
+            StockReductionJob stockReductionJob,
+            PointsAwardJob pointsAwardJob,
+            @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        this.outboxService = outboxService;
+        this.stockReductionJob = stockReductionJob;
+        this.pointsAwardJob = pointsAwardJob;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Despacha lotes mientras haya eventos listos; un lote incompleto indica que el outbox quedó al día
+     */
+    @Scheduled(fixedDelayString = "${lunari.outbox.poll-interval:5s}",
+            initialDelayString = "${lunari.outbox.initial-delay:10s}")
+    public void despacharPendientes() {
+        List<OutboxEvento> lote;
+        do {
+            lote = outboxService.reclamarLote();
+            if (lote.isEmpty()) {
+                return;
+            }
+
+            logger.info("Despachando lote de {} eventos de outbox", lote.size());
+
+            CompletableFuture.allOf(lote.stream()
+                    .map(evento -> CompletableFuture.runAsync(() -> despachar(evento), taskExecutor))
+                    .toArray(CompletableFuture[]::new))
+                    .join();
+        } while (lote.size() >= outboxService.getBatchSize());
+    }
+
+    /**
+     * Reconciliación: completa los pedidos pagados cuyos eventos ya están todos procesados
+     * pero que no llegaron a marcarse (p. ej. los que dejó atascados la carrera entre eventos concurrentes)
+     */
+    @Scheduled(fixedDelayString = "${lunari.outbox.reconcile-interval:5m}",
+            initialDelayString = "${lunari.outbox.reconcile-interval:5m}")
+    public void reconciliarPedidos() {
+        List<UUID> pedidos = outboxService.buscarPedidosPorCompletar();
+        if (pedidos.isEmpty()) {
+            return;
+        }
+
+        logger.warn("Reconciliando {} pedidos con eventos de outbox procesados sin completar", pedidos.size());
+
+        for (UUID pedidoId : pedidos) {
+            try {
+                outboxService.completarSiProcesado(pedidoId);
+            } catch (Exception e) {
+                logger.error("No se pudo completar el pedido {} al reconciliar el outbox", pedidoId, e);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un evento y registra el resultado; nunca propaga excepciones
+     */
+    void despachar(OutboxEvento evento) {
+        try {
+            boolean exitoso = switch (evento.getTipo()) {
+                case REDUCIR_STOCK -> stockReductionJob.execute(
+                        outboxService.leerPayload(evento, StockReductionRequest.class));
+                case OTORGAR_PUNTOS -> pointsAwardJob.execute(
+                        outboxService.leerPayload(evento, AwardPointsRequest.class));
+            };
+
+            if (exitoso) {
+                outboxService.marcarProcesado(evento.getId());
+            } else {
+                outboxService.registrarFallo(evento.getId(), "El servicio destino rechazó la solicitud o no respondió");
+            }
+
+        } catch (Exception e) {
+            logger.error("Error al despachar evento de outbox {}", evento.getIdempotencyKey(), e);
+            try {
+                outboxService.registrarFallo(evento.getId(), e.getMessage());
+            } catch (Exception registroError) {
+                // El lease vencerá y el evento se reclamará de nuevo
+                logger.error("No se pudo registrar el fallo del evento {}", evento.getIdempotencyKey(), registroError);
+            }
+        }
+    }
+}
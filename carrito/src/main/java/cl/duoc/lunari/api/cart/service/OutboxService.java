@@ -0,0 +1,281 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.dto.AwardPointsRequest;
+import cl.duoc.lunari.api.cart.dto.StockReductionRequest;
+import cl.duoc.lunari.api.cart.model.EstadoEventoOutbox;
+import cl.duoc.lunari.api.cart.model.EstadoPedido;
+import cl.duoc.lunari.api.cart.model.OutboxEvento;
+import cl.duoc.lunari.api.cart.model.Pedido;
+import cl.duoc.lunari.api.cart.model.PedidoItem;
+import cl.duoc.lunari.api.cart.model.TipoEventoOutbox;
+import cl.duoc.lunari.api.cart.repository.OutboxEventoRepository;
+import cl.duoc.lunari.api.cart.repository.PedidoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Outbox transaccional para las acciones posteriores a un pago aprobado
+ * Los eventos se registran en la misma transacción que aprueba el pago, por lo que
+ * no se pierden si la instancia cae o el executor está saturado; OutboxDispatcher
+ * los despacha después con reintentos y backoff exponencial
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final List<EstadoEventoOutbox> ESTADOS_DESPACHABLES =
+            List.of(EstadoEventoOutbox.PENDIENTE, EstadoEventoOutbox.EN_PROCESO);
+
+    private static final List<EstadoPedido> ESTADOS_COMPLETABLES =
+            List.of(EstadoPedido.PAGO_COMPLETADO, EstadoPedido.PROCESANDO);
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final PedidoRepository pedidoRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${lunari.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${lunari.outbox.max-intentos:8}")
+    private int maxIntentos;
+
+    @Value("${lunari.outbox.backoff-inicial:10s}")
+    private Duration backoffInicial;
+
+    @Value("${lunari.outbox.backoff-maximo:30m}")
+    private Duration backoffMaximo;
+
+    @Value("${lunari.outbox.lease:5m}")
+    private Duration lease;
+
+    @Autowired
+    public OutboxService(
+            OutboxEventoRepository outboxEventoRepository,
+            PedidoRepository pedidoRepository,
+            OrderService orderService,
+            ObjectMapper objectMapper
+    ) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registra los eventos de reducción de stock y asignación de puntos de un pedido pagado
+     * Debe llamarse dentro de la transacción que marca el pago como aprobado
+     *
+     * @param pedido Pedido cuyo pago fue aprobado
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAccionesPostPago(Pedido pedido) {
+        String numeroPedido = pedido.getNumeroPedido();
+        int registrados = 0;
+
+        List<StockReductionRequest.StockItem> stockItems = new ArrayList<>();
+        for (PedidoItem item : pedido.getItems()) {
+            stockItems.add(new StockReductionRequest.StockItem(item.getProductoId(), item.getCantidad()));
+        }
+        if (!stockItems.isEmpty()) {
+            registrados += registrar(pedido, TipoEventoOutbox.REDUCIR_STOCK,
+                    new StockReductionRequest(stockItems, numeroPedido));
+        }
+
+        Integer puntos = pedido.getTotalPuntosGanados();
+        if (puntos != null && puntos > 0) {
+            registrados += registrar(pedido, TipoEventoOutbox.OTORGAR_PUNTOS,
+                    new AwardPointsRequest(pedido.getUsuarioId(), puntos, "Compra - Pedido: " + numeroPedido, numeroPedido));
+        }
+
+        if (registrados == 0 && outboxEventoRepository.countByPedidoIdAndEstadoNot(pedido.getId(), EstadoEventoOutbox.PROCESADO) == 0) {
+            // Sin acciones pendientes: el pedido puede completarse de inmediato
+            orderService.markOrderComplete(pedido.getId(), null);
+        }
+
+        logger.info("Registrados {} eventos de outbox para pedido: {}", registrados, numeroPedido);
+    }
+
+    /**
+     * Reclama un lote de eventos listos para despachar, marcándolos EN_PROCESO hasta que venza el lease
+     *
+     * @return Eventos reclamados (vacío si no hay trabajo pendiente)
+     */
+    @Transactional
+    public List<OutboxEvento> reclamarLote() {
+        OffsetDateTime ahora = OffsetDateTime.now();
+        List<OutboxEvento> eventos = outboxEventoRepository.findEventosParaDespachar(
+                ESTADOS_DESPACHABLES, ahora, PageRequest.of(0, batchSize));
+
+        OffsetDateTime leaseHasta = ahora.plus(lease);
+        for (OutboxEvento evento : eventos) {
+            evento.marcarEnProceso(leaseHasta);
+        }
+
+        return eventos;
+    }
+
+    /**
+     * Marca un evento como procesado y completa el pedido cuando ya no le quedan eventos pendientes
+     *
+     * Los eventos de un pedido se despachan en paralelo, cada uno en su propia transacción;
+     * bloquear la fila del pedido antes de contar hace que el último en confirmar vea
+     * los eventos ya procesados por los demás y sea quien complete el pedido
+     *
+     * @param eventoId ID del evento despachado
+     */
+    @Transactional
+    public void marcarProcesado(UUID eventoId) {
+        OutboxEvento evento = outboxEventoRepository.findById(eventoId).orElse(null);
+        if (evento == null) {
+            logger.warn("Evento de outbox no encontrado: {}", eventoId);
+            return;
+        }
+
+        pedidoRepository.findByIdForUpdate(evento.getPedidoId());
+
+        evento.marcarComoProcesado();
+        outboxEventoRepository.save(evento);
+
+        if (outboxEventoRepository.countByPedidoIdAndEstadoNot(evento.getPedidoId(), EstadoEventoOutbox.PROCESADO) == 0) {
+            completarPedido(evento.getPedidoId());
+        }
+    }
+
+    /**
+     * Pedidos pagados cuyos eventos ya están todos procesados pero que siguen sin completar
+     *
+     * @return IDs de pedidos a reconciliar (como máximo un lote)
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> buscarPedidosPorCompletar() {
+        return outboxEventoRepository.findPedidosConTodosLosEventosEn(
+                ESTADOS_COMPLETABLES, EstadoEventoOutbox.PROCESADO, PageRequest.of(0, batchSize));
+    }
+
+    /**
+     * Completa un pedido si todos sus eventos de outbox están procesados
+     * Toma el mismo bloqueo que marcarProcesado, por lo que es seguro frente a despachos en curso
+     *
+     * @param pedidoId ID del pedido
+     */
+    @Transactional
+    public void completarSiProcesado(UUID pedidoId) {
+        if (pedidoRepository.findByIdForUpdate(pedidoId).isEmpty()) {
+            logger.warn("Pedido no encontrado al reconciliar outbox: {}", pedidoId);
+            return;
+        }
+
+        if (outboxEventoRepository.countByPedidoIdAndEstadoNot(pedidoId, EstadoEventoOutbox.PROCESADO) == 0) {
+            completarPedido(pedidoId);
+        }
+    }
+
+    /**
+     * Registra un despacho fallido: reprograma el evento con backoff exponencial
+     * o lo deja en FALLIDO (dead letter) si se agotaron los reintentos
+     *
+     * @param eventoId ID del evento
+     * @param error Descripción del error
+     */
+    @Transactional
+    public void registrarFallo(UUID eventoId, String error) {
+        OutboxEvento evento = outboxEventoRepository.findById(eventoId).orElse(null);
+        if (evento == null) {
+            logger.warn("Evento de outbox no encontrado: {}", eventoId);
+            return;
+        }
+
+        int intento = (evento.getIntentos() == null ? 0 : evento.getIntentos()) + 1;
+        OffsetDateTime proximoIntento = intento >= maxIntentos ? null : OffsetDateTime.now().plus(calcularBackoff(intento));
+        evento.registrarFallo(error, proximoIntento);
+        outboxEventoRepository.save(evento);
+
+        if (evento.getEstado() == EstadoEventoOutbox.FALLIDO) {
+            logger.error("Evento {} ({}) enviado a dead letter tras {} intentos. Último error: {}",
+                    evento.getIdempotencyKey(), evento.getTipo(), intento, error);
+        } else {
+            logger.warn("Evento {} ({}) falló (intento {}/{}), reintento programado para {}",
+                    evento.getIdempotencyKey(), evento.getTipo(), intento, maxIntentos, proximoIntento);
+        }
+    }
+
+    /**
+     * Deserializa el payload de un evento
+     */
+    public <T> T leerPayload(OutboxEvento evento, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(evento.getPayload(), tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload inválido en evento " + evento.getIdempotencyKey(), e);
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Backoff exponencial (inicial * 2^(intento-1)) con tope y hasta 20% de jitter,
+     * para que los reintentos de una ráfaga de pagos no lleguen todos a la vez
+     */
+    Duration calcularBackoff(int intento) {
+        long baseMillis = backoffInicial.toMillis();
+        long maxMillis = backoffMaximo.toMillis();
+        long delay = intento >= 31 ? maxMillis : Math.min(maxMillis, baseMillis << (intento - 1));
+        long jitter = delay / 5 > 0 ? ThreadLocalRandom.current().nextLong(delay / 5) : 0;
+        return Duration.ofMillis(delay + jitter);
+    }
+
+    private int registrar(Pedido pedido, TipoEventoOutbox tipo, Object payload) {
+        String idempotencyKey = tipo.name() + ":" + pedido.getNumeroPedido();
+        if (outboxEventoRepository.existsByIdempotencyKey(idempotencyKey)) {
+            logger.info("Evento de outbox ya registrado: {}", idempotencyKey);
+            return 0;
+        }
+
+        OutboxEvento evento = new OutboxEvento();
+        evento.setTipo(tipo);
+        evento.setPedidoId(pedido.getId());
+        evento.setIdempotencyKey(idempotencyKey);
+        evento.setPayload(escribirPayload(payload));
+        outboxEventoRepository.save(evento);
+        return 1;
+    }
+
+    private String escribirPayload(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el payload del evento", e);
+        }
+    }
+
+    private void completarPedido(UUID pedidoId) {
+        Pedido pedido = orderService.getOrderById(pedidoId);
+        if (!ESTADOS_COMPLETABLES.contains(pedido.getEstadoPedido())) {
+            logger.info("Pedido {} en estado {}, no se marca como completado",
+                    pedido.getNumeroPedido(), pedido.getEstadoPedido());
+            return;
+        }
+
+        orderService.markOrderComplete(pedidoId, null);
+        logger.info("Acciones post-pago completadas para pedido: {}", pedido.getNumeroPedido());
+    }
+}
@@ -27,19 +27,40 @@ public class PaymentServiceImpl implements PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentServiceImpl.class);
 
+    // Largo máximo del buy_order en Webpay Plus
+    static final int BUY_ORDER_MAX_LENGTH = 26;
+
     private final PagoRepository pagoRepository;
     private final TransbankService transbankService;
     private final OrderService orderService;
+    private final OutboxService outboxService;
 
     @Autowired
     public PaymentServiceImpl(
             PagoRepository pagoRepository,
             TransbankService transbankService,
-            OrderService orderService
+            OrderService orderService,
+            OutboxService outboxService
     ) {
         this.pagoRepository = pagoRepository;
         this.transbankService = transbankService;
         this.orderService = orderService;
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * buy_order de Transbank a partir del número de pedido sin el prefijo ORD-
+     * BUY-YYYYMMDD-<sufijo> mide a lo más 26 caracteres con ambas estrategias de numeración
+     */
+    static String buyOrder(String numeroPedido) {
+        String sufijo = numeroPedido.startsWith(OrderNumberGenerator.PREFIJO)
+                ? numeroPedido.substring(OrderNumberGenerator.PREFIJO.length())
+                : numeroPedido;
+        String buyOrder = "BUY-" + sufijo;
+        if (buyOrder.length() > BUY_ORDER_MAX_LENGTH) {
+            throw new IllegalStateException("buy_order excede " + BUY_ORDER_MAX_LENGTH + " caracteres: " + buyOrder);
+        }
+        return buyOrder;
     }
 
     @Override
@@ -47,7 +68,7 @@ public class PaymentServiceImpl implements PaymentService {
         logger.info("Iniciando pago para pedido: {}", pedido.getNumeroPedido());
 
         // Generar IDs únicos para Transbank
-        String buyOrder = "BUY-" + pedido.getNumeroPedido();
+        String buyOrder = buyOrder(pedido.getNumeroPedido());
         String sessionId = "SES-" + pedido.getId().toString();
 
         // Crear transacción en Transbank
@@ -135,6 +156,9 @@ public class PaymentServiceImpl implements PaymentService {
         // Actualizar pedido
         orderService.updateOrderStatus(pago.getPedido().getId(), EstadoPedido.PAGO_COMPLETADO);
 
+        // Registrar reducción de stock y puntos en el outbox, en esta misma transacción
+        outboxService.registrarAccionesPostPago(pago.getPedido());
+
         logger.info("Pago aprobado procesado exitosamente");
     }
 
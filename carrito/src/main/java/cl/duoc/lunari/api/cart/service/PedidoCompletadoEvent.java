@@ -0,0 +1,18 @@
+package cl.duoc.lunari.api.cart.service;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Evento publicado al completar un pedido, con las cantidades vendidas por producto
+ * Se captura dentro de la transacción para que los listeners posteriores al commit
+ * no dependan de la sesión de Hibernate
+ *
+ * @param pedidoId ID del pedido completado
+ * @param completadoEl Momento en que se completó
+ * @param cantidadesPorProducto Cantidad vendida por ID de producto
+ */
+public record PedidoCompletadoEvent(UUID pedidoId, OffsetDateTime completadoEl,
+                                    Map<Long, Integer> cantidadesPorProducto) {
+}
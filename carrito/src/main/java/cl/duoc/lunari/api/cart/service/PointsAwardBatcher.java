@@ -0,0 +1,141 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.dto.AwardPointsRequest;
+import cl.duoc.lunari.api.cart.service.client.UsuarioServiceClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agrupa asignaciones de puntos concurrentes en una sola llamada al endpoint de lote de usuario
+ * La primera asignación abre una ventana corta; todas las que llegan durante la ventana
+ * (o hasta completar max-size) se envían juntas y cada llamador recibe su propio resultado
+ */
+@Component
+public class PointsAwardBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointsAwardBatcher.class);
+
+    private final UsuarioServiceClient usuarioServiceClient;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "points-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private List<Pendiente> pendientes = new ArrayList<>();
+
+    private ScheduledFuture<?> envioProgramado;
+
+    @Value("${lunari.points-batch.window:200ms}")
+    private Duration window;
+
+    @Value("${lunari.points-batch.max-size:100}")
+    private int maxSize;
+
+    @Autowired
+    public PointsAwardBatcher(UsuarioServiceClient usuarioServiceClient) {
+        this.usuarioServiceClient = usuarioServiceClient;
+    }
+
+    /**
+     * Encola una asignación de puntos para el próximo lote
+     *
+     * @param request Asignación con referencia (número de pedido)
+     * @return Futuro que se completa con true si usuario aceptó la asignación
+     */
+    public CompletableFuture<Boolean> submit(AwardPointsRequest request) {
+        CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+        List<Pendiente> lote = null;
+
+        lock.lock();
+        try {
+            pendientes.add(new Pendiente(request, resultado));
+            if (pendientes.size() >= maxSize) {
+                lote = drenar();
+            } else if (envioProgramado == null) {
+                envioProgramado = scheduler.schedule(this::enviarPendientes, window.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (lote != null) {
+            List<Pendiente> loteCompleto = lote;
+            scheduler.execute(() -> enviar(loteCompleto));
+        }
+
+        return resultado;
+    }
+
+    void enviarPendientes() {
+        List<Pendiente> lote;
+        lock.lock();
+        try {
+            lote = drenar();
+        } finally {
+            lock.unlock();
+        }
+        enviar(lote);
+    }
+
+    private List<Pendiente> drenar() {
+        List<Pendiente> lote = pendientes;
+        pendientes = new ArrayList<>();
+        if (envioProgramado != null) {
+            envioProgramado.cancel(false);
+            envioProgramado = null;
+        }
+        return lote;
+    }
+
+    private void enviar(List<Pendiente> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<AwardPointsRequest> requests = new ArrayList<>(lote.size());
+            for (Pendiente pendiente : lote) {
+                requests.add(pendiente.request());
+            }
+
+            Set<String> aceptadas = usuarioServiceClient.awardPointsBulk(requests);
+
+            for (Pendiente pendiente : lote) {
+                pendiente.resultado().complete(aceptadas.contains(pendiente.request().getReferencia()));
+            }
+
+            logger.debug("Lote de puntos enviado: {} asignaciones, {} aceptadas", lote.size(), aceptadas.size());
+
+        } catch (Exception e) {
+            logger.error("Error al enviar lote de puntos ({} asignaciones)", lote.size(), e);
+            lote.forEach(pendiente -> pendiente.resultado().complete(false));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        enviarPendientes();
+        scheduler.shutdown();
+    }
+
+    private record Pendiente(AwardPointsRequest request, CompletableFuture<Boolean> resultado) {}
+}
@@ -1,16 +1,19 @@
 package cl.duoc.lunari.api.cart.service;
 
-import cl.duoc.lunari.api.cart.model.Pedido;
+import cl.duoc.lunari.api.cart.dto.AwardPointsRequest;
 import cl.duoc.lunari.api.cart.service.client.UsuarioServiceClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Job asíncrono para asignar puntos a usuarios
- * Se ejecuta después de un pago aprobado
+ * Job para asignar puntos a usuarios
+ * Lo ejecuta OutboxDispatcher para los eventos OTORGAR_PUNTOS de pagos aprobados
  */
 @Service
 public class PointsAwardJob {
@@ -18,55 +21,60 @@ public class PointsAwardJob {
     private static final Logger logger = LoggerFactory.getLogger(PointsAwardJob.class);
 
     private final UsuarioServiceClient usuarioServiceClient;
+    private final PointsAwardBatcher pointsAwardBatcher;
+
+    @Value("${lunari.points-batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${lunari.points-batch.wait-timeout:30s}")
+    private Duration batchWaitTimeout;
 
     @Autowired
-    public PointsAwardJob(UsuarioServiceClient usuarioServiceClient) {
+    public PointsAwardJob(UsuarioServiceClient usuarioServiceClient, PointsAwardBatcher pointsAwardBatcher) {
         this.usuarioServiceClient = usuarioServiceClient;
+        this.pointsAwardBatcher = pointsAwardBatcher;
     }
 
     /**
-     * Ejecuta la asignación de puntos para un pedido de forma asíncrona
-     * Utiliza best-effort: si falla, registra el error pero no bloquea el flujo
+     * Ejecuta la asignación de puntos de un pedido
+     * Con lunari.points-batch.enabled, la asignación se agrupa con las de otros pedidos
+     * despachados al mismo tiempo en una sola llamada a usuario
      *
-     * @param pedido Pedido que generó los puntos a asignar
+     * @param request Usuario, puntos y referencia (número de pedido)
+     * @return true si los puntos fueron otorgados; false para reintentar
      */
-    @Async("taskExecutor")
-    public void execute(Pedido pedido) {
-        logger.info("Iniciando asignación de puntos para pedido: {}", pedido.getNumeroPedido());
-
-        try {
-            // Obtener puntos calculados del pedido
-            Integer puntosAOtorgar = pedido.getTotalPuntosGanados();
+    public boolean execute(AwardPointsRequest request) {
+        logger.info("Iniciando asignación de puntos para pedido: {}", request.getReferencia());
 
-            if (puntosAOtorgar == null || puntosAOtorgar <= 0) {
-                logger.info("No hay puntos para otorgar en pedido: {}", pedido.getNumeroPedido());
-                return;
-            }
+        Integer puntosAOtorgar = request.getPuntos();
+        if (puntosAOtorgar == null || puntosAOtorgar <= 0) {
+            logger.info("No hay puntos para otorgar en pedido: {}", request.getReferencia());
+            return true;
+        }
 
-            // Llamar al servicio de usuario para otorgar puntos
-            boolean success = usuarioServiceClient.awardPoints(
-                    pedido.getUsuarioId(),
-                    puntosAOtorgar,
-                    pedido.getNumeroPedido()
-            );
+        boolean success = batchEnabled
+                ? awardInBatch(request)
+                : usuarioServiceClient.awardPoints(request.getUsuarioId(), puntosAOtorgar, request.getReferencia());
 
-            if (success) {
-                logger.info("Puntos otorgados exitosamente para pedido: {} - Puntos: {}",
-                        pedido.getNumeroPedido(), puntosAOtorgar);
-            } else {
-                logger.error("Falló la asignación de puntos para pedido: {}. " +
-                        "Se requiere reconciliación manual.", pedido.getNumeroPedido());
+        if (success) {
+            logger.info("Puntos otorgados exitosamente para pedido: {} - Puntos: {}",
+                    request.getReferencia(), puntosAOtorgar);
+        } else {
+            logger.warn("Falló la asignación de puntos para pedido: {}", request.getReferencia());
+        }
 
-                // TODO: Opcional - Marcar pedido para reconciliación manual
-                // TODO: Opcional - Enviar notificación a administradores o usuario
-            }
+        return success;
+    }
 
+    private boolean awardInBatch(AwardPointsRequest request) {
+        try {
+            return pointsAwardBatcher.submit(request).get(batchWaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
-            logger.error("Error inesperado en asignación de puntos para pedido: {}",
-                    pedido.getNumeroPedido(), e);
-
-            // TODO: Opcional - Registrar en tabla de fallos para retry posterior
-            // TODO: Opcional - Enviar alerta
+            logger.error("Error esperando el lote de puntos para pedido: {}", request.getReferencia(), e);
+            return false;
         }
     }
 
@@ -0,0 +1,266 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.model.EstadoPedido;
+import cl.duoc.lunari.api.cart.repository.PedidoItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ranking de productos más vendidos por ventana de tiempo (lunari.ranking.ventanas)
+ * Mantiene en memoria las cantidades vendidas por hora y producto: cada pedido completado
+ * suma sus items al confirmarse su transacción, y el ranking ordenado de cada ventana se
+ * recalcula solo cuando hubo ventas nuevas o cambió la hora, no en cada consulta.
+ * La reconstrucción periódica desde pedido_item corrige desvíos e incorpora las ventas
+ * completadas en otras réplicas
+ */
+@Service
+public class RankingVentasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingVentasService.class);
+
+    private static final long SEGUNDOS_POR_HORA = 3600;
+
+    private final PedidoItemRepository pedidoItemRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Se mantiene durante la consulta de reconstrucción; con synchronized esa espera
+    // fijaría el hilo portador de las peticiones virtuales que esperan el ranking
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+
+    @Value("${lunari.ranking.ventanas:24h,7d,30d}")
+    private List<Duration> ventanas;
+
+    private Clock clock = Clock.systemUTC();
+
+    private Acumulado acumulado = new Acumulado();
+
+    // Eventos recibidos mientras se lee pedido_item; null si no hay reconstrucción en curso
+    private List<PedidoCompletadoEvent> recibidosDuranteReconstruccion;
+
+    private volatile boolean cargado;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public RankingVentasService(PedidoItemRepository pedidoItemRepository) {
+        this.pedidoItemRepository = pedidoItemRepository;
+    }
+
+    /**
+     * Suma las ventas de un pedido completado; se ejecuta solo si la transacción confirmó
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPedidoCompletado(PedidoCompletadoEvent evento) {
+        lock.lock();
+        try {
+            if (recibidosDuranteReconstruccion != null) {
+                recibidosDuranteReconstruccion.add(evento);
+            }
+            if (acumulado.registrar(evento)) {
+                snapshot = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene los productos más vendidos en una ventana, de mayor a menor cantidad
+     *
+     * @param ventana Una de las ventanas configuradas (ej: 24h, 7d, 30d)
+     * @param limit Cantidad máxima de productos
+     * @return Ranking de la ventana
+     */
+    public List<ProductoVendido> masVendidos(Duration ventana, int limit) {
+        if (!ventanas.contains(ventana)) {
+            throw new IllegalArgumentException("Ventana no soportada: " + ventana + ". Valores permitidos: " + ventanas);
+        }
+        if (!cargado) {
+            cargarSiHaceFalta();
+        }
+
+        long horaActual = hora(clock.instant());
+        Snapshot actual = snapshot;
+        if (actual == null || actual.hora() != horaActual) {
+            actual = calcular(horaActual);
+        }
+
+        List<ProductoVendido> ranking = actual.porVentana().get(ventana);
+        return ranking.subList(0, Math.min(Math.max(limit, 0), ranking.size()));
+    }
+
+    public List<Duration> getVentanas() {
+        return Collections.unmodifiableList(ventanas);
+    }
+
+    /**
+     * Reconstruye el ranking desde los pedidos completados dentro de la ventana más larga
+     * Los pedidos completados durante la lectura se incorporan al final sin contarse dos veces
+     */
+    @Scheduled(fixedDelayString = "${lunari.ranking.reconstruccion.intervalo:15m}",
+               initialDelayString = "${lunari.ranking.reconstruccion.intervalo:15m}")
+    public void reconstruir() {
+        reconstruccion.lock();
+        try {
+            reconstruirBloqueado();
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private void cargarSiHaceFalta() {
+        reconstruccion.lock();
+        try {
+            if (!cargado) {
+                reconstruirBloqueado();
+            }
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private void reconstruirBloqueado() {
+        long desde = hora(clock.instant()) - horas(ventanaMaxima()) + 1;
+
+        lock.lock();
+        try {
+            recibidosDuranteReconstruccion = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        Acumulado nuevo = new Acumulado();
+        boolean leido = false;
+        try {
+            OffsetDateTime inicio = OffsetDateTime.ofInstant(Instant.ofEpochSecond(desde * SEGUNDOS_POR_HORA), ZoneOffset.UTC);
+            for (Object[] fila : pedidoItemRepository.findVentasDesde(EstadoPedido.COMPLETADO, inicio)) {
+                nuevo.sumar((UUID) fila[0], hora(((OffsetDateTime) fila[1]).toInstant()),
+                        (Long) fila[2], ((Number) fila[3]).longValue());
+            }
+            leido = true;
+        } finally {
+            lock.lock();
+            try {
+                if (leido) {
+                    recibidosDuranteReconstruccion.forEach(nuevo::registrar);
+                    acumulado = nuevo;
+                    snapshot = null;
+                    cargado = true;
+                }
+                recibidosDuranteReconstruccion = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        logger.info("Ranking de ventas reconstruido: {} pedidos completados en las últimas {}",
+                nuevo.pedidos.size(), ventanaMaxima());
+    }
+
+    private Snapshot calcular(long horaActual) {
+        lock.lock();
+        try {
+            Snapshot actual = snapshot;
+            if (actual != null && actual.hora() == horaActual) {
+                return actual;
+            }
+
+            acumulado.descartarAntesDe(horaActual - horas(ventanaMaxima()) + 1);
+            Map<Duration, List<ProductoVendido>> porVentana = new HashMap<>();
+            for (Duration ventana : ventanas) {
+                porVentana.put(ventana, acumulado.ranking(horaActual - horas(ventana) + 1));
+            }
+
+            actual = new Snapshot(horaActual, porVentana);
+            snapshot = actual;
+            return actual;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Duration ventanaMaxima() {
+        return Collections.max(ventanas);
+    }
+
+    private static long horas(Duration ventana) {
+        return Math.max(1, ventana.toHours());
+    }
+
+    private static long hora(Instant instante) {
+        return Math.floorDiv(instante.getEpochSecond(), SEGUNDOS_POR_HORA);
+    }
+
+    /**
+     * Cantidad vendida de un producto dentro de una ventana
+     */
+    public record ProductoVendido(Long productoId, long cantidad) {
+    }
+
+    private record Snapshot(long hora, Map<Duration, List<ProductoVendido>> porVentana) {
+    }
+
+    /**
+     * Cantidades por hora (horas desde epoch) y producto, con los pedidos ya contados
+     * para que un pedido no se sume dos veces entre eventos y reconstrucciones
+     */
+    private static final class Acumulado {
+        private final TreeMap<Long, Map<Long, Long>> cubetas = new TreeMap<>();
+        private final Map<UUID, Long> pedidos = new HashMap<>();
+
+        boolean registrar(PedidoCompletadoEvent evento) {
+            if (evento.completadoEl() == null || pedidos.containsKey(evento.pedidoId())) {
+                return false;
+            }
+            long hora = hora(evento.completadoEl().toInstant());
+            evento.cantidadesPorProducto().forEach((productoId, cantidad) ->
+                    sumar(evento.pedidoId(), hora, productoId, cantidad));
+            pedidos.putIfAbsent(evento.pedidoId(), hora);
+            return true;
+        }
+
+        void sumar(UUID pedidoId, long hora, Long productoId, long cantidad) {
+            pedidos.put(pedidoId, hora);
+            cubetas.computeIfAbsent(hora, h -> new HashMap<>()).merge(productoId, cantidad, Long::sum);
+        }
+
+        void descartarAntesDe(long hora) {
+            cubetas.headMap(hora).clear();
+            pedidos.values().removeIf(h -> h < hora);
+        }
+
+        List<ProductoVendido> ranking(long desdeHora) {
+            Map<Long, Long> totales = new HashMap<>();
+            for (Map<Long, Long> cubeta : cubetas.tailMap(desdeHora, true).values()) {
+                cubeta.forEach((productoId, cantidad) -> totales.merge(productoId, cantidad, Long::sum));
+            }
+            return totales.entrySet().stream()
+                    .map(e -> new ProductoVendido(e.getKey(), e.getValue()))
+                    .sorted(Comparator.comparingLong(ProductoVendido::cantidad).reversed()
+                            .thenComparing(ProductoVendido::productoId))
+                    .toList();
+        }
+    }
+}
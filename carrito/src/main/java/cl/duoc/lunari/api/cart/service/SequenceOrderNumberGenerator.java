@@ -0,0 +1,130 @@
+package cl.duoc.lunari.api.cart.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Generador de números de pedido basado en una secuencia de base de datos (hi/lo agrupado)
+ * Cada nextval de pedido_numero_seq (INCREMENT BY block-size) reserva un rango completo
+ * [valor, valor + block-size) para esta instancia, de modo que solo hay un round trip
+ * cada block-size pedidos y las réplicas nunca comparten rango
+ *
+ * El tamaño de bloque efectivo es siempre el INCREMENT BY de la secuencia: si difiere de
+ * lunari.order-number.block-size se usa el de la base de datos, ya que un bloque mayor
+ * que el incremento solaparía los rangos de distintas réplicas
+ */
+@Component
+@ConditionalOnProperty(name = "lunari.order-number.strategy", havingValue = "sequence", matchIfMissing = true)
+public class SequenceOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceOrderNumberGenerator.class);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    static final String SEQUENCE_NAME = "pedido_numero_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LongSupplier siguienteBloque;
+    private final Clock clock;
+
+    // Protege el bloque reservado (siguiente, limite)
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${lunari.order-number.block-size:50}")
+    private int blockSize;
+
+    private long siguiente;
+    private long limite;
+
+    @Autowired
+    public SequenceOrderNumberGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.siguienteBloque = () -> jdbcTemplate.queryForObject(
+                "SELECT nextval('" + SEQUENCE_NAME + "')", Long.class);
+        this.clock = Clock.systemDefaultZone();
+    }
+
+    SequenceOrderNumberGenerator(LongSupplier siguienteBloque, int blockSize, Clock clock) {
+        this.jdbcTemplate = null;
+        this.siguienteBloque = siguienteBloque;
+        this.blockSize = blockSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Crea la secuencia si el esquema aún no la tiene (ddl-auto no gestiona secuencias sin entidad)
+     * y adopta su INCREMENT BY como tamaño de bloque
+     * En producción la crea seeds/04-add-order-number-sequence.sql con el mismo INCREMENT BY
+     */
+    @PostConstruct
+    void init() {
+        if (blockSize < 1) {
+            throw new IllegalStateException("lunari.order-number.block-size debe ser mayor que 0");
+        }
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME
+                    + " START WITH 1 INCREMENT BY " + blockSize);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo verificar la secuencia {}: {}", SEQUENCE_NAME, e.getMessage());
+        }
+
+        long incremento = leerIncrementoSecuencia();
+        if (incremento != blockSize) {
+            logger.warn("lunari.order-number.block-size={} no coincide con INCREMENT BY {} de {}; se usa el de la secuencia",
+                    blockSize, incremento, SEQUENCE_NAME);
+            blockSize = Math.toIntExact(incremento);
+        }
+        logger.info("Generador de números de pedido por secuencia - Bloque: {}", blockSize);
+    }
+
+    private long leerIncrementoSecuencia() {
+        List<Long> incrementos = jdbcTemplate.queryForList(
+                "SELECT increment FROM information_schema.sequences WHERE LOWER(sequence_name) = '"
+                        + SEQUENCE_NAME + "'", Long.class);
+        if (incrementos.isEmpty()) {
+            throw new IllegalStateException("No existe la secuencia " + SEQUENCE_NAME);
+        }
+        if (incrementos.stream().distinct().count() > 1) {
+            throw new IllegalStateException("La secuencia " + SEQUENCE_NAME
+                    + " existe en varios esquemas con distinto INCREMENT BY: " + incrementos);
+        }
+        long incremento = incrementos.get(0);
+        if (incremento < 1) {
+            throw new IllegalStateException("INCREMENT BY de " + SEQUENCE_NAME + " debe ser mayor que 0");
+        }
+        return incremento;
+    }
+
+    @Override
+    public String next() {
+        long valor;
+        lock.lock();
+        try {
+            if (siguiente >= limite) {
+                long inicio = siguienteBloque.getAsLong();
+                siguiente = inicio;
+                limite = inicio + blockSize;
+                logger.debug("Nuevo bloque de números de pedido reservado: [{}, {})", inicio, limite);
+            }
+            valor = siguiente++;
+        } finally {
+            lock.unlock();
+        }
+
+        String orderNumber = PREFIJO + LocalDate.now(clock).format(DATE_FORMAT) + "-" + String.format("%08d", valor);
+        logger.debug("Número de pedido generado: {}", orderNumber);
+        return orderNumber;
+    }
+}
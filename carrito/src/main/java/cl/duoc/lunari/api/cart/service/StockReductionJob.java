@@ -7,15 +7,14 @@ import cl.duoc.lunari.api.cart.service.client.InventarioServiceClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Job asíncrono para reducir stock en el servicio de inventario
- * Se ejecuta después de un pago aprobado
+ * Job para reducir stock en el servicio de inventario
+ * Lo ejecuta OutboxDispatcher para los eventos REDUCIR_STOCK de pagos aprobados
  */
 @Service
 public class StockReductionJob {
@@ -30,47 +29,24 @@ public class StockReductionJob {
     }
 
     /**
-     * Ejecuta la reducción de stock para un pedido de forma asíncrona
-     * Utiliza best-effort: si falla, registra el error pero no bloquea el flujo
+     * Ejecuta la reducción de stock de un pedido
+     * La referencia (número de pedido) permite a inventario ignorar reintentos ya aplicados
      *
-     * @param pedido Pedido con los items cuyo stock debe reducirse
+     * @param request Items a reducir y referencia del pedido
+     * @return true si inventario aplicó (o ya había aplicado) la reducción; false para reintentar
      */
-    @Async("taskExecutor")
-    public void execute(Pedido pedido) {
-        logger.info("Iniciando reducción de stock para pedido: {}", pedido.getNumeroPedido());
+    public boolean execute(StockReductionRequest request) {
+        logger.info("Iniciando reducción de stock para pedido: {}", request.getReferencia());
 
-        try {
-            // Convertir items del pedido a formato de reducción de stock
-            List<StockReductionRequest.StockItem> stockItems = new ArrayList<>();
-
-            for (PedidoItem item : pedido.getItems()) {
-                StockReductionRequest.StockItem stockItem = new StockReductionRequest.StockItem(
-                        item.getProductoId(),
-                        item.getCantidad()
-                );
-                stockItems.add(stockItem);
-            }
-
-            // Llamar al servicio de inventario
-            boolean success = inventarioServiceClient.reduceStock(stockItems);
-
-            if (success) {
-                logger.info("Stock reducido exitosamente para pedido: {}", pedido.getNumeroPedido());
-            } else {
-                logger.error("Falló la reducción de stock para pedido: {}. " +
-                        "Se requiere reconciliación manual.", pedido.getNumeroPedido());
+        boolean success = inventarioServiceClient.reduceStock(request.getItems(), request.getReferencia());
 
-                // TODO: Opcional - Marcar pedido para reconciliación manual
-                // TODO: Opcional - Enviar notificación a administradores
-            }
-
-        } catch (Exception e) {
-            logger.error("Error inesperado en reducción de stock para pedido: {}",
-                    pedido.getNumeroPedido(), e);
-
-            // TODO: Opcional - Registrar en tabla de fallos para retry posterior
-            // TODO: Opcional - Enviar alerta
+        if (success) {
+            logger.info("Stock reducido exitosamente para pedido: {}", request.getReferencia());
+        } else {
+            logger.warn("Falló la reducción de stock para pedido: {}", request.getReferencia());
         }
+
+        return success;
     }
 
     /**
@@ -84,17 +60,11 @@ public class StockReductionJob {
         logger.info("Verificando disponibilidad de stock para pedido: {}", pedido.getNumeroPedido());
 
         try {
-            for (PedidoItem item : pedido.getItems()) {
-                boolean hasStock = inventarioServiceClient.checkStock(
-                        item.getProductoId(),
-                        item.getCantidad()
-                );
-
-                if (!hasStock) {
-                    logger.warn("Stock insuficiente para producto {} en pedido {}",
-                            item.getProductoId(), pedido.getNumeroPedido());
-                    return false;
-                }
+            boolean hasStock = inventarioServiceClient.checkStock(toStockItems(pedido));
+
+            if (!hasStock) {
+                logger.warn("Stock insuficiente para pedido {}", pedido.getNumeroPedido());
+                return false;
             }
 
             logger.info("Stock verificado OK para pedido: {}", pedido.getNumeroPedido());
@@ -106,4 +76,12 @@ public class StockReductionJob {
             return false;
         }
     }
+
+    private List<StockReductionRequest.StockItem> toStockItems(Pedido pedido) {
+        List<StockReductionRequest.StockItem> stockItems = new ArrayList<>();
+        for (PedidoItem item : pedido.getItems()) {
+            stockItems.add(new StockReductionRequest.StockItem(item.getProductoId(), item.getCantidad()));
+        }
+        return stockItems;
+    }
 }
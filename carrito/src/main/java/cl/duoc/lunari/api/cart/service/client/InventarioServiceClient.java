@@ -1,11 +1,17 @@
 package cl.duoc.lunari.api.cart.service.client;
 
 import cl.duoc.lunari.api.cart.dto.StockReductionRequest;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -13,7 +19,9 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -21,12 +29,97 @@ import java.util.List;
 public class InventarioServiceClient {
 
     private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
 
     @Value("${lunari.services.inventario.url:http://localhost:8082}")
-    private String inventarioServiceUrl;    /**
-     * Obtiene información de un servicio
+    private String inventarioServiceUrl;
+
+    @Value("${lunari.services.inventario.api-key:}")
+    private String inventarioApiKey;
+
+    @Value("${lunari.services.inventario.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${lunari.services.inventario.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${lunari.services.inventario.cache.ttl:5m}")
+    private Duration cacheTtl;
+
+    @Value("${lunari.services.inventario.cache.price-staleness:30s}")
+    private Duration cachePriceStaleness;
+
+    private LoadingCache<Integer, ServicioInfo> servicioCache;
+    private LoadingCache<Integer, ServicioAdicionalInfo> servicioAdicionalCache;
+
+    /**
+     * Inicializa los caches de información de productos.
+     * Las entradas expiran tras el TTL; pasada la ventana de precio, la siguiente lectura
+     * devuelve el valor en cache y lo refresca en segundo plano desde inventario.
+     */
+    @PostConstruct
+    void initCaches() {
+        servicioCache = buildCache(this::fetchServicio);
+        servicioAdicionalCache = buildCache(this::fetchServicioAdicional);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, servicioCache, "inventario.servicios");
+        CaffeineCacheMetrics.monitor(meterRegistry, servicioAdicionalCache, "inventario.servicios-adicionales");
+
+        log.info("Cache de inventario {} - maxSize: {}, ttl: {}, priceStaleness: {}",
+                cacheEnabled ? "habilitado" : "deshabilitado", cacheMaxSize, cacheTtl, cachePriceStaleness);
+    }
+
+    private <V> LoadingCache<Integer, V> buildCache(Function<Integer, V> loader) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats();
+        if (cachePriceStaleness.compareTo(cacheTtl) < 0) {
+            builder.refreshAfterWrite(cachePriceStaleness);
+        }
+        return builder.build(loader::apply);
+    }
+
+    /**
+     * Obtiene información de un servicio (desde cache si está disponible)
      */
     public ServicioInfo obtenerServicio(Integer servicioId) {
+        return cacheEnabled ? servicioCache.get(servicioId) : fetchServicio(servicioId);
+    }
+
+    /**
+     * Obtiene información de un servicio adicional (desde cache si está disponible)
+     */
+    public ServicioAdicionalInfo obtenerServicioAdicional(Integer servicioAdicionalId) {
+        return cacheEnabled ? servicioAdicionalCache.get(servicioAdicionalId) : fetchServicioAdicional(servicioAdicionalId);
+    }
+
+    /**
+     * Invalida la información en cache de un servicio (p. ej. tras un cambio de precio)
+     */
+    public void invalidarServicio(Integer servicioId) {
+        servicioCache.invalidate(servicioId);
+    }
+
+    /**
+     * Invalida la información en cache de un servicio adicional
+     */
+    public void invalidarServicioAdicional(Integer servicioAdicionalId) {
+        servicioAdicionalCache.invalidate(servicioAdicionalId);
+    }
+
+    /**
+     * Invalida toda la información de productos en cache
+     */
+    public void invalidarCache() {
+        servicioCache.invalidateAll();
+        servicioAdicionalCache.invalidateAll();
+    }
+
+    /**
+     * Obtiene información de un servicio desde inventario
+     */
+    private ServicioInfo fetchServicio(Integer servicioId) {
         log.debug("Obteniendo información del servicio: {}", servicioId);
         try {
             
@@ -57,9 +150,9 @@ public class InventarioServiceClient {
             throw new RuntimeException("Error de comunicación con servicio de inventario", e);
         }
     }/**
-     * Obtiene información de un servicio adicional
+     * Obtiene información de un servicio adicional desde inventario
      */
-    public ServicioAdicionalInfo obtenerServicioAdicional(Integer servicioAdicionalId) {
+    private ServicioAdicionalInfo fetchServicioAdicional(Integer servicioAdicionalId) {
         try {
             log.debug("Obteniendo información del servicio adicional: {}", servicioAdicionalId);
             
@@ -115,12 +208,27 @@ public class InventarioServiceClient {
 
     /**
      * Reduce el stock de productos en el servicio de inventario
+     * Todos los items se aplican en una sola llamada y una sola transacción en inventario:
+     * si algún producto no tiene stock suficiente no se aplica ninguno (HTTP 409)
      * Este método utiliza best-effort: si falla, registra el error pero no lanza excepción
      *
      * @param reductions Lista de reducciones de stock a aplicar
      * @return true si la reducción fue exitosa, false si falló
      */
     public boolean reduceStock(List<StockReductionRequest.StockItem> reductions) {
+        return reduceStock(reductions, null);
+    }
+
+    /**
+     * Reduce el stock de varios productos en una sola transacción de inventario
+     * Con referencia, inventario ignora un lote ya aplicado con la misma referencia,
+     * por lo que la llamada puede reintentarse sin descontar dos veces
+     *
+     * @param reductions Lista de productos y cantidades a reducir
+     * @param referencia Clave de idempotencia (número de pedido), o null
+     * @return true si la reducción fue exitosa (o ya estaba aplicada), false en caso contrario
+     */
+    public boolean reduceStock(List<StockReductionRequest.StockItem> reductions, String referencia) {
         try {
             log.info("Reduciendo stock para {} productos", reductions.size());
 
@@ -128,8 +236,9 @@ public class InventarioServiceClient {
 
             StockReductionRequest request = new StockReductionRequest();
             request.setItems(reductions);
+            request.setReferencia(referencia);
 
-            HttpEntity<StockReductionRequest> requestEntity = new HttpEntity<>(request);
+            HttpEntity<StockReductionRequest> requestEntity = new HttpEntity<>(request, serviceHeaders());
 
             ResponseEntity<ApiResponse<StockReductionResponse>> response = restTemplate.exchange(
                 url,
@@ -146,6 +255,10 @@ public class InventarioServiceClient {
             log.warn("La reducción de stock no fue exitosa: {}", response.getStatusCode());
             return false;
 
+        } catch (HttpClientErrorException.Conflict e) {
+            log.error("Stock insuficiente, no se aplicó la reducción: {}", e.getResponseBodyAsString());
+            return false;
+
         } catch (Exception e) {
             log.error("Error al reducir stock en servicio de inventario: {}", e.getMessage(), e);
             // Best-effort: no lanzamos excepción, solo registramos el error
@@ -154,38 +267,60 @@ public class InventarioServiceClient {
     }
 
     /**
-     * Verifica si hay stock suficiente para los productos especificados
+     * Verifica si hay stock suficiente para todos los productos especificados
+     * Una sola llamada a inventario, que resuelve todos los items con una sola consulta
      *
-     * @param productoId ID del producto
-     * @param cantidad Cantidad requerida
-     * @return true si hay stock suficiente, false en caso contrario
+     * @param items Productos y cantidades requeridas
+     * @return true si hay stock suficiente para todos los items, false en caso contrario
      */
-    public boolean checkStock(Long productoId, Integer cantidad) {
+    public boolean checkStock(List<StockReductionRequest.StockItem> items) {
         try {
-            log.debug("Verificando stock para producto {}, cantidad: {}", productoId, cantidad);
+            log.debug("Verificando stock para {} productos", items.size());
+
+            String url = inventarioServiceUrl + "/api/v1/inventory/stock/check";
 
-            String url = inventarioServiceUrl + "/api/v1/inventory/stock/check/" + productoId + "/" + cantidad;
+            StockReductionRequest request = new StockReductionRequest();
+            request.setItems(items);
 
-            ResponseEntity<ApiResponse<Boolean>> response = restTemplate.exchange(
+            ResponseEntity<ApiResponse<StockCheckResponse>> response = restTemplate.exchange(
                 url,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<ApiResponse<Boolean>>() {}
+                HttpMethod.POST,
+                new HttpEntity<>(request, serviceHeaders()),
+                new ParameterizedTypeReference<ApiResponse<StockCheckResponse>>() {}
             );
 
-            if (response.getBody() != null && response.getBody().isSuccess()) {
-                return response.getBody().getResponse() != null && response.getBody().getResponse();
+            ApiResponse<StockCheckResponse> apiResponse = response.getBody();
+            if (apiResponse == null || !apiResponse.isSuccess() || apiResponse.getResponse() == null) {
+                return false;
             }
 
-            return false;
+            StockCheckResponse resultado = apiResponse.getResponse();
+            if (!resultado.isDisponible() && resultado.getItems() != null) {
+                resultado.getItems().stream()
+                        .filter(item -> !item.isDisponible())
+                        .forEach(item -> log.warn("Stock insuficiente para producto {}: solicitado {}, disponible {}",
+                                item.getProductoId(), item.getCantidad(), item.getStockActual()));
+            }
+            return resultado.isDisponible();
 
         } catch (Exception e) {
-            log.warn("Error al verificar stock para producto {}: {}", productoId, e.getMessage());
+            log.warn("Error al verificar stock: {}", e.getMessage());
             // En caso de error, asumimos que no hay stock para evitar sobreventa
             return false;
         }
     }
 
+    /**
+     * Headers para endpoints de inventario protegidos con service key
+     */
+    private HttpHeaders serviceHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        if (inventarioApiKey != null && !inventarioApiKey.isBlank()) {
+            headers.set("X-API-Key", inventarioApiKey);
+        }
+        return headers;
+    }
+
     /**
      * DTO para información del servicio
      */
@@ -445,4 +580,74 @@ public class InventarioServiceClient {
             this.message = message;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * DTO para la respuesta de verificación de stock
+     */
+    public static class StockCheckResponse {
+        private boolean disponible;
+        private List<StockCheckItem> items;
+
+        public StockCheckResponse() {}
+
+        public boolean isDisponible() {
+            return disponible;
+        }
+
+        public void setDisponible(boolean disponible) {
+            this.disponible = disponible;
+        }
+
+        public List<StockCheckItem> getItems() {
+            return items;
+        }
+
+        public void setItems(List<StockCheckItem> items) {
+            this.items = items;
+        }
+    }
+
+    /**
+     * Disponibilidad de un producto dentro de la verificación de stock
+     */
+    public static class StockCheckItem {
+        private Long productoId;
+        private Integer cantidad;
+        private Integer stockActual;
+        private boolean disponible;
+
+        public StockCheckItem() {}
+
+        public Long getProductoId() {
+            return productoId;
+        }
+
+        public void setProductoId(Long productoId) {
+            this.productoId = productoId;
+        }
+
+        public Integer getCantidad() {
+            return cantidad;
+        }
+
+        public void setCantidad(Integer cantidad) {
+            this.cantidad = cantidad;
+        }
+
+        public Integer getStockActual() {
+            return stockActual;
+        }
+
+        public void setStockActual(Integer stockActual) {
+            this.stockActual = stockActual;
+        }
+
+        public boolean isDisponible() {
+            return disponible;
+        }
+
+        public void setDisponible(boolean disponible) {
+            this.disponible = disponible;
+        }
+    }
+}
@@ -6,12 +6,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -24,6 +29,9 @@ public class UsuarioServiceClient {
     @Value("${lunari.services.usuario.url:http://localhost:8081}")
     private String usuarioServiceUrl;
 
+    @Value("${lunari.services.usuario.api-key:}")
+    private String usuarioApiKey;
+
     /**
      * Verifica si un usuario existe
      */
@@ -136,6 +144,62 @@ public class UsuarioServiceClient {
         }
     }
 
+    /**
+     * Otorga puntos a varios usuarios en una sola llamada al endpoint de lote de usuario
+     * Usuario aplica cada asignación una sola vez por referencia (número de pedido)
+     *
+     * @param awards Asignaciones a enviar (usuarioId, puntos, razon, referencia)
+     * @return Referencias aceptadas (aplicadas ahora o ya aplicadas antes); vacío si la llamada falló
+     */
+    public Set<String> awardPointsBulk(List<AwardPointsRequest> awards) {
+        try {
+            log.info("Otorgando puntos en lote: {} asignaciones", awards.size());
+
+            String url = usuarioServiceUrl + "/api/v1/points/bulk";
+
+            List<BulkPointsAward> items = new ArrayList<>();
+            for (AwardPointsRequest award : awards) {
+                items.add(new BulkPointsAward(award.getUsuarioId().toString(), award.getPuntos().longValue(),
+                        award.getReferencia(), award.getRazon()));
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            if (usuarioApiKey != null && !usuarioApiKey.isBlank()) {
+                headers.set("X-API-Key", usuarioApiKey);
+            }
+            HttpEntity<BulkPointsRequest> requestEntity = new HttpEntity<>(new BulkPointsRequest(items), headers);
+
+            ResponseEntity<ApiResponse<BulkPointsResponse>> response = restTemplate.exchange(
+                url,
+                HttpMethod.POST,
+                requestEntity,
+                new ParameterizedTypeReference<ApiResponse<BulkPointsResponse>>() {}
+            );
+
+            Set<String> aceptadas = new HashSet<>();
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null
+                    && response.getBody().getResponse() != null) {
+                BulkPointsResponse resultado = response.getBody().getResponse();
+                if (resultado.getApplied() != null) {
+                    aceptadas.addAll(resultado.getApplied());
+                }
+                if (resultado.getAlreadyApplied() != null) {
+                    aceptadas.addAll(resultado.getAlreadyApplied());
+                }
+                if (resultado.getRejected() != null && !resultado.getRejected().isEmpty()) {
+                    log.warn("Asignaciones de puntos rechazadas por usuario: {}", resultado.getRejected());
+                }
+            }
+
+            log.info("Puntos en lote otorgados: {}/{} asignaciones aceptadas", aceptadas.size(), awards.size());
+            return aceptadas;
+
+        } catch (Exception e) {
+            log.error("Error al otorgar puntos en lote ({} asignaciones): {}", awards.size(), e.getMessage());
+            return new HashSet<>();
+        }
+    }
+
     /**
      * Obtiene el balance de puntos actual de un usuario
      *
@@ -299,4 +363,111 @@ public class UsuarioServiceClient {
             this.message = message;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * DTO de una asignación en la solicitud de puntos en lote
+     */
+    public static class BulkPointsAward {
+        private String userId;
+        private Long points;
+        private String reference;
+        private String reason;
+
+        public BulkPointsAward() {}
+
+        public BulkPointsAward(String userId, Long points, String reference, String reason) {
+            this.userId = userId;
+            this.points = points;
+            this.reference = reference;
+            this.reason = reason;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public void setUserId(String userId) {
+            this.userId = userId;
+        }
+
+        public Long getPoints() {
+            return points;
+        }
+
+        public void setPoints(Long points) {
+            this.points = points;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+
+        public void setReference(String reference) {
+            this.reference = reference;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * DTO para la solicitud de puntos en lote
+     */
+    public static class BulkPointsRequest {
+        private List<BulkPointsAward> awards;
+
+        public BulkPointsRequest() {}
+
+        public BulkPointsRequest(List<BulkPointsAward> awards) {
+            this.awards = awards;
+        }
+
+        public List<BulkPointsAward> getAwards() {
+            return awards;
+        }
+
+        public void setAwards(List<BulkPointsAward> awards) {
+            this.awards = awards;
+        }
+    }
+
+    /**
+     * DTO para la respuesta de puntos en lote
+     */
+    public static class BulkPointsResponse {
+        private List<String> applied;
+        private List<String> alreadyApplied;
+        private List<String> rejected;
+
+        public BulkPointsResponse() {}
+
+        public List<String> getApplied() {
+            return applied;
+        }
+
+        public void setApplied(List<String> applied) {
+            this.applied = applied;
+        }
+
+        public List<String> getAlreadyApplied() {
+            return alreadyApplied;
+        }
+
+        public void setAlreadyApplied(List<String> alreadyApplied) {
+            this.alreadyApplied = alreadyApplied;
+        }
+
+        public List<String> getRejected() {
+            return rejected;
+        }
+
+        public void setRejected(List<String> rejected) {
+            this.rejected = rejected;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package cl.duoc.lunari.api.payload;
+
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco para paginación por keyset sobre (creadoEl, id), más recientes primero
+ * Codifica las claves del último elemento de una página; la página siguiente se pide con
+ * ?cursor=... y se indica en el header X-Next-Cursor cuando hay más resultados
+ */
+public final class KeysetCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Claves de orden del último elemento de la página anterior
+     */
+    public record Claves(OffsetDateTime creadoEl, UUID id) {}
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(OffsetDateTime creadoEl, UUID id) {
+        String valor = creadoEl + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor en sus claves
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static Claves decode(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\" + SEPARADOR, 2);
+            return new Claves(OffsetDateTime.parse(partes[0]), UUID.fromString(partes[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    /**
+     * Respuesta de una página a partir de filas consultadas con limit + 1
+     * La fila extra solo indica que hay otra página: se descarta y X-Next-Cursor apunta
+     * al último elemento retornado, de modo que nunca se entrega un cursor a una página vacía
+     */
+    public static <T> ResponseEntity<ApiResponse<List<T>>> page(
+            List<T> filas,
+            int limit,
+            Function<T, String> siguienteCursor) {
+
+        if (filas.size() <= limit) {
+            return ResponseEntity.ok(ApiResponse.success(filas));
+        }
+
+        List<T> items = filas.subList(0, limit);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, siguienteCursor.apply(items.get(limit - 1)))
+                .body(ApiResponse.success(items));
+    }
+}
@@ -0,0 +1,177 @@
+package cl.duoc.lunari.api.cart.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Behaviour tests for the platform-thread and virtual-thread modes of the async executors.
+ * The throughput comparison between both modes lives in AsyncExecutorBenchmark.
+ */
+@DisplayName("AsyncConfig Tests")
+class AsyncConfigTest {
+
+    private static final int CONCURRENCY_LIMIT = 4;
+
+    @Test
+    @DisplayName("Virtual mode should run tasks on named virtual threads")
+    void virtualThreads_RunsOnVirtualThreads() throws Exception {
+        // Given
+        Executor executor = createAsyncConfig(true).taskExecutor();
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        executor.execute(() -> {
+            worker.set(Thread.currentThread());
+            done.countDown();
+        });
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        shutdown(executor);
+
+        // Then
+        assertThat(worker.get().isVirtual()).isTrue();
+        assertThat(worker.get().getName()).startsWith("async-job-");
+    }
+
+    @Test
+    @DisplayName("Platform mode should run tasks on pooled platform threads")
+    void platformThreads_RunsOnPlatformThreads() throws Exception {
+        // Given
+        Executor executor = createAsyncConfig(false).taskExecutor();
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        executor.execute(() -> {
+            worker.set(Thread.currentThread());
+            done.countDown();
+        });
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        shutdown(executor);
+
+        // Then
+        assertThat(worker.get().isVirtual()).isFalse();
+        assertThat(worker.get().getName()).startsWith("async-job-");
+    }
+
+    @Test
+    @DisplayName("Virtual mode should cap running tasks at the concurrency limit and hold the rest back")
+    void virtualThreads_RespectsConcurrencyLimit() throws Exception {
+        // Given: twice the limit of tasks that block until the gate opens
+        Executor executor = createAsyncConfig(true).taskExecutor();
+        int tasks = CONCURRENCY_LIMIT * 2;
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(CONCURRENCY_LIMIT);
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        // When: submission blocks once the limit is reached, so it runs on its own thread
+        CompletableFuture<Void> submitter = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < tasks; i++) {
+                executor.execute(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                        done.countDown();
+                    }
+                });
+            }
+        });
+
+        // Then: exactly the limit is running and the submitter is held back
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(running.get()).isEqualTo(CONCURRENCY_LIMIT);
+        assertThat(submitter).isNotDone();
+
+        gate.countDown();
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        submitter.get(10, TimeUnit.SECONDS);
+        shutdown(executor);
+
+        assertThat(peak.get()).isEqualTo(CONCURRENCY_LIMIT);
+    }
+
+    @Test
+    @DisplayName("Platform mode should run rejected tasks on the caller instead of dropping them")
+    void platformThreads_CallerRunsWhenSaturated() throws Exception {
+        // Given: max pool (5) and queue (100) filled with tasks blocked on the gate
+        Executor executor = createAsyncConfig(false).taskExecutor();
+        CountDownLatch gate = new CountDownLatch(1);
+        for (int i = 0; i < 105; i++) {
+            executor.execute(() -> {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        // When
+        Thread caller = Thread.currentThread();
+        AtomicBoolean ranOnCaller = new AtomicBoolean();
+        executor.execute(() -> ranOnCaller.set(Thread.currentThread() == caller));
+        gate.countDown();
+        shutdown(executor);
+
+        // Then
+        assertThat(ranOnCaller).isTrue();
+    }
+
+    @Test
+    @DisplayName("Virtual mode should not drop tasks under a burst larger than the platform queue")
+    void virtualThreads_NoRejectionsUnderBurst() throws Exception {
+        // Given: more than the concurrency limit and the platform queue + max pool
+        int tasks = 1000;
+        Executor executor = createAsyncConfig(true).taskExecutor();
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicInteger completed = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                completed.incrementAndGet();
+                done.countDown();
+            });
+        }
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        shutdown(executor);
+
+        // Then
+        assertThat(completed.get()).isEqualTo(tasks);
+    }
+
+    private AsyncConfig createAsyncConfig(boolean virtualThreads) {
+        AsyncConfig config = new AsyncConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", virtualThreads);
+        ReflectionTestUtils.setField(config, "virtualConcurrencyLimit", CONCURRENCY_LIMIT);
+        ReflectionTestUtils.setField(config, "virtualBatchConcurrencyLimit", CONCURRENCY_LIMIT);
+        return config;
+    }
+
+    private void shutdown(Executor... executors) throws Exception {
+        for (Executor executor : executors) {
+            if (executor instanceof DisposableBean disposable) {
+                disposable.destroy();
+            }
+        }
+    }
+}
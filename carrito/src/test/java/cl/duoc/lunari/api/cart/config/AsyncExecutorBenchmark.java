@@ -0,0 +1,86 @@
+package cl.duoc.lunari.api.cart.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the taskExecutor in platform-thread and virtual-thread mode, timing
+ * a burst of tasks that block like the post-payment calls to inventario and usuario.
+ *
+ * The platform pool runs the burst on 2-5 threads; the virtual mode runs up to its
+ * concurrency limit (200, the default) at once.
+ *
+ * Run from carrito/:
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main AsyncExecutorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AsyncExecutorBenchmark {
+
+    private static final long BLOCKING_CALL_MILLIS = 50;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"100"})
+    private int tasks;
+
+    private Executor executor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AsyncConfig config = new AsyncConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", virtualThreads);
+        ReflectionTestUtils.setField(config, "virtualConcurrencyLimit", 200);
+        ReflectionTestUtils.setField(config, "virtualBatchConcurrencyLimit", 50);
+        executor = config.taskExecutor();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        if (executor instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    @Benchmark
+    public void blockingBurst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(BLOCKING_CALL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
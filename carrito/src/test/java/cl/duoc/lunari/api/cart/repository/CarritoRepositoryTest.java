@@ -0,0 +1,153 @@
+package cl.duoc.lunari.api.cart.repository;
+
+import cl.duoc.lunari.api.cart.model.Carrito;
+import cl.duoc.lunari.api.cart.model.CarritoItem;
+import cl.duoc.lunari.api.cart.model.CarritoServicioAdicional;
+import cl.duoc.lunari.api.cart.model.EstadoCarrito;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Repository tests for the incremental cart total queries using H2 in-memory database
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:carritotest",
+        "spring.datasource.driver-class-name=org.h2.Driver"
+})
+@DisplayName("CarritoRepository Tests")
+class CarritoRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CarritoRepository carritoRepository;
+
+    private Carrito carrito;
+    private int siguienteServicioId = 1;
+
+    @BeforeEach
+    void setUp() {
+        carrito = new Carrito();
+        carrito.setUsuarioId(UUID.randomUUID());
+        carrito.setEstado(EstadoCarrito.ACTIVO);
+        carrito.setTotalEstimado(BigDecimal.ZERO);
+        carrito = entityManager.persistAndFlush(carrito);
+    }
+
+    @Test
+    @DisplayName("Should apply item deltas to the cart total")
+    void incrementarTotalEstimado_AppliesDelta() {
+        // When
+        carritoRepository.incrementarTotalEstimado(carrito.getId(), new BigDecimal("30000"), OffsetDateTime.now());
+        carritoRepository.incrementarTotalEstimado(carrito.getId(), new BigDecimal("-5000"), OffsetDateTime.now());
+        entityManager.clear();
+
+        // Then
+        assertThat(carritoRepository.findById(carrito.getId()).orElseThrow().getTotalEstimado())
+                .isEqualByComparingTo("25000");
+    }
+
+    @Test
+    @DisplayName("Should recompute the cart total from items and additional services")
+    void recalcularTotalEstimado_FromItems() {
+        // Given: the stored total has drifted from the items
+        CarritoItem item = createItem(new BigDecimal("10000"), 2);
+        createServicioAdicional(item, new BigDecimal("1500"));
+        createItem(new BigDecimal("5000"), 1);
+        carritoRepository.incrementarTotalEstimado(carrito.getId(), new BigDecimal("99"), OffsetDateTime.now());
+
+        // When
+        int updated = carritoRepository.recalcularTotalEstimado(carrito.getId());
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(carritoRepository.findById(carrito.getId()).orElseThrow().getTotalEstimado())
+                .isEqualByComparingTo("26500");
+    }
+
+    @Test
+    @DisplayName("Should only correct active carts whose total drifted")
+    void corregirTotalesDesviados_OnlyDrifted() {
+        // Given: one consistent cart and one drifted cart
+        createItem(new BigDecimal("10000"), 1);
+        carritoRepository.incrementarTotalEstimado(carrito.getId(), new BigDecimal("10000"), OffsetDateTime.now());
+
+        Carrito desviado = new Carrito();
+        desviado.setUsuarioId(UUID.randomUUID());
+        desviado.setEstado(EstadoCarrito.ACTIVO);
+        desviado.setTotalEstimado(new BigDecimal("777"));
+        desviado = entityManager.persistAndFlush(desviado);
+
+        // When
+        int corregidos = carritoRepository.corregirTotalesDesviados(EstadoCarrito.ACTIVO);
+
+        // Then
+        assertThat(corregidos).isEqualTo(1);
+        assertThat(carritoRepository.findById(desviado.getId()).orElseThrow().getTotalEstimado())
+                .isEqualByComparingTo("0");
+        assertThat(carritoRepository.findById(carrito.getId()).orElseThrow().getTotalEstimado())
+                .isEqualByComparingTo("10000");
+    }
+
+    @Test
+    @DisplayName("Should page a user's carts by keyset without gaps or duplicates")
+    void findPaginaByUsuarioId_KeysetPages() {
+        // Given: the cart from setUp plus four more for the same user
+        for (int i = 0; i < 4; i++) {
+            Carrito otro = new Carrito();
+            otro.setUsuarioId(carrito.getUsuarioId());
+            otro.setEstado(EstadoCarrito.ABANDONADO);
+            entityManager.persist(otro);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<UUID> vistos = new ArrayList<>();
+        List<Carrito> pagina = carritoRepository.findPaginaByUsuarioId(carrito.getUsuarioId(), PageRequest.of(0, 2));
+        while (!pagina.isEmpty()) {
+            pagina.forEach(c -> vistos.add(c.getId()));
+            Carrito ultimo = pagina.get(pagina.size() - 1);
+            pagina = carritoRepository.findPaginaByUsuarioIdAntesDe(
+                    carrito.getUsuarioId(), ultimo.getCreadoEl(), ultimo.getId(), PageRequest.of(0, 2));
+        }
+
+        // Then
+        assertThat(vistos).hasSize(5).doesNotHaveDuplicates();
+    }
+
+    private CarritoItem createItem(BigDecimal precio, int cantidad) {
+        CarritoItem item = new CarritoItem();
+        item.setCarrito(carrito);
+        item.setServicioId(siguienteServicioId++);
+        item.setCantidad(cantidad);
+        item.setPrecioUnitario(precio);
+        item.setSubtotal(precio.multiply(BigDecimal.valueOf(cantidad)));
+        return entityManager.persistAndFlush(item);
+    }
+
+    private void createServicioAdicional(CarritoItem item, BigDecimal precio) {
+        CarritoServicioAdicional servicioAdicional = new CarritoServicioAdicional();
+        servicioAdicional.setCarritoItem(item);
+        servicioAdicional.setServicioAdicionalId(1);
+        servicioAdicional.setPrecioAdicional(precio);
+        entityManager.persistAndFlush(servicioAdicional);
+    }
+}
@@ -0,0 +1,155 @@
+package cl.duoc.lunari.api.cart.repository;
+
+import cl.duoc.lunari.api.cart.dto.PedidoResponseDto;
+import cl.duoc.lunari.api.cart.model.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Query-count tests for the order history queries using H2 in-memory database.
+ * Mapping to PedidoResponseDto touches items and pago, which must not trigger extra queries.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:historialtest",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@DisplayName("Pedido History Query Count Tests")
+class PedidoHistorialQueryCountTest {
+
+    private static final int PEDIDOS = 12;
+    private static final int ITEMS_POR_PEDIDO = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private Statistics statistics;
+    private UUID usuarioId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        usuarioId = UUID.randomUUID();
+
+        for (int i = 1; i <= PEDIDOS; i++) {
+            entityManager.persist(createPedido(i, i % 3 == 0 ? EstadoPedido.COMPLETADO : EstadoPedido.PAGO_COMPLETADO));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should load a history page with items and pago in two queries")
+    void historialPage_TwoQueries() {
+        // When
+        List<UUID> ids = pedidoRepository.findHistorialIds(usuarioId, PageRequest.of(0, 5));
+        List<PedidoResponseDto> dtos = toDtos(pedidoRepository.findWithItemsAndPagoByIdIn(ids));
+
+        // Then
+        assertThat(dtos).hasSize(5);
+        assertThat(dtos).allSatisfy(dto -> {
+            assertThat(dto.getItems()).hasSize(ITEMS_POR_PEDIDO);
+            assertThat(dto.getPago()).isNotNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should walk the whole history by keyset without gaps or duplicates")
+    void historialKeyset_AllPages() {
+        // When
+        List<UUID> vistos = new ArrayList<>();
+        List<Pedido> pagina = pedidoRepository.findWithItemsAndPagoByIdIn(
+                pedidoRepository.findHistorialIds(usuarioId, PageRequest.of(0, 5)));
+        while (!pagina.isEmpty()) {
+            pagina.forEach(p -> vistos.add(p.getId()));
+            Pedido ultimo = pagina.get(pagina.size() - 1);
+            List<UUID> ids = pedidoRepository.findHistorialIdsAntesDe(
+                    usuarioId, ultimo.getCreadoEl(), ultimo.getId(), PageRequest.of(0, 5));
+            pagina = ids.isEmpty() ? List.of() : pedidoRepository.findWithItemsAndPagoByIdIn(ids);
+        }
+
+        // Then
+        assertThat(vistos).hasSize(PEDIDOS).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should load orders by estado with items and pago in one query using the entity graph")
+    void porEstadoEntityGraph_OneQuery() {
+        // When
+        List<PedidoResponseDto> dtos = toDtos(pedidoRepository
+                .findWithItemsAndPagoByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(usuarioId, EstadoPedido.COMPLETADO));
+
+        // Then
+        assertThat(dtos).hasSize(PEDIDOS / 3);
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getItems()).hasSize(ITEMS_POR_PEDIDO));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Plain derived query should trigger N+1 queries when mapping to DTO")
+    void derivedQuery_NPlusOne() {
+        // When
+        List<PedidoResponseDto> dtos = toDtos(pedidoRepository.findByUsuarioIdOrderByCreadoElDesc(usuarioId));
+
+        // Then: documents the cost the fetch-join queries avoid
+        assertThat(dtos).hasSize(PEDIDOS);
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(PEDIDOS);
+    }
+
+    private List<PedidoResponseDto> toDtos(List<Pedido> pedidos) {
+        return pedidos.stream().map(PedidoResponseDto::fromEntity).collect(Collectors.toList());
+    }
+
+    private Pedido createPedido(int numero, EstadoPedido estado) {
+        Pedido pedido = new Pedido();
+        pedido.setNumeroPedido(String.format("ORD-20251130-%05d", numero));
+        pedido.setCarritoId(UUID.randomUUID());
+        pedido.setUsuarioId(usuarioId);
+        pedido.setEstadoPedido(estado);
+        pedido.setTotalProductos(new BigDecimal("30000"));
+        pedido.setTotalPuntosGanados(300);
+
+        for (int i = 1; i <= ITEMS_POR_PEDIDO; i++) {
+            PedidoItem item = new PedidoItem();
+            item.setProductoId((long) i);
+            item.setCodigoProducto("PROD-" + i);
+            item.setNombreProducto("Producto " + i);
+            item.setCantidad(1);
+            item.setPrecioUnitario(new BigDecimal("10000"));
+            pedido.agregarItem(item);
+        }
+
+        Pago pago = new Pago();
+        pago.setMetodoPago(MetodoPago.WEBPAY_PLUS);
+        pago.setEstadoPago(EstadoPago.APROBADO);
+        pago.setMontoTotal(new BigDecimal("30000"));
+        pago.setTransbankBuyOrder("BUY-" + numero);
+        pago.setTransbankSessionId("SES-" + numero);
+        pedido.setPago(pago);
+        return pedido;
+    }
+}
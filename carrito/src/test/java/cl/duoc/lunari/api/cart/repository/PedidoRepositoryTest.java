@@ -37,6 +37,9 @@ class PedidoRepositoryTest {
     @Autowired
     private PedidoRepository pedidoRepository;
 
+    @Autowired
+    private PedidoItemRepository pedidoItemRepository;
+
     private UUID usuarioId;
     private UUID carritoId;
 
@@ -260,6 +263,37 @@ class PedidoRepositoryTest {
         // Items should also be deleted due to cascade
     }
 
+    @Test
+    @DisplayName("Should return one sales row per item of completed orders since a date")
+    void findVentasDesde_OnlyRecentCompleted() {
+        // Given
+        Pedido reciente = createTestPedido("ORD-20250130-00001", EstadoPedido.COMPLETADO);
+        reciente.agregarItem(createTestItem(1L, 2));
+        reciente.agregarItem(createTestItem(2L, 1));
+        reciente.marcarComoCompletado();
+        pedidoRepository.save(reciente);
+
+        Pedido antiguo = createTestPedido("ORD-20250130-00002", EstadoPedido.COMPLETADO);
+        antiguo.agregarItem(createTestItem(1L, 5));
+        antiguo.marcarComoCompletado();
+        antiguo.setCompletadoEl(OffsetDateTime.now().minusDays(40));
+        pedidoRepository.save(antiguo);
+
+        Pedido pendiente = createTestPedido("ORD-20250130-00003", EstadoPedido.PAGO_PENDIENTE);
+        pendiente.agregarItem(createTestItem(1L, 7));
+        pedidoRepository.save(pendiente);
+        entityManager.flush();
+
+        // When
+        List<Object[]> ventas = pedidoItemRepository.findVentasDesde(EstadoPedido.COMPLETADO,
+                OffsetDateTime.now().minusDays(30));
+
+        // Then
+        assertThat(ventas).hasSize(2);
+        assertThat(ventas).allSatisfy(fila -> assertThat(fila[0]).isEqualTo(reciente.getId()));
+        assertThat(ventas).extracting(fila -> fila[2]).containsExactlyInAnyOrder(1L, 2L);
+    }
+
     private Pedido createTestPedido(String numeroPedido, EstadoPedido estado) {
         Pedido pedido = new Pedido();
         pedido.setNumeroPedido(numeroPedido);
@@ -270,4 +304,15 @@ class PedidoRepositoryTest {
         pedido.setTotalPuntosGanados(500);
         return pedido;
     }
+
+    private PedidoItem createTestItem(Long productoId, int cantidad) {
+        PedidoItem item = new PedidoItem();
+        item.setProductoId(productoId);
+        item.setCodigoProducto("PROD-00" + productoId);
+        item.setNombreProducto("Producto " + productoId);
+        item.setCantidad(cantidad);
+        item.setPrecioUnitario(new BigDecimal("10000"));
+        item.calcularSubtotal();
+        return item;
+    }
 }
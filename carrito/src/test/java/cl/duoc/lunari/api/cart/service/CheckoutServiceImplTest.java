@@ -37,12 +37,6 @@ class CheckoutServiceImplTest {
     @Mock
     private PaymentService paymentService;
 
-    @Mock
-    private StockReductionJob stockReductionJob;
-
-    @Mock
-    private PointsAwardJob pointsAwardJob;
-
     @InjectMocks
     private CheckoutServiceImpl checkoutService;
 
@@ -165,6 +159,8 @@ class CheckoutServiceImplTest {
         assertThat(result).isEqualTo(pedido);
 
         verify(paymentService).confirmPayment(token);
+        // Las acciones post-pago las registra PaymentService en el outbox; el pedido no se completa aquí
+        verify(orderService, never()).markOrderComplete(any(), any());
     }
 
     @Test
@@ -184,39 +180,6 @@ class CheckoutServiceImplTest {
         assertThat(result).isEqualTo(pedido);
 
         verify(paymentService).confirmPayment(token);
-        // processPostPaymentActions no debería llamarse para pagos rechazados
-    }
-
-    @Test
-    @DisplayName("Should process post-payment actions for approved payment")
-    void processPostPaymentActions_Success() {
-        // Given
-        pedido.setEstadoPedido(EstadoPedido.PAGO_COMPLETADO);
-
-        doNothing().when(stockReductionJob).execute(any(Pedido.class));
-        doNothing().when(pointsAwardJob).execute(any(Pedido.class));
-        when(orderService.markOrderComplete(any(), anyInt())).thenReturn(pedido);
-
-        // When
-        checkoutService.processPostPaymentActions(pedido);
-
-        // Then
-        // Verificar que se llamaron los jobs (puede tomar tiempo por @Async, pero en test unitario es síncrono)
-        verify(stockReductionJob, timeout(1000)).execute(pedido);
-        verify(pointsAwardJob, timeout(1000)).execute(pedido);
-        verify(orderService, timeout(1000)).markOrderComplete(pedidoId, 500);
-    }
-
-    @Test
-    @DisplayName("Should handle errors gracefully in post-payment actions")
-    void processPostPaymentActions_WithError() {
-        // Given
-        doThrow(new RuntimeException("Stock service error"))
-                .when(stockReductionJob).execute(any(Pedido.class));
-
-        // When/Then - No debería lanzar excepción, solo logear el error
-        assertThatCode(() -> checkoutService.processPostPaymentActions(pedido))
-                .doesNotThrowAnyException();
     }
 
     @Test
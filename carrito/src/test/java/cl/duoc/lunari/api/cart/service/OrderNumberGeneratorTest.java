@@ -0,0 +1,222 @@
+package cl.duoc.lunari.api.cart.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Contention tests for the order number generation strategies.
+ * Several generator instances stand in for carrito replicas sharing one database sequence or node space.
+ */
+@DisplayName("OrderNumberGenerator Contention Tests")
+class OrderNumberGeneratorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNumberGeneratorTest.class);
+
+    private static final int THREADS = 16;
+
+    @Test
+    @DisplayName("Node-time generator should never repeat a number under contention")
+    void nodeTime_UniqueUnderContention() throws Exception {
+        // Given
+        OrderNumberGenerator generator = new NodeTimeOrderNumberGenerator(7, System::currentTimeMillis);
+
+        // When
+        Result result = generateConcurrently(List.of(generator), 20_000);
+
+        // Then
+        assertThat(result.numbers).hasSize(THREADS * 20_000);
+        assertThat(result.numbers).allMatch(n -> n.matches("ORD-\\d{8}-[0-9A-Z]+"));
+        logger.info("node-time: {} números en {} ms", result.numbers.size(), result.elapsedMillis);
+    }
+
+    @Test
+    @DisplayName("Node-time generators on different nodes should never collide on the same clock")
+    void nodeTime_ReplicasDoNotCollide() throws Exception {
+        // Given: two replicas whose clocks are frozen on the same millisecond
+        LongSupplier frozenClock = () -> NodeTimeOrderNumberGenerator.EPOCH + 1_000;
+        OrderNumberGenerator replicaA = new NodeTimeOrderNumberGenerator(1, frozenClock);
+        OrderNumberGenerator replicaB = new NodeTimeOrderNumberGenerator(2, frozenClock);
+
+        // When
+        Result result = generateConcurrently(List.of(replicaA, replicaB), 5_000);
+
+        // Then: sequence overflow borrows the next millisecond instead of repeating
+        assertThat(result.numbers).hasSize(THREADS * 5_000);
+    }
+
+    @Test
+    @DisplayName("Node-time generator should keep numbers unique when the clock moves backwards")
+    void nodeTime_ClockMovesBackwards() {
+        // Given
+        AtomicLong now = new AtomicLong(NodeTimeOrderNumberGenerator.EPOCH + 10_000);
+        NodeTimeOrderNumberGenerator generator = new NodeTimeOrderNumberGenerator(3, now::get);
+        long antes = generator.nextId();
+
+        // When
+        now.addAndGet(-5_000);
+        long despues = generator.nextId();
+
+        // Then
+        assertThat(despues).isGreaterThan(antes);
+    }
+
+    @Test
+    @DisplayName("Sequence generator replicas should share one sequence without overlapping blocks")
+    void sequence_ReplicasDoNotCollide() throws Exception {
+        // Given: a database sequence with INCREMENT BY 50 shared by three replicas
+        int blockSize = 50;
+        SharedSequence sequence = new SharedSequence(blockSize, 0);
+        List<OrderNumberGenerator> replicas = List.of(
+                new SequenceOrderNumberGenerator(sequence, blockSize, Clock.systemDefaultZone()),
+                new SequenceOrderNumberGenerator(sequence, blockSize, Clock.systemDefaultZone()),
+                new SequenceOrderNumberGenerator(sequence, blockSize, Clock.systemDefaultZone()));
+
+        // When
+        Result result = generateConcurrently(replicas, 2_000);
+
+        // Then: one round trip per block, plus at most one partially used block per replica
+        int total = THREADS * 2_000;
+        assertThat(result.numbers).hasSize(total);
+        assertThat(sequence.roundTrips.get()).isLessThanOrEqualTo(total / blockSize + replicas.size());
+    }
+
+    @Test
+    @DisplayName("Block allocation should call the sequence once per block instead of once per order")
+    void sequence_BlockAllocationFewerRoundTrips() throws Exception {
+        // Given
+        int ordersPerThread = 100;
+        SharedSequence perOrder = new SharedSequence(1, 0);
+        SharedSequence pooled = new SharedSequence(50, 0);
+
+        // When
+        generateConcurrently(List.of(new SequenceOrderNumberGenerator(perOrder, 1, Clock.systemDefaultZone())), ordersPerThread);
+        generateConcurrently(List.of(new SequenceOrderNumberGenerator(pooled, 50, Clock.systemDefaultZone())), ordersPerThread);
+
+        // Then
+        assertThat(perOrder.roundTrips.get()).isEqualTo(THREADS * ordersPerThread);
+        assertThat(pooled.roundTrips.get()).isEqualTo(THREADS * ordersPerThread / 50);
+    }
+
+    @Test
+    @DisplayName("Sequence generator should adopt the sequence INCREMENT BY when block-size differs")
+    void sequence_AdoptsDatabaseIncrement() {
+        // Given: block-size 50 configured, but the sequence was created with INCREMENT BY 20
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class))).thenReturn(List.of(20L));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L, 21L);
+        SequenceOrderNumberGenerator generator = new SequenceOrderNumberGenerator(jdbcTemplate);
+        ReflectionTestUtils.setField(generator, "blockSize", 50);
+
+        // When
+        generator.init();
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 21; i++) {
+            numbers.add(generator.next());
+        }
+
+        // Then: the 21st number needs a new block instead of handing out 21..50 of this one
+        assertThat(numbers).hasSize(21);
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    @DisplayName("Sequence generator should fail fast when the sequence cannot be found")
+    void sequence_MissingSequenceFailsFast() {
+        // Given
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class))).thenReturn(List.of());
+        SequenceOrderNumberGenerator generator = new SequenceOrderNumberGenerator(jdbcTemplate);
+        ReflectionTestUtils.setField(generator, "blockSize", 50);
+
+        // When / Then
+        assertThatThrownBy(generator::init)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(SequenceOrderNumberGenerator.SEQUENCE_NAME);
+    }
+
+    private Result generateConcurrently(List<OrderNumberGenerator> generators, int perThread) throws Exception {
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            OrderNumberGenerator generator = generators.get(t % generators.size());
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    if (!numbers.add(generator.next())) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        executor.shutdown();
+
+        assertThat(duplicates.get()).isZero();
+        return new Result(new HashSet<>(numbers), elapsed);
+    }
+
+    /**
+     * Behaves like nextval on a sequence with INCREMENT BY increment
+     */
+    private static class SharedSequence implements LongSupplier {
+        private final AtomicLong value;
+        private final long increment;
+        private final long latencyMillis;
+        private final AtomicInteger roundTrips = new AtomicInteger();
+
+        SharedSequence(long increment, long latencyMillis) {
+            this.value = new AtomicLong(1 - increment);
+            this.increment = increment;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public long getAsLong() {
+            roundTrips.incrementAndGet();
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return value.addAndGet(increment);
+        }
+    }
+
+    private record Result(Set<String> numbers, long elapsedMillis) {}
+}
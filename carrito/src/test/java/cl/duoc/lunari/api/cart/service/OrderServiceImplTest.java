@@ -9,9 +9,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -30,6 +33,12 @@ class OrderServiceImplTest {
     @Mock
     private PedidoRepository pedidoRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private OrderNumberGenerator orderNumberGenerator = new NodeTimeOrderNumberGenerator(1, System::currentTimeMillis);
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -167,7 +176,7 @@ class OrderServiceImplTest {
     void getOrdersByUsuario_Success() {
         // Given
         List<Pedido> pedidos = Arrays.asList(pedido);
-        when(pedidoRepository.findByUsuarioIdOrderByCreadoElDesc(usuarioId)).thenReturn(pedidos);
+        when(pedidoRepository.findWithItemsAndPagoByUsuarioIdOrderByCreadoElDesc(usuarioId)).thenReturn(pedidos);
 
         // When
         List<Pedido> result = orderService.getOrdersByUsuario(usuarioId);
@@ -177,7 +186,7 @@ class OrderServiceImplTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0)).isEqualTo(pedido);
 
-        verify(pedidoRepository).findByUsuarioIdOrderByCreadoElDesc(usuarioId);
+        verify(pedidoRepository).findWithItemsAndPagoByUsuarioIdOrderByCreadoElDesc(usuarioId);
     }
 
     @Test
@@ -186,7 +195,7 @@ class OrderServiceImplTest {
         // Given
         EstadoPedido estado = EstadoPedido.CREADO;
         List<Pedido> pedidos = Arrays.asList(pedido);
-        when(pedidoRepository.findByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(usuarioId, estado))
+        when(pedidoRepository.findWithItemsAndPagoByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(usuarioId, estado))
                 .thenReturn(pedidos);
 
         // When
@@ -197,7 +206,7 @@ class OrderServiceImplTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getEstadoPedido()).isEqualTo(EstadoPedido.CREADO);
 
-        verify(pedidoRepository).findByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(usuarioId, estado);
+        verify(pedidoRepository).findWithItemsAndPagoByUsuarioIdAndEstadoPedidoOrderByCreadoElDesc(usuarioId, estado);
     }
 
     @Test
@@ -234,6 +243,28 @@ class OrderServiceImplTest {
         verify(pedidoRepository).save(any(Pedido.class));
     }
 
+    @Test
+    @DisplayName("Should publish the sold quantities per product when an order completes")
+    void markOrderComplete_PublishesPedidoCompletado() {
+        // Given
+        pedido.setEstadoPedido(EstadoPedido.PROCESANDO);
+        pedido.agregarItem(createPedidoItem(1L, 2));
+        pedido.agregarItem(createPedidoItem(7L, 1));
+        pedido.agregarItem(createPedidoItem(1L, 3));
+        when(pedidoRepository.findById(pedidoId)).thenReturn(Optional.of(pedido));
+        when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedido);
+
+        // When
+        orderService.markOrderComplete(pedidoId, null);
+
+        // Then
+        ArgumentCaptor<PedidoCompletadoEvent> evento = ArgumentCaptor.forClass(PedidoCompletadoEvent.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertThat(evento.getValue().pedidoId()).isEqualTo(pedidoId);
+        assertThat(evento.getValue().completadoEl()).isEqualTo(pedido.getCompletadoEl());
+        assertThat(evento.getValue().cantidadesPorProducto()).containsOnly(entry(1L, 5), entry(7L, 1));
+    }
+
     @Test
     @DisplayName("Should mark order as complete from PROCESANDO state")
     void markOrderComplete_FromProcesando() {
@@ -325,4 +356,15 @@ class OrderServiceImplTest {
         // Then
         assertThat(result.getTotalPuntosGanados()).isEqualTo(1000); // 100000 / 100 = 1000 points
     }
+
+    private PedidoItem createPedidoItem(Long productoId, int cantidad) {
+        PedidoItem item = new PedidoItem();
+        item.setProductoId(productoId);
+        item.setCodigoProducto("PROD-" + productoId);
+        item.setNombreProducto("Producto " + productoId);
+        item.setCantidad(cantidad);
+        item.setPrecioUnitario(new BigDecimal("10000"));
+        item.calcularSubtotal();
+        return item;
+    }
 }
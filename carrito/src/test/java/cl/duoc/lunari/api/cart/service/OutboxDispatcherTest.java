@@ -0,0 +1,130 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.dto.AwardPointsRequest;
+import cl.duoc.lunari.api.cart.dto.StockReductionRequest;
+import cl.duoc.lunari.api.cart.model.OutboxEvento;
+import cl.duoc.lunari.api.cart.model.TipoEventoOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxDispatcher
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxDispatcher Unit Tests")
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private StockReductionJob stockReductionJob;
+
+    @Mock
+    private PointsAwardJob pointsAwardJob;
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // Executor síncrono: el lote se despacha en el hilo del test
+        dispatcher = new OutboxDispatcher(outboxService, stockReductionJob, pointsAwardJob, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Should dispatch each event to its job and record the result")
+    void despacharPendientes_RoutesByType() {
+        // Given
+        OutboxEvento stock = createEvento(TipoEventoOutbox.REDUCIR_STOCK);
+        OutboxEvento puntos = createEvento(TipoEventoOutbox.OTORGAR_PUNTOS);
+        StockReductionRequest stockRequest = new StockReductionRequest();
+        AwardPointsRequest puntosRequest = new AwardPointsRequest();
+
+        when(outboxService.reclamarLote()).thenReturn(List.of(stock, puntos));
+        when(outboxService.getBatchSize()).thenReturn(50);
+        when(outboxService.leerPayload(stock, StockReductionRequest.class)).thenReturn(stockRequest);
+        when(outboxService.leerPayload(puntos, AwardPointsRequest.class)).thenReturn(puntosRequest);
+        when(stockReductionJob.execute(stockRequest)).thenReturn(true);
+        when(pointsAwardJob.execute(puntosRequest)).thenReturn(false);
+
+        // When
+        dispatcher.despacharPendientes();
+
+        // Then
+        verify(outboxService).marcarProcesado(stock.getId());
+        verify(outboxService).registrarFallo(eq(puntos.getId()), anyString());
+        verify(outboxService, times(1)).reclamarLote();
+    }
+
+    @Test
+    @DisplayName("Should record a failure when the job throws")
+    void despachar_JobThrows() {
+        // Given
+        OutboxEvento stock = createEvento(TipoEventoOutbox.REDUCIR_STOCK);
+        when(outboxService.leerPayload(stock, StockReductionRequest.class))
+                .thenThrow(new IllegalStateException("Payload inválido"));
+
+        // When
+        dispatcher.despachar(stock);
+
+        // Then
+        verify(outboxService).registrarFallo(stock.getId(), "Payload inválido");
+        verify(outboxService, never()).marcarProcesado(any());
+    }
+
+    @Test
+    @DisplayName("Should keep claiming while batches come back full")
+    void despacharPendientes_DrainsFullBatches() {
+        // Given
+        OutboxEvento evento = createEvento(TipoEventoOutbox.OTORGAR_PUNTOS);
+        AwardPointsRequest request = new AwardPointsRequest();
+        when(outboxService.reclamarLote()).thenReturn(List.of(evento), List.of());
+        when(outboxService.getBatchSize()).thenReturn(1);
+        when(outboxService.leerPayload(evento, AwardPointsRequest.class)).thenReturn(request);
+        when(pointsAwardJob.execute(request)).thenReturn(true);
+
+        // When
+        dispatcher.despacharPendientes();
+
+        // Then
+        verify(outboxService, times(2)).reclamarLote();
+        verify(outboxService).marcarProcesado(evento.getId());
+    }
+
+    @Test
+    @DisplayName("Should complete every stuck order found by the reconciliation sweep")
+    void reconciliarPedidos_CompletesEachOrder() {
+        // Given
+        UUID primero = UUID.randomUUID();
+        UUID segundo = UUID.randomUUID();
+        when(outboxService.buscarPedidosPorCompletar()).thenReturn(List.of(primero, segundo));
+        doThrow(new IllegalStateException("timeout")).when(outboxService).completarSiProcesado(primero);
+
+        // When
+        dispatcher.reconciliarPedidos();
+
+        // Then: un pedido que falla no detiene el resto del barrido
+        verify(outboxService).completarSiProcesado(primero);
+        verify(outboxService).completarSiProcesado(segundo);
+    }
+
+    private OutboxEvento createEvento(TipoEventoOutbox tipo) {
+        OutboxEvento evento = new OutboxEvento();
+        evento.setId(UUID.randomUUID());
+        evento.setTipo(tipo);
+        evento.setPedidoId(UUID.randomUUID());
+        evento.setIdempotencyKey(tipo.name() + ":ORD-20250130-00001");
+        evento.setPayload("{}");
+        return evento;
+    }
+}
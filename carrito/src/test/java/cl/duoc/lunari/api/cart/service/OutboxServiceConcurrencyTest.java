@@ -0,0 +1,172 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.model.EstadoEventoOutbox;
+import cl.duoc.lunari.api.cart.model.EstadoPedido;
+import cl.duoc.lunari.api.cart.model.OutboxEvento;
+import cl.duoc.lunari.api.cart.model.Pedido;
+import cl.duoc.lunari.api.cart.model.TipoEventoOutbox;
+import cl.duoc.lunari.api.cart.repository.OutboxEventoRepository;
+import cl.duoc.lunari.api.cart.repository.PedidoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Concurrency tests for OutboxService against a real database (H2, READ COMMITTED)
+ * Each call runs in its own transaction, as it does when OutboxDispatcher dispatches a batch in parallel
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OutboxService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:outboxdb;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver"
+})
+@DisplayName("OutboxService Concurrency Tests")
+class OutboxServiceConcurrencyTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @MockitoSpyBean
+    private OutboxEventoRepository outboxEventoRepository;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    private Pedido pedido;
+
+    @BeforeEach
+    void setUp() {
+        pedido = new Pedido();
+        pedido.setNumeroPedido("ORD-20250130-00001");
+        pedido.setCarritoId(UUID.randomUUID());
+        pedido.setUsuarioId(UUID.randomUUID());
+        pedido.setEstadoPedido(EstadoPedido.PAGO_COMPLETADO);
+        pedido.setTotalProductos(new BigDecimal("50000"));
+        pedido = pedidoRepository.save(pedido);
+
+        when(orderService.getOrderById(pedido.getId())).thenReturn(pedido);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventoRepository.deleteAll();
+        pedidoRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should complete the order exactly once when its last two events finish concurrently")
+    void marcarProcesado_ConcurrentLastEvents() throws Exception {
+        // Given
+        OutboxEvento stock = saveEvento(TipoEventoOutbox.REDUCIR_STOCK);
+        OutboxEvento puntos = saveEvento(TipoEventoOutbox.OTORGAR_PUNTOS);
+
+        // Ambas transacciones esperan aquí antes de contar; sin el bloqueo del pedido las dos
+        // llegan con su propio evento marcado y sin ver el del otro. Con el bloqueo la segunda
+        // nunca llega mientras la primera espera, y la barrera se rompe por timeout
+        CyclicBarrier antesDeContar = new CyclicBarrier(2);
+        doAnswer(invocation -> {
+            try {
+                antesDeContar.await(2, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                // Barrera rota o vencida: la otra transacción está bloqueada en el pedido
+            }
+            // El repositorio es un proxy JDK: la respuesta por defecto del spy delega en el original
+            return mockingDetails(outboxEventoRepository).getMockCreationSettings()
+                    .getDefaultAnswer().answer(invocation);
+        }).when(outboxEventoRepository).countByPedidoIdAndEstadoNot(any(), any());
+
+        // When
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> outboxService.marcarProcesado(stock.getId())),
+                CompletableFuture.runAsync(() -> outboxService.marcarProcesado(puntos.getId()))
+        ).get(30, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(outboxEventoRepository.countByPedidoIdAndEstadoNot(pedido.getId(), EstadoEventoOutbox.PROCESADO))
+                .isZero();
+        verify(orderService, times(1)).markOrderComplete(pedido.getId(), null);
+    }
+
+    @Test
+    @DisplayName("Should find only paid orders whose events are all processed")
+    void buscarPedidosPorCompletar_OnlyFullyProcessed() {
+        // Given: pedido con todos sus eventos procesados y otro con uno pendiente
+        OutboxEvento stock = saveEvento(TipoEventoOutbox.REDUCIR_STOCK);
+        stock.marcarComoProcesado();
+        outboxEventoRepository.save(stock);
+
+        Pedido pendiente = new Pedido();
+        pendiente.setNumeroPedido("ORD-20250130-00002");
+        pendiente.setCarritoId(UUID.randomUUID());
+        pendiente.setUsuarioId(UUID.randomUUID());
+        pendiente.setEstadoPedido(EstadoPedido.PAGO_COMPLETADO);
+        pendiente.setTotalProductos(new BigDecimal("10000"));
+        pendiente = pedidoRepository.save(pendiente);
+        saveEvento(pendiente, TipoEventoOutbox.REDUCIR_STOCK);
+
+        // When
+        List<UUID> porCompletar = outboxService.buscarPedidosPorCompletar();
+
+        // Then
+        assertThat(porCompletar).containsExactly(pedido.getId());
+    }
+
+    @Test
+    @DisplayName("Should complete a stuck order on reconciliation")
+    void completarSiProcesado_StuckOrder() {
+        // Given
+        OutboxEvento stock = saveEvento(TipoEventoOutbox.REDUCIR_STOCK);
+        stock.marcarComoProcesado();
+        outboxEventoRepository.save(stock);
+
+        // When
+        outboxService.completarSiProcesado(pedido.getId());
+
+        // Then
+        verify(orderService).markOrderComplete(pedido.getId(), null);
+    }
+
+    private OutboxEvento saveEvento(TipoEventoOutbox tipo) {
+        return saveEvento(pedido, tipo);
+    }
+
+    private OutboxEvento saveEvento(Pedido pedido, TipoEventoOutbox tipo) {
+        OutboxEvento evento = new OutboxEvento();
+        evento.setTipo(tipo);
+        evento.setPedidoId(pedido.getId());
+        evento.setIdempotencyKey(tipo.name() + ":" + pedido.getNumeroPedido());
+        evento.setPayload("{}");
+        evento.setEstado(EstadoEventoOutbox.EN_PROCESO);
+        return outboxEventoRepository.save(evento);
+    }
+}
@@ -0,0 +1,268 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.dto.AwardPointsRequest;
+import cl.duoc.lunari.api.cart.dto.StockReductionRequest;
+import cl.duoc.lunari.api.cart.model.*;
+import cl.duoc.lunari.api.cart.repository.OutboxEventoRepository;
+import cl.duoc.lunari.api.cart.repository.PedidoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxService Unit Tests")
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventoRepository outboxEventoRepository;
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    private OutboxService outboxService;
+
+    private UUID pedidoId;
+    private Pedido pedido;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxService(outboxEventoRepository, pedidoRepository, orderService, new ObjectMapper());
+        ReflectionTestUtils.setField(outboxService, "batchSize", 50);
+        ReflectionTestUtils.setField(outboxService, "maxIntentos", 3);
+        ReflectionTestUtils.setField(outboxService, "backoffInicial", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(outboxService, "backoffMaximo", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(outboxService, "lease", Duration.ofMinutes(5));
+
+        pedidoId = UUID.randomUUID();
+        pedido = new Pedido();
+        pedido.setId(pedidoId);
+        pedido.setNumeroPedido("ORD-20250130-00001");
+        pedido.setUsuarioId(UUID.randomUUID());
+        pedido.setEstadoPedido(EstadoPedido.PAGO_COMPLETADO);
+        pedido.setTotalProductos(new BigDecimal("50000"));
+        pedido.setTotalPuntosGanados(500);
+
+        PedidoItem item = new PedidoItem();
+        item.setProductoId(1L);
+        item.setCantidad(2);
+        pedido.agregarItem(item);
+    }
+
+    @Test
+    @DisplayName("Should register stock and points events with idempotency keys")
+    void registrarAccionesPostPago_Success() {
+        // Given
+        when(outboxEventoRepository.existsByIdempotencyKey(anyString())).thenReturn(false);
+
+        // When
+        outboxService.registrarAccionesPostPago(pedido);
+
+        // Then
+        ArgumentCaptor<OutboxEvento> captor = ArgumentCaptor.forClass(OutboxEvento.class);
+        verify(outboxEventoRepository, times(2)).save(captor.capture());
+        List<OutboxEvento> eventos = captor.getAllValues();
+
+        assertThat(eventos).extracting(OutboxEvento::getIdempotencyKey)
+                .containsExactly("REDUCIR_STOCK:ORD-20250130-00001", "OTORGAR_PUNTOS:ORD-20250130-00001");
+        assertThat(eventos).allMatch(e -> e.getEstado() == EstadoEventoOutbox.PENDIENTE);
+
+        StockReductionRequest stock = outboxService.leerPayload(eventos.get(0), StockReductionRequest.class);
+        assertThat(stock.getReferencia()).isEqualTo("ORD-20250130-00001");
+        assertThat(stock.getItems()).hasSize(1);
+
+        AwardPointsRequest puntos = outboxService.leerPayload(eventos.get(1), AwardPointsRequest.class);
+        assertThat(puntos.getPuntos()).isEqualTo(500);
+        assertThat(puntos.getUsuarioId()).isEqualTo(pedido.getUsuarioId());
+
+        verify(orderService, never()).markOrderComplete(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not register duplicate events for the same order")
+    void registrarAccionesPostPago_AlreadyRegistered() {
+        // Given
+        when(outboxEventoRepository.existsByIdempotencyKey(anyString())).thenReturn(true);
+        when(outboxEventoRepository.countByPedidoIdAndEstadoNot(pedidoId, EstadoEventoOutbox.PROCESADO)).thenReturn(2L);
+
+        // When
+        outboxService.registrarAccionesPostPago(pedido);
+
+        // Then
+        verify(outboxEventoRepository, never()).save(any());
+        verify(orderService, never()).markOrderComplete(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should claim due events and lease them")
+    void reclamarLote_LeasesEvents() {
+        // Given
+        OutboxEvento evento = createEvento(EstadoEventoOutbox.PENDIENTE, 0);
+        when(outboxEventoRepository.findEventosParaDespachar(anyCollection(), any(), any()))
+                .thenReturn(List.of(evento));
+
+        // When
+        List<OutboxEvento> lote = outboxService.reclamarLote();
+
+        // Then
+        assertThat(lote).containsExactly(evento);
+        assertThat(evento.getEstado()).isEqualTo(EstadoEventoOutbox.EN_PROCESO);
+        assertThat(evento.getProximoIntentoEl()).isAfter(OffsetDateTime.now().plusMinutes(4));
+    }
+
+    @Test
+    @DisplayName("Should complete order when its last event is processed")
+    void marcarProcesado_CompletesOrder() {
+        // Given
+        OutboxEvento evento = createEvento(EstadoEventoOutbox.EN_PROCESO, 0);
+        when(outboxEventoRepository.findById(evento.getId())).thenReturn(Optional.of(evento));
+        when(outboxEventoRepository.countByPedidoIdAndEstadoNot(pedidoId, EstadoEventoOutbox.PROCESADO)).thenReturn(0L);
+        when(orderService.getOrderById(pedidoId)).thenReturn(pedido);
+
+        // When
+        outboxService.marcarProcesado(evento.getId());
+
+        // Then
+        assertThat(evento.getEstado()).isEqualTo(EstadoEventoOutbox.PROCESADO);
+        assertThat(evento.getProcesadoEl()).isNotNull();
+        verify(orderService).markOrderComplete(pedidoId, null);
+    }
+
+    @Test
+    @DisplayName("Should not complete order while other events are pending")
+    void marcarProcesado_OtherEventsPending() {
+        // Given
+        OutboxEvento evento = createEvento(EstadoEventoOutbox.EN_PROCESO, 0);
+        when(outboxEventoRepository.findById(evento.getId())).thenReturn(Optional.of(evento));
+        when(outboxEventoRepository.countByPedidoIdAndEstadoNot(pedidoId, EstadoEventoOutbox.PROCESADO)).thenReturn(1L);
+
+        // When
+        outboxService.marcarProcesado(evento.getId());
+
+        // Then
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    @DisplayName("Should lock the order row before counting pending events")
+    void marcarProcesado_LocksOrderBeforeCounting() {
+        // Given
+        OutboxEvento evento = createEvento(EstadoEventoOutbox.EN_PROCESO, 0);
+        when(outboxEventoRepository.findById(evento.getId())).thenReturn(Optional.of(evento));
+        when(outboxEventoRepository.countByPedidoIdAndEstadoNot(pedidoId, EstadoEventoOutbox.PROCESADO)).thenReturn(1L);
+
+        // When
+        outboxService.marcarProcesado(evento.getId());
+
+        // Then
+        var inOrder = inOrder(pedidoRepository, outboxEventoRepository);
+        inOrder.verify(pedidoRepository).findByIdForUpdate(pedidoId);
+        inOrder.verify(outboxEventoRepository).countByPedidoIdAndEstadoNot(pedidoId, EstadoEventoOutbox.PROCESADO);
+    }
+
+    @Test
+    @DisplayName("Should complete a reconciled order whose events are all processed")
+    void completarSiProcesado_CompletesOrder() {
+        // Given
+        when(pedidoRepository.findByIdForUpdate(pedidoId)).thenReturn(Optional.of(pedido));
+        when(outboxEventoRepository.countByPedidoIdAndEstadoNot(pedidoId, EstadoEventoOutbox.PROCESADO)).thenReturn(0L);
+        when(orderService.getOrderById(pedidoId)).thenReturn(pedido);
+
+        // When
+        outboxService.completarSiProcesado(pedidoId);
+
+        // Then
+        verify(orderService).markOrderComplete(pedidoId, null);
+    }
+
+    @Test
+    @DisplayName("Should skip a reconciled order that is already completed")
+    void completarSiProcesado_AlreadyCompleted() {
+        // Given
+        pedido.setEstadoPedido(EstadoPedido.COMPLETADO);
+        when(pedidoRepository.findByIdForUpdate(pedidoId)).thenReturn(Optional.of(pedido));
+        when(outboxEventoRepository.countByPedidoIdAndEstadoNot(pedidoId, EstadoEventoOutbox.PROCESADO)).thenReturn(0L);
+        when(orderService.getOrderById(pedidoId)).thenReturn(pedido);
+
+        // When
+        outboxService.completarSiProcesado(pedidoId);
+
+        // Then
+        verify(orderService, never()).markOrderComplete(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reschedule failed event with backoff")
+    void registrarFallo_Reschedules() {
+        // Given
+        OutboxEvento evento = createEvento(EstadoEventoOutbox.EN_PROCESO, 0);
+        when(outboxEventoRepository.findById(evento.getId())).thenReturn(Optional.of(evento));
+
+        // When
+        outboxService.registrarFallo(evento.getId(), "timeout");
+
+        // Then
+        assertThat(evento.getEstado()).isEqualTo(EstadoEventoOutbox.PENDIENTE);
+        assertThat(evento.getIntentos()).isEqualTo(1);
+        assertThat(evento.getUltimoError()).isEqualTo("timeout");
+        assertThat(evento.getProximoIntentoEl()).isAfter(OffsetDateTime.now().plusSeconds(9));
+    }
+
+    @Test
+    @DisplayName("Should move event to dead letter after max attempts")
+    void registrarFallo_DeadLetter() {
+        // Given
+        OutboxEvento evento = createEvento(EstadoEventoOutbox.EN_PROCESO, 2);
+        when(outboxEventoRepository.findById(evento.getId())).thenReturn(Optional.of(evento));
+
+        // When
+        outboxService.registrarFallo(evento.getId(), "Stock insuficiente");
+
+        // Then
+        assertThat(evento.getEstado()).isEqualTo(EstadoEventoOutbox.FALLIDO);
+        assertThat(evento.getIntentos()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should grow backoff exponentially up to the maximum")
+    void calcularBackoff_ExponentialWithCap() {
+        assertThat(outboxService.calcularBackoff(1)).isBetween(Duration.ofSeconds(10), Duration.ofSeconds(12));
+        assertThat(outboxService.calcularBackoff(3)).isBetween(Duration.ofSeconds(40), Duration.ofSeconds(48));
+        assertThat(outboxService.calcularBackoff(20)).isBetween(Duration.ofMinutes(30), Duration.ofMinutes(36));
+    }
+
+    private OutboxEvento createEvento(EstadoEventoOutbox estado, int intentos) {
+        OutboxEvento evento = new OutboxEvento();
+        evento.setId(UUID.randomUUID());
+        evento.setTipo(TipoEventoOutbox.REDUCIR_STOCK);
+        evento.setPedidoId(pedidoId);
+        evento.setIdempotencyKey("REDUCIR_STOCK:" + pedido.getNumeroPedido());
+        evento.setPayload("{}");
+        evento.setEstado(estado);
+        evento.setIntentos(intentos);
+        evento.setProximoIntentoEl(OffsetDateTime.now());
+        return evento;
+    }
+}
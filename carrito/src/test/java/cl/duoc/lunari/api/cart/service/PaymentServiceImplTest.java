@@ -12,10 +12,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,6 +40,9 @@ class PaymentServiceImplTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -89,7 +95,7 @@ class PaymentServiceImplTest {
 
         verify(transbankService).createTransaction(
                 eq(new BigDecimal("50000")),
-                eq("BUY-ORD-20250130-00001"),
+                eq("BUY-20250130-00001"),
                 eq("SES-" + pedidoId.toString()),
                 eq(returnUrl)
         );
@@ -97,13 +103,41 @@ class PaymentServiceImplTest {
         verify(orderService).updateOrderStatus(pedidoId, EstadoPedido.PAGO_PENDIENTE);
     }
 
+    @Test
+    @DisplayName("Should keep the buy order within the Webpay Plus limit with both order number strategies")
+    void buyOrder_LargoMaximoAmbasEstrategias() {
+        // Given: el id más largo de node-time (último milisegundo de 41 bits, nodo y secuencia máximos)
+        // y un valor de secuencia de 10 dígitos
+        long ultimoMilisegundo = NodeTimeOrderNumberGenerator.EPOCH + (1L << 41) - 1;
+        NodeTimeOrderNumberGenerator nodeTime = new NodeTimeOrderNumberGenerator(
+                NodeTimeOrderNumberGenerator.MAX_NODE, () -> ultimoMilisegundo);
+        ReflectionTestUtils.setField(nodeTime, "ultimo",
+                new AtomicLong((ultimoMilisegundo - NodeTimeOrderNumberGenerator.EPOCH)
+                        << NodeTimeOrderNumberGenerator.SEQUENCE_BITS | (NodeTimeOrderNumberGenerator.MAX_SEQUENCE - 1)));
+        SequenceOrderNumberGenerator sequence = new SequenceOrderNumberGenerator(
+                () -> 9_999_999_999L, 50, Clock.systemDefaultZone());
+
+        // When
+        String nodeTimeNumber = nodeTime.next();
+        String sequenceNumber = sequence.next();
+
+        // Then
+        assertThat(nodeTimeNumber).endsWith("-" + Long.toString(Long.MAX_VALUE, 36).toUpperCase());
+        assertThat(PaymentServiceImpl.buyOrder(nodeTimeNumber))
+                .startsWith("BUY-")
+                .hasSizeLessThanOrEqualTo(PaymentServiceImpl.BUY_ORDER_MAX_LENGTH);
+        assertThat(PaymentServiceImpl.buyOrder(sequenceNumber))
+                .startsWith("BUY-")
+                .hasSizeLessThanOrEqualTo(PaymentServiceImpl.BUY_ORDER_MAX_LENGTH);
+    }
+
     @Test
     @DisplayName("Should confirm approved payment successfully")
     void confirmPayment_Approved() {
         // Given
         String token = "test-token-123";
         TransbankConfirmResponse confirmResponse = new TransbankConfirmResponse();
-        confirmResponse.setBuyOrder("BUY-ORD-20250130-00001");
+        confirmResponse.setBuyOrder("BUY-20250130-00001");
         confirmResponse.setAuthorizationCode("123456");
         confirmResponse.setResponseCode(0);
         confirmResponse.setAmount(new BigDecimal("50000"));
@@ -120,8 +154,8 @@ class PaymentServiceImplTest {
         assertThat(result).isNotNull();
         verify(pagoRepository).findByTransbankToken(token);
         verify(transbankService).confirmTransaction(token);
-        verify(paymentService).processApprovedPayment(pago, confirmResponse);
         verify(orderService).updateOrderStatus(pedidoId, EstadoPedido.PAGO_COMPLETADO);
+        verify(outboxService).registrarAccionesPostPago(pedido);
     }
 
     @Test
@@ -130,7 +164,7 @@ class PaymentServiceImplTest {
         // Given
         String token = "test-token-123";
         TransbankConfirmResponse confirmResponse = new TransbankConfirmResponse();
-        confirmResponse.setBuyOrder("BUY-ORD-20250130-00001");
+        confirmResponse.setBuyOrder("BUY-20250130-00001");
         confirmResponse.setResponseCode(-1);
         confirmResponse.setAmount(new BigDecimal("50000"));
 
@@ -258,5 +292,6 @@ class PaymentServiceImplTest {
 
         verify(pagoRepository).save(pago);
         verify(orderService).updateOrderStatus(pedidoId, EstadoPedido.FALLIDO);
+        verifyNoInteractions(outboxService);
     }
 }
@@ -0,0 +1,110 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.dto.AwardPointsRequest;
+import cl.duoc.lunari.api.cart.service.client.UsuarioServiceClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PointsAwardBatcher
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PointsAwardBatcher Unit Tests")
+class PointsAwardBatcherTest {
+
+    @Mock
+    private UsuarioServiceClient usuarioServiceClient;
+
+    private PointsAwardBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new PointsAwardBatcher(usuarioServiceClient);
+        ReflectionTestUtils.setField(batcher, "window", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(batcher, "maxSize", 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should coalesce awards submitted within the window into one call")
+    @SuppressWarnings("unchecked")
+    void submit_CoalescesWithinWindow() throws Exception {
+        // Given
+        when(usuarioServiceClient.awardPointsBulk(anyList()))
+                .thenReturn(Set.of("ORD-1", "ORD-2", "ORD-3"));
+
+        // When
+        List<CompletableFuture<Boolean>> resultados = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            resultados.add(batcher.submit(award("ORD-" + i)));
+        }
+
+        // Then
+        for (int i = 0; i < 3; i++) {
+            assertThat(resultados.get(i).get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(resultados.get(3).get(5, TimeUnit.SECONDS)).isFalse();
+
+        ArgumentCaptor<List<AwardPointsRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(usuarioServiceClient, times(1)).awardPointsBulk(captor.capture());
+        assertThat(captor.getValue()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should send immediately when the batch reaches max size")
+    void submit_FlushesAtMaxSize() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(batcher, "window", Duration.ofMinutes(5));
+        when(usuarioServiceClient.awardPointsBulk(anyList())).thenReturn(Set.of());
+
+        // When
+        List<CompletableFuture<Boolean>> resultados = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            resultados.add(batcher.submit(award("ORD-" + i)));
+        }
+
+        // Then: completes well before the 5 minute window
+        CompletableFuture.allOf(resultados.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        verify(usuarioServiceClient, times(1)).awardPointsBulk(anyList());
+    }
+
+    @Test
+    @DisplayName("Should fail every award of the batch when the call throws")
+    void submit_ClientError() throws Exception {
+        // Given
+        when(usuarioServiceClient.awardPointsBulk(anyList())).thenThrow(new RuntimeException("Connection refused"));
+
+        // When
+        CompletableFuture<Boolean> resultado = batcher.submit(award("ORD-1"));
+
+        // Then
+        assertThat(resultado.get(5, TimeUnit.SECONDS)).isFalse();
+    }
+
+    private AwardPointsRequest award(String referencia) {
+        return new AwardPointsRequest(UUID.randomUUID(), 100, "Compra - Pedido: " + referencia, referencia);
+    }
+}
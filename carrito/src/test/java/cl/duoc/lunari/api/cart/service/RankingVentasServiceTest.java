@@ -0,0 +1,171 @@
+package cl.duoc.lunari.api.cart.service;
+
+import cl.duoc.lunari.api.cart.model.EstadoPedido;
+import cl.duoc.lunari.api.cart.repository.PedidoItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RankingVentasService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RankingVentasService Unit Tests")
+class RankingVentasServiceTest {
+
+    private static final Duration DIA = Duration.ofHours(24);
+    private static final Duration SEMANA = Duration.ofDays(7);
+
+    @Mock
+    private PedidoItemRepository pedidoItemRepository;
+
+    private RankingVentasService rankingVentasService;
+
+    private OffsetDateTime ahora;
+
+    private final List<Object[]> ventas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ahora = OffsetDateTime.of(2026, 10, 16, 12, 30, 0, 0, ZoneOffset.UTC);
+        rankingVentasService = new RankingVentasService(pedidoItemRepository);
+        ReflectionTestUtils.setField(rankingVentasService, "ventanas", List.of(DIA, SEMANA));
+        usarReloj(ahora);
+        lenient().when(pedidoItemRepository.findVentasDesde(eq(EstadoPedido.COMPLETADO), any()))
+                .thenAnswer(inv -> List.copyOf(ventas));
+    }
+
+    @Test
+    @DisplayName("Should load from the database once and rank by quantity within each window")
+    void masVendidos_RanksPerWindow() {
+        // Given
+        UUID hoy = UUID.randomUUID();
+        UUID haceTresDias = UUID.randomUUID();
+        venta(hoy, ahora.minusHours(1), 1L, 2);
+        venta(hoy, ahora.minusHours(1), 2L, 3);
+        venta(haceTresDias, ahora.minusDays(3), 1L, 4);
+
+        // When
+        List<RankingVentasService.ProductoVendido> dia = rankingVentasService.masVendidos(DIA, 10);
+        List<RankingVentasService.ProductoVendido> semana = rankingVentasService.masVendidos(SEMANA, 10);
+        rankingVentasService.masVendidos(SEMANA, 10);
+
+        // Then
+        assertThat(dia).containsExactly(
+                new RankingVentasService.ProductoVendido(2L, 3),
+                new RankingVentasService.ProductoVendido(1L, 2));
+        assertThat(semana).containsExactly(
+                new RankingVentasService.ProductoVendido(1L, 6),
+                new RankingVentasService.ProductoVendido(2L, 3));
+        verify(pedidoItemRepository, times(1)).findVentasDesde(eq(EstadoPedido.COMPLETADO),
+                eq(OffsetDateTime.of(2026, 10, 9, 13, 0, 0, 0, ZoneOffset.UTC)));
+    }
+
+    @Test
+    @DisplayName("Should add completed orders incrementally without querying again")
+    void onPedidoCompletado_UpdatesIncrementally() {
+        // Given
+        rankingVentasService.masVendidos(DIA, 10);
+
+        // When
+        rankingVentasService.onPedidoCompletado(new PedidoCompletadoEvent(UUID.randomUUID(), ahora, Map.of(5L, 2)));
+        rankingVentasService.onPedidoCompletado(new PedidoCompletadoEvent(UUID.randomUUID(), ahora, Map.of(5L, 1, 6L, 4)));
+
+        // Then
+        assertThat(rankingVentasService.masVendidos(DIA, 1))
+                .containsExactly(new RankingVentasService.ProductoVendido(6L, 4));
+        assertThat(rankingVentasService.masVendidos(DIA, 10))
+                .extracting(RankingVentasService.ProductoVendido::cantidad).containsExactly(4L, 3L);
+        verify(pedidoItemRepository, times(1)).findVentasDesde(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not count an order twice when the rebuild already includes it")
+    void reconstruir_DoesNotDoubleCount() {
+        // Given
+        UUID pedidoId = UUID.randomUUID();
+        rankingVentasService.masVendidos(DIA, 10);
+        rankingVentasService.onPedidoCompletado(new PedidoCompletadoEvent(pedidoId, ahora, Map.of(1L, 2)));
+        venta(pedidoId, ahora, 1L, 2);
+
+        // When
+        rankingVentasService.reconstruir();
+        rankingVentasService.onPedidoCompletado(new PedidoCompletadoEvent(pedidoId, ahora, Map.of(1L, 2)));
+
+        // Then
+        assertThat(rankingVentasService.masVendidos(DIA, 10))
+                .containsExactly(new RankingVentasService.ProductoVendido(1L, 2));
+    }
+
+    @Test
+    @DisplayName("Should keep orders completed while the rebuild reads the database")
+    void reconstruir_KeepsOrdersCompletedDuringRead() {
+        // Given: the order commits after the rebuild query took its snapshot
+        UUID pedidoId = UUID.randomUUID();
+        when(pedidoItemRepository.findVentasDesde(any(), any())).thenAnswer(inv -> {
+            rankingVentasService.onPedidoCompletado(new PedidoCompletadoEvent(pedidoId, ahora, Map.of(3L, 1)));
+            return List.of();
+        });
+
+        // When
+        List<RankingVentasService.ProductoVendido> ranking = rankingVentasService.masVendidos(DIA, 10);
+
+        // Then
+        assertThat(ranking).containsExactly(new RankingVentasService.ProductoVendido(3L, 1));
+    }
+
+    @Test
+    @DisplayName("Should drop sales that fall out of the window as time passes")
+    void masVendidos_SlidesWithTime() {
+        // Given
+        venta(UUID.randomUUID(), ahora.minusHours(20), 1L, 5);
+        venta(UUID.randomUUID(), ahora, 2L, 1);
+        assertThat(rankingVentasService.masVendidos(DIA, 10)).hasSize(2);
+
+        // When
+        usarReloj(ahora.plusHours(5));
+
+        // Then
+        assertThat(rankingVentasService.masVendidos(DIA, 10))
+                .containsExactly(new RankingVentasService.ProductoVendido(2L, 1));
+        assertThat(rankingVentasService.masVendidos(SEMANA, 10)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should reject windows that are not configured")
+    void masVendidos_UnsupportedWindow() {
+        assertThatThrownBy(() -> rankingVentasService.masVendidos(Duration.ofDays(365), 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Ventana no soportada");
+
+        verifyNoInteractions(pedidoItemRepository);
+    }
+
+    private void venta(UUID pedidoId, OffsetDateTime completadoEl, Long productoId, int cantidad) {
+        ventas.add(new Object[]{pedidoId, completadoEl, productoId, cantidad});
+    }
+
+    private void usarReloj(OffsetDateTime instante) {
+        ReflectionTestUtils.setField(rankingVentasService, "clock",
+                Clock.fixed(Instant.from(instante), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,112 @@
+package cl.duoc.lunari.api.cart.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the product info cache in InventarioServiceClient
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventarioServiceClient Cache Tests")
+class InventarioServiceClientTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventarioServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        client = new InventarioServiceClient(restTemplate, meterRegistry);
+        ReflectionTestUtils.setField(client, "inventarioServiceUrl", "http://localhost:8082");
+        ReflectionTestUtils.setField(client, "cacheEnabled", true);
+        ReflectionTestUtils.setField(client, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(client, "cacheTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(client, "cachePriceStaleness", Duration.ofSeconds(30));
+        client.initCaches();
+    }
+
+    @Test
+    @DisplayName("Should call inventario only once for repeated lookups")
+    void obtenerServicio_CachesResult() {
+        // Given
+        stubServicio(1, new BigDecimal("25000"));
+
+        // When
+        InventarioServiceClient.ServicioInfo first = client.obtenerServicio(1);
+        InventarioServiceClient.ServicioInfo second = client.obtenerServicio(1);
+
+        // Then
+        assertThat(first.getPrecioBase()).isEqualByComparingTo("25000");
+        assertThat(second).isSameAs(first);
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), isNull(),
+                any(ParameterizedTypeReference.class));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "inventario.servicios")
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should reload from inventario after invalidation")
+    void invalidarServicio_ForcesReload() {
+        // Given
+        stubServicio(1, new BigDecimal("25000"));
+        client.obtenerServicio(1);
+
+        // When
+        client.invalidarServicio(1);
+        client.obtenerServicio(1);
+
+        // Then
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.GET), isNull(),
+                any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    @DisplayName("Should bypass cache when disabled")
+    void obtenerServicio_CacheDisabled() {
+        // Given
+        ReflectionTestUtils.setField(client, "cacheEnabled", false);
+        stubServicio(1, new BigDecimal("25000"));
+
+        // When
+        client.obtenerServicio(1);
+        client.obtenerServicio(1);
+
+        // Then
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.GET), isNull(),
+                any(ParameterizedTypeReference.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubServicio(Integer id, BigDecimal precio) {
+        InventarioServiceClient.ServicioInfo servicio = new InventarioServiceClient.ServicioInfo(
+                id, "Servicio " + id, "Descripción", precio, null, true);
+        InventarioServiceClient.ApiResponse<InventarioServiceClient.ServicioInfo> body =
+                new InventarioServiceClient.ApiResponse<>();
+        body.setSuccess(true);
+        body.setResponse(servicio);
+
+        when(restTemplate.exchange(eq("http://localhost:8082/api/v1/inventory/catalogo/" + id),
+                eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(body));
+    }
+}
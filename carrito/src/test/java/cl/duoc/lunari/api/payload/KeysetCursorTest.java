@@ -0,0 +1,63 @@
+package cl.duoc.lunari.api.payload;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for KeysetCursor
+ */
+@DisplayName("KeysetCursor Tests")
+class KeysetCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip the (creadoEl, id) keys")
+    void encodeDecode_RoundTrip() {
+        // Given
+        OffsetDateTime creadoEl = OffsetDateTime.parse("2025-01-30T10:15:30.123456-03:00");
+        UUID id = UUID.randomUUID();
+
+        // When
+        KeysetCursor.Claves claves = KeysetCursor.decode(KeysetCursor.encode(creadoEl, id));
+
+        // Then
+        assertThat(claves.creadoEl()).isEqualTo(creadoEl);
+        assertThat(claves.id()).isEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors with IllegalArgumentException")
+    void decode_Invalid() {
+        assertThatThrownBy(() -> KeysetCursor.decode("%%%")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(KeysetCursor.encode(OffsetDateTime.now(), UUID.randomUUID()).substring(4)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should trim the extra row and point the next cursor at the last returned item")
+    void page_ExtraRowMeansNextPage() {
+        // When
+        ResponseEntity<ApiResponse<List<String>>> respuesta = KeysetCursor.page(List.of("a", "b", "c"), 2, s -> s);
+
+        // Then
+        assertThat(respuesta.getBody().getResponse()).containsExactly("a", "b");
+        assertThat(respuesta.getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER)).isEqualTo("b");
+    }
+
+    @Test
+    @DisplayName("Should not emit a next cursor when the last page is exactly full")
+    void page_ExactlyFullLastPage() {
+        // When
+        ResponseEntity<ApiResponse<List<String>>> respuesta = KeysetCursor.page(List.of("a", "b"), 2, s -> s);
+
+        // Then
+        assertThat(respuesta.getBody().getResponse()).containsExactly("a", "b");
+        assertThat(respuesta.getHeaders().containsKey(KeysetCursor.NEXT_CURSOR_HEADER)).isFalse();
+    }
+}
@@ -8,6 +8,7 @@
 -- 1. DROP OLD TABLES (if they exist)
 -- ============================================
 
+DROP TABLE IF EXISTS reduccion_stock CASCADE;
 DROP TABLE IF EXISTS producto CASCADE;
 DROP TABLE IF EXISTS categoria CASCADE;
 
@@ -51,6 +52,13 @@ CREATE TABLE producto (
     CONSTRAINT fk_producto_categoria FOREIGN KEY (categoria_id) REFERENCES categoria(id_categoria)
 );
 
+-- Applied batch stock reductions, keyed by caller reference (order number) for idempotent retries
+CREATE TABLE reduccion_stock (
+    referencia VARCHAR(100) PRIMARY KEY,
+    items_procesados INTEGER NOT NULL,
+    creado_el TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
 -- ============================================
 -- 3. CREATE INDEXES
 -- ============================================
@@ -60,9 +68,9 @@ CREATE INDEX idx_producto_code ON producto(code);
 CREATE INDEX idx_producto_activo ON producto(is_activo);
 CREATE INDEX idx_producto_marca ON producto(marca);
 
--- GIN index for JSONB columns (for better performance on tag queries)
-CREATE INDEX idx_producto_tags ON producto USING GIN (tags);
-CREATE INDEX idx_producto_specs ON producto USING GIN (specs);
+-- GIN index for JSONB columns (tag queries use @>, covered by the smaller jsonb_path_ops)
+CREATE INDEX idx_producto_tags ON producto USING GIN (tags jsonb_path_ops);
+CREATE INDEX idx_producto_specs ON producto USING GIN (specs jsonb_path_ops);
 
 -- ============================================
 -- 4. INSERT CATEGORIES (10 gaming categories)
@@ -0,0 +1,21 @@
+-- ============================================
+-- JSONB GIN indexes for producto.tags and producto.specs
+-- ============================================
+-- Databases created with spring.jpa.hibernate.ddl-auto=update never got the
+-- GIN indexes from 00-setup-complete-schema.sql, so tag queries scanned the table.
+-- jsonb_path_ops only supports @>, which is the operator every tag query uses,
+-- and it is smaller and faster than the default jsonb_ops.
+-- The service also runs the CREATE INDEX CONCURRENTLY IF NOT EXISTS statements at startup.
+-- Not wrapped in a transaction: CONCURRENTLY keeps producto writable while
+-- each index is built, and rebuilds an index left invalid by an interrupted build.
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_producto_tags;
+DROP INDEX CONCURRENTLY IF EXISTS idx_producto_specs;
+
+CREATE INDEX CONCURRENTLY idx_producto_tags ON producto USING GIN (tags jsonb_path_ops);
+CREATE INDEX CONCURRENTLY idx_producto_specs ON producto USING GIN (specs jsonb_path_ops);
+
+ANALYZE producto;
+
+-- Verify
+SELECT indexname, indexdef FROM pg_indexes WHERE tablename = 'producto' AND indexname LIKE 'idx_producto_%';
@@ -0,0 +1,55 @@
+-- ============================================
+-- Benchmark: tag queries on the seed catalogue scaled to 100k products
+-- ============================================
+-- Run against a database loaded with 00-setup-complete-schema.sql:
+--   psql "$DATABASE_URL" -f seeds/benchmark-tag-queries.sql
+-- Everything happens on a temporary copy (producto_bench) and is dropped at the end.
+-- Compare the "Execution Time" lines of each EXPLAIN before and after the GIN index.
+
+\timing on
+
+CREATE TEMP TABLE producto_bench AS
+SELECT
+    row_number() OVER () AS id_producto,
+    p.code || '-' || s.n AS code,
+    p.nombre,
+    p.categoria_id,
+    p.precio_clp,
+    p.stock,
+    p.marca,
+    p.rating,
+    p.specs,
+    -- Mix in rare and medium-frequency tags so selectivity resembles a real catalogue
+    p.tags || jsonb_build_array('lote-' || (s.n % 100), 'serie-' || (s.n % 7)) AS tags,
+    p.is_activo
+FROM producto p
+CROSS JOIN generate_series(1, CEIL(100000.0 / (SELECT COUNT(*) FROM producto))::int) AS s(n)
+LIMIT 100000;
+
+ALTER TABLE producto_bench ADD PRIMARY KEY (id_producto);
+ANALYZE producto_bench;
+
+-- 1. Without GIN index (sequential scan)
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM producto_bench WHERE tags @> '["rgb"]'::jsonb ORDER BY id_producto;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM producto_bench
+    WHERE (tags @> '["rgb"]'::jsonb OR tags @> '["streaming"]'::jsonb OR tags @> '["lote-42"]'::jsonb) ORDER BY id_producto;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM producto_bench WHERE tags @> '["rgb", "lote-42"]'::jsonb ORDER BY id_producto;
+
+-- 2. With GIN jsonb_path_ops (same index the service creates on producto.tags)
+CREATE INDEX idx_producto_bench_tags ON producto_bench USING GIN (tags jsonb_path_ops);
+ANALYZE producto_bench;
+
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM producto_bench WHERE tags @> '["rgb"]'::jsonb ORDER BY id_producto;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM producto_bench
+    WHERE (tags @> '["rgb"]'::jsonb OR tags @> '["streaming"]'::jsonb OR tags @> '["lote-42"]'::jsonb) ORDER BY id_producto;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM producto_bench WHERE tags @> '["rgb", "lote-42"]'::jsonb ORDER BY id_producto;
+
+-- 3. Keyset page of a selective tag (the /tags?modo=all&limit=20 path)
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM producto_bench
+    WHERE tags @> '["rgb", "lote-42"]'::jsonb AND id_producto > 0 ORDER BY id_producto LIMIT 20;
+
+-- Index size vs table size
+SELECT pg_size_pretty(pg_relation_size('idx_producto_bench_tags')) AS indice,
+       pg_size_pretty(pg_relation_size('producto_bench')) AS tabla;
+
+DROP TABLE producto_bench;
@@ -39,6 +39,7 @@ public class CorsConfig {
             "Accept",
             "X-Requested-With",
             "X-API-Key",
+            "If-None-Match",
             "Origin",
             "Access-Control-Request-Method",
             "Access-Control-Request-Headers"
@@ -48,7 +49,9 @@ public class CorsConfig {
         configuration.setExposedHeaders(Arrays.asList(
             "Access-Control-Allow-Origin",
             "Access-Control-Allow-Credentials",
-            "X-API-Key"
+            "X-API-Key",
+            "ETag",
+            "X-Next-Cursor"
         ));
 
         // Allow credentials (cookies, authorization headers, etc.)
@@ -0,0 +1,61 @@
+package cl.duoc.lunari.api.inventory.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * Asegura los índices GIN de las columnas JSONB de producto.
+ * ddl-auto=update no crea índices GIN, así que sin esto las consultas de tags
+ * (tags @> ...) recorren la tabla completa. jsonb_path_ops es más pequeño y rápido
+ * que el operador por defecto y cubre @>, el único operador que usan las consultas.
+ * Se crean con CONCURRENTLY, como en usuario/migration_user_search.sql, para no bloquear
+ * las escrituras en producto mientras se construyen; JdbcTemplate los ejecuta en autocommit.
+ * Solo aplica en PostgreSQL; seeds/01-add-jsonb-gin-indexes.sql contiene lo mismo.
+ */
+@Configuration
+public class JsonbIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonbIndexConfig.class);
+
+    static final Map<String, String> INDICES = Map.of(
+            "idx_producto_tags",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_producto_tags ON producto USING GIN (tags jsonb_path_ops)",
+            "idx_producto_specs",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_producto_specs ON producto USING GIN (specs jsonb_path_ops)");
+
+    // Un CREATE INDEX CONCURRENTLY interrumpido deja el índice inválido, e IF NOT EXISTS no lo reconstruye
+    private static final String INDICE_INVALIDO = "SELECT count(*) FROM pg_index i "
+            + "JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ? AND NOT i.indisvalid";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void crearIndices() {
+        String baseDatos = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(baseDatos)) {
+            return;
+        }
+        for (Map.Entry<String, String> indice : INDICES.entrySet()) {
+            try {
+                Integer invalidos = jdbcTemplate.queryForObject(INDICE_INVALIDO, Integer.class, indice.getKey());
+                if (invalidos != null && invalidos > 0) {
+                    jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indice.getKey());
+                }
+                jdbcTemplate.execute(indice.getValue());
+            } catch (RuntimeException e) {
+                // Sin permisos DDL el servicio sigue funcionando; el índice se crea con el script de seeds
+                logger.warn("No se pudo crear el índice JSONB ({}): {}", indice.getKey(), e.getMessage());
+            }
+        }
+    }
+}
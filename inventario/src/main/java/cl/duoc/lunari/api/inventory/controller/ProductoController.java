@@ -1,20 +1,31 @@
 package cl.duoc.lunari.api.inventory.controller;
 
+import cl.duoc.lunari.api.inventory.dto.BusquedaRequest;
+import cl.duoc.lunari.api.inventory.dto.BusquedaResponse;
 import cl.duoc.lunari.api.inventory.model.Producto;
+import cl.duoc.lunari.api.inventory.service.BusquedaService;
+import cl.duoc.lunari.api.inventory.service.CatalogoSnapshots;
 import cl.duoc.lunari.api.inventory.service.ProductoService;
 import cl.duoc.lunari.api.inventory.security.ApiKeyType;
 import cl.duoc.lunari.api.inventory.security.RequireApiKey;
 import cl.duoc.lunari.api.payload.ApiResponse;
+import cl.duoc.lunari.api.payload.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/productos")
@@ -24,18 +35,42 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private CatalogoSnapshots catalogoSnapshots;
+
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @Value("${app.pagination.defaultLimit:20}")
+    private int defaultLimit;
+
+    @Value("${app.pagination.maxLimit:100}")
+    private int maxLimit;
+
     @GetMapping
     @Operation(summary = "Obtener todos los productos")
-    public ResponseEntity<ApiResponse<List<Producto>>> getAllProductos() {
-        List<Producto> productos = productoService.findAll();
-        return ResponseEntity.ok(ApiResponse.success(productos));
+    public ResponseEntity<?> getAllProductos(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (limit == null && cursor == null) {
+            return snapshot(catalogoSnapshots.todos(), ifNoneMatch, acceptEncoding);
+        }
+        return listar(limit, cursor, productoService::findAll, productoService::findAll);
     }
 
     @GetMapping("/activos")
     @Operation(summary = "Obtener productos activos")
-    public ResponseEntity<ApiResponse<List<Producto>>> getProductosActivos() {
-        List<Producto> productos = productoService.findActivos();
-        return ResponseEntity.ok(ApiResponse.success(productos));
+    public ResponseEntity<?> getProductosActivos(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (limit == null && cursor == null) {
+            return snapshot(catalogoSnapshots.activos(), ifNoneMatch, acceptEncoding);
+        }
+        return listar(limit, cursor, productoService::findActivos, productoService::findActivos);
     }
 
     @GetMapping("/{id}")
@@ -60,60 +95,135 @@ public class ProductoController {
                 .body(ApiResponse.error("Producto no encontrado", HttpStatus.NOT_FOUND.value()));
     }
 
+    @GetMapping("/busqueda")
+    @Operation(summary = "Búsqueda de productos por texto con filtros combinables, facetas y orden",
+            description = "orden: relevancia (por defecto), precio_asc, precio_desc, rating, nombre")
+    public ResponseEntity<ApiResponse<BusquedaResponse>> busqueda(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) Integer precioMin,
+            @RequestParam(required = false) Integer precioMax,
+            @RequestParam(required = false) BigDecimal ratingMin,
+            @RequestParam(required = false) Boolean enStock,
+            @RequestParam(required = false) String orden,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+
+        // El cursor de la búsqueda es la posición dentro del ranking (offset), no un keyset:
+        // si el catálogo cambia entre páginas un producto puede repetirse u omitirse
+        int offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                offset = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("Cursor inválido", HttpStatus.BAD_REQUEST.value()));
+            }
+        }
+        int tamano = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+
+        BusquedaRequest criterios = new BusquedaRequest(q, categoria, marca, tag, precioMin, precioMax,
+                ratingMin, enStock, false, orden, offset, tamano);
+        try {
+            BusquedaResponse resultado = busquedaService.buscar(criterios);
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (offset + resultado.getProductos().size() < resultado.getTotal()) {
+                respuesta.header(KeysetCursor.NEXT_CURSOR_HEADER,
+                        KeysetCursor.encode(offset + resultado.getProductos().size()));
+            }
+            return respuesta.body(ApiResponse.success(resultado));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+        }
+    }
+
     @GetMapping("/buscar")
     @Operation(summary = "Buscar productos por nombre")
     public ResponseEntity<ApiResponse<List<Producto>>> buscarProductos(
-            @RequestParam String nombre) {
-        List<Producto> productos = productoService.findByNombreContaining(nombre);
-        return ResponseEntity.ok(ApiResponse.success(productos));
+            @RequestParam String nombre,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return listar(limit, cursor, () -> productoService.findByNombreContaining(nombre),
+                (despuesDeId, tamano) -> productoService.findByNombreContaining(nombre, despuesDeId, tamano));
     }
 
     @GetMapping("/categoria/{categoriaId}")
     @Operation(summary = "Obtener productos por categoría")
     public ResponseEntity<ApiResponse<List<Producto>>> getProductosByCategoria(
-            @PathVariable String categoriaId) {
-        List<Producto> productos = productoService.findByCategoria(categoriaId);
-        return ResponseEntity.ok(ApiResponse.success(productos));
+            @PathVariable String categoriaId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return listar(limit, cursor, () -> productoService.findByCategoria(categoriaId),
+                (despuesDeId, tamano) -> productoService.findByCategoria(categoriaId, despuesDeId, tamano));
     }
 
     @GetMapping("/marca/{marca}")
     @Operation(summary = "Obtener productos por marca")
     public ResponseEntity<ApiResponse<List<Producto>>> getProductosByMarca(
-            @PathVariable String marca) {
-        List<Producto> productos = productoService.findByMarca(marca);
-        return ResponseEntity.ok(ApiResponse.success(productos));
+            @PathVariable String marca,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return listar(limit, cursor, () -> productoService.findByMarca(marca),
+                (despuesDeId, tamano) -> productoService.findByMarca(marca, despuesDeId, tamano));
     }
 
     @GetMapping("/en-stock")
     @Operation(summary = "Obtener productos en stock")
-    public ResponseEntity<ApiResponse<List<Producto>>> getProductosEnStock() {
-        List<Producto> productos = productoService.findEnStock();
-        return ResponseEntity.ok(ApiResponse.success(productos));
+    public ResponseEntity<ApiResponse<List<Producto>>> getProductosEnStock(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return listar(limit, cursor, productoService::findEnStock, productoService::findEnStock);
     }
 
     @GetMapping("/precio")
     @Operation(summary = "Obtener productos por rango de precio")
     public ResponseEntity<ApiResponse<List<Producto>>> getProductosByPrecio(
             @RequestParam Integer min,
-            @RequestParam Integer max) {
-        List<Producto> productos = productoService.findByPrecioRange(min, max);
-        return ResponseEntity.ok(ApiResponse.success(productos));
+            @RequestParam Integer max,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return listar(limit, cursor, () -> productoService.findByPrecioRange(min, max),
+                (despuesDeId, tamano) -> productoService.findByPrecioRange(min, max, despuesDeId, tamano));
     }
 
     @GetMapping("/rating")
     @Operation(summary = "Obtener productos por rating mínimo")
     public ResponseEntity<ApiResponse<List<Producto>>> getProductosByRating(
-            @RequestParam BigDecimal min) {
-        List<Producto> productos = productoService.findByMinRating(min);
-        return ResponseEntity.ok(ApiResponse.success(productos));
+            @RequestParam BigDecimal min,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return listar(limit, cursor, () -> productoService.findByMinRating(min),
+                (despuesDeId, tamano) -> productoService.findByMinRating(min, despuesDeId, tamano));
     }
 
     @GetMapping("/tag/{tag}")
     @Operation(summary = "Obtener productos por tag")
     public ResponseEntity<ApiResponse<List<Producto>>> getProductosByTag(
-            @PathVariable String tag) {
-        List<Producto> productos = productoService.findByTag(tag);
-        return ResponseEntity.ok(ApiResponse.success(productos));
+            @PathVariable String tag,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return listar(limit, cursor, () -> productoService.findByTag(tag),
+                (despuesDeId, tamano) -> productoService.findByTag(tag, despuesDeId, tamano));
+    }
+
+    @GetMapping("/tags")
+    @Operation(summary = "Obtener productos por varios tags",
+            description = "modo=any: al menos uno de los tags (por defecto); modo=all: todos los tags")
+    public ResponseEntity<ApiResponse<List<Producto>>> getProductosByTags(
+            @RequestParam List<String> tags,
+            @RequestParam(defaultValue = "any") String modo,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (!modo.equals("any") && !modo.equals("all")) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Modo inválido: use any o all", HttpStatus.BAD_REQUEST.value()));
+        }
+        boolean todos = modo.equals("all");
+        return listar(limit, cursor, () -> productoService.findByTags(tags, todos),
+                (despuesDeId, tamano) -> productoService.findByTags(tags, todos, despuesDeId, tamano));
     }
 
     @PostMapping
@@ -226,4 +336,61 @@ public class ProductoController {
                 .body(ApiResponse.error("Error interno del servidor: " + e.getMessage(),
                         HttpStatus.INTERNAL_SERVER_ERROR.value()));
     }
+
+    /**
+     * Responde con los bytes ya serializados del snapshot (gzip si el cliente lo acepta)
+     * o 304 si el cliente ya tiene esa versión
+     */
+    private ResponseEntity<byte[]> snapshot(CatalogoSnapshots.Snapshot snapshot, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String etag = gzip ? snapshot.getEtagGzip() : snapshot.getEtag();
+        CacheControl cacheControl = CacheControl.noCache();
+
+        if (snapshot.coincide(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return respuesta.body(snapshot.getJson());
+    }
+
+    /**
+     * Listado compatible hacia atrás: sin limit ni cursor retorna la lista completa;
+     * con cualquiera de ellos retorna una página por keyset (idProducto) acotada a app.pagination.maxLimit
+     */
+    private ResponseEntity<ApiResponse<List<Producto>>> listar(
+            Integer limit,
+            String cursor,
+            Supplier<List<Producto>> todos,
+            BiFunction<Integer, Integer, List<Producto>> pagina) {
+
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(ApiResponse.success(todos.get()));
+        }
+
+        Integer despuesDeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                despuesDeId = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("Cursor inválido", HttpStatus.BAD_REQUEST.value()));
+            }
+        }
+
+        // Se pide una fila extra para saber si hay página siguiente
+        int tamano = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        return KeysetCursor.page(pagina.apply(despuesDeId, tamano + 1), tamano, Producto::getIdProducto);
+    }
 }
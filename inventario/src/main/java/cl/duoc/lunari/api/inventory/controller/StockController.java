@@ -0,0 +1,63 @@
+package cl.duoc.lunari.api.inventory.controller;
+
+import cl.duoc.lunari.api.inventory.dto.StockCheckRequest;
+import cl.duoc.lunari.api.inventory.dto.StockCheckResponse;
+import cl.duoc.lunari.api.inventory.dto.StockReductionRequest;
+import cl.duoc.lunari.api.inventory.dto.StockReductionResponse;
+import cl.duoc.lunari.api.inventory.security.ApiKeyType;
+import cl.duoc.lunari.api.inventory.security.RequireApiKey;
+import cl.duoc.lunari.api.inventory.service.ProductoService;
+import cl.duoc.lunari.api.payload.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/inventory/stock")
+@Tag(name = "Stock", description = "API de stock para comunicación entre servicios")
+public class StockController {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @PostMapping("/reduce")
+    @Operation(summary = "Reducir stock de varios productos en una sola transacción")
+    @RequireApiKey(ApiKeyType.SERVICE)
+    public ResponseEntity<ApiResponse<StockReductionResponse>> reducirStockLote(
+            @RequestBody StockReductionRequest request) {
+        try {
+            StockReductionResponse resultado = productoService.reducirStockLote(request);
+            if (!resultado.isExitoso()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new ApiResponse<>(false, resultado, resultado.getMessage(), HttpStatus.CONFLICT.value()));
+            }
+            return ResponseEntity.ok(ApiResponse.success(resultado));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+        }
+    }
+
+    @PostMapping("/check")
+    @Operation(summary = "Verificar disponibilidad de stock de varios productos")
+    public ResponseEntity<ApiResponse<StockCheckResponse>> verificarStock(
+            @RequestBody StockCheckRequest request) {
+        try {
+            StockCheckResponse resultado = productoService.verificarStock(request);
+            return ResponseEntity.ok(ApiResponse.success(resultado));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+        }
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiResponse<Void>> handleException(Exception e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Error interno del servidor: " + e.getMessage(),
+                        HttpStatus.INTERNAL_SERVER_ERROR.value()));
+    }
+}
@@ -0,0 +1,29 @@
+package cl.duoc.lunari.api.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Criterios de búsqueda combinables: texto libre, filtros, orden y página (offset)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusquedaRequest {
+
+    private String q;
+    private String categoria;
+    private String marca;
+    private String tag;
+    private Integer precioMin;
+    private Integer precioMax;
+    private BigDecimal ratingMin;
+    private Boolean enStock;
+    private boolean incluirInactivos;
+    private String orden;
+    private int offset;
+    private int limit = 20;
+}
@@ -0,0 +1,23 @@
+package cl.duoc.lunari.api.inventory.dto;
+
+import cl.duoc.lunari.api.inventory.model.Producto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de búsqueda: página de productos, total de coincidencias y conteos por faceta
+ * (categoria, marca, tag). Cada faceta cuenta los productos que cumplen todos los demás filtros.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusquedaResponse {
+
+    private List<Producto> productos;
+    private int total;
+    private Map<String, Map<String, Integer>> facetas;
+}
@@ -0,0 +1,18 @@
+package cl.duoc.lunari.api.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Solicitud de verificación de disponibilidad de stock para varios productos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCheckRequest {
+
+    private List<StockReductionRequest.StockItem> items;
+}
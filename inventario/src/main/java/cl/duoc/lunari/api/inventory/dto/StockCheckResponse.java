@@ -0,0 +1,32 @@
+package cl.duoc.lunari.api.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de la verificación de stock: disponible solo si todos los items lo están
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCheckResponse {
+
+    private boolean disponible;
+    private List<ItemResult> items;
+
+    /**
+     * Disponibilidad por producto
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Integer productoId;
+        private Integer cantidad;
+        private Integer stockActual;
+        private boolean disponible;
+    }
+}
@@ -0,0 +1,39 @@
+package cl.duoc.lunari.api.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Solicitud de reducción de stock en lote (todos los items de un pedido)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReductionRequest {
+
+    private List<StockItem> items;
+
+    /**
+     * Clave de idempotencia opcional (ej. número de pedido): un lote con una referencia
+     * ya aplicada se responde como exitoso sin volver a descontar stock
+     */
+    private String referencia;
+
+    public StockReductionRequest(List<StockItem> items) {
+        this.items = items;
+    }
+
+    /**
+     * Item individual a reducir
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockItem {
+        private Integer productoId;
+        private Integer cantidad;
+    }
+}
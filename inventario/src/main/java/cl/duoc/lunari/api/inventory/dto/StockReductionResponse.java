@@ -0,0 +1,35 @@
+package cl.duoc.lunari.api.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una reducción de stock en lote
+ * Si algún item no puede aplicarse, ningún item se aplica (exitoso = false)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReductionResponse {
+
+    private boolean exitoso;
+    private int itemsProcessed;
+    private String message;
+    private List<ItemResult> items;
+
+    /**
+     * Resultado por producto
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Integer productoId;
+        private Integer cantidad;
+        private boolean aplicado;
+        private String mensaje;
+    }
+}
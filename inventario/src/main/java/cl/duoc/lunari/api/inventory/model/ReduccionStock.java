@@ -0,0 +1,40 @@
+package cl.duoc.lunari.api.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Registro de reducciones de stock en lote ya aplicadas, por referencia (ej. número de pedido).
+ * Permite que el llamador reintente una reducción sin descontar el stock dos veces.
+ */
+@Entity
+@Table(name = "reduccion_stock")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReduccionStock {
+
+    @Id
+    @Column(name = "referencia", length = 100)
+    private String referencia;
+
+    @Column(name = "items_procesados", nullable = false)
+    private Integer itemsProcesados;
+
+    @Column(name = "creado_el", columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    private OffsetDateTime creadoEl;
+
+    public ReduccionStock(String referencia, Integer itemsProcesados) {
+        this.referencia = referencia;
+        this.itemsProcesados = itemsProcesados;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.creadoEl = OffsetDateTime.now();
+    }
+}
@@ -1,17 +1,20 @@
 package cl.duoc.lunari.api.inventory.repository;
 
 import cl.duoc.lunari.api.inventory.model.Producto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Integer> {
+public interface ProductoRepository extends JpaRepository<Producto, Integer>, ProductoRepositoryCustom {
 
     Optional<Producto> findByCode(String code);
 
@@ -29,7 +32,45 @@ public interface ProductoRepository extends JpaRepository<Producto, Integer> {
 
     List<Producto> findByRatingGreaterThanEqual(BigDecimal rating);
 
-    // JSONB queries for tags
-    @Query(value = "SELECT * FROM producto WHERE tags @> CAST(:tag AS jsonb)", nativeQuery = true)
-    List<Producto> findByTag(@Param("tag") String tag);
+    // Keyset pagination: orden estable por idProducto, la página siguiente empieza después del último ID
+    List<Producto> findByIdProductoGreaterThanOrderByIdProductoAsc(Integer despuesDeId, Limit limit);
+
+    List<Producto> findByCategoriaIdCategoriaAndIdProductoGreaterThanOrderByIdProductoAsc(
+            String categoriaId, Integer despuesDeId, Limit limit);
+
+    List<Producto> findByIsActivoTrueAndIdProductoGreaterThanOrderByIdProductoAsc(Integer despuesDeId, Limit limit);
+
+    List<Producto> findByNombreContainingIgnoreCaseAndIdProductoGreaterThanOrderByIdProductoAsc(
+            String nombre, Integer despuesDeId, Limit limit);
+
+    List<Producto> findByMarcaAndIdProductoGreaterThanOrderByIdProductoAsc(String marca, Integer despuesDeId, Limit limit);
+
+    List<Producto> findByStockGreaterThanAndIdProductoGreaterThanOrderByIdProductoAsc(
+            Integer stock, Integer despuesDeId, Limit limit);
+
+    List<Producto> findByPrecioCLPBetweenAndIdProductoGreaterThanOrderByIdProductoAsc(
+            Integer min, Integer max, Integer despuesDeId, Limit limit);
+
+    List<Producto> findByRatingGreaterThanEqualAndIdProductoGreaterThanOrderByIdProductoAsc(
+            BigDecimal rating, Integer despuesDeId, Limit limit);
+
+    @Query("SELECT p.stock FROM Producto p WHERE p.idProducto = :id")
+    Optional<Integer> findStockById(@Param("id") Integer id);
+
+    // Stock and active flag for several products in a single query (no entity/category hydration)
+    @Query("SELECT p.idProducto AS idProducto, p.stock AS stock, p.isActivo AS isActivo " +
+            "FROM Producto p WHERE p.idProducto IN :ids")
+    List<StockView> findStockByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Atomic conditional decrement: returns 1 if applied, 0 if product missing or stock insufficient
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE producto SET stock = stock - :cantidad, actualizado_el = CURRENT_TIMESTAMP " +
+            "WHERE id_producto = :id AND stock >= :cantidad", nativeQuery = true)
+    int decrementStock(@Param("id") Integer id, @Param("cantidad") Integer cantidad);
+
+    interface StockView {
+        Integer getIdProducto();
+        Integer getStock();
+        Boolean getIsActivo();
+    }
 }
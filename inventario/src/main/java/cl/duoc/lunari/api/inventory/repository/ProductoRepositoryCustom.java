@@ -0,0 +1,17 @@
+package cl.duoc.lunari.api.inventory.repository;
+
+import cl.duoc.lunari.api.inventory.model.Producto;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductoRepositoryCustom {
+
+    /**
+     * Productos por tags en una sola consulta que usa el índice GIN de producto.tags.
+     * todos=true: deben tener todos los tags (una contención con el arreglo completo);
+     * todos=false: al menos uno (OR de contenciones, que Postgres resuelve con BitmapOr).
+     * despuesDeId y limit son opcionales (keyset por idProducto; null = sin paginar).
+     */
+    List<Producto> findByTags(Collection<String> tags, boolean todos, Integer despuesDeId, Integer limit);
+}
@@ -0,0 +1,84 @@
+package cl.duoc.lunari.api.inventory.repository;
+
+import cl.duoc.lunari.api.inventory.model.Producto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consultas de tags JSONB con un número variable de tags (no expresables con @Query fijo)
+ */
+public class ProductoRepositoryImpl implements ProductoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Producto> findByTags(Collection<String> tags, boolean todos, Integer despuesDeId, Integer limit) {
+        Set<String> distintos = new LinkedHashSet<>();
+        if (tags != null) {
+            tags.stream().filter(t -> t != null && !t.isBlank()).map(String::trim).forEach(distintos::add);
+        }
+        if (distintos.isEmpty()) {
+            return List.of();
+        }
+
+        // Siempre con @>: es el operador que soporta jsonb_path_ops y no choca con los parámetros ? de JDBC
+        List<String> valores = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM producto WHERE ");
+        if (todos) {
+            sql.append("tags @> CAST(:tag0 AS jsonb)");
+            valores.add(json(distintos));
+        } else {
+            sql.append('(');
+            for (String tag : distintos) {
+                if (!valores.isEmpty()) {
+                    sql.append(" OR ");
+                }
+                sql.append("tags @> CAST(:tag").append(valores.size()).append(" AS jsonb)");
+                valores.add(json(List.of(tag)));
+            }
+            sql.append(')');
+        }
+        if (despuesDeId != null) {
+            sql.append(" AND id_producto > :despuesDeId");
+        }
+        sql.append(" ORDER BY id_producto");
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+        }
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Producto.class);
+        for (int i = 0; i < valores.size(); i++) {
+            query.setParameter("tag" + i, valores.get(i));
+        }
+        if (despuesDeId != null) {
+            query.setParameter("despuesDeId", despuesDeId);
+        }
+        if (limit != null) {
+            query.setParameter("limit", limit);
+        }
+        return query.getResultList();
+    }
+
+    private String json(Collection<String> tags) {
+        try {
+            return objectMapper.writeValueAsString(tags);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Tags inválidos: " + tags, e);
+        }
+    }
+}
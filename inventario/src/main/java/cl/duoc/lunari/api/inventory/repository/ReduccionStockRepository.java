@@ -0,0 +1,11 @@
+package cl.duoc.lunari.api.inventory.repository;
+
+import cl.duoc.lunari.api.inventory.model.ReduccionStock;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface ReduccionStockRepository extends JpaRepository<ReduccionStock, String> {
+}
@@ -0,0 +1,334 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.dto.BusquedaRequest;
+import cl.duoc.lunari.api.inventory.dto.BusquedaResponse;
+import cl.duoc.lunari.api.inventory.model.Producto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de búsqueda de productos en memoria.
+ * Mantiene un índice invertido (término -> producto -> peso) sobre nombre, marca, tags,
+ * categoría y descripción, construido desde CatalogoCache y actualizado producto a
+ * producto con CatalogoModificadoEvent. Esos eventos solo cubren las escrituras de esta
+ * instancia, así que el índice se reconstruye completo cuando supera app.cache.ttl, el
+ * mismo plazo con que CatalogoCache vuelve a leer la base de datos. Los filtros se
+ * combinan libremente, las facetas se calculan en la misma pasada y el stock se consulta
+ * al buscar porque cambia con cada pedido.
+ */
+@Service
+public class BusquedaService {
+
+    public static final String ORDEN_RELEVANCIA = "relevancia";
+    public static final String ORDEN_PRECIO_ASC = "precio_asc";
+    public static final String ORDEN_PRECIO_DESC = "precio_desc";
+    public static final String ORDEN_RATING = "rating";
+    public static final String ORDEN_NOMBRE = "nombre";
+
+    static final String FACETA_CATEGORIA = "categoria";
+    static final String FACETA_MARCA = "marca";
+    static final String FACETA_TAG = "tag";
+
+    private static final float PESO_NOMBRE = 3f;
+    private static final float PESO_MARCA = 2f;
+    private static final float PESO_TAG = 2f;
+    private static final float PESO_CATEGORIA = 1.5f;
+    private static final float PESO_DESCRIPCION = 1f;
+
+    private static final Pattern SEPARADOR = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Value("${app.cache.ttl:10m}")
+    private Duration maxAge;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Documento> documentos = new HashMap<>();
+    private final NavigableMap<String, Map<Integer, Float>> indice = new TreeMap<>();
+    private final Set<Integer> pendientes = ConcurrentHashMap.newKeySet();
+    private volatile boolean reconstruir = true;
+    private volatile long construidoEn;
+
+    @EventListener
+    public void onCatalogoModificado(CatalogoModificadoEvent evento) {
+        if (evento.productoId() == null) {
+            reconstruir = true;
+        } else {
+            pendientes.add(evento.productoId());
+        }
+    }
+
+    public BusquedaResponse buscar(BusquedaRequest criterios) {
+        Comparator<Resultado> orden = comparador(criterios.getOrden());
+        actualizarIndice();
+
+        List<Resultado> resultados = new ArrayList<>();
+        Map<String, Map<String, Integer>> facetas = new LinkedHashMap<>();
+        facetas.put(FACETA_CATEGORIA, new TreeMap<>());
+        facetas.put(FACETA_MARCA, new TreeMap<>());
+        facetas.put(FACETA_TAG, new TreeMap<>());
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> puntajes = puntajes(tokenizar(criterios.getQ()));
+            List<Documento> candidatos = puntajes == null
+                    ? new ArrayList<>(documentos.values())
+                    : puntajes.keySet().stream().map(documentos::get).collect(Collectors.toList());
+
+            Map<Integer, Integer> stock = Boolean.TRUE.equals(criterios.getEnStock())
+                    ? catalogoCache.stock(candidatos.stream().map(Documento::id).collect(Collectors.toList()))
+                    : Map.of();
+
+            String categoria = vacioANull(criterios.getCategoria());
+            String marca = vacioANull(criterios.getMarca());
+            String tag = vacioANull(criterios.getTag());
+
+            for (Documento doc : candidatos) {
+                boolean okCategoria = categoria == null || categoria.equalsIgnoreCase(doc.categoria());
+                boolean okMarca = marca == null || marca.equalsIgnoreCase(doc.marca());
+                boolean okTag = tag == null || doc.tags().stream().anyMatch(tag::equalsIgnoreCase);
+                boolean okResto = (criterios.isIncluirInactivos() || doc.activo())
+                        && (criterios.getPrecioMin() == null || doc.precio() >= criterios.getPrecioMin())
+                        && (criterios.getPrecioMax() == null || doc.precio() <= criterios.getPrecioMax())
+                        && (criterios.getRatingMin() == null
+                            || (doc.rating() != null && doc.rating().compareTo(criterios.getRatingMin()) >= 0))
+                        && (!Boolean.TRUE.equals(criterios.getEnStock()) || stock.getOrDefault(doc.id(), 0) > 0);
+                if (!okResto) {
+                    continue;
+                }
+
+                // Cada faceta ignora su propio filtro: muestra cuántos habría al cambiar esa selección
+                if (okMarca && okTag) {
+                    contar(facetas.get(FACETA_CATEGORIA), doc.categoria());
+                }
+                if (okCategoria && okTag) {
+                    contar(facetas.get(FACETA_MARCA), doc.marca());
+                }
+                if (okCategoria && okMarca) {
+                    doc.tags().forEach(t -> contar(facetas.get(FACETA_TAG), t));
+                }
+                if (okCategoria && okMarca && okTag) {
+                    resultados.add(new Resultado(doc, puntajes == null ? 0f : puntajes.get(doc.id())));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        resultados.sort(orden);
+        int desde = Math.min(Math.max(criterios.getOffset(), 0), resultados.size());
+        int hasta = Math.min(desde + Math.max(criterios.getLimit(), 0), resultados.size());
+        List<Integer> pagina = resultados.subList(desde, hasta).stream()
+                .map(r -> r.documento().id())
+                .collect(Collectors.toList());
+
+        return new BusquedaResponse(catalogoCache.productos(pagina), resultados.size(), facetas);
+    }
+
+    /**
+     * Puntaje por producto para los términos de la consulta (todos deben coincidir);
+     * el último término se trata como prefijo para la búsqueda mientras se escribe.
+     * null si no hay términos (todos los productos son candidatos).
+     */
+    private Map<Integer, Float> puntajes(List<String> terminos) {
+        if (terminos.isEmpty()) {
+            return null;
+        }
+        Map<Integer, Float> acumulado = null;
+        for (int i = 0; i < terminos.size(); i++) {
+            String termino = terminos.get(i);
+            boolean prefijo = i == terminos.size() - 1 && termino.length() >= 2;
+            Map<Integer, Float> coincidencias = coincidencias(termino, prefijo);
+
+            if (acumulado == null) {
+                acumulado = coincidencias;
+            } else {
+                acumulado.keySet().retainAll(coincidencias.keySet());
+                acumulado.replaceAll((id, puntaje) -> puntaje + coincidencias.get(id));
+            }
+            if (acumulado.isEmpty()) {
+                break;
+            }
+        }
+        return acumulado;
+    }
+
+    private Map<Integer, Float> coincidencias(String termino, boolean prefijo) {
+        Map<String, Map<Integer, Float>> terminos = prefijo
+                ? indice.subMap(termino, true, termino + Character.MAX_VALUE, true)
+                : (indice.containsKey(termino) ? Map.of(termino, indice.get(termino)) : Map.of());
+
+        Map<Integer, Float> resultado = new HashMap<>();
+        for (Map<Integer, Float> postings : terminos.values()) {
+            // idf: los términos raros pesan más que los que aparecen en casi todo el catálogo
+            float idf = (float) Math.log(1 + (double) documentos.size() / postings.size());
+            postings.forEach((id, peso) -> resultado.merge(id, peso * idf, Math::max));
+        }
+        return resultado;
+    }
+
+    private void actualizarIndice() {
+        if (!reconstruir && pendientes.isEmpty() && !vencido()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (reconstruir || vencido()) {
+                reconstruir = false;
+                pendientes.clear();
+                documentos.clear();
+                indice.clear();
+                catalogoCache.todos().forEach(this::indexar);
+                construidoEn = System.nanoTime();
+                return;
+            }
+            for (Integer id : List.copyOf(pendientes)) {
+                pendientes.remove(id);
+                quitar(id);
+                catalogoCache.producto(id).ifPresent(this::indexar);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean vencido() {
+        return System.nanoTime() - construidoEn >= maxAge.toNanos();
+    }
+
+    private void indexar(Producto producto) {
+        Map<String, Float> terminos = new HashMap<>();
+        agregar(terminos, producto.getNombre(), PESO_NOMBRE);
+        agregar(terminos, producto.getMarca(), PESO_MARCA);
+        agregar(terminos, producto.getDescripcion(), PESO_DESCRIPCION);
+        if (producto.getCategoria() != null) {
+            agregar(terminos, producto.getCategoria().getNombreCategoria(), PESO_CATEGORIA);
+        }
+        List<String> tags = new ArrayList<>();
+        if (producto.getTags() != null) {
+            for (String tag : producto.getTags()) {
+                agregar(terminos, tag, PESO_TAG);
+                if (vacioANull(tag) != null) {
+                    tags.add(tag);
+                }
+            }
+        }
+
+        Documento documento = new Documento(
+                producto.getIdProducto(),
+                normalizar(producto.getNombre()),
+                producto.getCategoria() != null ? producto.getCategoria().getIdCategoria() : null,
+                vacioANull(producto.getMarca()),
+                List.copyOf(tags),
+                producto.getPrecioCLP() != null ? producto.getPrecioCLP() : 0,
+                producto.getRating(),
+                Boolean.TRUE.equals(producto.getIsActivo()),
+                terminos.keySet());
+
+        documentos.put(documento.id(), documento);
+        terminos.forEach((termino, peso) ->
+                indice.computeIfAbsent(termino, t -> new HashMap<>()).put(documento.id(), peso));
+    }
+
+    private void quitar(Integer id) {
+        Documento documento = documentos.remove(id);
+        if (documento == null) {
+            return;
+        }
+        for (String termino : documento.terminos()) {
+            Map<Integer, Float> postings = indice.get(termino);
+            if (postings != null) {
+                postings.remove(id);
+                if (postings.isEmpty()) {
+                    indice.remove(termino);
+                }
+            }
+        }
+    }
+
+    private static void agregar(Map<String, Float> terminos, String texto, float peso) {
+        for (String termino : tokenizar(texto)) {
+            terminos.merge(termino, peso, Float::sum);
+        }
+    }
+
+    private static void contar(Map<String, Integer> faceta, String valor) {
+        if (valor != null) {
+            faceta.merge(valor, 1, Integer::sum);
+        }
+    }
+
+    private static String vacioANull(String valor) {
+        return valor == null || valor.isBlank() ? null : valor;
+    }
+
+    static List<String> tokenizar(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado == null) {
+            return List.of();
+        }
+        List<String> terminos = new ArrayList<>();
+        for (String termino : SEPARADOR.split(normalizado)) {
+            if (!termino.isEmpty()) {
+                terminos.add(termino);
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Minúsculas y sin tildes, para que "Cámara" y "camara" coincidan
+     */
+    static String normalizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto.trim(), Normalizer.Form.NFD)).replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+    private static Comparator<Resultado> comparador(String orden) {
+        Comparator<Resultado> porId = Comparator.comparing(r -> r.documento().id());
+        if (orden == null || orden.isBlank() || ORDEN_RELEVANCIA.equals(orden)) {
+            return Comparator.comparing(Resultado::puntaje, Comparator.reverseOrder()).thenComparing(porId);
+        }
+        return switch (orden) {
+            case ORDEN_PRECIO_ASC -> Comparator.<Resultado>comparingInt(r -> r.documento().precio()).thenComparing(porId);
+            case ORDEN_PRECIO_DESC -> Comparator.<Resultado>comparingInt(r -> -r.documento().precio()).thenComparing(porId);
+            case ORDEN_RATING -> Comparator.comparing((Resultado r) -> r.documento().rating(),
+                    Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder())).thenComparing(porId);
+            case ORDEN_NOMBRE -> Comparator.comparing((Resultado r) -> r.documento().nombre(),
+                    Comparator.nullsLast(Comparator.<String>naturalOrder())).thenComparing(porId);
+            default -> throw new IllegalArgumentException("Orden no soportado: " + orden);
+        };
+    }
+
+    private record Documento(Integer id, String nombre, String categoria, String marca, List<String> tags,
+                             int precio, BigDecimal rating, boolean activo, Set<String> terminos) {
+    }
+
+    private record Resultado(Documento documento, float puntaje) {
+    }
+}
@@ -0,0 +1,327 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.model.Categoria;
+import cl.duoc.lunari.api.inventory.model.Producto;
+import cl.duoc.lunari.api.inventory.repository.CategoriaRepository;
+import cl.duoc.lunari.api.inventory.repository.ProductoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache de lectura del catálogo (productos y categorías).
+ * Los productos se guardan por ID y los listados como listas de IDs, así una escritura
+ * solo invalida la entrada del producto y los listados. El stock vive en una entrada
+ * aparte con TTL corto y se superpone en cada lectura, de modo que las reducciones de
+ * stock no invalidan el producto completo.
+ */
+@Component
+public class CatalogoCache {
+
+    private static final String LISTADO_TODOS = "todos";
+    private static final String LISTADO_ACTIVOS = "activos";
+    private static final String LISTADO_CATEGORIA = "categoria:";
+    private static final String LISTADO_CATEGORIAS = "categorias";
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${app.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${app.cache.stockTtl:5s}")
+    private Duration stockTtl;
+
+    private LoadingCache<Integer, Producto> productos;
+    private LoadingCache<Integer, Integer> stocks;
+    private Cache<String, List<Integer>> listados;
+    private Cache<String, Integer> codigos;
+    private LoadingCache<String, Categoria> categorias;
+    private LoadingCache<String, List<String>> listadoCategorias;
+
+    // Aumenta con cada invalidación; permite a CatalogoSnapshots saber si su copia serializada sigue vigente
+    private final AtomicLong generacion = new AtomicLong();
+
+    @PostConstruct
+    void initCaches() {
+        productos = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Producto load(Integer id) {
+                        return productoRepository.findById(id).orElse(null);
+                    }
+
+                    @Override
+                    public Map<Integer, Producto> loadAll(Set<? extends Integer> ids) {
+                        return productoRepository.findAllById(new ArrayList<>(ids)).stream()
+                                .collect(Collectors.toMap(Producto::getIdProducto, p -> p));
+                    }
+                });
+        stocks = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(stockTtl).recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Integer load(Integer id) {
+                        return productoRepository.findStockById(id).orElse(null);
+                    }
+
+                    @Override
+                    public Map<Integer, Integer> loadAll(Set<? extends Integer> ids) {
+                        Map<Integer, Integer> resultado = new HashMap<>();
+                        productoRepository.findStockByIdIn(new ArrayList<>(ids))
+                                .forEach(s -> resultado.put(s.getIdProducto(), s.getStock()));
+                        return resultado;
+                    }
+                });
+        listados = Caffeine.newBuilder().maximumSize(1_000).expireAfterWrite(ttl).recordStats().build();
+        codigos = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+        categorias = Caffeine.newBuilder().maximumSize(1_000).expireAfterWrite(ttl).recordStats()
+                .build(id -> categoriaRepository.findById(id).orElse(null));
+        listadoCategorias = Caffeine.newBuilder().maximumSize(1).expireAfterWrite(ttl)
+                .build(clave -> categoriaRepository.findAll().stream()
+                        .peek(c -> categorias.put(c.getIdCategoria(), c))
+                        .map(Categoria::getIdCategoria)
+                        .collect(Collectors.toList()));
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, productos, "catalogo.productos");
+            CaffeineCacheMetrics.monitor(meterRegistry, stocks, "catalogo.stock");
+            CaffeineCacheMetrics.monitor(meterRegistry, listados, "catalogo.listados");
+            CaffeineCacheMetrics.monitor(meterRegistry, categorias, "catalogo.categorias");
+        }
+    }
+
+    public Optional<Producto> producto(Integer id) {
+        if (!enabled) {
+            return productoRepository.findById(id);
+        }
+        return Optional.ofNullable(productos.get(id)).map(p -> conStock(p, stocks.get(id)));
+    }
+
+    public Optional<Producto> productoPorCodigo(String code) {
+        if (!enabled) {
+            return productoRepository.findByCode(code);
+        }
+        Integer id = codigos.get(code, c -> productoRepository.findByCode(c)
+                .map(p -> {
+                    productos.put(p.getIdProducto(), p);
+                    return p.getIdProducto();
+                })
+                .orElse(null));
+        return id != null ? producto(id) : Optional.empty();
+    }
+
+    public List<Producto> todos() {
+        return listado(LISTADO_TODOS, productoRepository::findAll);
+    }
+
+    public List<Producto> activos() {
+        return listado(LISTADO_ACTIVOS, productoRepository::findByIsActivoTrue);
+    }
+
+    public List<Producto> porCategoria(String categoriaId) {
+        return listado(LISTADO_CATEGORIA + categoriaId, () -> productoRepository.findByCategoriaIdCategoria(categoriaId));
+    }
+
+    public List<Categoria> categorias() {
+        if (!enabled) {
+            return categoriaRepository.findAll();
+        }
+        List<String> ids = listadoCategorias.get(LISTADO_CATEGORIAS);
+        Map<String, Categoria> encontradas = categorias.getAll(ids);
+        return ids.stream().map(encontradas::get).filter(c -> c != null).map(this::copia).collect(Collectors.toList());
+    }
+
+    public Optional<Categoria> categoria(String id) {
+        if (!enabled) {
+            return categoriaRepository.findById(id);
+        }
+        return Optional.ofNullable(categorias.get(id)).map(this::copia);
+    }
+
+    /**
+     * Generación actual del catálogo: cambia cada vez que se invalida algo
+     */
+    public long generacion() {
+        return generacion.get();
+    }
+
+    /**
+     * Invalida un producto y los listados que pueden contenerlo (crear, actualizar, eliminar, activar, desactivar)
+     */
+    public void invalidarProducto(Integer id) {
+        alTerminarTransaccion(() -> {
+            if (id != null) {
+                productos.invalidate(id);
+                stocks.invalidate(id);
+            }
+            codigos.invalidateAll();
+            listados.invalidateAll();
+        }, new CatalogoModificadoEvent(id));
+    }
+
+    /**
+     * Invalida solo el stock de los productos indicados; el resto del producto sigue en cache
+     */
+    public void invalidarStock(Collection<Integer> ids) {
+        List<Integer> copia = List.copyOf(ids);
+        alTerminarTransaccion(() -> stocks.invalidateAll(copia), null);
+    }
+
+    /**
+     * Invalida una categoría; los productos la llevan embebida, así que también se descartan
+     */
+    public void invalidarCategoria(String id) {
+        alTerminarTransaccion(() -> {
+            categorias.invalidate(id);
+            listadoCategorias.invalidateAll();
+            productos.invalidateAll();
+            codigos.invalidateAll();
+            listados.invalidateAll();
+        }, new CatalogoModificadoEvent(null));
+    }
+
+    /**
+     * Productos por ID en el orden recibido (con stock vigente); los IDs inexistentes se omiten
+     */
+    public List<Producto> productos(List<Integer> ids) {
+        if (!enabled) {
+            Map<Integer, Producto> encontrados = productoRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Producto::getIdProducto, p -> p));
+            return ids.stream().map(encontrados::get).filter(p -> p != null).collect(Collectors.toList());
+        }
+        Map<Integer, Producto> encontrados = productos.getAll(ids);
+        Map<Integer, Integer> stockActual = stocks.getAll(ids);
+
+        List<Producto> resultado = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Producto producto = encontrados.get(id);
+            if (producto != null) {
+                resultado.add(conStock(producto, stockActual.get(id)));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Stock vigente de varios productos (una sola consulta para los que no están en cache)
+     */
+    public Map<Integer, Integer> stock(Collection<Integer> ids) {
+        if (!enabled) {
+            Map<Integer, Integer> resultado = new HashMap<>();
+            productoRepository.findStockByIdIn(ids).forEach(s -> resultado.put(s.getIdProducto(), s.getStock()));
+            return resultado;
+        }
+        return stocks.getAll(ids);
+    }
+
+    private List<Producto> listado(String clave, Supplier<List<Producto>> consulta) {
+        if (!enabled) {
+            return consulta.get();
+        }
+        List<Integer> ids = listados.get(clave, k -> consulta.get().stream()
+                .peek(p -> productos.put(p.getIdProducto(), p))
+                .map(Producto::getIdProducto)
+                .collect(Collectors.toList()));
+        return productos(ids);
+    }
+
+    /**
+     * Copia del producto en cache con el stock vigente: los llamadores nunca reciben la instancia compartida
+     * (ni sus listas ni su categoría), así que pueden modificar lo que reciben sin tocar la cache
+     */
+    private Producto conStock(Producto cacheado, Integer stock) {
+        Producto copia = new Producto();
+        copia.setIdProducto(cacheado.getIdProducto());
+        copia.setCode(cacheado.getCode());
+        copia.setNombre(cacheado.getNombre());
+        copia.setCategoria(cacheado.getCategoria() != null ? copia(cacheado.getCategoria()) : null);
+        copia.setPrecioCLP(cacheado.getPrecioCLP());
+        copia.setStock(stock != null ? stock : cacheado.getStock());
+        copia.setMarca(cacheado.getMarca());
+        copia.setRating(cacheado.getRating());
+        copia.setSpecs(cacheado.getSpecs() != null ? new ArrayList<>(cacheado.getSpecs()) : null);
+        copia.setDescripcion(cacheado.getDescripcion());
+        copia.setTags(cacheado.getTags() != null ? new ArrayList<>(cacheado.getTags()) : null);
+        copia.setImagen(cacheado.getImagen());
+        copia.setIsActivo(cacheado.getIsActivo());
+        copia.setCreadoEl(cacheado.getCreadoEl());
+        copia.setActualizadoEl(cacheado.getActualizadoEl());
+        return copia;
+    }
+
+    /**
+     * Copia de la categoría en cache sin su colección perezosa de productos
+     */
+    private Categoria copia(Categoria cacheada) {
+        Categoria copia = new Categoria();
+        copia.setIdCategoria(cacheada.getIdCategoria());
+        copia.setNombreCategoria(cacheada.getNombreCategoria());
+        copia.setDescripcion(cacheada.getDescripcion());
+        copia.setCreadoEl(cacheada.getCreadoEl());
+        copia.setActualizadoEl(cacheada.getActualizadoEl());
+        return copia;
+    }
+
+    /**
+     * Invalida ahora y de nuevo al terminar la transacción: una lectura concurrente entre
+     * la escritura y el commit (o un rollback) no deja en cache un valor que no es el confirmado.
+     * El evento (si hay) avisa a los índices derivados del catálogo, como BusquedaService.
+     */
+    private void alTerminarTransaccion(Runnable invalidacion, CatalogoModificadoEvent evento) {
+        Runnable conGeneracion = () -> {
+            if (enabled) {
+                invalidacion.run();
+            }
+            generacion.incrementAndGet();
+            if (evento != null) {
+                eventPublisher.publishEvent(evento);
+            }
+        };
+        conGeneracion.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    conGeneracion.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package cl.duoc.lunari.api.inventory.service;
+
+/**
+ * Aviso de que un producto del catálogo cambió (productoId null: cambió todo el catálogo, p. ej. una categoría)
+ */
+public record CatalogoModificadoEvent(Integer productoId) {
+}
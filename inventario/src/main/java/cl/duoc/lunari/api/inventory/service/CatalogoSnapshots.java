@@ -0,0 +1,183 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.model.Producto;
+import cl.duoc.lunari.api.payload.ApiResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshots pre-serializados (JSON y gzip) de los listados completos del catálogo.
+ * Cada snapshot se reconstruye solo cuando cambia la generación de CatalogoCache o
+ * cuando supera app.cache.stockTtl (el stock embebido tiene ese mismo margen).
+ * El ETag es un hash del contenido, así una reconstrucción sin cambios conserva el
+ * mismo ETag y los clientes siguen recibiendo 304.
+ */
+@Component
+public class CatalogoSnapshots {
+
+    private static final String TODOS = "todos";
+    private static final String ACTIVOS = "activos";
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.cache.stockTtl:5s}")
+    private Duration maxAge;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Un bloqueo por listado: una ola de peticiones construye un solo snapshot, y la
+    // consulta y la serialización quedan fuera del mapa, que solo recibe el resultado
+    private final Map<String, ReentrantLock> reconstrucciones = Map.of(
+            TODOS, new ReentrantLock(),
+            ACTIVOS, new ReentrantLock());
+
+    public Snapshot todos() {
+        return obtener(TODOS, catalogoCache::todos);
+    }
+
+    public Snapshot activos() {
+        return obtener(ACTIVOS, catalogoCache::activos);
+    }
+
+    private Snapshot obtener(String clave, Supplier<List<Producto>> listado) {
+        long generacion = catalogoCache.generacion();
+        long ahora = System.nanoTime();
+        Snapshot actual = snapshots.get(clave);
+        if (actual != null && actual.vigente(generacion, ahora, maxAge)) {
+            return actual;
+        }
+        ReentrantLock reconstruccion = reconstrucciones.get(clave);
+        reconstruccion.lock();
+        try {
+            Snapshot previo = snapshots.get(clave);
+            if (previo != null && previo.vigente(generacion, ahora, maxAge)) {
+                return previo;
+            }
+            Snapshot nuevo = construir(previo, generacion, ahora, listado.get());
+            snapshots.put(clave, nuevo);
+            return nuevo;
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private Snapshot construir(Snapshot previo, long generacion, long ahora, List<Producto> productos) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(ApiResponse.success(productos));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar el catálogo: " + e.getMessage(), e);
+        }
+
+        String hash = sha256(json);
+        if (previo != null && previo.hash.equals(hash) && Arrays.equals(previo.json, json)) {
+            return new Snapshot(previo.version, hash, previo.json, previo.gzip, generacion, ahora);
+        }
+        long version = previo != null ? previo.version + 1 : 1;
+        return new Snapshot(version, hash, json, gzip(json), generacion, ahora);
+    }
+
+    private static String sha256(byte[] contenido) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(contenido);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] contenido) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(contenido.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(contenido);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    /**
+     * Listado serializado con su versión y ETags fuertes (uno por codificación, como exige HTTP)
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String hash;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final long generacion;
+        private final long construidoEn;
+
+        Snapshot(long version, String hash, byte[] json, byte[] gzip, long generacion, long construidoEn) {
+            this.version = version;
+            this.hash = hash;
+            this.json = json;
+            this.gzip = gzip;
+            this.generacion = generacion;
+            this.construidoEn = construidoEn;
+        }
+
+        boolean vigente(long generacionActual, long ahora, Duration maxAge) {
+            return generacion == generacionActual && ahora - construidoEn < maxAge.toNanos();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getEtag() {
+            return "\"" + hash + "\"";
+        }
+
+        public String getEtagGzip() {
+            return "\"" + hash + "-gz\"";
+        }
+
+        /**
+         * true si If-None-Match incluye cualquiera de los ETags de este contenido (o *)
+         */
+        public boolean coincide(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String etag : ifNoneMatch.split(",")) {
+                String valor = etag.trim();
+                if (valor.startsWith("W/")) {
+                    valor = valor.substring(2);
+                }
+                if (valor.equals("*") || valor.equals(getEtag()) || valor.equals(getEtagGzip())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -14,20 +14,26 @@ public class CategoriaService {
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @Autowired
+    private CatalogoCache catalogoCache;
+
     public List<Categoria> findAll() {
-        return categoriaRepository.findAll();
+        return catalogoCache.categorias();
     }
 
     public Optional<Categoria> findById(String id) {
-        return categoriaRepository.findById(id);
+        return catalogoCache.categoria(id);
     }
 
     public Categoria save(Categoria categoria) {
-        return categoriaRepository.save(categoria);
+        Categoria guardada = categoriaRepository.save(categoria);
+        catalogoCache.invalidarCategoria(guardada.getIdCategoria());
+        return guardada;
     }
 
     public void deleteById(String id) {
         categoriaRepository.deleteById(id);
+        catalogoCache.invalidarCategoria(id);
     }
 
     public List<Categoria> findByNombreContaining(String nombre) {
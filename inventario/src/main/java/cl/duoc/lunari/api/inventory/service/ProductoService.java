@@ -1,16 +1,29 @@
 package cl.duoc.lunari.api.inventory.service;
 
+import cl.duoc.lunari.api.inventory.dto.StockCheckRequest;
+import cl.duoc.lunari.api.inventory.dto.StockCheckResponse;
+import cl.duoc.lunari.api.inventory.dto.StockReductionRequest;
+import cl.duoc.lunari.api.inventory.dto.StockReductionResponse;
 import cl.duoc.lunari.api.inventory.model.Categoria;
 import cl.duoc.lunari.api.inventory.model.Producto;
+import cl.duoc.lunari.api.inventory.model.ReduccionStock;
 import cl.duoc.lunari.api.inventory.repository.CategoriaRepository;
 import cl.duoc.lunari.api.inventory.repository.ProductoRepository;
+import cl.duoc.lunari.api.inventory.repository.ReduccionStockRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -22,16 +35,22 @@ public class ProductoService {
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @Autowired
+    private ReduccionStockRepository reduccionStockRepository;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
     public List<Producto> findAll() {
-        return productoRepository.findAll();
+        return catalogoCache.todos();
     }
 
     public Optional<Producto> findById(Integer id) {
-        return productoRepository.findById(id);
+        return catalogoCache.producto(id);
     }
 
     public Optional<Producto> findByCode(String code) {
-        return productoRepository.findByCode(code);
+        return catalogoCache.productoPorCodigo(code);
     }
 
     public Producto save(Producto producto) {
@@ -52,7 +71,9 @@ public class ProductoService {
             }
         }
 
-        return productoRepository.save(producto);
+        Producto guardado = productoRepository.save(producto);
+        catalogoCache.invalidarProducto(guardado.getIdProducto());
+        return guardado;
     }
 
     public void deleteById(Integer id) {
@@ -60,10 +81,11 @@ public class ProductoService {
             throw new RuntimeException("Producto no encontrado con ID: " + id);
         }
         productoRepository.deleteById(id);
+        catalogoCache.invalidarProducto(id);
     }
 
     public List<Producto> findByCategoria(String categoriaId) {
-        return productoRepository.findByCategoriaIdCategoria(categoriaId);
+        return catalogoCache.porCategoria(categoriaId);
     }
 
     public List<Producto> findByNombreContaining(String nombre) {
@@ -75,7 +97,7 @@ public class ProductoService {
     }
 
     public List<Producto> findActivos() {
-        return productoRepository.findByIsActivoTrue();
+        return catalogoCache.activos();
     }
 
     public List<Producto> findEnStock() {
@@ -91,9 +113,67 @@ public class ProductoService {
     }
 
     public List<Producto> findByTag(String tag) {
-        // Format tag as JSON array element for JSONB query
-        String jsonTag = "\"" + tag + "\"";
-        return productoRepository.findByTag(jsonTag);
+        return productoRepository.findByTags(List.of(tag), true, null, null);
+    }
+
+    /**
+     * Productos con al menos uno (todos=false) o con todos (todos=true) los tags indicados
+     */
+    public List<Producto> findByTags(List<String> tags, boolean todos) {
+        return productoRepository.findByTags(tags, todos, null, null);
+    }
+
+    // Páginas por keyset: despuesDeId es el último ID de la página anterior (null para la primera)
+
+    public List<Producto> findAll(Integer despuesDeId, int limit) {
+        return productoRepository.findByIdProductoGreaterThanOrderByIdProductoAsc(desde(despuesDeId), Limit.of(limit));
+    }
+
+    public List<Producto> findByCategoria(String categoriaId, Integer despuesDeId, int limit) {
+        return productoRepository.findByCategoriaIdCategoriaAndIdProductoGreaterThanOrderByIdProductoAsc(
+                categoriaId, desde(despuesDeId), Limit.of(limit));
+    }
+
+    public List<Producto> findByNombreContaining(String nombre, Integer despuesDeId, int limit) {
+        return productoRepository.findByNombreContainingIgnoreCaseAndIdProductoGreaterThanOrderByIdProductoAsc(
+                nombre, desde(despuesDeId), Limit.of(limit));
+    }
+
+    public List<Producto> findByMarca(String marca, Integer despuesDeId, int limit) {
+        return productoRepository.findByMarcaAndIdProductoGreaterThanOrderByIdProductoAsc(
+                marca, desde(despuesDeId), Limit.of(limit));
+    }
+
+    public List<Producto> findActivos(Integer despuesDeId, int limit) {
+        return productoRepository.findByIsActivoTrueAndIdProductoGreaterThanOrderByIdProductoAsc(
+                desde(despuesDeId), Limit.of(limit));
+    }
+
+    public List<Producto> findEnStock(Integer despuesDeId, int limit) {
+        return productoRepository.findByStockGreaterThanAndIdProductoGreaterThanOrderByIdProductoAsc(
+                0, desde(despuesDeId), Limit.of(limit));
+    }
+
+    public List<Producto> findByPrecioRange(Integer min, Integer max, Integer despuesDeId, int limit) {
+        return productoRepository.findByPrecioCLPBetweenAndIdProductoGreaterThanOrderByIdProductoAsc(
+                min, max, desde(despuesDeId), Limit.of(limit));
+    }
+
+    public List<Producto> findByMinRating(BigDecimal minRating, Integer despuesDeId, int limit) {
+        return productoRepository.findByRatingGreaterThanEqualAndIdProductoGreaterThanOrderByIdProductoAsc(
+                minRating, desde(despuesDeId), Limit.of(limit));
+    }
+
+    public List<Producto> findByTag(String tag, Integer despuesDeId, int limit) {
+        return productoRepository.findByTags(List.of(tag), true, desde(despuesDeId), limit);
+    }
+
+    public List<Producto> findByTags(List<String> tags, boolean todos, Integer despuesDeId, int limit) {
+        return productoRepository.findByTags(tags, todos, desde(despuesDeId), limit);
+    }
+
+    private Integer desde(Integer despuesDeId) {
+        return despuesDeId != null ? despuesDeId : 0;
     }
 
     public Producto activar(Integer id) {
@@ -103,6 +183,7 @@ public class ProductoService {
         }
         Producto p = producto.get();
         p.setIsActivo(true);
+        catalogoCache.invalidarProducto(id);
         return productoRepository.save(p);
     }
 
@@ -113,6 +194,7 @@ public class ProductoService {
         }
         Producto p = producto.get();
         p.setIsActivo(false);
+        catalogoCache.invalidarProducto(id);
         return productoRepository.save(p);
     }
 
@@ -123,26 +205,137 @@ public class ProductoService {
         }
         Producto p = producto.get();
         p.setStock(nuevoStock);
+        catalogoCache.invalidarStock(List.of(id));
         return productoRepository.save(p);
     }
 
     public Producto reducirStock(Integer id, Integer cantidad) {
-        Optional<Producto> producto = productoRepository.findById(id);
-        if (producto.isEmpty()) {
-            throw new RuntimeException("Producto no encontrado con ID: " + id);
+        if (cantidad == null || cantidad <= 0) {
+            throw new RuntimeException("La cantidad a reducir debe ser mayor a 0");
         }
 
-        Producto p = producto.get();
+        // UPDATE condicional atómico: evita la carrera lectura-modificación-escritura entre pedidos concurrentes
+        if (productoRepository.decrementStock(id, cantidad) == 0) {
+            Optional<Integer> stockActual = productoRepository.findStockById(id);
+            if (stockActual.isEmpty()) {
+                throw new RuntimeException("Producto no encontrado con ID: " + id);
+            }
+            throw new RuntimeException("Stock insuficiente. Stock actual: " + stockActual.get() + ", cantidad solicitada: " + cantidad);
+        }
+        catalogoCache.invalidarStock(List.of(id));
 
-        if (cantidad <= 0) {
-            throw new RuntimeException("La cantidad a reducir debe ser mayor a 0");
+        return productoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+    }
+
+    /**
+     * Reduce el stock de todos los items de un pedido en una sola transacción.
+     * Cada item se aplica con un UPDATE condicional (stock >= cantidad); si alguno
+     * falla se hace rollback de todo el lote y se informa el resultado por item.
+     * Si la solicitud trae referencia, un lote ya aplicado con la misma referencia
+     * no vuelve a descontar stock (reintentos seguros desde carrito).
+     */
+    public StockReductionResponse reducirStockLote(StockReductionRequest request) {
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new RuntimeException("La lista de items no puede estar vacía");
         }
 
-        if (p.getStock() < cantidad) {
-            throw new RuntimeException("Stock insuficiente. Stock actual: " + p.getStock() + ", cantidad solicitada: " + cantidad);
+        String referencia = request.getReferencia();
+        if (referencia != null && reduccionStockRepository.existsById(referencia)) {
+            return new StockReductionResponse(true, 0,
+                    "Reducción ya aplicada para la referencia: " + referencia, new ArrayList<>());
         }
 
-        p.setStock(p.getStock() - cantidad);
-        return productoRepository.save(p);
+        // Agrupar por producto y ordenar por ID para que pedidos concurrentes bloqueen filas en el mismo orden
+        Map<Integer, Integer> cantidades = new TreeMap<>();
+        for (StockReductionRequest.StockItem item : request.getItems()) {
+            if (item.getProductoId() == null) {
+                throw new RuntimeException("ID del producto no puede estar vacío");
+            }
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new RuntimeException("La cantidad a reducir debe ser mayor a 0");
+            }
+            cantidades.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
+        }
+
+        List<StockReductionResponse.ItemResult> resultados = new ArrayList<>();
+        boolean exitoso = true;
+        catalogoCache.invalidarStock(cantidades.keySet());
+
+        for (Map.Entry<Integer, Integer> entry : cantidades.entrySet()) {
+            Integer productoId = entry.getKey();
+            Integer cantidad = entry.getValue();
+
+            if (productoRepository.decrementStock(productoId, cantidad) == 1) {
+                resultados.add(new StockReductionResponse.ItemResult(productoId, cantidad, true, "Stock reducido"));
+            } else {
+                exitoso = false;
+                String mensaje = productoRepository.findStockById(productoId).isPresent()
+                        ? "Stock insuficiente"
+                        : "Producto no encontrado";
+                resultados.add(new StockReductionResponse.ItemResult(productoId, cantidad, false, mensaje));
+            }
+        }
+
+        if (!exitoso) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            resultados.forEach(r -> {
+                if (r.isAplicado()) {
+                    r.setAplicado(false);
+                    r.setMensaje("Revertido: otro item del lote no pudo aplicarse");
+                }
+            });
+            return new StockReductionResponse(false, 0,
+                    "No se pudo reducir el stock del lote; no se aplicaron cambios", resultados);
+        }
+
+        if (referencia != null) {
+            // saveAndFlush: un lote concurrente con la misma referencia falla por PK y hace rollback
+            reduccionStockRepository.saveAndFlush(new ReduccionStock(referencia, resultados.size()));
+        }
+
+        return new StockReductionResponse(true, resultados.size(), "Stock reducido exitosamente", resultados);
+    }
+
+    /**
+     * Verifica la disponibilidad de stock de varios productos con una sola consulta
+     */
+    @Transactional(readOnly = true)
+    public StockCheckResponse verificarStock(StockCheckRequest request) {
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new RuntimeException("La lista de items no puede estar vacía");
+        }
+
+        Map<Integer, Integer> cantidades = new TreeMap<>();
+        for (StockReductionRequest.StockItem item : request.getItems()) {
+            if (item.getProductoId() == null) {
+                throw new RuntimeException("ID del producto no puede estar vacío");
+            }
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new RuntimeException("La cantidad debe ser mayor a 0");
+            }
+            cantidades.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
+        }
+
+        Map<Integer, ProductoRepository.StockView> stocks = productoRepository.findStockByIdIn(cantidades.keySet())
+                .stream()
+                .collect(Collectors.toMap(ProductoRepository.StockView::getIdProducto, Function.identity()));
+
+        List<StockCheckResponse.ItemResult> resultados = new ArrayList<>();
+        boolean disponible = true;
+
+        for (Map.Entry<Integer, Integer> entry : cantidades.entrySet()) {
+            ProductoRepository.StockView stock = stocks.get(entry.getKey());
+            Integer stockActual = stock != null ? stock.getStock() : null;
+            boolean itemDisponible = stock != null
+                    && Boolean.TRUE.equals(stock.getIsActivo())
+                    && stockActual != null
+                    && stockActual >= entry.getValue();
+
+            disponible &= itemDisponible;
+            resultados.add(new StockCheckResponse.ItemResult(entry.getKey(), entry.getValue(), stockActual, itemDisponible));
+        }
+
+        return new StockCheckResponse(disponible, resultados);
     }
 }
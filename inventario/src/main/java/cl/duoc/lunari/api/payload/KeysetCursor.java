@@ -0,0 +1,64 @@
+package cl.duoc.lunari.api.payload;
+
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cursor para paginación de productos
+ * Codifica una única clave entera: en los listados es el último idProducto de la página
+ * (keyset); en /busqueda es la posición dentro del ranking (offset). La página siguiente
+ * se pide con ?cursor=... y se indica en el header X-Next-Cursor
+ */
+public final class KeysetCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(int clave) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Integer.toString(clave).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor en su clave
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static int decode(String cursor) {
+        try {
+            int clave = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (clave < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            return clave;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    /**
+     * Respuesta de una página a partir de filas consultadas con limit + 1
+     * La fila extra solo indica que hay otra página: se descarta y X-Next-Cursor apunta
+     * al último elemento retornado, de modo que nunca se entrega un cursor a una página vacía
+     */
+    public static <T> ResponseEntity<ApiResponse<List<T>>> page(
+            List<T> filas,
+            int limit,
+            ToIntFunction<T> clave) {
+
+        if (filas.size() <= limit) {
+            return ResponseEntity.ok(ApiResponse.success(filas));
+        }
+
+        List<T> items = filas.subList(0, limit);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, encode(clave.applyAsInt(items.get(limit - 1))))
+                .body(ApiResponse.success(items));
+    }
+}
@@ -0,0 +1,93 @@
+package cl.duoc.lunari.api.inventory.repository;
+
+import cl.duoc.lunari.api.inventory.model.Producto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the multi-tag JSONB query builder (the @> operator is PostgreSQL-only)
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductoRepositoryImpl Tag Query Tests")
+class ProductoRepositoryImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query query;
+
+    @InjectMocks
+    private ProductoRepositoryImpl repository;
+
+    private final ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(repository, "objectMapper", new ObjectMapper());
+        lenient().when(entityManager.createNativeQuery(sql.capture(), eq(Producto.class))).thenReturn(query);
+        lenient().when(query.getResultList()).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("All-of should be a single containment with every tag")
+    void findByTags_AllOf() {
+        // When
+        repository.findByTags(List.of("rgb", "usb"), true, null, null);
+
+        // Then
+        assertThat(sql.getValue()).isEqualTo("SELECT * FROM producto WHERE tags @> CAST(:tag0 AS jsonb) ORDER BY id_producto");
+        verify(query).setParameter("tag0", "[\"rgb\",\"usb\"]");
+    }
+
+    @Test
+    @DisplayName("Any-of should OR one indexable containment per distinct tag in one statement")
+    void findByTags_AnyOfWithKeyset() {
+        // When
+        repository.findByTags(List.of("rgb", "streaming", "rgb"), false, 40, 20);
+
+        // Then
+        assertThat(sql.getValue()).isEqualTo("SELECT * FROM producto WHERE "
+                + "(tags @> CAST(:tag0 AS jsonb) OR tags @> CAST(:tag1 AS jsonb)) "
+                + "AND id_producto > :despuesDeId ORDER BY id_producto LIMIT :limit");
+        verify(query).setParameter("tag0", "[\"rgb\"]");
+        verify(query).setParameter("tag1", "[\"streaming\"]");
+        verify(query).setParameter("despuesDeId", 40);
+        verify(query).setParameter("limit", 20);
+        verify(entityManager, times(1)).createNativeQuery(anyString(), eq(Producto.class));
+    }
+
+    @Test
+    @DisplayName("Tags should be JSON-escaped instead of concatenated")
+    void findByTags_EscapesJson() {
+        // When
+        repository.findByTags(List.of("say \"hi\""), true, null, null);
+
+        // Then
+        verify(query).setParameter("tag0", "[\"say \\\"hi\\\"\"]");
+    }
+
+    @Test
+    @DisplayName("Blank or missing tags should not hit the database")
+    void findByTags_Empty() {
+        assertThat(repository.findByTags(Arrays.asList(" ", null), false, null, null)).isEmpty();
+        verifyNoInteractions(entityManager);
+    }
+}
@@ -0,0 +1,218 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.dto.BusquedaRequest;
+import cl.duoc.lunari.api.inventory.dto.BusquedaResponse;
+import cl.duoc.lunari.api.inventory.model.Categoria;
+import cl.duoc.lunari.api.inventory.model.Producto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the in-memory product search index
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BusquedaService Tests")
+class BusquedaServiceTest {
+
+    @Mock
+    private CatalogoCache catalogoCache;
+
+    @InjectMocks
+    private BusquedaService busquedaService;
+
+    private final List<Producto> catalogo = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(busquedaService, "maxAge", Duration.ofMinutes(10));
+
+        catalogo.add(createProducto(1, "Consola PlayStation 5", "CO", "Sony", 550000, "4.8", List.of("consola", "oferta"), 5));
+        catalogo.add(createProducto(2, "Control DualSense", "AC", "Sony", 70000, "4.5", List.of("control"), 0));
+        catalogo.add(createProducto(3, "Consola Xbox Series X", "CO", "Microsoft", 500000, "4.6", List.of("consola"), 3));
+        catalogo.add(createProducto(4, "Cámara web para streaming", "AC", "Logitech", 90000, null, List.of("streaming"), 8));
+
+        lenient().when(catalogoCache.todos()).thenAnswer(inv -> List.copyOf(catalogo));
+        lenient().when(catalogoCache.productos(anyList())).thenAnswer(inv -> {
+            List<Integer> ids = inv.getArgument(0);
+            Map<Integer, Producto> porId = catalogo.stream().collect(Collectors.toMap(Producto::getIdProducto, p -> p));
+            return ids.stream().map(porId::get).collect(Collectors.toList());
+        });
+        lenient().when(catalogoCache.stock(anyCollection())).thenAnswer(inv -> catalogo.stream()
+                .collect(Collectors.toMap(Producto::getIdProducto, Producto::getStock)));
+    }
+
+    @Test
+    @DisplayName("Should match every query term and treat the last one as a prefix")
+    void buscar_TodosLosTerminosConPrefijo() {
+        // When
+        BusquedaResponse resultado = busquedaService.buscar(criterios("consola play"));
+
+        // Then
+        assertThat(resultado.getProductos()).extracting(Producto::getIdProducto).containsExactly(1);
+        assertThat(resultado.getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should ignore accents and case in the query")
+    void buscar_SinTildes() {
+        // When
+        BusquedaResponse resultado = busquedaService.buscar(criterios("CAMARA"));
+
+        // Then
+        assertThat(resultado.getProductos()).extracting(Producto::getIdProducto).containsExactly(4);
+    }
+
+    @Test
+    @DisplayName("Should rank name matches above tag-only matches")
+    void buscar_RelevanciaPorCampo() {
+        // Given: "control" is in the name of 2 and nowhere else
+        catalogo.add(createProducto(5, "Base de carga", "AC", "Sony", 30000, "4.0", List.of("control"), 2));
+
+        // When
+        BusquedaResponse resultado = busquedaService.buscar(criterios("control"));
+
+        // Then
+        assertThat(resultado.getProductos()).extracting(Producto::getIdProducto).containsExactly(2, 5);
+    }
+
+    @Test
+    @DisplayName("Should combine filters and count facets ignoring their own filter")
+    void buscar_FiltrosYFacetas() {
+        // Given
+        BusquedaRequest criterios = criterios(null);
+        criterios.setCategoria("CO");
+        criterios.setPrecioMax(520000);
+        criterios.setOrden(BusquedaService.ORDEN_PRECIO_ASC);
+
+        // When
+        BusquedaResponse resultado = busquedaService.buscar(criterios);
+
+        // Then
+        assertThat(resultado.getProductos()).extracting(Producto::getIdProducto).containsExactly(3);
+        assertThat(resultado.getFacetas().get(BusquedaService.FACETA_CATEGORIA))
+                .containsEntry("CO", 1).containsEntry("AC", 2);
+        assertThat(resultado.getFacetas().get(BusquedaService.FACETA_MARCA))
+                .containsOnlyKeys("Microsoft");
+    }
+
+    @Test
+    @DisplayName("Should filter by current stock when enStock is requested")
+    void buscar_EnStock() {
+        // Given
+        BusquedaRequest criterios = criterios("sony");
+        criterios.setEnStock(true);
+
+        // When
+        BusquedaResponse resultado = busquedaService.buscar(criterios);
+
+        // Then
+        assertThat(resultado.getProductos()).extracting(Producto::getIdProducto).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("Should update only the changed producto when notified")
+    void onCatalogoModificado_ActualizaIncremental() {
+        // Given
+        busquedaService.buscar(criterios("xbox"));
+        Producto renombrado = createProducto(3, "Consola Xbox Series S", "CO", "Microsoft", 300000, "4.4", List.of("consola"), 3);
+        catalogo.set(2, renombrado);
+        when(catalogoCache.producto(3)).thenReturn(Optional.of(renombrado));
+
+        // When
+        busquedaService.onCatalogoModificado(new CatalogoModificadoEvent(3));
+        BusquedaResponse resultado = busquedaService.buscar(criterios("series s"));
+
+        // Then
+        assertThat(resultado.getProductos()).extracting(Producto::getNombre).containsExactly("Consola Xbox Series S");
+        verify(catalogoCache, times(1)).todos();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index once it is older than the cache TTL")
+    void indiceVencido_Reconstruye() {
+        // Given: a producto written by another instance, so no local event arrives
+        busquedaService.buscar(criterios("xbox"));
+        catalogo.add(createProducto(5, "Nintendo Switch", "CO", "Nintendo", 350000, "4.7", List.of("consola"), 4));
+        assertThat(busquedaService.buscar(criterios("switch")).getProductos()).isEmpty();
+
+        // When
+        ReflectionTestUtils.setField(busquedaService, "maxAge", Duration.ZERO);
+        BusquedaResponse resultado = busquedaService.buscar(criterios("switch"));
+
+        // Then
+        assertThat(resultado.getProductos()).extracting(Producto::getIdProducto).containsExactly(5);
+        verify(catalogoCache, times(2)).todos();
+    }
+
+    @Test
+    @DisplayName("Should page results with offset and report the full total")
+    void buscar_Paginado() {
+        // Given
+        BusquedaRequest criterios = criterios(null);
+        criterios.setOrden(BusquedaService.ORDEN_NOMBRE);
+        criterios.setLimit(2);
+        criterios.setOffset(2);
+
+        // When
+        BusquedaResponse resultado = busquedaService.buscar(criterios);
+
+        // Then: camara, consola ps5, consola xbox, control
+        assertThat(resultado.getTotal()).isEqualTo(4);
+        assertThat(resultado.getProductos()).extracting(Producto::getIdProducto).containsExactly(3, 2);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown sort orders")
+    void buscar_OrdenInvalido() {
+        BusquedaRequest criterios = criterios("consola");
+        criterios.setOrden("popularidad");
+
+        assertThatThrownBy(() -> busquedaService.buscar(criterios))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Orden no soportado");
+    }
+
+    private BusquedaRequest criterios(String q) {
+        BusquedaRequest criterios = new BusquedaRequest();
+        criterios.setQ(q);
+        return criterios;
+    }
+
+    private Producto createProducto(int id, String nombre, String categoriaId, String marca, int precio,
+                                    String rating, List<String> tags, int stock) {
+        Categoria categoria = new Categoria();
+        categoria.setIdCategoria(categoriaId);
+        categoria.setNombreCategoria(categoriaId.equals("CO") ? "Consolas" : "Accesorios");
+
+        Producto producto = new Producto();
+        producto.setIdProducto(id);
+        producto.setCode(String.format("%s%03d", categoriaId, id));
+        producto.setNombre(nombre);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        producto.setPrecioCLP(precio);
+        producto.setRating(rating != null ? new BigDecimal(rating) : null);
+        producto.setTags(tags);
+        producto.setStock(stock);
+        producto.setIsActivo(true);
+        return producto;
+    }
+}
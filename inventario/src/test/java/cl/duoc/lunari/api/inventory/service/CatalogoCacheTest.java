@@ -0,0 +1,98 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.model.Categoria;
+import cl.duoc.lunari.api.inventory.model.Producto;
+import cl.duoc.lunari.api.inventory.repository.CategoriaRepository;
+import cl.duoc.lunari.api.inventory.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the copies CatalogoCache hands out
+ * The JSONB specs and tags do not round-trip through H2, so these run against mocked repositories
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CatalogoCache Tests")
+class CatalogoCacheTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @InjectMocks
+    private CatalogoCache catalogoCache;
+
+    private Categoria categoria;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogoCache, "enabled", true);
+        ReflectionTestUtils.setField(catalogoCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(catalogoCache, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(catalogoCache, "stockTtl", Duration.ofMinutes(10));
+        catalogoCache.initCaches();
+
+        categoria = new Categoria();
+        categoria.setIdCategoria("CO");
+        categoria.setNombreCategoria("Consolas");
+    }
+
+    @Test
+    @DisplayName("Should copy the specs, tags and categoria handed out with a cached producto")
+    void producto_CopiaListasYCategoria() {
+        // Given
+        Producto cacheado = new Producto();
+        cacheado.setIdProducto(1);
+        cacheado.setCode("CO001");
+        cacheado.setCategoria(categoria);
+        cacheado.setStock(10);
+        cacheado.setSpecs(new ArrayList<>(List.of("1TB")));
+        cacheado.setTags(new ArrayList<>(List.of("oferta")));
+        when(productoRepository.findById(1)).thenReturn(Optional.of(cacheado));
+        when(productoRepository.findStockById(1)).thenReturn(Optional.of(10));
+
+        // When
+        Producto leido = catalogoCache.producto(1).orElseThrow();
+        leido.getSpecs().add("4K");
+        leido.getTags().clear();
+        leido.getCategoria().setNombreCategoria("Modificada");
+
+        // Then
+        Producto releido = catalogoCache.producto(1).orElseThrow();
+        assertThat(releido.getSpecs()).containsExactly("1TB");
+        assertThat(releido.getTags()).containsExactly("oferta");
+        assertThat(releido.getCategoria().getNombreCategoria()).isEqualTo("Consolas");
+        verify(productoRepository, times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("Should hand out copies of cached categorias")
+    void categoria_DevuelveCopias() {
+        // Given
+        when(categoriaRepository.findById("CO")).thenReturn(Optional.of(categoria));
+
+        // When
+        catalogoCache.categoria("CO").orElseThrow().setNombreCategoria("Modificada");
+
+        // Then
+        assertThat(catalogoCache.categoria("CO")).get()
+                .extracting(Categoria::getNombreCategoria).isEqualTo("Consolas");
+        verify(categoriaRepository, times(1)).findById("CO");
+    }
+}
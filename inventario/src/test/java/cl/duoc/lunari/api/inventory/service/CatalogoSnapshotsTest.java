@@ -0,0 +1,179 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.model.Categoria;
+import cl.duoc.lunari.api.inventory.model.Producto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the pre-serialized catalogue snapshots
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CatalogoSnapshots Tests")
+class CatalogoSnapshotsTest {
+
+    @Mock
+    private CatalogoCache catalogoCache;
+
+    @InjectMocks
+    private CatalogoSnapshots catalogoSnapshots;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogoSnapshots, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(catalogoSnapshots, "maxAge", Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Should reuse the snapshot while the catalogue generation is unchanged")
+    void mismaGeneracion_NoReconstruye() {
+        // Given
+        when(catalogoCache.generacion()).thenReturn(1L);
+        when(catalogoCache.todos()).thenReturn(List.of(createProducto(1, 10)));
+
+        // When
+        CatalogoSnapshots.Snapshot primero = catalogoSnapshots.todos();
+        CatalogoSnapshots.Snapshot segundo = catalogoSnapshots.todos();
+
+        // Then
+        assertThat(segundo).isSameAs(primero);
+        verify(catalogoCache, times(1)).todos();
+    }
+
+    @Test
+    @DisplayName("Should keep the ETag when a rebuild produces the same bytes")
+    void reconstruccionSinCambios_MismoEtag() {
+        // Given
+        when(catalogoCache.generacion()).thenReturn(1L, 2L);
+        when(catalogoCache.todos()).thenReturn(List.of(createProducto(1, 10)));
+
+        // When
+        CatalogoSnapshots.Snapshot primero = catalogoSnapshots.todos();
+        CatalogoSnapshots.Snapshot segundo = catalogoSnapshots.todos();
+
+        // Then
+        verify(catalogoCache, times(2)).todos();
+        assertThat(segundo.getEtag()).isEqualTo(primero.getEtag());
+        assertThat(segundo.getVersion()).isEqualTo(primero.getVersion());
+        assertThat(segundo.coincide(primero.getEtag())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should bump the version and ETag when the content changes")
+    void contenidoCambia_NuevoEtag() {
+        // Given
+        when(catalogoCache.generacion()).thenReturn(1L, 2L);
+        when(catalogoCache.activos())
+                .thenReturn(List.of(createProducto(1, 10)))
+                .thenReturn(List.of(createProducto(1, 9)));
+
+        // When
+        CatalogoSnapshots.Snapshot primero = catalogoSnapshots.activos();
+        CatalogoSnapshots.Snapshot segundo = catalogoSnapshots.activos();
+
+        // Then
+        assertThat(segundo.getEtag()).isNotEqualTo(primero.getEtag());
+        assertThat(segundo.getVersion()).isEqualTo(primero.getVersion() + 1);
+        assertThat(segundo.coincide(primero.getEtag())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should rebuild once the snapshot is older than the stock TTL")
+    void snapshotExpirado_Reconstruye() {
+        // Given
+        ReflectionTestUtils.setField(catalogoSnapshots, "maxAge", Duration.ZERO);
+        when(catalogoCache.generacion()).thenReturn(1L);
+        when(catalogoCache.todos()).thenReturn(List.of(createProducto(1, 10)));
+
+        // When
+        catalogoSnapshots.todos();
+        catalogoSnapshots.todos();
+
+        // Then
+        verify(catalogoCache, times(2)).todos();
+    }
+
+    @Test
+    @DisplayName("Should serve a gzip body that decompresses to the same JSON envelope")
+    void gzip_MismoContenido() throws Exception {
+        // Given
+        when(catalogoCache.generacion()).thenReturn(1L);
+        when(catalogoCache.todos()).thenReturn(List.of(createProducto(1, 10), createProducto(2, 0)));
+
+        // When
+        CatalogoSnapshots.Snapshot snapshot = catalogoSnapshots.todos();
+
+        // Then
+        byte[] descomprimido;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(snapshot.getGzip()))) {
+            descomprimido = gzip.readAllBytes();
+        }
+        assertThat(descomprimido).isEqualTo(snapshot.getJson());
+        assertThat(objectMapper.readTree(snapshot.getJson()).path("response")).hasSize(2);
+        assertThat(snapshot.getEtagGzip()).isNotEqualTo(snapshot.getEtag());
+        assertThat(snapshot.coincide("W/" + snapshot.getEtagGzip())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should build a single snapshot for concurrent requests without blocking the other listing")
+    void reconstruccionConcurrente_UnaSolaConstruccion() throws Exception {
+        // Given: the todos query blocks until released
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(catalogoCache.generacion()).thenReturn(1L);
+        when(catalogoCache.todos()).thenAnswer(invocation -> {
+            consultando.countDown();
+            liberar.await(10, TimeUnit.SECONDS);
+            return List.of(createProducto(1, 10));
+        });
+        when(catalogoCache.activos()).thenReturn(List.of(createProducto(2, 5)));
+
+        // When
+        CompletableFuture<CatalogoSnapshots.Snapshot> primero = CompletableFuture.supplyAsync(catalogoSnapshots::todos);
+        assertThat(consultando.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<CatalogoSnapshots.Snapshot> segundo = CompletableFuture.supplyAsync(catalogoSnapshots::todos);
+        CatalogoSnapshots.Snapshot activos = catalogoSnapshots.activos();
+        liberar.countDown();
+
+        // Then
+        assertThat(activos).isNotNull();
+        assertThat(segundo.get(10, TimeUnit.SECONDS)).isSameAs(primero.get(10, TimeUnit.SECONDS));
+        verify(catalogoCache, times(1)).todos();
+    }
+
+    private Producto createProducto(int id, int stock) {
+        Categoria categoria = new Categoria();
+        categoria.setIdCategoria("CO");
+        categoria.setNombreCategoria("Consolas");
+
+        Producto producto = new Producto();
+        producto.setIdProducto(id);
+        producto.setCode(String.format("CO%03d", id));
+        producto.setNombre("Producto " + id);
+        producto.setCategoria(categoria);
+        producto.setPrecioCLP(10000);
+        producto.setStock(stock);
+        producto.setTags(List.of("consola", "oferta"));
+        return producto;
+    }
+}
@@ -0,0 +1,168 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.model.Categoria;
+import cl.duoc.lunari.api.inventory.model.Producto;
+import cl.duoc.lunari.api.inventory.repository.CategoriaRepository;
+import cl.duoc.lunari.api.inventory.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Read-through catalogue cache tests for ProductoService using H2 in-memory database.
+ * Runs without a test-managed transaction so every call commits like in production.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductoService.class, CategoriaService.class, CatalogoCache.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:catalogocachetest;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "app.cache.stockTtl=10m"
+})
+@DisplayName("ProductoService Cache Tests")
+class ProductoServiceCacheTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Categoria categoria;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+
+        categoria = new Categoria();
+        categoria.setIdCategoria("CO");
+        categoria.setNombreCategoria("Consolas");
+        categoria = categoriaService.save(categoria);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads by id, code and list from the cache")
+    void lecturasRepetidas_NoTocanBaseDeDatos() {
+        // Given
+        Producto producto = productoService.save(createTestProducto("CO001", true));
+        productoService.findById(producto.getIdProducto());
+        productoService.findByCode("CO001");
+        productoService.findActivos();
+        productoService.findByCategoria("CO");
+        categoriaService.findById("CO");
+        statistics.clear();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            productoService.findById(producto.getIdProducto());
+            productoService.findByCode("CO001");
+            productoService.findActivos();
+            productoService.findByCategoria("CO");
+            categoriaService.findById("CO");
+        }
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop cached lists and entries when a producto is written")
+    void escrituras_InvalidanCache() {
+        // Given
+        Producto producto = productoService.save(createTestProducto("CO001", true));
+        assertThat(productoService.findActivos()).extracting(Producto::getCode).containsExactly("CO001");
+
+        // When
+        productoService.desactivar(producto.getIdProducto());
+        Producto nuevo = productoService.save(createTestProducto("CO002", true));
+
+        // Then
+        assertThat(productoService.findActivos()).extracting(Producto::getCode).containsExactly("CO002");
+        assertThat(productoService.findById(producto.getIdProducto())).get()
+                .extracting(Producto::getIsActivo).isEqualTo(false);
+
+        productoService.deleteById(nuevo.getIdProducto());
+        assertThat(productoService.findById(nuevo.getIdProducto())).isEmpty();
+        assertThat(productoService.findByCode("CO002")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should refresh only the stock entry after a stock reduction")
+    void reducirStock_InvalidaSoloStock() {
+        // Given
+        Producto producto = productoService.save(createTestProducto("CO001", true));
+        productoService.findById(producto.getIdProducto());
+
+        // When
+        productoService.reducirStock(producto.getIdProducto(), 3);
+        statistics.clear();
+        Producto leido = productoService.findById(producto.getIdProducto()).orElseThrow();
+
+        // Then: the stock is re-read with a single projection query, the entity stays cached
+        assertThat(leido.getStock()).isEqualTo(7);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hand out copies so callers cannot modify the cached producto")
+    void lecturas_DevuelvenCopias() {
+        // Given
+        Producto producto = productoService.save(createTestProducto("CO001", true));
+
+        // When
+        productoService.findById(producto.getIdProducto()).orElseThrow().setNombre("Modificado");
+        List<Producto> todos = productoService.findAll();
+
+        // Then
+        assertThat(productoService.findById(producto.getIdProducto())).get()
+                .extracting(Producto::getNombre).isEqualTo("Producto CO001");
+        assertThat(todos).extracting(Producto::getNombre).containsExactly("Producto CO001");
+    }
+
+    private Producto createTestProducto(String code, boolean activo) {
+        Producto producto = new Producto();
+        producto.setCode(code);
+        producto.setNombre("Producto " + code);
+        producto.setCategoria(categoria);
+        producto.setPrecioCLP(10000);
+        producto.setStock(10);
+        producto.setIsActivo(activo);
+        return producto;
+    }
+}
@@ -0,0 +1,100 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.model.Categoria;
+import cl.duoc.lunari.api.inventory.model.Producto;
+import cl.duoc.lunari.api.inventory.repository.CategoriaRepository;
+import cl.duoc.lunari.api.inventory.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Keyset pagination tests for ProductoService using H2 in-memory database
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductoService.class, CatalogoCache.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:paginaciontest;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@DisplayName("ProductoService Pagination Tests")
+class ProductoServicePaginacionTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    private Categoria categoria;
+
+    @BeforeEach
+    void setUp() {
+        categoria = new Categoria();
+        categoria.setIdCategoria("CO");
+        categoria.setNombreCategoria("Consolas");
+        categoria = categoriaRepository.save(categoria);
+
+        for (int i = 1; i <= 11; i++) {
+            createTestProducto(String.format("CO%03d", i), i % 4 != 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should walk all productos page by page without gaps or duplicates")
+    void findAll_KeysetPages() {
+        // When
+        List<Integer> vistos = new ArrayList<>();
+        List<Producto> pagina = productoService.findAll(null, 4);
+        while (!pagina.isEmpty()) {
+            pagina.forEach(p -> vistos.add(p.getIdProducto()));
+            pagina = productoService.findAll(pagina.get(pagina.size() - 1).getIdProducto(), 4);
+        }
+
+        // Then
+        assertThat(vistos).hasSize(11).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    @DisplayName("Should apply the filter before the page limit")
+    void findActivos_PageOnlyActive() {
+        // When
+        List<Producto> primera = productoService.findActivos(null, 5);
+        List<Producto> segunda = productoService.findActivos(primera.get(primera.size() - 1).getIdProducto(), 5);
+
+        // Then: 11 productos, every 4th inactive -> 9 activos
+        assertThat(primera).hasSize(5).allMatch(Producto::getIsActivo);
+        assertThat(segunda).hasSize(4).allMatch(Producto::getIsActivo);
+    }
+
+    private void createTestProducto(String code, boolean activo) {
+        Producto producto = new Producto();
+        producto.setCode(code);
+        producto.setNombre("Producto " + code);
+        producto.setCategoria(categoria);
+        producto.setPrecioCLP(10000);
+        producto.setStock(5);
+        producto.setIsActivo(activo);
+        productoRepository.save(producto);
+    }
+}
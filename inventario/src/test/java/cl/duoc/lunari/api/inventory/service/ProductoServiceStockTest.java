@@ -0,0 +1,213 @@
+package cl.duoc.lunari.api.inventory.service;
+
+import cl.duoc.lunari.api.inventory.dto.StockCheckRequest;
+import cl.duoc.lunari.api.inventory.dto.StockCheckResponse;
+import cl.duoc.lunari.api.inventory.dto.StockReductionRequest;
+import cl.duoc.lunari.api.inventory.dto.StockReductionResponse;
+import cl.duoc.lunari.api.inventory.model.Categoria;
+import cl.duoc.lunari.api.inventory.model.Producto;
+import cl.duoc.lunari.api.inventory.repository.CategoriaRepository;
+import cl.duoc.lunari.api.inventory.repository.ProductoRepository;
+import cl.duoc.lunari.api.inventory.repository.ReduccionStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Stock reduction tests for ProductoService using H2 in-memory database.
+ * Runs without a test-managed transaction so every call commits like in production.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductoService.class, CatalogoCache.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:inventariotest;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@DisplayName("ProductoService Stock Tests")
+class ProductoServiceStockTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private ReduccionStockRepository reduccionStockRepository;
+
+    private Categoria categoria;
+
+    @BeforeEach
+    void setUp() {
+        reduccionStockRepository.deleteAll();
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+
+        categoria = new Categoria();
+        categoria.setIdCategoria("CO");
+        categoria.setNombreCategoria("Consolas");
+        categoria = categoriaRepository.save(categoria);
+    }
+
+    @Test
+    @DisplayName("Should reduce stock and return updated producto")
+    void reducirStock_Success() {
+        // Given
+        Producto producto = createTestProducto("CO001", 10);
+
+        // When
+        Producto result = productoService.reducirStock(producto.getIdProducto(), 3);
+
+        // Then
+        assertThat(result.getStock()).isEqualTo(7);
+        assertThat(productoRepository.findStockById(producto.getIdProducto())).contains(7);
+    }
+
+    @Test
+    @DisplayName("Should reject reduction when stock is insufficient")
+    void reducirStock_InsufficientStock() {
+        // Given
+        Producto producto = createTestProducto("CO001", 2);
+
+        // When & Then
+        assertThatThrownBy(() -> productoService.reducirStock(producto.getIdProducto(), 3))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Stock insuficiente");
+        assertThat(productoRepository.findStockById(producto.getIdProducto())).contains(2);
+    }
+
+    @Test
+    @DisplayName("Should reject reduction for unknown producto")
+    void reducirStock_NotFound() {
+        assertThatThrownBy(() -> productoService.reducirStock(9999, 1))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Producto no encontrado");
+    }
+
+    @Test
+    @DisplayName("Should never oversell a hot producto under concurrent reductions")
+    void reducirStock_ConcurrentNoOversell() throws Exception {
+        // Given
+        int stockInicial = 50;
+        int threads = 16;
+        int intentosPorThread = 10;
+        Producto producto = createTestProducto("CO001", stockInicial);
+        Integer id = producto.getIdProducto();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger exitosos = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < intentosPorThread; i++) {
+                    try {
+                        productoService.reducirStock(id, 1);
+                        exitosos.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        rechazados.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(exitosos.get()).isEqualTo(stockInicial);
+        assertThat(rechazados.get()).isEqualTo(threads * intentosPorThread - stockInicial);
+        assertThat(productoRepository.findStockById(id)).contains(0);
+    }
+
+    @Test
+    @DisplayName("Should check availability of several productos at once")
+    void verificarStock_Bulk() {
+        // Given
+        Producto conStock = createTestProducto("CO001", 5);
+        Producto sinStock = createTestProducto("CO002", 1);
+        StockCheckRequest request = new StockCheckRequest(List.of(
+                new StockReductionRequest.StockItem(conStock.getIdProducto(), 2),
+                new StockReductionRequest.StockItem(conStock.getIdProducto(), 3),
+                new StockReductionRequest.StockItem(sinStock.getIdProducto(), 2),
+                new StockReductionRequest.StockItem(9999, 1)));
+
+        // When
+        StockCheckResponse result = productoService.verificarStock(request);
+
+        // Then
+        assertThat(result.isDisponible()).isFalse();
+        assertThat(result.getItems()).hasSize(3);
+        assertThat(result.getItems())
+                .filteredOn(StockCheckResponse.ItemResult::isDisponible)
+                .extracting(StockCheckResponse.ItemResult::getProductoId)
+                .containsExactly(conStock.getIdProducto());
+    }
+
+    @Test
+    @DisplayName("Should apply a batch reduction only once per referencia")
+    void reducirStockLote_IdempotentByReferencia() {
+        // Given
+        Producto producto = createTestProducto("CO001", 10);
+        StockReductionRequest request = new StockReductionRequest(
+                List.of(new StockReductionRequest.StockItem(producto.getIdProducto(), 4)),
+                "ORD-20251130-00001");
+
+        // When
+        StockReductionResponse first = productoService.reducirStockLote(request);
+        StockReductionResponse retry = productoService.reducirStockLote(request);
+
+        // Then
+        assertThat(first.isExitoso()).isTrue();
+        assertThat(first.getItemsProcessed()).isEqualTo(1);
+        assertThat(retry.isExitoso()).isTrue();
+        assertThat(retry.getItemsProcessed()).isZero();
+        assertThat(productoRepository.findStockById(producto.getIdProducto())).contains(6);
+    }
+
+    private Producto createTestProducto(String code, int stock) {
+        Producto producto = new Producto();
+        producto.setCode(code);
+        producto.setNombre("Producto " + code);
+        producto.setCategoria(categoria);
+        producto.setPrecioCLP(10000);
+        producto.setStock(stock);
+        return productoRepository.save(producto);
+    }
+}
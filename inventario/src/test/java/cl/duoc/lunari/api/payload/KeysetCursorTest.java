@@ -0,0 +1,52 @@
+package cl.duoc.lunari.api.payload;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for KeysetCursor
+ */
+@DisplayName("KeysetCursor Tests")
+class KeysetCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip the integer key")
+    void encodeDecode_RoundTrip() {
+        assertThat(KeysetCursor.decode(KeysetCursor.encode(42))).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed or negative cursors with IllegalArgumentException")
+    void decode_Invalid() {
+        assertThatThrownBy(() -> KeysetCursor.decode("%%%")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("YWJj")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(KeysetCursor.encode(-1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should trim the extra row and point the next cursor at the last returned item")
+    void page_ExtraRowMeansNextPage() {
+        // When
+        ResponseEntity<ApiResponse<List<Integer>>> respuesta = KeysetCursor.page(List.of(1, 2, 3), 2, n -> n);
+
+        // Then
+        assertThat(respuesta.getBody().getResponse()).containsExactly(1, 2);
+        assertThat(KeysetCursor.decode(respuesta.getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER))).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not emit a next cursor when the last page is exactly full")
+    void page_ExactlyFullLastPage() {
+        // When
+        ResponseEntity<ApiResponse<List<Integer>>> respuesta = KeysetCursor.page(List.of(1, 2), 2, n -> n);
+
+        // Then
+        assertThat(respuesta.getBody().getResponse()).containsExactly(1, 2);
+        assertThat(respuesta.getHeaders().containsKey(KeysetCursor.NEXT_CURSOR_HEADER)).isFalse();
+    }
+}
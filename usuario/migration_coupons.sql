@@ -0,0 +1,128 @@
+-- =====================================================
+-- LUNARi User Service - Coupons table migration
+-- =====================================================
+-- Moves coupons from the users.coupons JSONB array into
+-- the coupon table (one row per coupon) and drops the
+-- column. For databases created with an older
+-- migration_neondb.sql; safe to run more than once.
+--
+-- No coupon is dropped:
+--   - Codes are unique per user (idx_coupon_user_code), so a
+--     campaign code given to many users (SPECIAL-2025) keeps
+--     one row per user and keeps working.
+--   - A code repeated within one user (old 4-digit random
+--     part) is renamed with a suffix: CODE-2, CODE-3, ...
+--   - A repeated or already taken id gets a new UUID.
+-- Renamed or re-keyed coupons are listed in
+-- coupon_migration_report, and the original arrays are kept
+-- in users_coupons_backup. If a coupon still cannot be
+-- inserted the whole transaction fails and the column stays.
+-- =====================================================
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS coupon (
+    id VARCHAR(100) PRIMARY KEY,
+    user_id VARCHAR(255) NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    code VARCHAR(100) NOT NULL,
+    description VARCHAR(255),
+    type VARCHAR(20) NOT NULL,
+    value DOUBLE PRECISION NOT NULL,
+    min_purchase DOUBLE PRECISION,
+    expires_at DATE,
+    is_used BOOLEAN NOT NULL DEFAULT false,
+    used_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Earlier versions of this script made code globally unique
+DROP INDEX IF EXISTS idx_coupon_code;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_coupon_user_code ON coupon(user_id, code);
+CREATE INDEX IF NOT EXISTS idx_coupon_user ON coupon(user_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_coupon_expires ON coupon(expires_at) WHERE is_used = false;
+
+CREATE TABLE IF NOT EXISTS users_coupons_backup (
+    user_id VARCHAR(255) NOT NULL,
+    coupons JSONB NOT NULL,
+    backed_up_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS coupon_migration_report (
+    user_id VARCHAR(255) NOT NULL,
+    original_id VARCHAR(100),
+    original_code VARCHAR(100) NOT NULL,
+    coupon_id VARCHAR(100) NOT NULL,
+    code VARCHAR(100) NOT NULL,
+    reported_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Explode every JSON coupon into a row, renaming and re-keying collisions instead
+-- of skipping them. expiresAt may be a date or an ISO 8601 timestamp: only the
+-- date part is kept.
+DO $$
+DECLARE
+    migrated bigint;
+    changed bigint;
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'users' AND column_name = 'coupons') THEN
+        INSERT INTO users_coupons_backup (user_id, coupons)
+        SELECT id, coupons
+        FROM users
+        WHERE jsonb_typeof(coupons) = 'array' AND jsonb_array_length(coupons) > 0;
+
+        CREATE TEMP TABLE coupon_source ON COMMIT DROP AS
+        SELECT s.*,
+               CASE WHEN s.original_id IS NOT NULL AND s.id_rank = 1
+                         AND NOT EXISTS (SELECT 1 FROM coupon x WHERE x.id = s.original_id)
+                    THEN s.original_id ELSE gen_random_uuid()::text END AS id,
+               CASE WHEN s.code_rank = 1 THEN s.original_code
+                    ELSE s.original_code || '-' || s.code_rank END AS code
+        FROM (
+            SELECT u.id AS user_id,
+                   e.c,
+                   NULLIF(e.c ->> 'id', '') AS original_id,
+                   e.c ->> 'code' AS original_code,
+                   row_number() OVER (PARTITION BY u.id, e.c ->> 'code' ORDER BY e.ord) AS code_rank,
+                   row_number() OVER (PARTITION BY NULLIF(e.c ->> 'id', '') ORDER BY u.id, e.ord) AS id_rank,
+                   COALESCE(u.updated_at, CURRENT_TIMESTAMP) AS created_at
+            FROM users u
+            CROSS JOIN LATERAL jsonb_array_elements(
+                CASE WHEN jsonb_typeof(u.coupons) = 'array' THEN u.coupons ELSE '[]'::jsonb END)
+                WITH ORDINALITY AS e(c, ord)
+            WHERE NULLIF(e.c ->> 'code', '') IS NOT NULL
+        ) s;
+
+        -- No ON CONFLICT: a collision left at this point aborts the migration
+        INSERT INTO coupon (id, user_id, code, description, type, value, min_purchase, expires_at, is_used, created_at)
+        SELECT s.id,
+               s.user_id,
+               s.code,
+               s.c ->> 'description',
+               COALESCE(s.c ->> 'type', 'fixed'),
+               COALESCE((s.c ->> 'value')::double precision, 0),
+               (s.c ->> 'minPurchase')::double precision,
+               CASE WHEN s.c ->> 'expiresAt' ~ '^\d{4}-\d{2}-\d{2}'
+                    THEN LEFT(s.c ->> 'expiresAt', 10)::date END,
+               COALESCE((s.c ->> 'isUsed')::boolean, false),
+               s.created_at
+        FROM coupon_source s;
+        GET DIAGNOSTICS migrated = ROW_COUNT;
+
+        INSERT INTO coupon_migration_report (user_id, original_id, original_code, coupon_id, code)
+        SELECT user_id, original_id, original_code, id, code
+        FROM coupon_source
+        WHERE code <> original_code OR original_id <> id;
+        GET DIAGNOSTICS changed = ROW_COUNT;
+
+        RAISE NOTICE 'Migrated % coupons, % renamed or re-keyed (see coupon_migration_report)', migrated, changed;
+
+        ALTER TABLE users DROP COLUMN coupons;
+    END IF;
+END $$;
+
+COMMIT;
+
+-- Verification
+SELECT COUNT(*) AS total_coupons, COUNT(DISTINCT user_id) AS users_with_coupons FROM coupon;
+SELECT * FROM coupon_migration_report ORDER BY reported_at, user_id;
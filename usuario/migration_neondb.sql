@@ -5,6 +5,9 @@
 -- usuario microservice migrated from DynamoDB to NeonDB
 -- =====================================================
 
+-- Trigram indexes for user search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- Drop table if exists (for clean migration)
 DROP TABLE IF EXISTS users CASCADE;
 
@@ -31,13 +34,13 @@ CREATE TABLE users (
     -- Client statistics (stored as JSONB)
     stats JSONB,
 
-    -- Coupons (stored as JSONB array)
-    coupons JSONB,
-
     -- Status flags
     is_active BOOLEAN NOT NULL DEFAULT true,
     is_verified BOOLEAN NOT NULL DEFAULT false,
 
+    -- Tokens issued before this instant are rejected (logout)
+    tokens_valid_after TIMESTAMP,
+
     -- Timestamps
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
@@ -73,6 +76,17 @@ CREATE INDEX idx_personal_gin ON users USING GIN (personal);
 CREATE INDEX idx_preferences_gin ON users USING GIN (preferences);
 CREATE INDEX idx_stats_gin ON users USING GIN (stats);
 
+-- User search (UserRepositoryImpl.searchUsers): b-tree text_pattern_ops for the prefix
+-- fast path, GIN pg_trgm for substring matches. Expressions must match the queries
+CREATE INDEX idx_users_username_prefix ON users (lower(username) text_pattern_ops);
+CREATE INDEX idx_users_email_prefix ON users (lower(email) text_pattern_ops);
+CREATE INDEX idx_users_full_name_prefix ON users
+    ((lower(COALESCE(personal->>'firstName', '') || ' ' || COALESCE(personal->>'lastName', ''))) text_pattern_ops);
+CREATE INDEX idx_users_username_trgm ON users USING GIN (lower(username) gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON users USING GIN (lower(email) gin_trgm_ops);
+CREATE INDEX idx_users_full_name_trgm ON users USING GIN
+    ((lower(COALESCE(personal->>'firstName', '') || ' ' || COALESCE(personal->>'lastName', ''))) gin_trgm_ops);
+
 -- =====================================================
 -- Triggers for automatic updated_at management
 -- =====================================================
@@ -92,6 +106,68 @@ CREATE TRIGGER update_users_updated_at
     FOR EACH ROW
     EXECUTE FUNCTION update_updated_at_column();
 
+-- =====================================================
+-- Points ledger (append-only; balance is users.stats.points)
+-- =====================================================
+
+-- One row per points movement. The balance in users.stats.points is
+-- incremented in the same statement that appends the row. The reference
+-- (order number, coupon) is unique, so a retried award from carrito is
+-- ignored instead of adding points twice. Existing databases are moved
+-- over from points_award with migration_points_ledger.sql
+DROP TABLE IF EXISTS points_ledger CASCADE;
+
+CREATE TABLE points_ledger (
+    id BIGSERIAL PRIMARY KEY,
+    user_id VARCHAR(255) NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    delta BIGINT NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    reference VARCHAR(100),
+    description VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Idempotency key for awards and redemptions
+CREATE UNIQUE INDEX idx_points_ledger_reference ON points_ledger(reference) WHERE reference IS NOT NULL;
+
+-- Points history of a user (keyset pagination by id)
+CREATE INDEX idx_points_ledger_user ON points_ledger(user_id, id DESC);
+
+-- Compaction of old entries
+CREATE INDEX idx_points_ledger_created ON points_ledger(created_at);
+
+-- =====================================================
+-- Coupons (one row per coupon)
+-- =====================================================
+
+-- Coupons used to be a JSONB array in users.coupons; existing databases are
+-- moved over with migration_coupons.sql
+DROP TABLE IF EXISTS coupon CASCADE;
+
+CREATE TABLE coupon (
+    id VARCHAR(100) PRIMARY KEY,
+    user_id VARCHAR(255) NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    code VARCHAR(100) NOT NULL,
+    description VARCHAR(255),
+    type VARCHAR(20) NOT NULL,
+    value DOUBLE PRECISION NOT NULL,
+    min_purchase DOUBLE PRECISION,
+    expires_at DATE,
+    is_used BOOLEAN NOT NULL DEFAULT false,
+    used_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Coupon lookup by code (checkout validation, mark as used). Codes are unique per
+-- user only: a campaign code (e.g. SPECIAL-2025) is one row for each user it is given to
+CREATE UNIQUE INDEX idx_coupon_user_code ON coupon(user_id, code);
+
+-- Coupons of a user, newest first
+CREATE INDEX idx_coupon_user ON coupon(user_id, created_at DESC);
+
+-- Unused coupons by expiry (expiration sweeps, "expiring soon")
+CREATE INDEX idx_coupon_expires ON coupon(expires_at) WHERE is_used = false;
+
 -- =====================================================
 -- Sample data (optional - comment out if not needed)
 -- =====================================================
@@ -99,7 +175,7 @@ CREATE TRIGGER update_users_updated_at
 -- Insert sample user 1
 INSERT INTO users (
     id, username, email, password,
-    personal, address, preferences, gaming, stats, coupons,
+    personal, address, preferences, gaming, stats,
     is_active, is_verified
 ) VALUES (
     '1',
@@ -111,7 +187,6 @@ INSERT INTO users (
     '{"favoriteCategories": ["JM", "CG"], "preferredPlatform": "pc", "gamingHours": "16-30", "notifyOffers": true, "notifyNewProducts": true, "notifyRestocks": false, "notifyNewsletter": true}'::jsonb,
     '{"gamerTag": "OscarGamer95", "favoriteGenre": "rpg", "skillLevel": "advanced", "streamingPlatforms": ["twitch", "youtube"], "favoriteGames": "The Witcher 3, Elden Ring, Cyberpunk 2077"}'::jsonb,
     '{"level": "Gold", "points": 1500, "purchases": 12, "reviews": 8, "favorites": 25}'::jsonb,
-    '[{"id": "COUP-001", "code": "GOLD-OSC-001", "description": "10% descuento en juegos RPG", "type": "percentage", "value": 10.0, "minPurchase": 50000.0, "expiresAt": "2025-12-31", "isUsed": false}]'::jsonb,
     true,
     true
 );
@@ -119,7 +194,7 @@ INSERT INTO users (
 -- Insert sample user 2
 INSERT INTO users (
     id, username, email, password,
-    personal, address, preferences, gaming, stats, coupons,
+    personal, address, preferences, gaming, stats,
     is_active, is_verified
 ) VALUES (
     '2',
@@ -131,7 +206,6 @@ INSERT INTO users (
     '{"favoriteCategories": ["AC", "PS"], "preferredPlatform": "ps5", "gamingHours": "6-10", "notifyOffers": true, "notifyNewProducts": false, "notifyRestocks": true, "notifyNewsletter": false}'::jsonb,
     '{"gamerTag": "MariaPS5", "favoriteGenre": "action", "skillLevel": "intermediate", "streamingPlatforms": ["twitch"], "favoriteGames": "God of War, Horizon Zero Dawn"}'::jsonb,
     '{"level": "Silver", "points": 750, "purchases": 5, "reviews": 3, "favorites": 10}'::jsonb,
-    '[]'::jsonb,
     true,
     false
 );
@@ -152,6 +226,18 @@ INSERT INTO users (
     false
 );
 
+-- Opening balances of the sample users
+INSERT INTO points_ledger (user_id, delta, reason, description)
+SELECT id, (stats ->> 'points')::bigint, 'SNAPSHOT', 'Saldo inicial'
+FROM users WHERE COALESCE((stats ->> 'points')::bigint, 0) <> 0;
+
+-- Coupon of sample user 1
+INSERT INTO coupon (
+    id, user_id, code, description, type, value, min_purchase, expires_at, is_used
+) VALUES (
+    'COUP-001', '1', 'GOLD-OSC-001', '10% descuento en juegos RPG', 'percentage', 10.0, 50000.0, '2025-12-31', false
+);
+
 -- =====================================================
 -- Verification queries
 -- =====================================================
@@ -184,15 +270,18 @@ WHERE preferences->>'preferredPlatform' = 'pc';
 -- Useful maintenance queries
 -- =====================================================
 
--- Update user stats
--- UPDATE users
--- SET stats = jsonb_set(stats, '{points}', to_jsonb((stats->>'points')::int + 100))
--- WHERE id = '1';
-
--- Add a new coupon to a user
--- UPDATE users
--- SET coupons = coupons || '[{"id": "COUP-002", "code": "SPECIAL-2025", "description": "Descuento especial", "type": "fixed", "value": 5000, "minPurchase": 30000, "expiresAt": "2025-06-30", "isUsed": false}]'::jsonb
--- WHERE id = '1';
+-- Add points to a user (ledger entry + balance in one statement)
+-- WITH entry AS (
+--     INSERT INTO points_ledger (user_id, delta, reason, description)
+--     VALUES ('1', 100, 'MANUAL', 'Ajuste manual') RETURNING user_id, delta
+-- )
+-- UPDATE users u
+-- SET stats = jsonb_set(u.stats, '{points}', to_jsonb((u.stats->>'points')::bigint + e.delta))
+-- FROM entry e WHERE u.id = e.user_id;
+
+-- Add a new coupon to a user (a campaign code repeats across users, once per user)
+-- INSERT INTO coupon (id, user_id, code, description, type, value, min_purchase, expires_at)
+-- VALUES ('COUP-002', '1', 'SPECIAL-2025', 'Descuento especial', 'fixed', 5000, 30000, '2025-06-30');
 
 -- Search users by name (case-insensitive)
 -- SELECT id, username, email,
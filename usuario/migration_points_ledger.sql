@@ -0,0 +1,57 @@
+-- =====================================================
+-- LUNARi User Service - Points ledger migration
+-- =====================================================
+-- Replaces points_award with the append-only
+-- points_ledger. For databases created with an older
+-- migration_neondb.sql; safe to run more than once.
+-- =====================================================
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS points_ledger (
+    id BIGSERIAL PRIMARY KEY,
+    user_id VARCHAR(255) NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    delta BIGINT NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    reference VARCHAR(100),
+    description VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_points_ledger_reference ON points_ledger(reference) WHERE reference IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_points_ledger_user ON points_ledger(user_id, id DESC);
+CREATE INDEX IF NOT EXISTS idx_points_ledger_created ON points_ledger(created_at);
+
+DO $$
+BEGIN
+    IF to_regclass('points_award') IS NOT NULL THEN
+        -- Opening entry per user: the part of the current balance not explained by
+        -- recorded order awards (points added manually, minus redemptions), so the
+        -- ledger sums to users.stats.points
+        INSERT INTO points_ledger (user_id, delta, reason, description, created_at)
+        SELECT u.id,
+               COALESCE((u.stats ->> 'points')::bigint, 0) - COALESCE(a.total, 0),
+               'SNAPSHOT', 'Saldo inicial', u.created_at
+        FROM users u
+        LEFT JOIN (SELECT user_id, SUM(points) AS total FROM points_award GROUP BY user_id) a
+               ON a.user_id = u.id
+        WHERE COALESCE((u.stats ->> 'points')::bigint, 0) - COALESCE(a.total, 0) <> 0;
+
+        -- Order awards keep their reference (idempotency key)
+        INSERT INTO points_ledger (user_id, delta, reason, reference, created_at)
+        SELECT p.user_id, p.points, 'ORDER', p.reference, p.created_at
+        FROM points_award p JOIN users u ON u.id = p.user_id
+        ORDER BY p.created_at
+        ON CONFLICT (reference) WHERE reference IS NOT NULL DO NOTHING;
+
+        DROP TABLE points_award;
+    END IF;
+END $$;
+
+COMMIT;
+
+-- Verification: users whose ledger does not add up to the balance (expected: none)
+SELECT u.id, COALESCE((u.stats ->> 'points')::bigint, 0) AS balance, COALESCE(SUM(l.delta), 0) AS ledger
+FROM users u LEFT JOIN points_ledger l ON l.user_id = u.id
+GROUP BY u.id
+HAVING COALESCE((u.stats ->> 'points')::bigint, 0) <> COALESCE(SUM(l.delta), 0);
@@ -0,0 +1,28 @@
+-- =====================================================
+-- LUNARi User Service - User search indexes migration
+-- =====================================================
+-- Indexes for GET /api/v1/users/search. For databases
+-- created with an older migration_neondb.sql; safe to
+-- run more than once. Not wrapped in a transaction:
+-- CREATE INDEX CONCURRENTLY keeps users writable while
+-- each index is built.
+-- =====================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Prefix fast path (queries under 3 characters or prefix=true)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_prefix ON users (lower(username) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_prefix ON users (lower(email) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_full_name_prefix ON users
+    ((lower(COALESCE(personal->>'firstName', '') || ' ' || COALESCE(personal->>'lastName', ''))) text_pattern_ops);
+
+-- Substring search (LIKE '%text%') ranked by trigram similarity
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_trgm ON users USING GIN (lower(username) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm ON users USING GIN (lower(email) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_full_name_trgm ON users USING GIN
+    ((lower(COALESCE(personal->>'firstName', '') || ' ' || COALESCE(personal->>'lastName', ''))) gin_trgm_ops);
+
+ANALYZE users;
+
+-- Verification
+SELECT indexname FROM pg_indexes WHERE tablename = 'users' AND indexname LIKE 'idx_users_%' ORDER BY indexname;
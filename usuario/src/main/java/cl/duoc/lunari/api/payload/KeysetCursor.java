@@ -0,0 +1,48 @@
+package cl.duoc.lunari.api.payload;
+
+import cl.duoc.lunari.api.user.exception.InvalidSearchRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación por keyset sobre (rank, id) de la búsqueda de usuarios
+ * Codifica las claves del último resultado de una página; la página siguiente se pide con
+ * ?cursor=... usando el nextCursor de la respuesta
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Claves de orden del último resultado de la página anterior
+     */
+    public record Claves(int rank, String id) {}
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(int rank, String id) {
+        String valor = rank + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor en sus claves
+     *
+     * @throws InvalidSearchRequestException si el cursor no es válido
+     */
+    public static Claves decode(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\" + SEPARADOR, 2);
+            if (partes[1].isEmpty()) {
+                throw new IllegalArgumentException("Cursor sin id");
+            }
+            return new Claves(Integer.parseInt(partes[0]), partes[1]);
+        } catch (RuntimeException e) {
+            throw new InvalidSearchRequestException("Cursor inválido: " + cursor, e);
+        }
+    }
+}
@@ -1,21 +1,21 @@
 package cl.duoc.lunari.api.user.config;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.AttributeConverter;
-import jakarta.persistence.Converter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+
 /**
  * Base converter for JSON/JSONB columns in PostgreSQL.
  *
  * This converter handles serialization and deserialization of Java objects
- * to/from JSON strings for storage in PostgreSQL JSONB columns.
+ * to/from JSON strings for storage in PostgreSQL JSONB columns, using the shared
+ * per-type codec from JsonCodecRegistry. The JDBC driver exchanges jsonb as text,
+ * so the database side of the conversion stays a String.
  */
 @Slf4j
 public abstract class JpaJsonConverter<T> implements AttributeConverter<T, String> {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     private final Class<T> clazz;
 
     protected JpaJsonConverter(Class<T> clazz) {
@@ -28,10 +28,10 @@ public abstract class JpaJsonConverter<T> implements AttributeConverter<T, Strin
             return null;
         }
         try {
-            return objectMapper.writeValueAsString(attribute);
-        } catch (JsonProcessingException e) {
+            return JsonCodecRegistry.shared().codec(clazz).write(attribute);
+        } catch (IOException e) {
             log.error("Error converting {} to JSON", clazz.getSimpleName(), e);
-            throw new RuntimeException("Error converting to JSON", e);
+            throw new RuntimeException("Error converting " + clazz.getSimpleName() + " to JSON", e);
         }
     }
 
@@ -41,10 +41,10 @@ public abstract class JpaJsonConverter<T> implements AttributeConverter<T, Strin
             return null;
         }
         try {
-            return objectMapper.readValue(dbData, clazz);
-        } catch (JsonProcessingException e) {
+            return JsonCodecRegistry.shared().codec(clazz).read(dbData);
+        } catch (IOException e) {
             log.error("Error converting JSON to {}", clazz.getSimpleName(), e);
-            throw new RuntimeException("Error converting from JSON", e);
+            throw new RuntimeException("Error converting JSON to " + clazz.getSimpleName(), e);
         }
     }
 }
@@ -0,0 +1,46 @@
+package cl.duoc.lunari.api.user.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+
+/**
+ * Reader/writer pair bound to one type.
+ *
+ * ObjectReader and ObjectWriter are immutable and resolve the root (de)serializer when they
+ * are created, so each conversion skips the per-call type lookup of ObjectMapper.readValue.
+ */
+public final class JsonCodec<T> {
+
+    private final Class<T> type;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    JsonCodec(ObjectMapper mapper, Class<T> type) {
+        this.type = type;
+        this.reader = mapper.readerFor(type);
+        this.writer = mapper.writerFor(type);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public T read(String json) throws IOException {
+        return reader.readValue(json);
+    }
+
+    public T read(byte[] json) throws IOException {
+        return reader.readValue(json);
+    }
+
+    public String write(T value) throws IOException {
+        return writer.writeValueAsString(value);
+    }
+
+    public byte[] writeBytes(T value) throws IOException {
+        return writer.writeValueAsBytes(value);
+    }
+}
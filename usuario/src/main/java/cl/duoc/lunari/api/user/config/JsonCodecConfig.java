@@ -0,0 +1,43 @@
+package cl.duoc.lunari.api.user.config;
+
+import cl.duoc.lunari.api.user.model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Builds the JSONB codec registry from Spring's ObjectMapper, so stored documents and API
+ * responses share one Jackson configuration, and warms up the codecs of the User columns.
+ */
+@Configuration
+@Slf4j
+public class JsonCodecConfig {
+
+    private static final List<Class<?>> USER_DOCUMENTS = List.of(
+            Personal.class, Address.class, ClientPreferences.class, Gaming.class, ClientStats.class);
+
+    @Bean
+    public JsonCodecRegistry jsonCodecRegistry(ObjectMapper objectMapper,
+                                               @Value("${app.json.blackbird:true}") boolean blackbird) {
+        JsonCodecRegistry registry = new JsonCodecRegistry(objectMapper, blackbird);
+        USER_DOCUMENTS.forEach(registry::codec);
+        JsonCodecRegistry.install(registry);
+
+        log.info("JSONB codecs ready for {} types (blackbird: {})", USER_DOCUMENTS.size(), blackbird);
+        return registry;
+    }
+
+    /**
+     * Hibernate creates the converters with the EntityManagerFactory, so it waits for the
+     * registry above to be installed instead of converting with the default one
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor jsonCodecRegistryDependsOn() {
+        return new EntityManagerFactoryDependsOnPostProcessor(JsonCodecRegistry.class);
+    }
+}
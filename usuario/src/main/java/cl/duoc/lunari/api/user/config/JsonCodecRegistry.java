@@ -0,0 +1,61 @@
+package cl.duoc.lunari.api.user.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared JSON codecs for the JSONB columns, one per type.
+ *
+ * JPA converters are created by Hibernate, so they reach the registry through shared().
+ * JsonCodecConfig installs the one built from Spring's ObjectMapper before the
+ * EntityManagerFactory starts; outside Spring (e.g. benchmarks) a default registry built
+ * with the same Jackson2ObjectMapperBuilder defaults is used.
+ */
+public final class JsonCodecRegistry {
+
+    private static volatile JsonCodecRegistry shared = new JsonCodecRegistry(defaultMapper(), true);
+
+    private final ObjectMapper mapper;
+    private final Map<Class<?>, JsonCodec<?>> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * @param mapper Base mapper; it is copied, so later changes to it do not leak in
+     * @param blackbird Register Blackbird (generated accessors instead of reflection)
+     */
+    public JsonCodecRegistry(ObjectMapper mapper, boolean blackbird) {
+        this.mapper = mapper.copy();
+        if (blackbird) {
+            this.mapper.registerModule(new BlackbirdModule());
+        }
+    }
+
+    public static JsonCodecRegistry shared() {
+        return shared;
+    }
+
+    static void install(JsonCodecRegistry registry) {
+        shared = registry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> JsonCodec<T> codec(Class<T> type) {
+        return (JsonCodec<T>) codecs.computeIfAbsent(type, t -> new JsonCodec<>(mapper, t));
+    }
+
+    /**
+     * Built like Spring Boot's ObjectMapper: the builder defaults plus the features that
+     * JacksonAutoConfiguration disables (no spring.jackson.* overrides are configured),
+     * so a document serializes the same whichever registry wrote it
+     */
+    static ObjectMapper defaultMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+    }
+}
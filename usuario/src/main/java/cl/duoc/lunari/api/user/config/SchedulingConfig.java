@@ -0,0 +1,12 @@
+package cl.duoc.lunari.api.user.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled jobs (points ledger compaction).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,6 +2,7 @@ package cl.duoc.lunari.api.user.config;
 
 import cl.duoc.lunari.api.user.security.CustomUserDetailsService;
 import cl.duoc.lunari.api.user.security.JwtAuthenticationFilter;
+import cl.duoc.lunari.api.user.security.ServiceApiKeyFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,7 +14,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -25,15 +25,21 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ServiceApiKeyFilter serviceApiKeyFilter;
     private final CorsConfigurationSource corsConfigurationSource;
+    private final PasswordEncoder passwordEncoder;
 
     @Autowired
     public SecurityConfig(CustomUserDetailsService userDetailsService,
                          JwtAuthenticationFilter jwtAuthenticationFilter,
-                         CorsConfigurationSource corsConfigurationSource) {
+                         ServiceApiKeyFilter serviceApiKeyFilter,
+                         CorsConfigurationSource corsConfigurationSource,
+                         PasswordEncoder passwordEncoder) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.serviceApiKeyFilter = serviceApiKeyFilter;
         this.corsConfigurationSource = corsConfigurationSource;
+        this.passwordEncoder = passwordEncoder;
     }
 
     @Bean
@@ -54,25 +60,24 @@ public class SecurityConfig {
                         .requestMatchers("/v3/api-docs/**").permitAll()
                         // Error endpoint
                         .requestMatchers("/error").permitAll()
+                        // Service-to-service endpoints (X-API-Key)
+                        .requestMatchers("/api/v1/points/bulk").hasRole("SERVICE")
+                        .requestMatchers("/api/v1/users/search").hasRole("SERVICE")
                         // All other requests require authentication
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(serviceApiKeyFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
-    }
-
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);  // PasswordHasher (bounded BCrypt pool)
         return authProvider;
     }
 
@@ -7,20 +7,26 @@ import cl.duoc.lunari.api.user.dto.ProfileResponse;
 import cl.duoc.lunari.api.user.dto.RegisterRequest;
 import cl.duoc.lunari.api.user.model.Personal;
 import cl.duoc.lunari.api.user.model.User;
+import cl.duoc.lunari.api.user.security.CurrentUserResolver;
 import cl.duoc.lunari.api.user.security.JwtUtil;
 import cl.duoc.lunari.api.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+
 /**
  * Authentication Controller
- * Handles user registration and login (public endpoints)
+ * Handles user registration and login (public endpoints) and logout
  */
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -30,11 +36,13 @@ public class AuthController {
 
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final CurrentUserResolver currentUserResolver;
 
     @Autowired
-    public AuthController(UserService userService, JwtUtil jwtUtil) {
+    public AuthController(UserService userService, JwtUtil jwtUtil, CurrentUserResolver currentUserResolver) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.currentUserResolver = currentUserResolver;
     }
 
     /**
@@ -73,7 +81,7 @@ public class AuthController {
                 .gaming(createdUser.getGaming())
                 .preferences(createdUser.getPreferences())
                 .stats(createdUser.getStats())
-                .coupons(createdUser.getCoupons())
+                .coupons(new ArrayList<>())  // New accounts have no coupons yet
                 .isActive(createdUser.getIsActive())
                 .isVerified(createdUser.getIsVerified())
                 .createdAt(createdUser.getCreatedAt() != null ? createdUser.getCreatedAt().toString() : null)
@@ -114,4 +122,19 @@ public class AuthController {
         log.info("User logged in successfully: {}", user.getId());
         return ResponseEntity.ok(ApiResponse.success(response));
     }
+
+    /**
+     * Logout: revoke every token issued to the authenticated user
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "User logout",
+               description = "Revoke all tokens issued to the authenticated user (other instances stop accepting them within jwt.statusCacheTtl)")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal UserDetails userDetails) {
+        String userId = currentUserResolver.userId(userDetails);
+        userService.revokeTokens(userId);
+
+        log.info("User logged out: {}", userId);
+        return ResponseEntity.noContent().build();
+    }
 }
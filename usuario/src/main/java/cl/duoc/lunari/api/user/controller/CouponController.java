@@ -4,7 +4,7 @@ import cl.duoc.lunari.api.payload.ApiResponse;
 import cl.duoc.lunari.api.user.dto.CouponResponse;
 import cl.duoc.lunari.api.user.dto.RedeemPointsRequest;
 import cl.duoc.lunari.api.user.model.Coupon;
-import cl.duoc.lunari.api.user.model.User;
+import cl.duoc.lunari.api.user.security.CurrentUserResolver;
 import cl.duoc.lunari.api.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -32,10 +32,12 @@ import java.util.List;
 public class CouponController {
 
     private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     @Autowired
-    public CouponController(UserService userService) {
+    public CouponController(UserService userService, CurrentUserResolver currentUserResolver) {
         this.userService = userService;
+        this.currentUserResolver = currentUserResolver;
     }
 
     /**
@@ -49,12 +51,11 @@ public class CouponController {
         String email = userDetails.getUsername();
         log.info("Get coupons request for: {}", email);
 
-        User user = userService.getUserByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        String userId = currentUserResolver.userId(userDetails);
 
-        List<Coupon> coupons = userService.getClientCoupons(user.getId());
+        List<Coupon> coupons = userService.getClientCoupons(userId);
 
-        log.info("Returning {} coupons for user: {}", coupons.size(), user.getId());
+        log.info("Returning {} coupons for user: {}", coupons.size(), userId);
         return ResponseEntity.ok(ApiResponse.success(coupons));
     }
 
@@ -71,10 +72,9 @@ public class CouponController {
         String email = userDetails.getUsername();
         log.info("Redeem points request for: {} (points: {})", email, request.getPointsToRedeem());
 
-        User user = userService.getUserByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        String userId = currentUserResolver.userId(userDetails);
 
-        Coupon coupon = userService.redeemPoints(user.getId(), request.getPointsToRedeem());
+        Coupon coupon = userService.redeemPoints(userId, request.getPointsToRedeem());
 
         CouponResponse response = CouponResponse.builder()
                 .id(coupon.getId())
@@ -83,15 +83,50 @@ public class CouponController {
                 .type(coupon.getType())
                 .value(coupon.getValue())
                 .minPurchase(coupon.getMinPurchase())
-                .expiresAt(coupon.getExpiresAt())
+                .expiresAt(coupon.getExpiresAt() != null ? coupon.getExpiresAt().toString() : null)
                 .message("Successfully redeemed " + request.getPointsToRedeem() +
                         " points! Coupon value: $" + String.format("%.2f", coupon.getValue()))
                 .build();
 
-        log.info("Points redeemed successfully for user: {} - Coupon: {}", user.getId(), coupon.getCode());
+        log.info("Points redeemed successfully for user: {} - Coupon: {}", userId, coupon.getCode());
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * Get a coupon by code (e.g. to validate it at checkout)
+     */
+    @GetMapping("/code/{code}")
+    @Operation(summary = "Get coupon by code",
+               description = "Get one of the authenticated user's coupons by code; 'valid' tells whether it can still be used")
+    public ResponseEntity<ApiResponse<Coupon>> getCouponByCode(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable String code) {
+
+        String userId = currentUserResolver.userId(userDetails);
+
+        Coupon coupon = userService.getCouponByCode(userId, code);
+
+        return ResponseEntity.ok(ApiResponse.success(coupon));
+    }
+
+    /**
+     * Mark a coupon as used
+     */
+    @PostMapping("/code/{code}/use")
+    @Operation(summary = "Use coupon", description = "Mark one of the authenticated user's unused, unexpired coupons as used")
+    public ResponseEntity<ApiResponse<Coupon>> useCoupon(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable String code) {
+
+        String userId = currentUserResolver.userId(userDetails);
+        log.info("Use coupon request for user: {} (code: {})", userId, code);
+
+        Coupon coupon = userService.useCoupon(userId, code);
+
+        log.info("Coupon used successfully: {}", code);
+        return ResponseEntity.ok(ApiResponse.success(coupon));
+    }
+
     /**
      * Remove a coupon
      */
@@ -104,10 +139,9 @@ public class CouponController {
         String email = userDetails.getUsername();
         log.info("Remove coupon request for: {} (couponId: {})", email, couponId);
 
-        User user = userService.getUserByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        String userId = currentUserResolver.userId(userDetails);
 
-        userService.removeCoupon(user.getId(), couponId);
+        userService.removeCoupon(userId, couponId);
 
         log.info("Coupon removed successfully: {}", couponId);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
@@ -2,8 +2,12 @@ package cl.duoc.lunari.api.user.controller;
 
 import cl.duoc.lunari.api.payload.ApiResponse;
 import cl.duoc.lunari.api.user.dto.AddPointsRequest;
+import cl.duoc.lunari.api.user.dto.BulkPointsRequest;
+import cl.duoc.lunari.api.user.dto.BulkPointsResponse;
 import cl.duoc.lunari.api.user.model.ClientStats;
+import cl.duoc.lunari.api.user.model.PointsLedgerEntry;
 import cl.duoc.lunari.api.user.model.User;
+import cl.duoc.lunari.api.user.security.CurrentUserResolver;
 import cl.duoc.lunari.api.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -11,11 +15,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Points Controller
  * Handles points management (protected endpoints)
@@ -28,10 +35,18 @@ import org.springframework.web.bind.annotation.*;
 public class PointsController {
 
     private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
+    private final int defaultLimit;
+    private final int maxLimit;
 
     @Autowired
-    public PointsController(UserService userService) {
+    public PointsController(UserService userService, CurrentUserResolver currentUserResolver,
+                            @Value("${app.pagination.defaultLimit:10}") int defaultLimit,
+                            @Value("${app.pagination.maxLimit:100}") int maxLimit) {
         this.userService = userService;
+        this.currentUserResolver = currentUserResolver;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
     }
 
     /**
@@ -47,14 +62,48 @@ public class PointsController {
         log.info("Add points request for: {} (points: {}, reason: {})",
                 email, request.getPoints(), request.getReason());
 
-        User user = userService.getUserByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        String userId = currentUserResolver.userId(userDetails);
 
-        User updatedUser = userService.addPoints(user.getId(), request.getPoints());
+        User updatedUser = userService.addPoints(userId, request.getPoints(), request.getReason());
 
         log.info("Points added successfully for user: {} - New total: {}",
                 updatedUser.getId(), updatedUser.getStats().getPoints());
 
         return ResponseEntity.ok(ApiResponse.success(updatedUser.getStats()));
     }
+
+    /**
+     * Get the authenticated user's points history (ledger entries, newest first)
+     */
+    @GetMapping("/history")
+    @Operation(summary = "Get points history",
+               description = "Points ledger entries, newest first. Pass the id of the last entry as 'before' to get the next page")
+    public ResponseEntity<ApiResponse<List<PointsLedgerEntry>>> getPointsHistory(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit) {
+
+        String userId = currentUserResolver.userId(userDetails);
+        int pageSize = limit == null || limit < 1 ? defaultLimit : Math.min(limit, maxLimit);
+
+        List<PointsLedgerEntry> history = userService.getPointsHistory(userId, before, pageSize);
+
+        return ResponseEntity.ok(ApiResponse.success(history));
+    }
+
+    /**
+     * Award points to many users in one call (service-to-service, X-API-Key)
+     */
+    @PostMapping("/bulk")
+    @Operation(summary = "Award points in bulk",
+               description = "Service endpoint: applies points awards with a single update, once per reference (order number)")
+    public ResponseEntity<ApiResponse<BulkPointsResponse>> awardPointsBulk(
+            @Valid @RequestBody BulkPointsRequest request) {
+
+        log.info("Bulk points award request with {} awards", request.getAwards().size());
+
+        BulkPointsResponse response = userService.awardPointsBulk(request.getAwards());
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
 }
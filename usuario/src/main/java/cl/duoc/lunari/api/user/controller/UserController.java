@@ -0,0 +1,57 @@
+package cl.duoc.lunari.api.user.controller;
+
+import cl.duoc.lunari.api.payload.ApiResponse;
+import cl.duoc.lunari.api.user.dto.UserSearchResponse;
+import cl.duoc.lunari.api.user.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * User Controller
+ * Handles user lookups for support tools (service-to-service, X-API-Key)
+ */
+@RestController
+@RequestMapping("/api/v1/users")
+@Tag(name = "Users", description = "User lookup endpoints for support tools")
+@Slf4j
+public class UserController {
+
+    private final UserService userService;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    @Autowired
+    public UserController(UserService userService,
+                          @Value("${app.pagination.defaultLimit:10}") int defaultLimit,
+                          @Value("${app.pagination.maxLimit:100}") int maxLimit) {
+        this.userService = userService;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Search users by username, email or full name, most relevant first
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search users",
+               description = "Service endpoint: matches username, email or full name. Queries shorter than 3 characters "
+                       + "(or prefix=true) only match the beginning. Pass nextCursor as 'cursor' to get the next page")
+    public ResponseEntity<ApiResponse<UserSearchResponse>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        int pageSize = limit == null || limit < 1 ? defaultLimit : Math.min(limit, maxLimit);
+        log.debug("User search (prefix: {}, limit: {})", prefix, pageSize);
+
+        UserSearchResponse response = userService.searchUsers(q, prefix, cursor, pageSize);
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+}
@@ -4,6 +4,7 @@ import cl.duoc.lunari.api.payload.ApiResponse;
 import cl.duoc.lunari.api.user.dto.ProfileResponse;
 import cl.duoc.lunari.api.user.dto.UpdateProfileRequest;
 import cl.duoc.lunari.api.user.model.User;
+import cl.duoc.lunari.api.user.security.CurrentUserResolver;
 import cl.duoc.lunari.api.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -28,10 +29,12 @@ import org.springframework.web.bind.annotation.*;
 public class UserProfileController {
 
     private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     @Autowired
-    public UserProfileController(UserService userService) {
+    public UserProfileController(UserService userService, CurrentUserResolver currentUserResolver) {
         this.userService = userService;
+        this.currentUserResolver = currentUserResolver;
     }
 
     /**
@@ -57,7 +60,7 @@ public class UserProfileController {
                 .gaming(user.getGaming())
                 .preferences(user.getPreferences())
                 .stats(user.getStats())
-                .coupons(user.getCoupons())
+                .coupons(userService.getClientCoupons(user.getId()))
                 .isActive(user.getIsActive())
                 .isVerified(user.getIsVerified())
                 .createdAt(user.getCreatedAt() != null ? user.getCreatedAt().toString() : null)
@@ -79,10 +82,9 @@ public class UserProfileController {
         String email = userDetails.getUsername();
         log.info("Update profile request for: {}", email);
 
-        User user = userService.getUserByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        String userId = currentUserResolver.userId(userDetails);
 
-        User updatedUser = userService.updateUserProfile(user.getId(), request);
+        User updatedUser = userService.updateUserProfile(userId, request);
 
         ProfileResponse response = ProfileResponse.builder()
                 .id(updatedUser.getId())
@@ -93,7 +95,7 @@ public class UserProfileController {
                 .gaming(updatedUser.getGaming())
                 .preferences(updatedUser.getPreferences())
                 .stats(updatedUser.getStats())
-                .coupons(updatedUser.getCoupons())
+                .coupons(userService.getClientCoupons(updatedUser.getId()))
                 .isActive(updatedUser.getIsActive())
                 .isVerified(updatedUser.getIsVerified())
                 .createdAt(updatedUser.getCreatedAt() != null ? updatedUser.getCreatedAt().toString() : null)
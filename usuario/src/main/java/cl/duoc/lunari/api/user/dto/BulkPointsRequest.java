@@ -0,0 +1,57 @@
+package cl.duoc.lunari.api.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para asignar puntos a varios usuarios en una sola llamada (servicio a servicio)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Solicitud para asignar puntos en lote")
+public class BulkPointsRequest {
+
+    @NotEmpty(message = "La lista de asignaciones no puede estar vacía")
+    @Valid
+    @Schema(description = "Asignaciones de puntos", required = true)
+    private List<Award> awards;
+
+    /**
+     * Asignación individual de puntos
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Award {
+
+        @NotBlank(message = "El ID de usuario es obligatorio")
+        @Schema(description = "ID del usuario", example = "123e4567-e89b-12d3-a456-426614174000", required = true)
+        private String userId;
+
+        @NotNull(message = "La cantidad de puntos es obligatoria")
+        @Min(value = 1, message = "La cantidad de puntos debe ser al menos 1")
+        @Schema(description = "Cantidad de puntos a agregar", example = "500", required = true)
+        private Long points;
+
+        @NotBlank(message = "La referencia es obligatoria")
+        @Schema(description = "Referencia única (número de pedido); se aplica una sola vez",
+                example = "ORD-20251130-00001", required = true)
+        private String reference;
+
+        @Schema(description = "Razón de la asignación de puntos", example = "Compra - Pedido: ORD-20251130-00001")
+        private String reason;
+    }
+}
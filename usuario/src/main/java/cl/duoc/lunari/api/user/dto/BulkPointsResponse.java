@@ -0,0 +1,29 @@
+package cl.duoc.lunari.api.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta para la asignación de puntos en lote
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Resultado de la asignación de puntos en lote")
+public class BulkPointsResponse {
+
+    @Schema(description = "Referencias aplicadas en esta llamada")
+    private List<String> applied;
+
+    @Schema(description = "Referencias ya aplicadas anteriormente (no se vuelven a sumar)")
+    private List<String> alreadyApplied;
+
+    @Schema(description = "Referencias rechazadas (usuario inexistente)")
+    private List<String> rejected;
+}
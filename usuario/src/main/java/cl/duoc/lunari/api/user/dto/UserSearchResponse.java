@@ -0,0 +1,26 @@
+package cl.duoc.lunari.api.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta de la búsqueda de usuarios (una página)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Página de resultados de la búsqueda de usuarios")
+public class UserSearchResponse {
+
+    @Schema(description = "Usuarios ordenados por relevancia")
+    private List<UserSearchResult> results;
+
+    @Schema(description = "Cursor de la página siguiente (null si no hay más resultados)")
+    private String nextCursor;
+}
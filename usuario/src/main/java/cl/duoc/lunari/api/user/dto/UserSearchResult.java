@@ -0,0 +1,36 @@
+package cl.duoc.lunari.api.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de un usuario encontrado por la búsqueda de soporte
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Usuario encontrado por la búsqueda")
+public class UserSearchResult {
+
+    @Schema(description = "ID del usuario")
+    private String id;
+
+    @Schema(description = "Username")
+    private String username;
+
+    @Schema(description = "Email")
+    private String email;
+
+    @Schema(description = "Nombre y apellido (datos personales)")
+    private String fullName;
+
+    @Schema(description = "Cuenta activa")
+    private Boolean isActive;
+
+    @Schema(description = "Relevancia: coincidencia exacta, por prefijo (username, email, nombre) y similitud de trigramas")
+    private Integer rank;
+}
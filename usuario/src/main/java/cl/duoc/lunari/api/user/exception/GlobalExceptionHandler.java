@@ -2,6 +2,7 @@ package cl.duoc.lunari.api.user.exception;
 
 import cl.duoc.lunari.api.payload.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -58,6 +59,49 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     }
 
+    /**
+     * Handle a saturated password hashing pool: the client should retry shortly
+     */
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ApiResponse<Map<String, Object>>> handlePasswordHashingUnavailable(PasswordHashingUnavailableException ex) {
+        log.warn("Password hashing unavailable: {}", ex.getMessage());
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("error_code", "AUTH_BUSY");
+        errorDetails.put("message", "Servicio de autenticación ocupado. Intenta nuevamente en unos segundos.");
+        errorDetails.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>();
+        response.setSuccess(false);
+        response.setResponse(errorDetails);
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    /**
+     * Handle an invalid search query or cursor. Other IllegalArgumentExceptions are server
+     * errors and fall through to the generic handler
+     */
+    @ExceptionHandler(InvalidSearchRequestException.class)
+    public ResponseEntity<ApiResponse<Map<String, Object>>> handleInvalidSearchRequest(InvalidSearchRequestException ex) {
+        log.warn("Invalid search request: {}", ex.getMessage());
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("error_code", "BAD_REQUEST");
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("status", HttpStatus.BAD_REQUEST.value());
+
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>();
+        response.setSuccess(false);
+        response.setResponse(errorDetails);
+        response.setStatusCode(HttpStatus.BAD_REQUEST.value());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     /**
      * Handle generic runtime exceptions (fallback)
      */
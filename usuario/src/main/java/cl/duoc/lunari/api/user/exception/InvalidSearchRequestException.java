@@ -0,0 +1,17 @@
+package cl.duoc.lunari.api.user.exception;
+
+/**
+ * Exception thrown when a user search has a blank or too long query, or a cursor
+ * that was not issued by the search.
+ * This exception should result in a 400 Bad Request HTTP response.
+ */
+public class InvalidSearchRequestException extends IllegalArgumentException {
+
+    public InvalidSearchRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
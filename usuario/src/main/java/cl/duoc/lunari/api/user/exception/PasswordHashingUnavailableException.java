@@ -0,0 +1,17 @@
+package cl.duoc.lunari.api.user.exception;
+
+/**
+ * Exception thrown when the password hashing pool is saturated and a login or registration
+ * cannot be processed right now.
+ * This exception should result in a 503 Service Unavailable HTTP response.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,39 +1,86 @@
 package cl.duoc.lunari.api.user.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 /**
  * Cupón de descuento del cliente.
  *
  * Representa un cupón de descuento asignado al cliente, ya sea de tipo
  * fijo (monto específico) o porcentual.
  *
- * Esta clase se serializa como JSON en PostgreSQL.
+ * Tabla: coupon (una fila por cupón, antes una lista JSONB en users.coupons)
+ * Primary Key: id
+ * Índices: user_id + code (único; un código de campaña se repite entre usuarios),
+ * user_id + created_at, expires_at de cupones sin usar
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Entity
+@Table(name = "coupon", indexes = {
+    @Index(name = "idx_coupon_user_code", columnList = "user_id, code", unique = true),
+    @Index(name = "idx_coupon_user", columnList = "user_id, created_at"),
+    @Index(name = "idx_coupon_expires", columnList = "expires_at")
+})
 public class Coupon {
 
+    @Id
+    @Column(name = "id", length = 100, updatable = false, nullable = false)
     private String id;              // ID único del cupón (ej: COUP-001)
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private String userId;          // Dueño del cupón
+
+    @Column(name = "code", length = 100, nullable = false, updatable = false)
     private String code;            // Código del cupón (ej: BRONZE-ALX-001)
+
+    @Column(name = "description")
     private String description;     // Descripción del cupón
+
+    @Column(name = "type", length = 20, nullable = false)
     private String type;            // Tipo de descuento: "fixed" o "percentage"
+
+    @Column(name = "value", nullable = false)
     private Double value;           // Valor del descuento (monto o porcentaje)
+
+    @Column(name = "min_purchase")
     private Double minPurchase;     // Compra mínima requerida para usar el cupón
-    private String expiresAt;       // Fecha de expiración (ISO 8601 o YYYY-MM-DD)
+
+    @Column(name = "expires_at")
+    private LocalDate expiresAt;    // Fecha de expiración (YYYY-MM-DD)
+
+    @Column(name = "is_used", nullable = false)
     private Boolean isUsed = false; // Indica si el cupón ya fue usado
 
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;   // Momento en que se usó
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
     /**
      * Verifica si el cupón está vigente (no usado y no expirado).
      *
      * @return true si el cupón es válido
      */
     public boolean isValid() {
-        return !Boolean.TRUE.equals(isUsed);
-        // TODO: Add expiration date validation when needed
+        return !Boolean.TRUE.equals(isUsed)
+                && (expiresAt == null || !expiresAt.isBefore(LocalDate.now()));
     }
 
     /**
@@ -41,5 +88,6 @@ public class Coupon {
      */
     public void markAsUsed() {
         this.isUsed = true;
+        this.usedAt = LocalDateTime.now();
     }
 }
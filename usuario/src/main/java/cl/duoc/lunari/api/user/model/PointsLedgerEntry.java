@@ -0,0 +1,58 @@
+package cl.duoc.lunari.api.user.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento del libro de puntos (solo se agregan filas, nunca se modifican).
+ *
+ * El saldo materializado es users.stats.points, que se incrementa en la misma sentencia
+ * que agrega el movimiento. La referencia (número de pedido, cupón) es la clave de
+ * idempotencia: un mismo pedido solo suma puntos una vez aunque se reintente.
+ * Los movimientos antiguos se compactan en uno SNAPSHOT por usuario (PointsLedgerCompactionJob).
+ *
+ * Tabla: points_ledger
+ * Primary Key: id
+ * Índices: reference (único, si no es nula), user_id + id, created_at
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "points_ledger", indexes = {
+    @Index(name = "idx_points_ledger_reference", columnList = "reference", unique = true),
+    @Index(name = "idx_points_ledger_user", columnList = "user_id, id"),
+    @Index(name = "idx_points_ledger_created", columnList = "created_at")
+})
+public class PointsLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private String userId;
+
+    @Column(name = "delta", nullable = false, updatable = false)
+    private Long delta;             // Puntos sumados (positivo) o descontados (negativo)
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", length = 20, nullable = false, updatable = false)
+    private PointsReason reason;
+
+    @Column(name = "reference", length = 100, updatable = false)
+    private String reference;       // Número de pedido, ID de cupón, etc.
+
+    @Column(name = "description", updatable = false)
+    private String description;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
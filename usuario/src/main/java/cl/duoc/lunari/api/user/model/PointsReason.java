@@ -0,0 +1,11 @@
+package cl.duoc.lunari.api.user.model;
+
+/**
+ * Motivo de un movimiento del libro de puntos.
+ */
+public enum PointsReason {
+    ORDER,       // Puntos por pedido (asignación del servicio de carrito)
+    MANUAL,      // Puntos agregados desde la API de puntos
+    REDEMPTION,  // Canje de puntos por cupón
+    SNAPSHOT     // Saldo acumulado de movimientos compactados
+}
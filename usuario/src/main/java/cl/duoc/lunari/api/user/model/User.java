@@ -12,14 +12,14 @@ import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 /**
  * Entidad User (Cliente) para PostgreSQL.
  *
  * Representa un cliente en la plataforma e-commerce LUNARi con información completa
- * de perfil personal, dirección, preferencias gaming, estadísticas y cupones.
+ * de perfil personal, dirección, preferencias gaming y estadísticas.
+ * Los cupones viven en su propia tabla (ver Coupon).
  *
  * Tabla: users
  * Primary Key: id (UUID)
@@ -77,16 +77,12 @@ public class User {
     @Column(name = "gaming", columnDefinition = "jsonb")
     private Gaming gaming;                  // Perfil gaming del usuario
 
+    // Solo se escribe al crear el usuario: los puntos se actualizan en SQL junto al libro de
+    // puntos (PointsLedgerRepository), así guardar una entidad leída antes no pisa el saldo
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "stats", columnDefinition = "jsonb")
+    @Column(name = "stats", columnDefinition = "jsonb", updatable = false)
     private ClientStats stats;              // Estadísticas (nivel, puntos, compras, etc.)
 
-    // ==================== Cupones ====================
-
-    @Convert(converter = cl.duoc.lunari.api.user.converter.CouponListConverter.class)
-    @Column(name = "coupons", columnDefinition = "jsonb")
-    private List<Coupon> coupons;           // Cupones del cliente
-
     // ==================== Estado y Verificación ====================
 
     @Column(name = "is_active", nullable = false)
@@ -97,6 +93,13 @@ public class User {
     @Schema(example = "true")
     private Boolean isVerified = false;
 
+    /**
+     * Tokens emitidos antes de este instante quedan revocados (logout, desactivación).
+     * null si nunca se revocaron.
+     */
+    @Column(name = "tokens_valid_after")
+    private LocalDateTime tokensValidAfter;
+
     // ==================== Timestamps ====================
 
     @Column(name = "created_at", nullable = false, updatable = false)
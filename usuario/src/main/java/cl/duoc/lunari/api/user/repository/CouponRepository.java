@@ -0,0 +1,73 @@
+package cl.duoc.lunari.api.user.repository;
+
+import cl.duoc.lunari.api.user.model.Coupon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de cupones (tabla coupon).
+ *
+ * Cada operación toca solo las filas del cupón o del usuario indicado,
+ * sin leer ni reescribir la fila de users.
+ */
+@Repository
+public interface CouponRepository extends JpaRepository<Coupon, String> {
+
+    /**
+     * Cupones de un usuario, del más reciente al más antiguo (índice idx_coupon_user).
+     *
+     * @param userId ID del usuario
+     * @return Cupones del usuario
+     */
+    List<Coupon> findByUserIdOrderByCreatedAtDesc(String userId);
+
+    /**
+     * Busca un cupón del usuario por código (índice único idx_coupon_user_code).
+     *
+     * Un código de campaña (p. ej. SPECIAL-2025) se asigna a muchos usuarios, una fila
+     * por usuario, por eso el código solo es único dentro de cada usuario.
+     *
+     * @param userId ID del usuario dueño
+     * @param code Código del cupón
+     * @return Optional con el cupón si existe
+     */
+    Optional<Coupon> findByUserIdAndCode(String userId, String code);
+
+    /**
+     * Marca como usado un cupón vigente del usuario.
+     *
+     * La condición sobre is_used hace que dos usos simultáneos del mismo código
+     * no puedan tener éxito ambos.
+     *
+     * @param userId ID del usuario dueño
+     * @param code Código del cupón
+     * @param today Fecha actual (los cupones expirados no se pueden usar)
+     * @param usedAt Momento del uso
+     * @return Cantidad de filas actualizadas (0 si no existe, no es del usuario, está usado o expiró)
+     */
+    @Modifying
+    @Query("UPDATE Coupon c SET c.isUsed = true, c.usedAt = :usedAt " +
+           "WHERE c.code = :code AND c.userId = :userId AND c.isUsed = false " +
+           "AND (c.expiresAt IS NULL OR c.expiresAt >= :today)")
+    int markUsed(@Param("userId") String userId, @Param("code") String code,
+                 @Param("today") LocalDate today, @Param("usedAt") LocalDateTime usedAt);
+
+    /**
+     * Elimina un cupón del usuario.
+     *
+     * @param id ID del cupón
+     * @param userId ID del usuario dueño
+     * @return Cantidad de filas eliminadas (0 si no existe o no es del usuario)
+     */
+    @Modifying
+    @Query("DELETE FROM Coupon c WHERE c.id = :id AND c.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") String id, @Param("userId") String userId);
+}
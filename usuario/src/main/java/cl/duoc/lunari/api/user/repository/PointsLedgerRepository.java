@@ -0,0 +1,158 @@
+package cl.duoc.lunari.api.user.repository;
+
+import cl.duoc.lunari.api.user.model.PointsLedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio del libro de puntos.
+ *
+ * Cada movimiento se agrega y aplica al saldo (users.stats.points, con jsonb_set) en una
+ * sola sentencia: el incremento lo hace la base de datos, así dos asignaciones o canjes
+ * concurrentes nunca pierden una actualización, y no se lee ni reescribe el resto de
+ * columnas JSONB de la fila.
+ */
+@Repository
+public interface PointsLedgerRepository extends JpaRepository<PointsLedgerEntry, Long> {
+
+    /**
+     * Registra y aplica un lote de asignaciones de puntos por pedido en una sola sentencia.
+     *
+     * 1. Agrega cada asignación al libro; las referencias ya registradas se ignoran
+     *    (ON CONFLICT DO NOTHING), igual que las de usuarios inexistentes.
+     * 2. Suma los puntos nuevos por usuario y actualiza users.stats con jsonb_set.
+     *
+     * @param awardsJson Arreglo JSON de objetos {reference, userId, points}
+     * @return Referencias aplicadas en esta llamada
+     */
+    @Transactional
+    @Query(value = "WITH incoming AS (" +
+            "    SELECT * FROM jsonb_to_recordset(CAST(:awards AS jsonb)) AS a(reference text, \"userId\" text, points bigint)" +
+            "), inserted AS (" +
+            "    INSERT INTO points_ledger (user_id, delta, reason, reference, created_at)" +
+            "    SELECT a.\"userId\", a.points, 'ORDER', a.reference, CURRENT_TIMESTAMP" +
+            "    FROM incoming a JOIN users u ON u.id = a.\"userId\"" +
+            "    ON CONFLICT (reference) WHERE reference IS NOT NULL DO NOTHING" +
+            "    RETURNING reference, user_id, delta" +
+            "), totals AS (" +
+            "    SELECT user_id, SUM(delta) AS delta FROM inserted GROUP BY user_id" +
+            "), updated AS (" +
+            "    UPDATE users u SET" +
+            "        stats = jsonb_set(COALESCE(u.stats, CAST('{}' AS jsonb)), ARRAY['points']," +
+            "            to_jsonb(COALESCE(CAST(u.stats ->> 'points' AS bigint), 0) + t.delta))," +
+            "        updated_at = CURRENT_TIMESTAMP" +
+            "    FROM totals t WHERE u.id = t.user_id" +
+            "    RETURNING u.id" +
+            ")" +
+            " SELECT reference FROM inserted",
+            nativeQuery = true)
+    List<String> applyAwards(@Param("awards") String awardsJson);
+
+    /**
+     * Referencias del conjunto que ya fueron registradas.
+     *
+     * @param references Referencias a consultar
+     * @return Referencias existentes
+     */
+    @Query("SELECT p.reference FROM PointsLedgerEntry p WHERE p.reference IN :references")
+    List<String> findExistingReferences(@Param("references") Collection<String> references);
+
+    /**
+     * Agrega un abono y lo suma al saldo.
+     *
+     * @param userId ID del usuario
+     * @param points Puntos a sumar (positivo)
+     * @param reason Motivo (PointsReason)
+     * @param reference Clave de idempotencia, o null
+     * @param description Descripción libre, o null
+     * @return 1 si se aplicó; 0 si el usuario no existe o la referencia ya estaba registrada
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "WITH entry AS (" +
+            "    INSERT INTO points_ledger (user_id, delta, reason, reference, description, created_at)" +
+            "    SELECT u.id, CAST(:points AS bigint), CAST(:reason AS varchar), CAST(:reference AS varchar)," +
+            "        CAST(:description AS varchar), CURRENT_TIMESTAMP" +
+            "    FROM users u WHERE u.id = :userId" +
+            "    ON CONFLICT (reference) WHERE reference IS NOT NULL DO NOTHING" +
+            "    RETURNING user_id, delta" +
+            ")" +
+            " UPDATE users u SET" +
+            "    stats = jsonb_set(COALESCE(u.stats, CAST('{}' AS jsonb)), ARRAY['points']," +
+            "        to_jsonb(COALESCE(CAST(u.stats ->> 'points' AS bigint), 0) + e.delta))," +
+            "    updated_at = CURRENT_TIMESTAMP" +
+            " FROM entry e WHERE u.id = e.user_id",
+            nativeQuery = true)
+    int credit(@Param("userId") String userId, @Param("points") Long points, @Param("reason") String reason,
+               @Param("reference") String reference, @Param("description") String description);
+
+    /**
+     * Descuenta puntos del saldo, solo si alcanza, y agrega el cargo al libro.
+     *
+     * @param userId ID del usuario
+     * @param points Puntos a descontar (positivo)
+     * @param reason Motivo (PointsReason)
+     * @param reference Clave de idempotencia, o null
+     * @param description Descripción libre, o null
+     * @return 1 si se aplicó; 0 si el usuario no existe o el saldo no alcanza
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "WITH debited AS (" +
+            "    UPDATE users SET" +
+            "        stats = jsonb_set(stats, ARRAY['points'], to_jsonb(CAST(stats ->> 'points' AS bigint) - :points))," +
+            "        updated_at = CURRENT_TIMESTAMP" +
+            "    WHERE id = :userId AND CAST(stats ->> 'points' AS bigint) >= :points" +
+            "    RETURNING id" +
+            ")" +
+            " INSERT INTO points_ledger (user_id, delta, reason, reference, description, created_at)" +
+            " SELECT d.id, -CAST(:points AS bigint), CAST(:reason AS varchar), CAST(:reference AS varchar)," +
+            "    CAST(:description AS varchar), CURRENT_TIMESTAMP FROM debited d",
+            nativeQuery = true)
+    int debit(@Param("userId") String userId, @Param("points") Long points, @Param("reason") String reason,
+              @Param("reference") String reference, @Param("description") String description);
+
+    /**
+     * Movimientos de un usuario del más reciente al más antiguo (índice idx_points_ledger_user).
+     * Paginación por cursor: la siguiente página se pide con el id del último movimiento.
+     *
+     * @param userId ID del usuario
+     * @param beforeId Solo movimientos con id menor a este
+     * @param pageable Límite de resultados
+     * @return Movimientos
+     */
+    @Query("SELECT p FROM PointsLedgerEntry p WHERE p.userId = :userId AND p.id < :beforeId ORDER BY p.id DESC")
+    List<PointsLedgerEntry> findHistory(@Param("userId") String userId, @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+
+    /**
+     * Compacta los movimientos anteriores a la fecha de corte en uno SNAPSHOT por usuario,
+     * para un lote de usuarios con más de un movimiento antes del corte.
+     * La suma del libro (y por lo tanto el saldo) no cambia.
+     *
+     * @param cutoff Fecha de corte
+     * @param batchSize Máximo de usuarios a compactar
+     * @return Usuarios compactados (0 cuando no queda nada por compactar)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "WITH candidates AS (" +
+            "    SELECT user_id FROM points_ledger WHERE created_at < :cutoff" +
+            "    GROUP BY user_id HAVING COUNT(*) > 1 LIMIT :batchSize" +
+            "), folded AS (" +
+            "    DELETE FROM points_ledger l USING candidates c" +
+            "    WHERE l.user_id = c.user_id AND l.created_at < :cutoff" +
+            "    RETURNING l.user_id, l.delta" +
+            ")" +
+            " INSERT INTO points_ledger (user_id, delta, reason, description, created_at)" +
+            " SELECT f.user_id, SUM(f.delta), 'SNAPSHOT', 'Saldo compactado', :cutoff FROM folded f GROUP BY f.user_id",
+            nativeQuery = true)
+    int compactBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
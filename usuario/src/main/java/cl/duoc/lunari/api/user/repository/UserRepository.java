@@ -1,13 +1,17 @@
 package cl.duoc.lunari.api.user.repository;
 
 import cl.duoc.lunari.api.user.model.User;
+import cl.duoc.lunari.api.user.security.AccountStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 /**
@@ -20,9 +24,11 @@ import java.util.Optional;
  * - findByEmail, findByUsername
  * - findByIsActive
  * - countByIsActive
+ *
+ * Búsqueda de usuarios (searchUsers) y parches JSONB en UserRepositoryCustom.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, UserRepositoryCustom {
 
     // ==================== Operaciones CRUD Básicas (proporcionadas por JpaRepository) ====================
     // save(User user)
@@ -79,19 +85,39 @@ public interface UserRepository extends JpaRepository<User, String> {
      */
     Page<User> findByIsActiveAndIsVerified(Boolean isActive, Boolean isVerified, Pageable pageable);
 
+    // ==================== Estado de Cuenta (autenticación) ====================
+
     /**
-     * Busca usuarios por texto en username, email o datos personales.
+     * Obtiene solo el estado de cuenta necesario para aceptar un JWT,
+     * sin cargar las columnas JSONB del usuario.
      *
-     * Búsqueda case-insensitive en múltiples campos usando JSONB.
+     * @param id ID del usuario
+     * @return Optional con el estado si el usuario existe
+     */
+    @Query("SELECT new cl.duoc.lunari.api.user.security.AccountStatus(u.isActive, u.tokensValidAfter) " +
+           "FROM User u WHERE u.id = :id")
+    Optional<AccountStatus> findAccountStatusById(@Param("id") String id);
+
+    /**
+     * Revoca los tokens emitidos antes del instante dado.
      *
-     * @param query Texto a buscar
-     * @param pageable Configuración de paginación
-     * @return Página de usuarios que coinciden
+     * @param id ID del usuario
+     * @param validAfter Instante desde el que se aceptan tokens
+     * @return Cantidad de filas actualizadas (0 si el usuario no existe)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokensValidAfter = :validAfter WHERE u.id = :id")
+    int revokeTokens(@Param("id") String id, @Param("validAfter") LocalDateTime validAfter);
+
+    /**
+     * Replace the password hash only if it is still the one that was verified, so a rehash on
+     * login never overwrites a concurrent password change (and no other column is rewritten).
      */
-    @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :query, '%'))")
-    Page<User> searchUsers(@Param("query") String query, Pageable pageable);
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash, u.updatedAt = :updatedAt WHERE u.id = :id AND u.password = :oldHash")
+    int replacePasswordHash(@Param("id") String id, @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash, @Param("updatedAt") LocalDateTime updatedAt);
 
     // ==================== Operaciones de Conteo ====================
 
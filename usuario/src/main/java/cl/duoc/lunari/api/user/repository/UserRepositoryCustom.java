@@ -0,0 +1,45 @@
+package cl.duoc.lunari.api.user.repository;
+
+import cl.duoc.lunari.api.user.dto.UserSearchResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones sobre users no expresables con @Query fijo: actualizaciones parciales de las
+ * columnas JSONB y la búsqueda de usuarios.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Escribe solo las claves modificadas de cada columna JSONB, con una sola sentencia
+     * UPDATE que no toca las demás columnas ni las demás claves del documento.
+     *
+     * Limpia el contexto de persistencia al terminar: una entidad User leída antes queda
+     * desacoplada y sus cambios en memoria ya no se sincronizan con la base de datos.
+     *
+     * @param userId ID del usuario
+     * @param changesByColumn Columna (personal, address, preferences, gaming) → claves modificadas
+     *                        con su nuevo valor (null elimina el valor)
+     * @return Cantidad de filas actualizadas (0 si el usuario no existe o no hay cambios)
+     */
+    int patchJsonColumns(String userId, Map<String, Map<String, Object>> changesByColumn);
+
+    /**
+     * Busca usuarios por username, email o nombre completo (personal.firstName + lastName).
+     *
+     * Con prefixOnly solo considera los valores que empiezan con el texto (índices b-tree
+     * text_pattern_ops); si no, los que lo contienen (índices GIN pg_trgm), ordenados por
+     * coincidencia exacta, por prefijo y similitud de trigramas.
+     *
+     * Paginación por cursor: la siguiente página se pide con el rank e id del último resultado.
+     *
+     * @param query Texto a buscar, ya normalizado (sin espacios extremos y en minúsculas)
+     * @param prefixOnly Buscar solo por prefijo
+     * @param afterRank Solo resultados con rank menor, o igual y con id mayor a afterId
+     * @param afterId ID del último resultado de la página anterior ("" para la primera)
+     * @param limit Máximo de resultados
+     * @return Usuarios ordenados por rank descendente e id
+     */
+    List<UserSearchResult> searchUsers(String query, boolean prefixOnly, int afterRank, String afterId, int limit);
+}
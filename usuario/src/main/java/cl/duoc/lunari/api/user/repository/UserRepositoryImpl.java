@@ -0,0 +1,150 @@
+package cl.duoc.lunari.api.user.repository;
+
+import cl.duoc.lunari.api.user.config.JsonCodecRegistry;
+import cl.duoc.lunari.api.user.dto.UserSearchResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parches JSONB por clave: cada columna modificada se actualiza con
+ * col = col || '{"clave": valor, ...}', así PostgreSQL reescribe solo ese documento
+ * y el JSON enviado contiene solo las claves que cambiaron.
+ *
+ * Búsqueda de usuarios sobre las mismas expresiones que indexan migration_neondb.sql y migration_user_search.sql
+ * (lower(username), lower(email) y el nombre completo en minúsculas): deben coincidir
+ * exactamente con las de los índices para que PostgreSQL los use.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final Set<String> JSON_COLUMNS = Set.of("personal", "address", "preferences", "gaming");
+
+    private static final String USERNAME = "lower(u.username)";
+    private static final String EMAIL = "lower(u.email)";
+    private static final String FULL_NAME =
+            "lower(COALESCE(u.personal->>'firstName', '') || ' ' || COALESCE(u.personal->>'lastName', ''))";
+
+    // Rango [?1, ?2) con los operadores de text_pattern_ops: a diferencia de LIKE 'abc%' con
+    // parámetro, el plan genérico de una sentencia preparada también puede usar el b-tree
+    private static final String STARTS_WITH = "(%1$s ~>=~ ?1 AND %1$s ~<~ ?2)";
+
+    // Relevancia: coincidencia exacta > prefijo de username > de email > de nombre
+    private static final String TIER = "CASE WHEN " + USERNAME + " = ?1 OR " + EMAIL + " = ?1 THEN 4000"
+            + " WHEN " + STARTS_WITH.formatted(USERNAME) + " THEN 3000"
+            + " WHEN " + STARTS_WITH.formatted(EMAIL) + " THEN 2000"
+            + " WHEN " + STARTS_WITH.formatted(FULL_NAME) + " THEN 1000 ELSE 0 END";
+
+    // Dentro de cada nivel, el valor más parecido al texto (0..1000)
+    private static final String SIMILARITY = "CAST(round(1000 * greatest(word_similarity(?1, " + USERNAME
+            + "), word_similarity(?1, " + EMAIL + "), word_similarity(?1, " + FULL_NAME + "))) AS integer)";
+
+    private static final String SEARCH = "SELECT m.id, m.username, m.email, m.full_name, m.is_active, m.rank FROM ("
+            + "SELECT u.id, u.username, u.email, u.is_active, "
+            + "NULLIF(TRIM(COALESCE(u.personal->>'firstName', '') || ' ' || COALESCE(u.personal->>'lastName', '')), '') AS full_name, "
+            + "%s AS rank FROM users u WHERE %s"
+            + ") m WHERE m.rank < ?4 OR (m.rank = ?4 AND m.id > ?5) "
+            + "ORDER BY m.rank DESC, m.id LIMIT ?6";
+
+    private static final String PREFIX_SEARCH = SEARCH.formatted(TIER,
+            STARTS_WITH.formatted(USERNAME) + " OR " + STARTS_WITH.formatted(EMAIL)
+                    + " OR " + STARTS_WITH.formatted(FULL_NAME));
+
+    // LIKE '%texto%' sobre los índices GIN gin_trgm_ops (?3, con comodines escapados)
+    private static final String TRIGRAM_SEARCH = SEARCH.formatted(TIER + " + " + SIMILARITY,
+            USERNAME + " LIKE ?3 OR " + EMAIL + " LIKE ?3 OR " + FULL_NAME + " LIKE ?3");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patchJsonColumns(String userId, Map<String, Map<String, Object>> changesByColumn) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET ");
+        List<String> patches = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> change : changesByColumn.entrySet()) {
+            String column = change.getKey();
+            if (!JSON_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Not a patchable JSONB column: " + column);
+            }
+            if (change.getValue() == null || change.getValue().isEmpty()) {
+                continue;
+            }
+            // Un documento ausente (o que no es objeto) se trata como {}
+            sql.append(column).append(" = CASE WHEN jsonb_typeof(").append(column).append(") = 'object' THEN ")
+                    .append(column).append(" ELSE CAST('{}' AS jsonb) END || CAST(?")
+                    .append(patches.size() + 1).append(" AS jsonb), ");
+            patches.add(toJson(change.getValue()));
+        }
+        if (patches.isEmpty()) {
+            return 0;
+        }
+        sql.append("updated_at = CURRENT_TIMESTAMP WHERE id = ?").append(patches.size() + 1);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < patches.size(); i++) {
+            query.setParameter(i + 1, patches.get(i));
+        }
+        query.setParameter(patches.size() + 1, userId);
+
+        int updated = query.executeUpdate();
+        // Igual que @Modifying(clearAutomatically = true): la entidad leída antes no debe
+        // volver a escribirse completa al hacer flush
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    public List<UserSearchResult> searchUsers(String query, boolean prefixOnly, int afterRank, String afterId, int limit) {
+        Query search = entityManager.createNativeQuery(prefixOnly ? PREFIX_SEARCH : TRIGRAM_SEARCH);
+        search.setParameter(1, query);
+        search.setParameter(2, prefixUpperBound(query));
+        if (!prefixOnly) {
+            search.setParameter(3, "%" + escapeLike(query) + "%");
+        }
+        search.setParameter(4, afterRank);
+        search.setParameter(5, afterId);
+        search.setParameter(6, limit);
+
+        List<UserSearchResult> results = new ArrayList<>();
+        for (Object row : search.getResultList()) {
+            Object[] columns = (Object[]) row;
+            results.add(UserSearchResult.builder()
+                    .id((String) columns[0])
+                    .username((String) columns[1])
+                    .email((String) columns[2])
+                    .fullName((String) columns[3])
+                    .isActive((Boolean) columns[4])
+                    .rank(((Number) columns[5]).intValue())
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * Menor texto mayor que todos los que empiezan con el prefijo: el prefijo con su último
+     * carácter incrementado (el orden de text_pattern_ops es el de los code points en UTF-8).
+     */
+    static String prefixUpperBound(String prefix) {
+        int last = prefix.codePointBefore(prefix.length());
+        int next = last == 0xD7FF ? 0xE000 : last + 1;
+        return prefix.substring(0, prefix.length() - Character.charCount(last)) + Character.toString(next);
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Mismo codec (y mapper de Spring) que JpaJsonConverter usa para las columnas completas
+    private static String toJson(Map<String, Object> value) {
+        try {
+            return JsonCodecRegistry.shared().codec(Map.class).write(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Error converting JSONB patch to JSON", e);
+        }
+    }
+}
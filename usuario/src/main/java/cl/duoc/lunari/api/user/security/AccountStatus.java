@@ -0,0 +1,35 @@
+package cl.duoc.lunari.api.user.security;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Account state needed to accept a JWT, loaded without the user's JSONB columns.
+ *
+ * @param active Whether the account is active
+ * @param tokensValidAfter Tokens issued before this instant are revoked (null if never revoked)
+ */
+public record AccountStatus(Boolean active, LocalDateTime tokensValidAfter) {
+
+    /**
+     * Status cached for ids that no longer exist, so their tokens are rejected too.
+     */
+    static final AccountStatus MISSING = new AccountStatus(false, null);
+
+    /**
+     * Whether a token issued at the given time is still accepted for this account.
+     * JWT iat has second precision, so it is compared in whole seconds.
+     */
+    public boolean accepts(Date issuedAt) {
+        if (!Boolean.TRUE.equals(active)) {
+            return false;
+        }
+        if (tokensValidAfter == null) {
+            return true;
+        }
+        return issuedAt != null
+                && issuedAt.toInstant().getEpochSecond()
+                   >= tokensValidAfter.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -0,0 +1,60 @@
+package cl.duoc.lunari.api.user.security;
+
+import cl.duoc.lunari.api.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Short-lived cache of account status (active flag and token revocation) by user id.
+ *
+ * Lets the JWT filter reject deactivated accounts and revoked tokens without reading the
+ * user on every request. Changes made through this instance invalidate the entry at once;
+ * changes made elsewhere (other replicas, direct SQL) are seen within jwt.statusCacheTtl.
+ */
+@Component
+public class AccountStatusCache {
+
+    private final LoadingCache<String, AccountStatus> cache;
+
+    @Autowired
+    public AccountStatusCache(UserRepository userRepository,
+                              @Value("${jwt.statusCacheTtl:30s}") Duration ttl,
+                              @Value("${jwt.statusCacheMaxSize:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build(userId -> userRepository.findAccountStatusById(userId).orElse(AccountStatus.MISSING));
+    }
+
+    /**
+     * Whether a token issued at the given time is accepted for the user.
+     */
+    public boolean accepts(String userId, Date issuedAt) {
+        return cache.get(userId).accepts(issuedAt);
+    }
+
+    /**
+     * Drop the cached status after the account or its tokens change.
+     * Inside a transaction it is dropped again once the transaction completes, so a request
+     * that reloads the status between the write and the commit cannot keep the old one cached.
+     */
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+}
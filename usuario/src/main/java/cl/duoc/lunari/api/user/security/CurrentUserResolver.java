@@ -0,0 +1,31 @@
+package cl.duoc.lunari.api.user.security;
+
+import cl.duoc.lunari.api.user.model.User;
+import cl.duoc.lunari.api.user.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the authenticated user's id. Stateless principals carry it in the token;
+ * database-backed principals only know the email, so the user is looked up.
+ */
+@Component
+public class CurrentUserResolver {
+
+    private final UserService userService;
+
+    @Autowired
+    public CurrentUserResolver(UserService userService) {
+        this.userService = userService;
+    }
+
+    public String userId(UserDetails userDetails) {
+        if (userDetails instanceof JwtUserPrincipal principal) {
+            return principal.getUserId();
+        }
+        return userService.getUserByEmail(userDetails.getUsername())
+                .map(User::getId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
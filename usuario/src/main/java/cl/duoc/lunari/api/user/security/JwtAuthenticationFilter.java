@@ -1,10 +1,12 @@
 package cl.duoc.lunari.api.user.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,16 +16,30 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Authenticates requests carrying a Bearer JWT.
+ *
+ * In stateless mode (jwt.stateless=true) the principal is built from the signed claims
+ * (userId, email, level) and only the cached account status is checked, so authenticated
+ * calls do not load the user. Otherwise the user is loaded from the database on every request.
+ * Both modes reject tokens of inactive accounts and tokens revoked by logout.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final AccountStatusCache accountStatusCache;
+
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService,
+                                   AccountStatusCache accountStatusCache) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.accountStatusCache = accountStatusCache;
     }
 
     @Override
@@ -44,25 +60,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String authorizationHeader = request.getHeader("Authorization");
 
-        String email = null;
-        String jwtToken = null;
-
-        // Extract JWT token from Authorization header
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwtToken = authorizationHeader.substring(7);
-            try {
-                email = jwtUtil.extractEmail(jwtToken);
-            } catch (Exception e) {
-                logger.error("Error extracting email from JWT token: " + e.getMessage());
-            }
-        }
-
         // Validate token and set authentication
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwtToken = authorizationHeader.substring(7);
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                UserDetails userDetails = authenticate(jwtToken);
 
-                if (jwtUtil.validateToken(jwtToken, userDetails)) {
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authenticationToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
@@ -79,4 +84,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Resolve the principal for a token, or null if it must not be authenticated.
+     * Parsing verifies the signature and expiration (and throws otherwise).
+     */
+    private UserDetails authenticate(String jwtToken) {
+        Claims claims = jwtUtil.extractAllClaims(jwtToken);
+        String userId = claims.getSubject();
+        String email = claims.get("email", String.class);
+        if (userId == null || email == null) {
+            return null;
+        }
+
+        if (!accountStatusCache.accepts(userId, claims.getIssuedAt())) {
+            logger.debug("Rejected token of inactive account or revoked token for user " + userId);
+            return null;
+        }
+
+        if (stateless) {
+            return JwtUserPrincipal.fromClaims(claims);
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        return jwtUtil.validateToken(claims, userDetails) ? userDetails : null;
+    }
 }
@@ -0,0 +1,72 @@
+package cl.duoc.lunari.api.user.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user built from the signed JWT claims, without loading the User entity.
+ * getUsername() returns the email, as the database-backed principal does.
+ */
+public class JwtUserPrincipal implements UserDetails {
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final String userId;
+    private final String email;
+    private final String displayName;
+    private final String level;
+
+    public JwtUserPrincipal(String userId, String email, String displayName, String level) {
+        this.userId = userId;
+        this.email = email;
+        this.displayName = displayName;
+        this.level = level;
+    }
+
+    /**
+     * Build the principal from claims already verified by JwtUtil.
+     */
+    public static JwtUserPrincipal fromClaims(Claims claims) {
+        return new JwtUserPrincipal(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                claims.get("username", String.class),
+                claims.get("level", String.class));
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+}
@@ -1,27 +1,57 @@
 package cl.duoc.lunari.api.user.security;
 
 import cl.duoc.lunari.api.user.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs.
+ *
+ * The signing key and the parser are built once. Verified claims are cached by the SHA-256
+ * of the token until the token's own exp, so a token presented on every request has its
+ * signature checked once instead of on each request (and on each extract* call).
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Long expiration;
+    private final Cache<String, Claims> claimsCache;
+
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration,
+                   @Value("${jwt.claimsCacheMaxSize:10000}") long claimsCacheMaxSize) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.expiration = expiration;
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+    }
 
     /**
      * Generate JWT token for a user
@@ -47,18 +77,10 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expirationDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    /**
-     * Get signing key from secret
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * Extract user ID from token
      */
@@ -103,21 +125,32 @@ public class JwtUtil {
     }
 
     /**
-     * Extract all claims from token
+     * Extract all claims from token.
+     * Verifies the signature on a cache miss; throws like the parser when the token is
+     * invalid or expired.
      */
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String key = hash(token);
+        Claims claims = claimsCache.getIfPresent(key);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+            // Tokens without exp are not cached: there is no bound on how long they stay valid
+            if (claims.getExpiration() != null) {
+                claimsCache.put(key, claims);
+            }
+        } else if (isExpired(claims)) {
+            // The entry is evicted at exp, but a read can race the eviction
+            claimsCache.invalidate(key);
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration());
+        }
+        return claims;
     }
 
     /**
      * Check if token is expired
      */
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isExpired(extractAllClaims(token));
     }
 
     /**
@@ -125,10 +158,53 @@ public class JwtUtil {
      */
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String email = extractEmail(token);
-            return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return validateToken(extractAllClaims(token), userDetails);
         } catch (Exception e) {
             return false;
         }
     }
+
+    /**
+     * Validate already extracted claims against user details
+     */
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        String email = claims.get("email", String.class);
+        return email != null && email.equals(userDetails.getUsername()) && !isExpired(claims);
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date exp = claims.getExpiration();
+        return exp != null && exp.before(new Date());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Keeps each entry until its token's exp; reads do not extend it.
+     */
+    private static final class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package cl.duoc.lunari.api.user.security;
+
+import cl.duoc.lunari.api.user.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt PasswordEncoder that runs every hash on a small dedicated pool.
+ *
+ * A login burst can only occupy password.hashThreads CPUs and password.queueCapacity waiting
+ * requests; anything beyond that is rejected at once with PasswordHashingUnavailableException
+ * (503) instead of tying up every request thread, so profile and points traffic keep flowing.
+ * The cost is password.bcryptCost; hashes with a lower cost report upgradeEncoding() = true so
+ * they can be rehashed on the next successful login.
+ */
+@Component
+@Slf4j
+public class PasswordHasher implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer verifyTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHasher(@Value("${password.bcryptCost:12}") int cost,
+                          @Value("${password.hashThreads:0}") int threads,
+                          @Value("${password.queueCapacity:32}") int queueCapacity,
+                          @Value("${password.timeout:5s}") Duration timeout,
+                          MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.verifyTimer = Timer.builder("usuario.password.hash")
+                .description("BCrypt time on the hashing pool")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("usuario.password.hash")
+                .description("BCrypt time on the hashing pool")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("usuario.password.rejected")
+                .description("Hash requests rejected because the pool was saturated or too slow")
+                .register(meterRegistry);
+        Gauge.builder("usuario.password.queue", executor, pool -> pool.getQueue().size())
+                .description("Hash requests waiting for a thread")
+                .register(meterRegistry);
+
+        log.info("Password hashing: BCrypt cost {}, {} threads, queue {}", cost, poolSize, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encodeTimer.recordCallable(() -> encoder.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> verifyTimer.recordCallable(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * True when the hash was made with a lower cost than the configured one.
+     * Only reads the cost from the hash prefix; does not use the pool.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingUnavailableException("Password hashing pool is saturated", e);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingUnavailableException("Password hashing timed out after " + timeout, e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,53 @@
+package cl.duoc.lunari.api.user.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates service-to-service calls (carrito) that send the shared X-API-Key header.
+ * A valid key grants ROLE_SERVICE; requests without the header fall through to JWT authentication.
+ */
+@Component
+public class ServiceApiKeyFilter extends OncePerRequestFilter {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    @Value("${lunari.services.api-key:}")
+    private String serviceApiKey;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String providedKey = request.getHeader(API_KEY_HEADER);
+
+        if (providedKey != null && serviceApiKey != null && !serviceApiKey.isBlank()
+                && MessageDigest.isEqual(providedKey.getBytes(StandardCharsets.UTF_8),
+                                         serviceApiKey.getBytes(StandardCharsets.UTF_8))) {
+            UsernamePasswordAuthenticationToken authenticationToken =
+                    new UsernamePasswordAuthenticationToken(
+                            "service",
+                            null,
+                            List.of(new SimpleGrantedAuthority("ROLE_SERVICE"))
+                    );
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        } else if (providedKey != null) {
+            logger.warn("Invalid X-API-Key for " + request.getRequestURI());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
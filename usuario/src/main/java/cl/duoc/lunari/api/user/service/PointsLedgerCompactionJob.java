@@ -0,0 +1,53 @@
+package cl.duoc.lunari.api.user.service;
+
+import cl.duoc.lunari.api.user.repository.PointsLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Periodic compaction of the points ledger.
+ *
+ * Entries older than points.ledger.retention are folded into one SNAPSHOT entry per user,
+ * so the ledger stays proportional to recent activity while its sum (the balance) is
+ * unchanged. Order references are idempotency keys only inside the retention window:
+ * a points award retried after its entry was compacted would be applied again.
+ */
+@Component
+@Slf4j
+public class PointsLedgerCompactionJob {
+
+    private final PointsLedgerRepository pointsLedgerRepository;
+    private final Duration retention;
+    private final int batchSize;
+
+    @Autowired
+    public PointsLedgerCompactionJob(PointsLedgerRepository pointsLedgerRepository,
+                                     @Value("${points.ledger.retention:365d}") Duration retention,
+                                     @Value("${points.ledger.compactionBatchSize:500}") int batchSize) {
+        this.pointsLedgerRepository = pointsLedgerRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${points.ledger.compactionCron:0 30 3 * * *}")
+    public void compact() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int users = 0;
+        int batch;
+        // One short transaction per batch of users
+        do {
+            batch = pointsLedgerRepository.compactBefore(cutoff, batchSize);
+            users += batch;
+        } while (batch > 0);
+
+        if (users > 0) {
+            log.info("Compacted points ledger of {} users up to {}", users, cutoff);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package cl.duoc.lunari.api.user.service;
 
+import cl.duoc.lunari.api.user.dto.BulkPointsRequest;
+import cl.duoc.lunari.api.user.dto.BulkPointsResponse;
 import cl.duoc.lunari.api.user.dto.UpdateProfileRequest;
+import cl.duoc.lunari.api.user.dto.UserSearchResponse;
+import cl.duoc.lunari.api.user.exception.InvalidSearchRequestException;
 import cl.duoc.lunari.api.user.model.Coupon;
+import cl.duoc.lunari.api.user.model.PointsLedgerEntry;
 import cl.duoc.lunari.api.user.model.User;
 
 import java.util.List;
@@ -62,16 +67,52 @@ public interface UserService {
      */
     User updateUserProfile(String userId, UpdateProfileRequest request);
 
+    /**
+     * Search users by username, email or full name (support staff lookups).
+     * Queries shorter than three characters, or with prefixOnly, only match values that
+     * start with the text; longer ones match anywhere and are ranked by relevance.
+     *
+     * @param query Text to search (case-insensitive)
+     * @param prefixOnly Only match values starting with the text
+     * @param cursor Opaque nextCursor of the previous page (null for the first page)
+     * @param limit Maximum results to return
+     * @return One page of results with the cursor of the next one
+     * @throws InvalidSearchRequestException if the query is blank or too long, or the cursor is invalid
+     */
+    UserSearchResponse searchUsers(String query, boolean prefixOnly, String cursor, int limit);
+
     // ==================== Points Management ====================
 
     /**
      * Add points to user.
+     * Appends a MANUAL entry to the points ledger and increments the balance atomically.
      *
      * @param userId User ID
      * @param points Points to add (can be negative to subtract)
+     * @param description Reason shown in the points history (optional)
      * @return Updated user
+     * @throws RuntimeException if user not found or the balance would become negative
+     */
+    User addPoints(String userId, Long points, String description);
+
+    /**
+     * Points ledger entries of a user, newest first.
+     *
+     * @param userId User ID
+     * @param beforeId Only entries older than this entry ID (null for the first page)
+     * @param limit Maximum entries to return
+     * @return Ledger entries
      */
-    User addPoints(String userId, Long points);
+    List<PointsLedgerEntry> getPointsHistory(String userId, Long beforeId, int limit);
+
+    /**
+     * Award points to many users with a single set-based update.
+     * Each award is applied at most once per reference (order number).
+     *
+     * @param awards Points awards keyed by reference
+     * @return Applied, already applied and rejected references
+     */
+    BulkPointsResponse awardPointsBulk(List<BulkPointsRequest.Award> awards);
 
     // ==================== Coupon Management ====================
 
@@ -106,4 +147,33 @@ public interface UserService {
      * @throws RuntimeException if coupon not found
      */
     void removeCoupon(String userId, String couponId);
+
+    /**
+     * Get one of the user's coupons by its code.
+     *
+     * @param userId User ID
+     * @param code Coupon code
+     * @return The coupon (check isValid() before applying it)
+     * @throws RuntimeException if the user has no coupon with that code
+     */
+    Coupon getCouponByCode(String userId, String code);
+
+    /**
+     * Mark one of the user's coupons as used.
+     * Only one of several concurrent uses of the same code succeeds.
+     *
+     * @param userId User ID
+     * @param code Coupon code
+     * @return The used coupon
+     * @throws RuntimeException if not found, already used or expired
+     */
+    Coupon useCoupon(String userId, String code);
+
+    /**
+     * Revoke every token issued to the user so far (logout from all sessions).
+     *
+     * @param userId User ID
+     * @throws RuntimeException if user not found
+     */
+    void revokeTokens(String userId);
 }
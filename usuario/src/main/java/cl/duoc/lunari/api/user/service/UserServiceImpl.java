@@ -1,16 +1,34 @@
 package cl.duoc.lunari.api.user.service;
 
+import cl.duoc.lunari.api.payload.KeysetCursor;
+import cl.duoc.lunari.api.user.dto.BulkPointsRequest;
+import cl.duoc.lunari.api.user.dto.BulkPointsResponse;
 import cl.duoc.lunari.api.user.dto.UpdateProfileRequest;
+import cl.duoc.lunari.api.user.dto.UserSearchResponse;
+import cl.duoc.lunari.api.user.dto.UserSearchResult;
 import cl.duoc.lunari.api.user.exception.AccountInactiveException;
 import cl.duoc.lunari.api.user.exception.InvalidCredentialsException;
+import cl.duoc.lunari.api.user.exception.InvalidSearchRequestException;
+import cl.duoc.lunari.api.user.exception.PasswordHashingUnavailableException;
 import cl.duoc.lunari.api.user.model.*;
+import cl.duoc.lunari.api.user.repository.CouponRepository;
+import cl.duoc.lunari.api.user.repository.PointsLedgerRepository;
 import cl.duoc.lunari.api.user.repository.UserRepository;
+import cl.duoc.lunari.api.user.security.AccountStatusCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.security.SecureRandom;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.Year;
 import java.util.*;
 
@@ -21,13 +39,35 @@ import java.util.*;
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    // pg_trgm needs three characters to extract a trigram; shorter queries use the prefix indexes
+    private static final int TRIGRAM_MIN_LENGTH = 3;
+    private static final int SEARCH_MAX_LENGTH = 100;
+
+    // No 0/O or 1/I so codes can be read out loud; 8 symbols = 40 random bits
+    private static final char[] COUPON_ALPHABET = "23456789ABCDEFGHJKLMNPQRSTUVWXYZ".toCharArray();
+    private static final int COUPON_RANDOM_LENGTH = 8;
+    private static final SecureRandom COUPON_RANDOM = new SecureRandom();
+
     private final UserRepository userRepository;
+    private final PointsLedgerRepository pointsLedgerRepository;
+    private final CouponRepository couponRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final AccountStatusCache accountStatusCache;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository,
+                           PointsLedgerRepository pointsLedgerRepository,
+                           CouponRepository couponRepository,
+                           PasswordEncoder passwordEncoder,
+                           ObjectMapper objectMapper,
+                           AccountStatusCache accountStatusCache) {
         this.userRepository = userRepository;
+        this.pointsLedgerRepository = pointsLedgerRepository;
+        this.couponRepository = couponRepository;
         this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.accountStatusCache = accountStatusCache;
     }
 
     // ==================== User Management ====================
@@ -72,11 +112,6 @@ public class UserServiceImpl implements UserService {
             user.setPreferences(ClientPreferences.createDefault());
         }
 
-        // Initialize empty coupons list
-        if (user.getCoupons() == null) {
-            user.setCoupons(new ArrayList<>());
-        }
-
         // Set initial status
         if (user.getIsActive() == null) {
             user.setIsActive(true);
@@ -112,22 +147,26 @@ public class UserServiceImpl implements UserService {
         }
 
         // Password verification with BCrypt migration support
+        // (hashing runs on the bounded PasswordHasher pool, not on the request thread)
         String userPassword = user.getPassword();
         boolean passwordMatches = false;
 
         // Check if password is BCrypt hashed
-        if (userPassword.startsWith("$2a$") || userPassword.startsWith("$2b$")) {
+        if (userPassword.startsWith("$2a$") || userPassword.startsWith("$2b$") || userPassword.startsWith("$2y$")) {
             // BCrypt password - use encoder
             passwordMatches = passwordEncoder.matches(password, userPassword);
+            if (passwordMatches && passwordEncoder.upgradeEncoding(userPassword)) {
+                // Hash made with a lower cost than password.bcryptCost - rehash with the current cost
+                log.info("Rehashing password with the current BCrypt cost for user: {}", identifier);
+                replacePasswordHash(user, userPassword, password);
+            }
         } else {
             // Plain text password (legacy) - compare directly and migrate
             if (password.equals(userPassword)) {
                 passwordMatches = true;
                 // Auto-upgrade to BCrypt
                 log.info("Migrating plain text password to BCrypt for user: {}", identifier);
-                user.setPassword(passwordEncoder.encode(password));
-                // updatedAt automatically set by JPA @PreUpdate
-                userRepository.save(user);
+                replacePasswordHash(user, userPassword, password);
             }
         }
 
@@ -140,6 +179,21 @@ public class UserServiceImpl implements UserService {
         return user;
     }
 
+    /**
+     * Store a new hash of a just-verified password. Best effort: the login already succeeded,
+     * so a saturated hashing pool or a concurrent password change only skips the upgrade.
+     */
+    private void replacePasswordHash(User user, String currentHash, String rawPassword) {
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (userRepository.replacePasswordHash(user.getId(), currentHash, newHash, LocalDateTime.now()) > 0) {
+                user.setPassword(newHash);
+            }
+        } catch (PasswordHashingUnavailableException e) {
+            log.warn("Skipped password rehash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
     @Override
     public Optional<User> getUserById(String userId) {
         return userRepository.findById(userId);
@@ -151,89 +205,220 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public User updateUserProfile(String userId, UpdateProfileRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
 
-        // Update personal info
-        if (request.getFirstName() != null || request.getLastName() != null ||
-            request.getPhone() != null || request.getBirthdate() != null ||
-            request.getBio() != null || request.getAvatar() != null) {
+        // Personal info: only the fields present in the request change
+        Map<String, Object> personalBefore = toJsonMap(user.getPersonal());
+        Map<String, Object> personalAfter = new LinkedHashMap<>(personalBefore);
+        putIfPresent(personalAfter, "firstName", request.getFirstName());
+        putIfPresent(personalAfter, "lastName", request.getLastName());
+        putIfPresent(personalAfter, "phone", request.getPhone());
+        putIfPresent(personalAfter, "birthdate", request.getBirthdate());
+        putIfPresent(personalAfter, "bio", request.getBio());
+        putIfPresent(personalAfter, "avatar", request.getAvatar());
+
+        // Address, gaming profile and preferences are replaced when present
+        Map<String, Object> addressBefore = toJsonMap(user.getAddress());
+        Map<String, Object> gamingBefore = toJsonMap(user.getGaming());
+        Map<String, Object> preferencesBefore = toJsonMap(user.getPreferences());
+        Map<String, Object> addressAfter = request.getAddress() != null ? toJsonMap(request.getAddress()) : addressBefore;
+        Map<String, Object> gamingAfter = request.getGaming() != null ? toJsonMap(request.getGaming()) : gamingBefore;
+        Map<String, Object> preferencesAfter = request.getPreferences() != null
+                ? toJsonMap(request.getPreferences()) : preferencesBefore;
+
+        // Dirty tracking per JSONB column: only changed keys are written
+        Map<String, Map<String, Object>> changes = new LinkedHashMap<>();
+        changes.put("personal", changedKeys(personalBefore, personalAfter));
+        changes.put("address", changedKeys(addressBefore, addressAfter));
+        changes.put("gaming", changedKeys(gamingBefore, gamingAfter));
+        changes.put("preferences", changedKeys(preferencesBefore, preferencesAfter));
+        changes.values().removeIf(Map::isEmpty);
+
+        if (changes.isEmpty()) {
+            log.info("Profile update without changes for user: {}", userId);
+            return user;
+        }
 
-            Personal personal = user.getPersonal() != null ? user.getPersonal() : new Personal();
+        // One UPDATE with col = col || patch per changed column (detaches the loaded user)
+        userRepository.patchJsonColumns(userId, changes);
 
-            if (request.getFirstName() != null) {
-                personal.setFirstName(request.getFirstName());
-            }
-            if (request.getLastName() != null) {
-                personal.setLastName(request.getLastName());
-            }
-            if (request.getPhone() != null) {
-                personal.setPhone(request.getPhone());
-            }
-            if (request.getBirthdate() != null) {
-                personal.setBirthdate(request.getBirthdate());
-            }
-            if (request.getBio() != null) {
-                personal.setBio(request.getBio());
+        if (changes.containsKey("personal")) {
+            user.setPersonal(objectMapper.convertValue(personalAfter, Personal.class));
+        }
+        if (changes.containsKey("address")) {
+            user.setAddress(request.getAddress());
+        }
+        if (changes.containsKey("gaming")) {
+            user.setGaming(request.getGaming());
+        }
+        if (changes.containsKey("preferences")) {
+            user.setPreferences(request.getPreferences());
+        }
+        user.setUpdatedAt(LocalDateTime.now());
+
+        log.info("Updated profile for user: {} (columns: {})", userId, changes.keySet());
+        return user;
+    }
+
+    private Map<String, Object> toJsonMap(Object value) {
+        if (value == null) {
+            return new LinkedHashMap<>();
+        }
+        return objectMapper.convertValue(value, new TypeReference<LinkedHashMap<String, Object>>() {});
+    }
+
+    private static void putIfPresent(Map<String, Object> document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    /**
+     * Keys whose value differs between both versions of a JSON document (removed keys map to null).
+     */
+    private static Map<String, Object> changedKeys(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            if (!Objects.equals(before.get(entry.getKey()), entry.getValue())) {
+                changed.put(entry.getKey(), entry.getValue());
             }
-            if (request.getAvatar() != null) {
-                personal.setAvatar(request.getAvatar());
+        }
+        for (String key : before.keySet()) {
+            if (!after.containsKey(key) && before.get(key) != null) {
+                changed.put(key, null);
             }
-
-            user.setPersonal(personal);
         }
+        return changed;
+    }
 
-        // Update address
-        if (request.getAddress() != null) {
-            user.setAddress(request.getAddress());
+    @Override
+    @Transactional
+    public void revokeTokens(String userId) {
+        // Stored at the precision of JWT iat (whole seconds) and compared at that precision:
+        // tokens from earlier seconds are revoked, a login right after revoking still works
+        LocalDateTime validAfter = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        if (userRepository.revokeTokens(userId, validAfter) == 0) {
+            throw new RuntimeException("User not found with ID: " + userId);
         }
+        accountStatusCache.invalidate(userId);
 
-        // Update gaming profile
-        if (request.getGaming() != null) {
-            user.setGaming(request.getGaming());
+        log.info("Revoked tokens issued to user {} before {}", userId, validAfter);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserSearchResponse searchUsers(String query, boolean prefixOnly, String cursor, int limit) {
+        String normalized = query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || normalized.length() > SEARCH_MAX_LENGTH) {
+            throw new InvalidSearchRequestException("Search query must have between 1 and " + SEARCH_MAX_LENGTH + " characters");
         }
 
-        // Update preferences
-        if (request.getPreferences() != null) {
-            user.setPreferences(request.getPreferences());
+        // Opaque cursor with the (rank, id) keys of the last result of the previous page
+        int afterRank = Integer.MAX_VALUE;
+        String afterId = "";
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor.Claves after = KeysetCursor.decode(cursor);
+            afterRank = after.rank();
+            afterId = after.id();
         }
 
-        // updatedAt automatically set by JPA @PreUpdate
+        // One extra row only tells whether there is a next page, so a full last page gets no cursor
+        boolean prefix = prefixOnly || normalized.length() < TRIGRAM_MIN_LENGTH;
+        List<UserSearchResult> rows = userRepository.searchUsers(normalized, prefix, afterRank, afterId, limit + 1);
+        if (rows.size() <= limit) {
+            return UserSearchResponse.builder().results(rows).build();
+        }
 
-        log.info("Updated profile for user: {}", userId);
-        return userRepository.save(user);
+        List<UserSearchResult> results = rows.subList(0, limit);
+        UserSearchResult last = results.get(limit - 1);
+        return UserSearchResponse.builder()
+                .results(results)
+                .nextCursor(KeysetCursor.encode(last.getRank(), last.getId()))
+                .build();
     }
 
     // ==================== Points Management ====================
 
     @Override
-    public User addPoints(String userId, Long points) {
+    @Transactional
+    public User addPoints(String userId, Long points, String description) {
+        // Ledger append + balance increment in one statement (no read-modify-write of stats)
+        int applied = points >= 0
+                ? pointsLedgerRepository.credit(userId, points, PointsReason.MANUAL.name(), null, description)
+                : pointsLedgerRepository.debit(userId, -points, PointsReason.MANUAL.name(), null, description);
+
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        if (applied == 0) {
+            throw new RuntimeException("Insufficient points. You have " + user.getPoints() + " points");
+        }
 
-        if (user.getStats() == null) {
-            user.setStats(ClientStats.createDefault());
+        log.info("Added {} points to user {}: Total: {}", points, userId, user.getPoints());
+        return user;
+    }
+
+    @Override
+    public List<PointsLedgerEntry> getPointsHistory(String userId, Long beforeId, int limit) {
+        return pointsLedgerRepository.findHistory(userId, beforeId != null ? beforeId : Long.MAX_VALUE,
+                PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional
+    public BulkPointsResponse awardPointsBulk(List<BulkPointsRequest.Award> awards) {
+        // One award per reference; a reference repeated in the same batch is applied once
+        Map<String, Map<String, Object>> byReference = new LinkedHashMap<>();
+        for (BulkPointsRequest.Award award : awards) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("reference", award.getReference());
+            row.put("userId", award.getUserId());
+            row.put("points", award.getPoints());
+            byReference.putIfAbsent(award.getReference(), row);
+        }
+
+        String awardsJson;
+        try {
+            awardsJson = objectMapper.writeValueAsString(byReference.values());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid points awards payload", e);
         }
 
-        user.getStats().addPoints(points);
-        // updatedAt automatically set by JPA @PreUpdate
+        List<String> applied = pointsLedgerRepository.applyAwards(awardsJson);
 
-        log.info("Added {} points to user {}: Total: {}", points, userId, user.getStats().getPoints());
-        return userRepository.save(user);
+        List<String> notApplied = new ArrayList<>(byReference.keySet());
+        notApplied.removeAll(applied);
+        List<String> alreadyApplied = notApplied.isEmpty()
+                ? new ArrayList<>()
+                : pointsLedgerRepository.findExistingReferences(notApplied);
+        List<String> rejected = new ArrayList<>(notApplied);
+        rejected.removeAll(alreadyApplied);
+
+        log.info("Bulk points award: {} applied, {} already applied, {} rejected",
+                applied.size(), alreadyApplied.size(), rejected.size());
+
+        return BulkPointsResponse.builder()
+                .applied(applied)
+                .alreadyApplied(alreadyApplied)
+                .rejected(rejected)
+                .build();
     }
 
     // ==================== Coupon Management ====================
 
     @Override
     public List<Coupon> getClientCoupons(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-
-        return user.getCoupons() != null ? user.getCoupons() : new ArrayList<>();
+        List<Coupon> coupons = couponRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        if (coupons.isEmpty() && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with ID: " + userId);
+        }
+        return coupons;
     }
 
     @Override
+    @Transactional
     public Coupon redeemPoints(String userId, Long pointsToRedeem) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
@@ -257,49 +442,60 @@ public class UserServiceImpl implements UserService {
         // Generate coupon
         Coupon coupon = new Coupon();
         coupon.setId(UUID.randomUUID().toString());
+        coupon.setUserId(user.getId());
         coupon.setCode(generateCouponCode(level, user.getId()));
         coupon.setDescription("Redeemed " + pointsToRedeem + " points as " + level + " member");
         coupon.setType("fixed");
         coupon.setValue(couponValue);
         coupon.setMinPurchase(0.0);
-        coupon.setExpiresAt(LocalDate.now().plusDays(90).toString());
+        coupon.setExpiresAt(LocalDate.now().plusDays(90));
         coupon.setIsUsed(false);
 
-        // Deduct points
-        user.getStats().setPoints(currentPoints - pointsToRedeem);
-
-        // Add coupon to user's list
-        if (user.getCoupons() == null) {
-            user.setCoupons(new ArrayList<>());
+        // Ledger debit + balance decrement in one statement; fails if a concurrent redemption spent them
+        if (pointsLedgerRepository.debit(userId, pointsToRedeem, PointsReason.REDEMPTION.name(),
+                "COUPON:" + coupon.getId(), coupon.getCode()) == 0) {
+            throw new RuntimeException("Insufficient points. You have " + currentPoints + " points");
         }
-        user.getCoupons().add(coupon);
 
-        // updatedAt automatically set by JPA @PreUpdate
-        userRepository.save(user);
+        // Coupon is its own row: the user row is not rewritten
+        couponRepository.save(coupon);
 
         log.info("User {} redeemed {} points for ${} coupon ({})", userId, pointsToRedeem, couponValue, level);
         return coupon;
     }
 
     @Override
+    @Transactional
     public void removeCoupon(String userId, String couponId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-
-        if (user.getCoupons() == null || user.getCoupons().isEmpty()) {
-            throw new RuntimeException("No coupons to remove");
+        if (couponRepository.deleteByIdAndUserId(couponId, userId) == 0) {
+            throw new RuntimeException("Coupon not found with ID: " + couponId);
         }
 
-        boolean removed = user.getCoupons().removeIf(c -> couponId.equals(c.getId()));
+        log.info("Removed coupon {} from user {}", couponId, userId);
+    }
 
-        if (!removed) {
-            throw new RuntimeException("Coupon not found with ID: " + couponId);
-        }
+    @Override
+    public Coupon getCouponByCode(String userId, String code) {
+        return couponRepository.findByUserIdAndCode(userId, code)
+                .orElseThrow(() -> new RuntimeException("Coupon not found with code: " + code));
+    }
 
-        // updatedAt automatically set by JPA @PreUpdate
-        userRepository.save(user);
+    @Override
+    @Transactional
+    public Coupon useCoupon(String userId, String code) {
+        int updated = couponRepository.markUsed(userId, code, LocalDate.now(), LocalDateTime.now());
+
+        // Re-read for the response, or to tell why it could not be used
+        Coupon coupon = getCouponByCode(userId, code);
+        if (updated == 0) {
+            if (Boolean.TRUE.equals(coupon.getIsUsed())) {
+                throw new RuntimeException("Coupon already used: " + code);
+            }
+            throw new RuntimeException("Coupon expired: " + code);
+        }
 
-        log.info("Removed coupon {} from user {}", couponId, userId);
+        log.info("User {} used coupon {}", userId, code);
+        return coupon;
     }
 
     // ==================== Helper Methods ====================
@@ -327,15 +523,20 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Generate unique coupon code
-     * Format: {LEVEL-PREFIX}-{USER-ID-8-CHARS}-{RANDOM-4-DIGITS}
-     * Example: GOL-A1B2C3D4-5678
+     * Format: {LEVEL-PREFIX}-{USER-ID-8-CHARS}-{RANDOM-8-CHARS}
+     * Example: GOL-A1B2C3D4-7KQ9XMPW
+     * The random part comes from SecureRandom (40 bits), so a clash on idx_coupon_user_code
+     * is negligible even for users with many coupons
      */
     private String generateCouponCode(String level, String userId) {
         String levelPrefix = level != null ?
                 level.substring(0, Math.min(3, level.length())).toUpperCase() : "DEF";
         String userSuffix = userId.substring(0, Math.min(8, userId.length())).toUpperCase();
-        String random = String.format("%04d", new Random().nextInt(10000));
+        char[] random = new char[COUPON_RANDOM_LENGTH];
+        for (int i = 0; i < random.length; i++) {
+            random[i] = COUPON_ALPHABET[COUPON_RANDOM.nextInt(COUPON_ALPHABET.length)];
+        }
 
-        return levelPrefix + "-" + userSuffix + "-" + random;
+        return levelPrefix + "-" + userSuffix + "-" + new String(random);
     }
 }
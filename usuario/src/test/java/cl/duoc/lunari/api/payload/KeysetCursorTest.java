@@ -0,0 +1,45 @@
+package cl.duoc.lunari.api.payload;
+
+import cl.duoc.lunari.api.user.exception.InvalidSearchRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for KeysetCursor
+ */
+@DisplayName("KeysetCursor Tests")
+class KeysetCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip the (rank, id) keys")
+    void encodeDecode_RoundTrip() {
+        // Given
+        String id = UUID.randomUUID().toString();
+
+        // When
+        KeysetCursor.Claves claves = KeysetCursor.decode(KeysetCursor.encode(3987, id));
+
+        // Then
+        assertThat(claves.rank()).isEqualTo(3987);
+        assertThat(claves.id()).isEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("Should not expose the raw keys")
+    void encode_Opaque() {
+        assertThat(KeysetCursor.encode(3987, "user-1")).doesNotContain("3987", "user-1");
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors with InvalidSearchRequestException")
+    void decode_Invalid() {
+        assertThatThrownBy(() -> KeysetCursor.decode("%%%")).isInstanceOf(InvalidSearchRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("3987:user-1")).isInstanceOf(InvalidSearchRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(KeysetCursor.encode(3987, "")))
+                .isInstanceOf(InvalidSearchRequestException.class);
+    }
+}
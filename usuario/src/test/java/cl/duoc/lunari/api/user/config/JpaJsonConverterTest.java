@@ -0,0 +1,185 @@
+package cl.duoc.lunari.api.user.config;
+
+import cl.duoc.lunari.api.user.model.Address;
+import cl.duoc.lunari.api.user.model.ClientPreferences;
+import cl.duoc.lunari.api.user.model.ClientStats;
+import cl.duoc.lunari.api.user.model.Gaming;
+import cl.duoc.lunari.api.user.model.Personal;
+import cl.duoc.lunari.api.user.model.User;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Round trip of a users row through the JSONB converters, with the registry that
+ * JsonCodecConfig builds from Spring's ObjectMapper (H2 in-memory database)
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JacksonAutoConfiguration.class, JsonCodecConfig.class})
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:jpajsonconvertertest;MODE=PostgreSQL;NON_KEYWORDS=VALUE;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS VARCHAR",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@DisplayName("JpaJsonConverter Tests")
+class JpaJsonConverterTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JsonCodecRegistry jsonCodecRegistry;
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    @DisplayName("Should read back every JSONB document of a full users row")
+    void roundTrip_FilaCompleta() {
+        // Given
+        User user = newUser();
+        Personal personal = new Personal();
+        personal.setFirstName("Ana");
+        personal.setLastName("Pérez");
+        personal.setBirthdate("1995-05-15");
+        personal.setMemberSince("2022");
+        user.setPersonal(personal);
+        user.setAddress(new Address("Av. Siempre Viva 742", "Depto 45", "Santiago", "Metropolitana",
+                "8320000", "chile", "Timbre 45"));
+        ClientPreferences preferences = new ClientPreferences();
+        preferences.setFavoriteCategories(List.of("JM", "CG"));
+        preferences.setPreferredPlatform("pc");
+        preferences.setNotifyRestocks(true);
+        user.setPreferences(preferences);
+        Gaming gaming = new Gaming();
+        gaming.setGamerTag("AnaGamer");
+        gaming.setStreamingPlatforms(List.of("twitch"));
+        user.setGaming(gaming);
+        ClientStats stats = ClientStats.createDefault();
+        stats.setPoints(1500L);
+        stats.setLevel("Gold");
+        user.setStats(stats);
+
+        // When
+        entityManager.persistAndFlush(user);
+        entityManager.clear();
+        User found = entityManager.find(User.class, user.getId());
+
+        // Then
+        assertThat(found.getPersonal()).isEqualTo(personal);
+        assertThat(found.getAddress()).isEqualTo(user.getAddress());
+        assertThat(found.getPreferences()).isEqualTo(preferences);
+        assertThat(found.getGaming()).isEqualTo(gaming);
+        assertThat(found.getStats()).isEqualTo(stats);
+    }
+
+    @Test
+    @DisplayName("Should store missing documents as SQL NULL and read them back as null")
+    void roundTrip_DocumentosNulos() {
+        // Given
+        User user = newUser();
+        user.setStats(ClientStats.createDefault());
+
+        // When
+        entityManager.persistAndFlush(user);
+        entityManager.clear();
+        User found = entityManager.find(User.class, user.getId());
+
+        // Then
+        assertThat(found.getPersonal()).isNull();
+        assertThat(found.getAddress()).isNull();
+        assertThat(found.getGaming()).isNull();
+        assertThat(found.getPreferences()).isNull();
+        Object address = entityManager.getEntityManager()
+                .createNativeQuery("SELECT address FROM users WHERE id = ?1")
+                .setParameter(1, user.getId())
+                .getSingleResult();
+        assertThat(address).isNull();
+    }
+
+    @Test
+    @DisplayName("Should ignore stored keys the model does not know")
+    void read_ClavesDesconocidas() {
+        // Given: documentos escritos por otra versión de la aplicación
+        User user = newUser();
+        user.setStats(ClientStats.createDefault());
+        entityManager.persistAndFlush(user);
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE users SET personal = ?1, stats = ?2 WHERE id = ?3")
+                .setParameter(1, "{\"firstName\":\"Ana\",\"legacyBadge\":\"beta\"}")
+                .setParameter(2, "{\"level\":\"Gold\",\"points\":10,\"streak\":{\"days\":3}}")
+                .setParameter(3, user.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        // When
+        User found = entityManager.find(User.class, user.getId());
+
+        // Then
+        assertThat(found.getPersonal().getFirstName()).isEqualTo("Ana");
+        assertThat(found.getStats().getLevel()).isEqualTo("Gold");
+        assertThat(found.getStats().getPoints()).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("Should install Spring's registry before the EntityManagerFactory creates the converters")
+    void registry_AntesDelEntityManagerFactory() {
+        assertThat(JsonCodecRegistry.shared()).isSameAs(jsonCodecRegistry);
+        assertThat(beanFactory.getBeanDefinition("entityManagerFactory").getDependsOn())
+                .contains("jsonCodecRegistry");
+    }
+
+    @Test
+    @DisplayName("Should build the default registry with the same settings as Spring's ObjectMapper")
+    void defaultMapper_MismaConfiguracionQueSpring() {
+        ObjectMapper defaultMapper = JsonCodecRegistry.defaultMapper();
+
+        assertThat(defaultMapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS))
+                .isEqualTo(objectMapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        assertThat(defaultMapper.isEnabled(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS))
+                .isEqualTo(objectMapper.isEnabled(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS));
+        assertThat(defaultMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES))
+                .isEqualTo(objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        assertThat(defaultMapper.isEnabled(MapperFeature.DEFAULT_VIEW_INCLUSION))
+                .isEqualTo(objectMapper.isEnabled(MapperFeature.DEFAULT_VIEW_INCLUSION));
+        // JsonComponentModule y JsonMixinModule de Boot quedan vacíos: no hay @JsonComponent ni @JsonMixin
+        assertThat(defaultMapper.getRegisteredModuleIds())
+                .containsAll(objectMapper.getRegisteredModuleIds().stream()
+                        .filter(id -> !id.toString().startsWith("org.springframework.boot.jackson"))
+                        .toList());
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setUsername("u" + user.getId().substring(0, 8));
+        user.setEmail(user.getUsername() + "@lunari.cl");
+        user.setPassword("$2a$10$hash");
+        user.setIsActive(true);
+        user.setIsVerified(false);
+        return user;
+    }
+}
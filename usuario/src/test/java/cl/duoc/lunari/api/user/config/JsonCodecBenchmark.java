@@ -0,0 +1,142 @@
+package cl.duoc.lunari.api.user.config;
+
+import cl.duoc.lunari.api.user.model.Address;
+import cl.duoc.lunari.api.user.model.ClientPreferences;
+import cl.duoc.lunari.api.user.model.ClientStats;
+import cl.duoc.lunari.api.user.model.Gaming;
+import cl.duoc.lunari.api.user.model.Personal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the JSONB conversions for one full users row (personal, address,
+ * preferences, gaming and stats, taken from the sample data in migration_neondb.sql).
+ *
+ * legacy* reproduce the previous converters (a static ObjectMapper with readValue and
+ * writeValueAsString per call); codec* use JsonCodecRegistry with and without blackbird.
+ * codecReadRowBytesBlackbird measures the byte[] path against the String one the JDBC
+ * boundary uses.
+ *
+ * Run from usuario/:
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main JsonCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private static final String PERSONAL = "{\"firstName\": \"Oscar\", \"lastName\": \"Muñoz\", \"phone\": \"+56912345678\", \"birthdate\": \"1995-05-15\", \"bio\": \"Gamer enthusiast\", \"avatar\": \"https://example.com/avatar1.jpg\", \"memberSince\": \"2022\"}";
+    private static final String ADDRESS = "{\"addressLine1\": \"Av. Principal 123\", \"addressLine2\": \"Depto 45\", \"city\": \"Santiago\", \"region\": \"Metropolitana\", \"postalCode\": \"8320000\", \"country\": \"Chile\", \"deliveryNotes\": \"Timbre 45\"}";
+    private static final String PREFERENCES = "{\"favoriteCategories\": [\"JM\", \"CG\"], \"preferredPlatform\": \"pc\", \"gamingHours\": \"16-30\", \"notifyOffers\": true, \"notifyNewProducts\": true, \"notifyRestocks\": false, \"notifyNewsletter\": true}";
+    private static final String GAMING = "{\"gamerTag\": \"OscarGamer95\", \"favoriteGenre\": \"rpg\", \"skillLevel\": \"advanced\", \"streamingPlatforms\": [\"twitch\", \"youtube\"], \"favoriteGames\": \"The Witcher 3, Elden Ring, Cyberpunk 2077\"}";
+    private static final String STATS = "{\"level\": \"Gold\", \"points\": 1500, \"purchases\": 12, \"reviews\": 8, \"favorites\": 25}";
+
+    private ObjectMapper legacyMapper;
+    private JsonCodecRegistry plain;
+    private JsonCodecRegistry blackbird;
+
+    private byte[] personalBytes;
+    private byte[] addressBytes;
+    private byte[] preferencesBytes;
+    private byte[] gamingBytes;
+    private byte[] statsBytes;
+
+    private Personal personal;
+    private Address address;
+    private ClientPreferences preferences;
+    private Gaming gaming;
+    private ClientStats stats;
+
+    @Setup
+    public void setUp() throws IOException {
+        legacyMapper = new ObjectMapper();
+        plain = new JsonCodecRegistry(JsonCodecRegistry.defaultMapper(), false);
+        blackbird = new JsonCodecRegistry(JsonCodecRegistry.defaultMapper(), true);
+
+        personalBytes = PERSONAL.getBytes(StandardCharsets.UTF_8);
+        addressBytes = ADDRESS.getBytes(StandardCharsets.UTF_8);
+        preferencesBytes = PREFERENCES.getBytes(StandardCharsets.UTF_8);
+        gamingBytes = GAMING.getBytes(StandardCharsets.UTF_8);
+        statsBytes = STATS.getBytes(StandardCharsets.UTF_8);
+
+        personal = blackbird.codec(Personal.class).read(PERSONAL);
+        address = blackbird.codec(Address.class).read(ADDRESS);
+        preferences = blackbird.codec(ClientPreferences.class).read(PREFERENCES);
+        gaming = blackbird.codec(Gaming.class).read(GAMING);
+        stats = blackbird.codec(ClientStats.class).read(STATS);
+    }
+
+    @Benchmark
+    public void legacyReadRow(Blackhole bh) throws IOException {
+        bh.consume(legacyMapper.readValue(PERSONAL, Personal.class));
+        bh.consume(legacyMapper.readValue(ADDRESS, Address.class));
+        bh.consume(legacyMapper.readValue(PREFERENCES, ClientPreferences.class));
+        bh.consume(legacyMapper.readValue(GAMING, Gaming.class));
+        bh.consume(legacyMapper.readValue(STATS, ClientStats.class));
+    }
+
+    @Benchmark
+    public void codecReadRow(Blackhole bh) throws IOException {
+        readRow(plain, bh);
+    }
+
+    @Benchmark
+    public void codecReadRowBlackbird(Blackhole bh) throws IOException {
+        readRow(blackbird, bh);
+    }
+
+    @Benchmark
+    public void codecReadRowBytesBlackbird(Blackhole bh) throws IOException {
+        bh.consume(blackbird.codec(Personal.class).read(personalBytes));
+        bh.consume(blackbird.codec(Address.class).read(addressBytes));
+        bh.consume(blackbird.codec(ClientPreferences.class).read(preferencesBytes));
+        bh.consume(blackbird.codec(Gaming.class).read(gamingBytes));
+        bh.consume(blackbird.codec(ClientStats.class).read(statsBytes));
+    }
+
+    @Benchmark
+    public void legacyWriteRow(Blackhole bh) throws IOException {
+        bh.consume(legacyMapper.writeValueAsString(personal));
+        bh.consume(legacyMapper.writeValueAsString(address));
+        bh.consume(legacyMapper.writeValueAsString(preferences));
+        bh.consume(legacyMapper.writeValueAsString(gaming));
+        bh.consume(legacyMapper.writeValueAsString(stats));
+    }
+
+    @Benchmark
+    public void codecWriteRowBlackbird(Blackhole bh) throws IOException {
+        bh.consume(blackbird.codec(Personal.class).write(personal));
+        bh.consume(blackbird.codec(Address.class).write(address));
+        bh.consume(blackbird.codec(ClientPreferences.class).write(preferences));
+        bh.consume(blackbird.codec(Gaming.class).write(gaming));
+        bh.consume(blackbird.codec(ClientStats.class).write(stats));
+    }
+
+    private void readRow(JsonCodecRegistry registry, Blackhole bh) throws IOException {
+        bh.consume(registry.codec(Personal.class).read(PERSONAL));
+        bh.consume(registry.codec(Address.class).read(ADDRESS));
+        bh.consume(registry.codec(ClientPreferences.class).read(PREFERENCES));
+        bh.consume(registry.codec(Gaming.class).read(GAMING));
+        bh.consume(registry.codec(ClientStats.class).read(STATS));
+    }
+}
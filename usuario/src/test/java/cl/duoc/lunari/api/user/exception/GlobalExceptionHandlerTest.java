@@ -0,0 +1,62 @@
+package cl.duoc.lunari.api.user.exception;
+
+import cl.duoc.lunari.api.payload.ApiResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the HTTP mapping of service exceptions
+ */
+@DisplayName("GlobalExceptionHandler Tests")
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when the hashing pool is saturated")
+    void passwordHashingUnavailable_503() {
+        // When
+        ResponseEntity<ApiResponse<Map<String, Object>>> response = handler.handlePasswordHashingUnavailable(
+                new PasswordHashingUnavailableException("Password hashing pool is saturated"));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getBody().getResponse()).containsEntry("error_code", "AUTH_BUSY");
+    }
+
+    @Test
+    @DisplayName("Should answer 400 for a malformed search cursor or query")
+    void invalidSearchRequest_400() {
+        // When
+        ResponseEntity<ApiResponse<Map<String, Object>>> response = handler.handleInvalidSearchRequest(
+                new InvalidSearchRequestException("Cursor inválido: %%%"));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().getResponse())
+                .containsEntry("error_code", "BAD_REQUEST")
+                .containsEntry("message", "Cursor inválido: %%%");
+    }
+
+    @Test
+    @DisplayName("Should route only invalid search requests to 400 and other IllegalArgumentExceptions to 500")
+    void illegalArgument_NoEsErrorDelCliente() {
+        // Given
+        ExceptionHandlerMethodResolver resolver = new ExceptionHandlerMethodResolver(GlobalExceptionHandler.class);
+
+        // When / Then
+        assertThat(resolver.resolveMethod(new InvalidSearchRequestException("Cursor inválido")).getName())
+                .isEqualTo("handleInvalidSearchRequest");
+        assertThat(resolver.resolveMethod(new IllegalArgumentException("Not a patchable JSONB column: stats")).getName())
+                .isEqualTo("handleRuntimeException");
+    }
+}
@@ -0,0 +1,132 @@
+package cl.duoc.lunari.api.user.repository;
+
+import cl.duoc.lunari.api.user.model.Coupon;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Repository tests for CouponRepository using H2 in-memory database
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:couponrepositorytest;MODE=PostgreSQL;NON_KEYWORDS=VALUE;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS VARCHAR",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@DisplayName("CouponRepository Tests")
+class CouponRepositoryTest {
+
+    private static final String USER_ID = "user-1";
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Should mark a valid coupon as used only once")
+    void markUsed_SoloUnaVez() {
+        // Given
+        Coupon coupon = persistCoupon("GOL-USER-1-ABCDEFGH", LocalDate.now().plusDays(90));
+
+        // When
+        int first = couponRepository.markUsed(USER_ID, coupon.getCode(), LocalDate.now(), LocalDateTime.now());
+        int second = couponRepository.markUsed(USER_ID, coupon.getCode(), LocalDate.now(), LocalDateTime.now());
+
+        // Then
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        entityManager.clear();
+        Coupon used = entityManager.find(Coupon.class, coupon.getId());
+        assertThat(used.getIsUsed()).isTrue();
+        assertThat(used.getUsedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should not mark expired coupons or coupons of other users")
+    void markUsed_ExpiradoUOtroUsuario() {
+        // Given
+        Coupon expired = persistCoupon("GOL-USER-1-EXPIRADO", LocalDate.now().minusDays(1));
+        Coupon valid = persistCoupon("GOL-USER-1-VIGENTE0", LocalDate.now());
+
+        // When / Then
+        assertThat(couponRepository.markUsed(USER_ID, expired.getCode(), LocalDate.now(), LocalDateTime.now())).isZero();
+        assertThat(couponRepository.markUsed("otro", valid.getCode(), LocalDate.now(), LocalDateTime.now())).isZero();
+        assertThat(couponRepository.markUsed(USER_ID, valid.getCode(), LocalDate.now(), LocalDateTime.now())).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should delete a coupon only for its owner")
+    void deleteByIdAndUserId() {
+        // Given
+        Coupon coupon = persistCoupon("GOL-USER-1-ABCDEFGH", null);
+
+        // When / Then
+        assertThat(couponRepository.deleteByIdAndUserId(coupon.getId(), "otro")).isZero();
+        assertThat(couponRepository.deleteByIdAndUserId(coupon.getId(), USER_ID)).isEqualTo(1);
+        assertThat(couponRepository.findByUserIdAndCode(USER_ID, coupon.getCode())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep a shared campaign code independent per user")
+    void codigoDeCampana_PorUsuario() {
+        // Given: el mismo código de campaña asignado a dos usuarios
+        Coupon mine = persistCoupon(USER_ID, "SPECIAL-2025", null);
+        Coupon theirs = persistCoupon("user-2", "SPECIAL-2025", null);
+
+        // When
+        int used = couponRepository.markUsed(USER_ID, "SPECIAL-2025", LocalDate.now(), LocalDateTime.now());
+
+        // Then
+        assertThat(used).isEqualTo(1);
+        entityManager.clear();
+        assertThat(couponRepository.findByUserIdAndCode(USER_ID, "SPECIAL-2025")).get()
+                .extracting(Coupon::getId, Coupon::getIsUsed).containsExactly(mine.getId(), true);
+        assertThat(couponRepository.findByUserIdAndCode("user-2", "SPECIAL-2025")).get()
+                .extracting(Coupon::getId, Coupon::getIsUsed).containsExactly(theirs.getId(), false);
+    }
+
+    @Test
+    @DisplayName("Should reject the same code twice for one user")
+    void codigoRepetido_MismoUsuario() {
+        // Given
+        persistCoupon("SPECIAL-2025", null);
+
+        // When / Then
+        assertThatThrownBy(() -> persistCoupon("SPECIAL-2025", null))
+                .isInstanceOf(PersistenceException.class);
+    }
+
+    private Coupon persistCoupon(String code, LocalDate expiresAt) {
+        return persistCoupon(USER_ID, code, expiresAt);
+    }
+
+    private Coupon persistCoupon(String userId, String code, LocalDate expiresAt) {
+        Coupon coupon = new Coupon();
+        coupon.setId(UUID.randomUUID().toString());
+        coupon.setUserId(userId);
+        coupon.setCode(code);
+        coupon.setType("fixed");
+        coupon.setValue(2.0);
+        coupon.setExpiresAt(expiresAt);
+        coupon.setIsUsed(false);
+        return entityManager.persistFlushFind(coupon);
+    }
+}
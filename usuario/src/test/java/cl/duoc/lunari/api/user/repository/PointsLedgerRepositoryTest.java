@@ -0,0 +1,194 @@
+package cl.duoc.lunari.api.user.repository;
+
+import cl.duoc.lunari.api.user.model.ClientStats;
+import cl.duoc.lunari.api.user.model.PointsLedgerEntry;
+import cl.duoc.lunari.api.user.model.PointsReason;
+import cl.duoc.lunari.api.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Repository tests for the points ledger SQL (jsonb_set, ON CONFLICT, data-modifying CTEs)
+ * against PostgreSQL with the schema of migration_neondb.sql. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=none")
+@DisplayName("PointsLedgerRepository Tests")
+class PointsLedgerRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withCopyFileToContainer(MountableFile.forHostPath("migration_neondb.sql"),
+                    "/docker-entrypoint-initdb.d/migration_neondb.sql");
+
+    @Autowired
+    private PointsLedgerRepository pointsLedgerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = persistUser(0L);
+    }
+
+    @Test
+    @DisplayName("Should apply each order reference once across retried batches")
+    void applyAwards_IdempotentePorReferencia() {
+        // Given
+        String first = awards(award("ORD-1", user.getId(), 100), award("ORD-2", user.getId(), 50),
+                award("ORD-3", "no-existe", 70));
+
+        // When
+        List<String> applied = pointsLedgerRepository.applyAwards(first);
+        List<String> retried = pointsLedgerRepository.applyAwards(
+                awards(award("ORD-2", user.getId(), 50), award("ORD-4", user.getId(), 25)));
+
+        // Then
+        assertThat(applied).containsExactlyInAnyOrder("ORD-1", "ORD-2");
+        assertThat(retried).containsExactly("ORD-4");
+        assertThat(balance(user.getId())).isEqualTo(175);
+        assertThat(ledgerSum(user.getId())).isEqualTo(175);
+    }
+
+    @Test
+    @DisplayName("Should credit a reference once and entries without reference every time")
+    void credit_IdempotentePorReferencia() {
+        // When
+        int first = pointsLedgerRepository.credit(user.getId(), 100L, PointsReason.ORDER.name(), "ORD-1", null);
+        int retried = pointsLedgerRepository.credit(user.getId(), 100L, PointsReason.ORDER.name(), "ORD-1", null);
+        int manual1 = pointsLedgerRepository.credit(user.getId(), 10L, PointsReason.MANUAL.name(), null, "Ajuste");
+        int manual2 = pointsLedgerRepository.credit(user.getId(), 10L, PointsReason.MANUAL.name(), null, "Ajuste");
+        int unknown = pointsLedgerRepository.credit("no-existe", 10L, PointsReason.MANUAL.name(), null, null);
+
+        // Then
+        assertThat(List.of(first, retried, manual1, manual2, unknown)).containsExactly(1, 0, 1, 1, 0);
+        assertThat(balance(user.getId())).isEqualTo(120);
+        assertThat(ledgerSum(user.getId())).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("Should never debit below zero")
+    void debit_NuncaBajoCero() {
+        // Given
+        pointsLedgerRepository.credit(user.getId(), 100L, PointsReason.ORDER.name(), "ORD-1", null);
+
+        // When
+        int tooMuch = pointsLedgerRepository.debit(user.getId(), 150L, PointsReason.REDEMPTION.name(), "COUPON:1", null);
+        int exact = pointsLedgerRepository.debit(user.getId(), 100L, PointsReason.REDEMPTION.name(), "COUPON:2", null);
+        int empty = pointsLedgerRepository.debit(user.getId(), 1L, PointsReason.REDEMPTION.name(), "COUPON:3", null);
+
+        // Then
+        assertThat(List.of(tooMuch, exact, empty)).containsExactly(0, 1, 0);
+        assertThat(balance(user.getId())).isZero();
+        assertThat(ledgerSum(user.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fold old entries into one snapshot per user without changing the sum, then stop")
+    void compactBefore_SumaIgualYTermina() {
+        // Given: two users with old entries, and one recent entry that must survive
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(365).truncatedTo(ChronoUnit.MICROS);
+        User other = persistUser(0L);
+        persistEntry(user.getId(), 100L, cutoff.minusDays(30));
+        persistEntry(user.getId(), -40L, cutoff.minusDays(20));
+        persistEntry(user.getId(), 15L, cutoff.plusDays(10));
+        persistEntry(other.getId(), 7L, cutoff.minusDays(50));
+        persistEntry(other.getId(), 3L, cutoff.minusDays(40));
+
+        // When: one user per batch, as many batches as needed
+        int batches = 0;
+        int compacted;
+        while ((compacted = pointsLedgerRepository.compactBefore(cutoff, 1)) > 0) {
+            assertThat(compacted).isEqualTo(1);
+            assertThat(++batches).isLessThanOrEqualTo(2);
+        }
+        entityManager.clear();
+
+        // Then
+        assertThat(batches).isEqualTo(2);
+        assertThat(ledgerSum(user.getId())).isEqualTo(75);
+        assertThat(ledgerSum(other.getId())).isEqualTo(10);
+        assertThat(entries(user.getId())).extracting(PointsLedgerEntry::getReason)
+                .containsExactlyInAnyOrder(PointsReason.SNAPSHOT, PointsReason.ORDER);
+        assertThat(entries(other.getId())).singleElement()
+                .satisfies(e -> assertThat(e.getCreatedAt()).isEqualTo(cutoff));
+        assertThat(pointsLedgerRepository.compactBefore(cutoff, 1)).isZero();
+    }
+
+    private User persistUser(long points) {
+        User newUser = new User();
+        newUser.setId(UUID.randomUUID().toString());
+        newUser.setUsername("u" + newUser.getId().substring(0, 8));
+        newUser.setEmail(newUser.getUsername() + "@lunari.cl");
+        newUser.setPassword("$2a$10$hash");
+        ClientStats stats = ClientStats.createDefault();
+        stats.setPoints(points);
+        newUser.setStats(stats);
+        newUser.setIsActive(true);
+        newUser.setIsVerified(false);
+        newUser = entityManager.persistFlushFind(newUser);
+        entityManager.clear();
+        return newUser;
+    }
+
+    private void persistEntry(String userId, long delta, LocalDateTime createdAt) {
+        PointsLedgerEntry entry = new PointsLedgerEntry();
+        entry.setUserId(userId);
+        entry.setDelta(delta);
+        entry.setReason(PointsReason.ORDER);
+        entry.setCreatedAt(createdAt);
+        entityManager.persistAndFlush(entry);
+    }
+
+    private long balance(String userId) {
+        entityManager.clear();
+        return entityManager.find(User.class, userId).getPoints();
+    }
+
+    private long ledgerSum(String userId) {
+        Long sum = entityManager.getEntityManager()
+                .createQuery("SELECT SUM(p.delta) FROM PointsLedgerEntry p WHERE p.userId = :userId", Long.class)
+                .setParameter("userId", userId)
+                .getSingleResult();
+        return sum != null ? sum : 0;
+    }
+
+    private List<PointsLedgerEntry> entries(String userId) {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT p FROM PointsLedgerEntry p WHERE p.userId = :userId", PointsLedgerEntry.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+
+    private static String award(String reference, String userId, long points) {
+        return "{\"reference\":\"" + reference + "\",\"userId\":\"" + userId + "\",\"points\":" + points + "}";
+    }
+
+    private static String awards(String... awards) {
+        return "[" + String.join(",", awards) + "]";
+    }
+}
@@ -0,0 +1,41 @@
+package cl.duoc.lunari.api.user.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the search bounds and patterns UserRepositoryImpl binds to its queries.
+ * The queries themselves run against PostgreSQL in UserRepositoryImplTest.
+ */
+@DisplayName("UserRepositoryImpl Pattern Tests")
+class UserRepositoryImplPatternsTest {
+
+    @Test
+    @DisplayName("Should bound a prefix by incrementing its last character")
+    void prefixUpperBound_IncrementaUltimoCaracter() {
+        assertThat(UserRepositoryImpl.prefixUpperBound("ab")).isEqualTo("ac");
+        assertThat(UserRepositoryImpl.prefixUpperBound("z")).isEqualTo("{");
+        assertThat(UserRepositoryImpl.prefixUpperBound("juan p")).isEqualTo("juan q");
+    }
+
+    @Test
+    @DisplayName("Should increment a supplementary character as one code point")
+    void prefixUpperBound_ParSustituto() {
+        assertThat(UserRepositoryImpl.prefixUpperBound("a😀")).isEqualTo("a😁");
+    }
+
+    @Test
+    @DisplayName("Should skip the surrogate range, which has no UTF-8 encoding")
+    void prefixUpperBound_SaltaSustitutos() {
+        assertThat(UserRepositoryImpl.prefixUpperBound("a퟿")).isEqualTo("a");
+    }
+
+    @Test
+    @DisplayName("Should escape LIKE wildcards and the escape character")
+    void escapeLike_Comodines() {
+        assertThat(UserRepositoryImpl.escapeLike("100%_a\\b")).isEqualTo("100\\%\\_a\\\\b");
+        assertThat(UserRepositoryImpl.escapeLike("juan")).isEqualTo("juan");
+    }
+}
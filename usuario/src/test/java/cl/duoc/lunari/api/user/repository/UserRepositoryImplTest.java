@@ -0,0 +1,286 @@
+package cl.duoc.lunari.api.user.repository;
+
+import cl.duoc.lunari.api.user.dto.UserSearchResult;
+import cl.duoc.lunari.api.user.model.Address;
+import cl.duoc.lunari.api.user.model.ClientStats;
+import cl.duoc.lunari.api.user.model.Personal;
+import cl.duoc.lunari.api.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Repository tests for the per-key JSONB patches and the user search of UserRepositoryImpl against PostgreSQL
+ * with the schema of migration_neondb.sql. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=none")
+@DisplayName("UserRepositoryImpl Tests")
+class UserRepositoryImplTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withCopyFileToContainer(MountableFile.forHostPath("migration_neondb.sql"),
+                    "/docker-entrypoint-initdb.d/migration_neondb.sql");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Personal personal = personal("Ana", "Pérez");
+        Address address = new Address();
+        address.setAddressLine1("Av. Siempre Viva 742");
+        address.setAddressLine2("Depto 45");
+        address.setCity("Santiago");
+        user = persistUser(personal, address);
+    }
+
+    // ==================== patchJsonColumns ====================
+
+    @Test
+    @DisplayName("Should write only the given keys and keep the rest of the document")
+    void patchJsonColumns_SoloClavesEnviadas() {
+        // When
+        int updated = userRepository.patchJsonColumns(user.getId(),
+                Map.of("personal", Map.of("firstName", "María")));
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        User patched = reload();
+        assertThat(patched.getPersonal().getFirstName()).isEqualTo("María");
+        assertThat(patched.getPersonal().getLastName()).isEqualTo("Pérez");
+        assertThat(patched.getAddress().getAddressLine2()).isEqualTo("Depto 45");
+    }
+
+    @Test
+    @DisplayName("Should keep stored keys the model does not know")
+    void patchJsonColumns_PreservaClavesDesconocidas() {
+        // Given: una clave escrita por otra versión de la aplicación
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE users SET personal = personal || CAST(?1 AS jsonb) WHERE id = ?2")
+                .setParameter(1, "{\"legacyBadge\":\"beta\"}")
+                .setParameter(2, user.getId())
+                .executeUpdate();
+
+        // When
+        userRepository.patchJsonColumns(user.getId(), Map.of("personal", Map.of("lastName", "Soto")));
+
+        // Then
+        assertThat(jsonField("personal", "legacyBadge")).isEqualTo("beta");
+        assertThat(jsonField("personal", "lastName")).isEqualTo("Soto");
+        assertThat(jsonField("personal", "firstName")).isEqualTo("Ana");
+    }
+
+    @Test
+    @DisplayName("Should clear a removed key by writing it as null")
+    void patchJsonColumns_ClaveEliminada() {
+        // Given
+        Map<String, Object> addressChanges = new HashMap<>();
+        addressChanges.put("addressLine2", null);
+
+        // When
+        userRepository.patchJsonColumns(user.getId(), Map.of("address", addressChanges));
+
+        // Then
+        User patched = reload();
+        assertThat(patched.getAddress().getAddressLine2()).isNull();
+        assertThat(patched.getAddress().getAddressLine1()).isEqualTo("Av. Siempre Viva 742");
+    }
+
+    @Test
+    @DisplayName("Should treat a missing document as an empty object")
+    void patchJsonColumns_DocumentoAusente() {
+        // Given
+        User withoutAddress = persistUser(null, null);
+
+        // When
+        userRepository.patchJsonColumns(withoutAddress.getId(),
+                Map.of("address", Map.of("city", "Valparaíso"), "personal", Map.of("firstName", "Luis")));
+
+        // Then
+        entityManager.clear();
+        User patched = entityManager.find(User.class, withoutAddress.getId());
+        assertThat(patched.getAddress().getCity()).isEqualTo("Valparaíso");
+        assertThat(patched.getPersonal().getFirstName()).isEqualTo("Luis");
+    }
+
+    @Test
+    @DisplayName("Should not run an UPDATE when there are no changes")
+    void patchJsonColumns_SinCambios() {
+        // Given
+        LocalDateTime updatedAt = reload().getUpdatedAt();
+
+        // When
+        int updated = userRepository.patchJsonColumns(user.getId(), Map.of("personal", Map.of()));
+
+        // Then
+        assertThat(updated).isZero();
+        assertThat(reload().getUpdatedAt()).isEqualTo(updatedAt);
+    }
+
+    @Test
+    @DisplayName("Should reject columns that are not patchable JSONB documents")
+    void patchJsonColumns_ColumnaNoPermitida() {
+        assertThatThrownBy(() -> userRepository.patchJsonColumns(user.getId(),
+                Map.of("stats", Map.of("points", 1_000_000))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ==================== searchUsers ====================
+
+    @Test
+    @DisplayName("Should rank exact match, then username, email and name prefixes, then substring matches")
+    void searchUsers_Ranking() {
+        // Given
+        persistUser("elzorro", "elzorro@lunari.cl", null);
+        persistUser("rojo1", "rojo1@lunari.cl", personal("Zorro", "Rojo"));
+        persistUser("fan1", "zorro.fan@lunari.cl", null);
+        persistUser("zorroplata", "plata@lunari.cl", null);
+        persistUser("zorro", "zorro@lunari.cl", null);
+
+        // When
+        List<UserSearchResult> results = userRepository.searchUsers("zorro", false, Integer.MAX_VALUE, "", 10);
+
+        // Then
+        assertThat(results).extracting(UserSearchResult::getUsername)
+                .containsExactly("zorro", "zorroplata", "fan1", "rojo1", "elzorro");
+        assertThat(results).extracting(UserSearchResult::getRank)
+                .satisfies(ranks -> assertThat(ranks.get(0)).isGreaterThanOrEqualTo(4000))
+                .satisfies(ranks -> assertThat(ranks.get(4)).isLessThan(1000));
+        assertThat(results.get(3).getFullName()).isEqualTo("Zorro Rojo");
+    }
+
+    @Test
+    @DisplayName("Should match a prefix up to, and excluding, its upper bound")
+    void searchUsers_LimitePrefijo() {
+        // Given
+        persistUser("qwa", "a1@lunari.cl", null);
+        persistUser("qwb", "a2@lunari.cl", null);
+        persistUser("qwbzz", "a3@lunari.cl", null);
+        persistUser("qwc", "a4@lunari.cl", null);
+        persistUser("xqwb", "a5@lunari.cl", null);
+
+        // When
+        List<UserSearchResult> results = userRepository.searchUsers("qwb", true, Integer.MAX_VALUE, "", 10);
+
+        // Then
+        assertThat(results).extracting(UserSearchResult::getUsername).containsExactlyInAnyOrder("qwb", "qwbzz");
+    }
+
+    @Test
+    @DisplayName("Should treat LIKE wildcards in the query as literal text")
+    void searchUsers_EscapaComodines() {
+        // Given
+        persistUser("pay100%", "p1@lunari.cl", null);
+        persistUser("pay1000", "p2@lunari.cl", null);
+        persistUser("ko_ok", "k1@lunari.cl", null);
+        persistUser("koxok", "k2@lunari.cl", null);
+
+        // When
+        List<UserSearchResult> percent = userRepository.searchUsers("y100%", false, Integer.MAX_VALUE, "", 10);
+        List<UserSearchResult> underscore = userRepository.searchUsers("o_o", false, Integer.MAX_VALUE, "", 10);
+
+        // Then
+        assertThat(percent).extracting(UserSearchResult::getUsername).containsExactly("pay100%");
+        assertThat(underscore).extracting(UserSearchResult::getUsername).containsExactly("ko_ok");
+    }
+
+    @Test
+    @DisplayName("Should continue after the (rank, id) of the previous page without gaps or repeats")
+    void searchUsers_Keyset() {
+        // Given: several users tied on rank
+        for (int i = 0; i < 5; i++) {
+            persistUser("lobo" + i, "lobo" + i + "@lunari.cl", null);
+        }
+        List<UserSearchResult> all = userRepository.searchUsers("lobo", true, Integer.MAX_VALUE, "", 10);
+
+        // When
+        List<UserSearchResult> paged = new ArrayList<>();
+        int afterRank = Integer.MAX_VALUE;
+        String afterId = "";
+        List<UserSearchResult> page;
+        while (!(page = userRepository.searchUsers("lobo", true, afterRank, afterId, 2)).isEmpty()) {
+            paged.addAll(page);
+            afterRank = page.get(page.size() - 1).getRank();
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        // Then
+        assertThat(all).hasSize(5);
+        assertThat(paged).extracting(UserSearchResult::getId)
+                .containsExactlyElementsOf(all.stream().map(UserSearchResult::getId).toList());
+    }
+
+    private User persistUser(Personal personal, Address address) {
+        String username = "u" + UUID.randomUUID().toString().substring(0, 8);
+        return persistUser(username, username + "@lunari.cl", personal, address);
+    }
+
+    private User persistUser(String username, String email, Personal personal) {
+        return persistUser(username, email, personal, null);
+    }
+
+    private User persistUser(String username, String email, Personal personal, Address address) {
+        User newUser = new User();
+        newUser.setId(UUID.randomUUID().toString());
+        newUser.setUsername(username);
+        newUser.setEmail(email);
+        newUser.setPassword("$2a$10$hash");
+        newUser.setPersonal(personal);
+        newUser.setAddress(address);
+        newUser.setStats(ClientStats.createDefault());
+        newUser.setIsActive(true);
+        newUser.setIsVerified(false);
+        newUser = entityManager.persistFlushFind(newUser);
+        entityManager.clear();
+        return newUser;
+    }
+
+    private static Personal personal(String firstName, String lastName) {
+        Personal personal = new Personal();
+        personal.setFirstName(firstName);
+        personal.setLastName(lastName);
+        return personal;
+    }
+
+    private User reload() {
+        entityManager.clear();
+        return entityManager.find(User.class, user.getId());
+    }
+
+    private Object jsonField(String column, String key) {
+        return entityManager.getEntityManager()
+                .createNativeQuery("SELECT " + column + " ->> ?1 FROM users WHERE id = ?2")
+                .setParameter(1, key)
+                .setParameter(2, user.getId())
+                .getSingleResult();
+    }
+}
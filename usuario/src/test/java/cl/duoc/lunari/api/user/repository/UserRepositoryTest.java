@@ -0,0 +1,81 @@
+package cl.duoc.lunari.api.user.repository;
+
+import cl.duoc.lunari.api.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Repository tests for UserRepository using H2 in-memory database
+ * Only the JPQL queries run here; the native JSONB and search SQL is PostgreSQL-only
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:userrepositorytest;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS VARCHAR",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@DisplayName("UserRepository Tests")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setUsername("cliente");
+        user.setEmail("cliente@lunari.cl");
+        user.setPassword("$2a$10$oldhash");
+        user.setIsActive(true);
+        user.setIsVerified(false);
+        user = entityManager.persistFlushFind(user);
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should replace the password hash while it is still the verified one")
+    void replacePasswordHash_MismoHash() {
+        // When
+        int updated = userRepository.replacePasswordHash(user.getId(), "$2a$10$oldhash", "$2a$12$newhash", LocalDateTime.now());
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(entityManager.find(User.class, user.getId()).getPassword()).isEqualTo("$2a$12$newhash");
+    }
+
+    @Test
+    @DisplayName("Should not overwrite a password changed after it was verified")
+    void replacePasswordHash_HashCambiado() {
+        // Given: the password changes between the login check and the rehash
+        userRepository.replacePasswordHash(user.getId(), "$2a$10$oldhash", "$2a$12$changed", LocalDateTime.now());
+
+        // When
+        int updated = userRepository.replacePasswordHash(user.getId(), "$2a$10$oldhash", "$2a$12$newhash", LocalDateTime.now());
+
+        // Then
+        assertThat(updated).isZero();
+        entityManager.clear();
+        assertThat(entityManager.find(User.class, user.getId()).getPassword()).isEqualTo("$2a$12$changed");
+    }
+}
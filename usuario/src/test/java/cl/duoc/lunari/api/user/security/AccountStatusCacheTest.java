@@ -0,0 +1,102 @@
+package cl.duoc.lunari.api.user.security;
+
+import cl.duoc.lunari.api.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the account status cache used by the JWT filter
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AccountStatusCache Tests")
+class AccountStatusCacheTest {
+
+    private static final String USER_ID = "user-1";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AccountStatusCache accountStatusCache;
+
+    @BeforeEach
+    void setUp() {
+        accountStatusCache = new AccountStatusCache(userRepository, Duration.ofMinutes(5), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a status reloaded between the write and the commit")
+    void invalidate_AgainAfterCommit() {
+        // Given: the revocation is written but not yet committed
+        LocalDateTime validAfter = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Date viejo = toDate(validAfter.minusMinutes(1));
+        when(userRepository.findAccountStatusById(USER_ID))
+                .thenReturn(Optional.of(new AccountStatus(true, null)))
+                .thenReturn(Optional.of(new AccountStatus(true, validAfter)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When: a concurrent request reloads the old status before the commit
+        accountStatusCache.invalidate(USER_ID);
+        assertThat(accountStatusCache.accepts(USER_ID, viejo)).isTrue();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Then
+        assertThat(accountStatusCache.accepts(USER_ID, viejo)).isFalse();
+        verify(userRepository, times(2)).findAccountStatusById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should accept tokens issued in the revocation second and reject earlier ones")
+    void accepts_MismaPrecisionQueIat() {
+        // Given
+        LocalDateTime validAfter = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        when(userRepository.findAccountStatusById(USER_ID))
+                .thenReturn(Optional.of(new AccountStatus(true, validAfter)));
+
+        // Then: iat is serialized in whole seconds
+        assertThat(accountStatusCache.accepts(USER_ID, toDate(validAfter))).isTrue();
+        assertThat(accountStatusCache.accepts(USER_ID, toDate(validAfter.plusNanos(999_000_000)))).isTrue();
+        assertThat(accountStatusCache.accepts(USER_ID, toDate(validAfter.minusSeconds(1)))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject tokens of inactive or missing accounts")
+    void accepts_CuentaInactivaOInexistente() {
+        // Given
+        when(userRepository.findAccountStatusById(USER_ID)).thenReturn(Optional.of(new AccountStatus(false, null)));
+        when(userRepository.findAccountStatusById("missing")).thenReturn(Optional.empty());
+
+        // Then
+        assertThat(accountStatusCache.accepts(USER_ID, new Date())).isFalse();
+        assertThat(accountStatusCache.accepts("missing", new Date())).isFalse();
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,94 @@
+package cl.duoc.lunari.api.user.security;
+
+import cl.duoc.lunari.api.user.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the per-request JWT work in JwtUtil.
+ *
+ * legacyPerRequest reproduces the previous JwtUtil: the filter's extractEmail plus
+ * validateToken (extractEmail and extractExpiration again), each deriving the key and
+ * building a parser. The other two measure the current JwtUtil with a cold and a warm
+ * claims cache.
+ *
+ * Run from usuario/:
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main JwtUtilBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-with-at-least-32-characters-for-hs256";
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+    private UserDetails userDetails;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 86400000L, 10000);
+        // A zero-sized cache keeps nothing, so every call verifies the signature
+        uncachedJwtUtil = new JwtUtil(SECRET, 86400000L, 0);
+
+        User user = new User();
+        user.setId("7f0c3c1e-5b1a-4c47-9d7e-1f2a3b4c5d6e");
+        user.setEmail("cliente@lunari.cl");
+        user.setUsername("cliente");
+        token = jwtUtil.generateToken(user);
+        userDetails = org.springframework.security.core.userdetails.User
+                .withUsername(user.getEmail()).password("").authorities("ROLE_CLIENT").build();
+        jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean legacyPerRequest() {
+        String email = legacyClaims(token).get("email", String.class);
+        boolean emailMatches = legacyClaims(token).get("email", String.class).equals(userDetails.getUsername());
+        boolean expired = legacyClaims(token).getExpiration().before(new Date());
+        return email != null && emailMatches && !expired;
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = uncachedJwtUtil.extractAllClaims(token);
+        return uncachedJwtUtil.validateToken(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean cachedClaims() {
+        Claims claims = jwtUtil.extractAllClaims(token);
+        return jwtUtil.validateToken(claims, userDetails);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
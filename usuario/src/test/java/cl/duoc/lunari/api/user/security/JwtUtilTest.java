@@ -0,0 +1,104 @@
+package cl.duoc.lunari.api.user.security;
+
+import cl.duoc.lunari.api.user.model.ClientStats;
+import cl.duoc.lunari.api.user.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the verified claims cache of JwtUtil
+ */
+@DisplayName("JwtUtil Tests")
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-with-at-least-256-bits-for-hmac-sha-256";
+
+    private JwtUtil jwtUtil;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60_000L, 100);
+        user = new User();
+        user.setId("user-1");
+        user.setEmail("ana@lunari.cl");
+        user.setUsername("ana");
+        user.setStats(ClientStats.createDefault());
+    }
+
+    @Test
+    @DisplayName("Should still reject a cached token once it is past exp")
+    void extractAllClaims_CacheadoExpirado() throws InterruptedException {
+        // Given: exp se serializa en segundos, así que llega en menos de 1 s
+        JwtUtil shortLived = new JwtUtil(SECRET, 1_000L, 100);
+        String token = shortLived.generateToken(user);
+        Date exp = shortLived.extractAllClaims(token).getExpiration();
+        assertThat(claimsCache(shortLived).asMap()).hasSize(1);
+
+        // When
+        Thread.sleep(Math.max(0, exp.getTime() - System.currentTimeMillis()) + 50);
+
+        // Then
+        assertThatThrownBy(() -> shortLived.extractAllClaims(token))
+                .isInstanceOf(ExpiredJwtException.class);
+        Cache<String, Claims> cache = claimsCache(shortLived);
+        cache.cleanUp();
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should verify a tampered token that shares a prefix with a cached one")
+    void extractAllClaims_TokenAlteradoNoUsaCache() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+        jwtUtil.extractAllClaims(token);
+        int firma = token.lastIndexOf('.') + 1;
+        char original = token.charAt(firma);
+        String alterado = token.substring(0, firma) + (original == 'A' ? 'B' : 'A') + token.substring(firma + 1);
+
+        // Then
+        assertThatThrownBy(() -> jwtUtil.extractAllClaims(alterado))
+                .isInstanceOf(SignatureException.class);
+        assertThat(claimsCache(jwtUtil).asMap()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens without exp")
+    void extractAllClaims_SinExpNoSeCachea() {
+        // Given
+        String token = Jwts.builder()
+                .subject("user-1")
+                .claim("email", "ana@lunari.cl")
+                .issuedAt(new Date())
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // When
+        Claims claims = jwtUtil.extractAllClaims(token);
+        jwtUtil.extractAllClaims(token);
+
+        // Then
+        assertThat(claims.getSubject()).isEqualTo("user-1");
+        assertThat(claims.getExpiration()).isNull();
+        assertThat(claimsCache(jwtUtil).asMap()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<String, Claims> claimsCache(JwtUtil jwtUtil) {
+        return (Cache<String, Claims>) ReflectionTestUtils.getField(jwtUtil, "claimsCache");
+    }
+}
@@ -0,0 +1,134 @@
+package cl.duoc.lunari.api.user.security;
+
+import cl.duoc.lunari.api.user.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the bounded BCrypt pool
+ * Saturation is driven with a password whose characters are only readable once a latch opens,
+ * so a hash holds its pool thread for as long as the test needs
+ */
+@DisplayName("PasswordHasher Tests")
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        if (passwordHasher != null) {
+            passwordHasher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should hash on the pool and flag hashes made with a lower cost")
+    void encodeMatches_UpgradeEncoding() {
+        // Given
+        passwordHasher = new PasswordHasher(5, 1, 1, Duration.ofSeconds(10), meterRegistry);
+        String legacyHash = new BCryptPasswordEncoder(4).encode("secret123");
+
+        // When
+        String hash = passwordHasher.encode("secret123");
+
+        // Then
+        assertThat(passwordHasher.matches("secret123", hash)).isTrue();
+        assertThat(passwordHasher.matches("otra", hash)).isFalse();
+        assertThat(passwordHasher.upgradeEncoding(hash)).isFalse();
+        assertThat(passwordHasher.upgradeEncoding(legacyHash)).isTrue();
+        assertThat(meterRegistry.get("usuario.password.hash").tag("operation", "verify").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject at once when the thread and the queue are taken")
+    void poolSaturado_RechazaDeInmediato() throws Exception {
+        // Given: one thread busy and one request queued
+        passwordHasher = new PasswordHasher(4, 1, 1, Duration.ofSeconds(10), meterRegistry);
+        CountDownLatch hashing = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHasher.encode(blocked(hashing)));
+        assertThat(hashing.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHasher.encode("secret123"));
+        await(() -> meterRegistry.get("usuario.password.queue").gauge().value() == 1);
+
+        // When / Then
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> passwordHasher.matches("secret123", "$2a$04$x"))
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .hasMessageContaining("saturated");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(meterRegistry.get("usuario.password.rejected").counter().count()).isEqualTo(1);
+
+        gate.countDown();
+        assertThat(running.get(10, TimeUnit.SECONDS)).startsWith("$2a$04$");
+        assertThat(queued.get(10, TimeUnit.SECONDS)).startsWith("$2a$04$");
+    }
+
+    @Test
+    @DisplayName("Should give up with 503 when a hash takes longer than the timeout")
+    void hashLento_Timeout() {
+        // Given
+        passwordHasher = new PasswordHasher(4, 1, 1, Duration.ofMillis(200), meterRegistry);
+
+        // When / Then
+        assertThatThrownBy(() -> passwordHasher.encode(blocked(new CountDownLatch(1))))
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .hasMessageContaining("timed out");
+        assertThat(meterRegistry.get("usuario.password.rejected").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Password that blocks the hashing thread until the gate opens
+     */
+    private CharSequence blocked(CountDownLatch hashing) {
+        return new CharSequence() {
+            @Override
+            public int length() {
+                return 9;
+            }
+
+            @Override
+            public char charAt(int index) {
+                return toString().charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return toString().subSequence(start, end);
+            }
+
+            @Override
+            public String toString() {
+                hashing.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "secret123";
+            }
+        };
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package cl.duoc.lunari.api.user.service;
+
+import cl.duoc.lunari.api.payload.KeysetCursor;
+import cl.duoc.lunari.api.user.dto.UpdateProfileRequest;
+import cl.duoc.lunari.api.user.dto.UserSearchResponse;
+import cl.duoc.lunari.api.user.dto.UserSearchResult;
+import cl.duoc.lunari.api.user.exception.InvalidCredentialsException;
+import cl.duoc.lunari.api.user.exception.InvalidSearchRequestException;
+import cl.duoc.lunari.api.user.exception.PasswordHashingUnavailableException;
+import cl.duoc.lunari.api.user.model.Address;
+import cl.duoc.lunari.api.user.model.ClientStats;
+import cl.duoc.lunari.api.user.model.Coupon;
+import cl.duoc.lunari.api.user.model.Personal;
+import cl.duoc.lunari.api.user.model.PointsReason;
+import cl.duoc.lunari.api.user.model.User;
+import cl.duoc.lunari.api.user.repository.CouponRepository;
+import cl.duoc.lunari.api.user.repository.PointsLedgerRepository;
+import cl.duoc.lunari.api.user.repository.UserRepository;
+import cl.duoc.lunari.api.user.security.AccountStatusCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserServiceImpl
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserServiceImpl Tests")
+class UserServiceImplTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String EMAIL = "cliente@lunari.cl";
+    private static final String OLD_HASH = "$2a$10$oldhash";
+    private static final String NEW_HASH = "$2a$12$newhash";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PointsLedgerRepository pointsLedgerRepository;
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private AccountStatusCache accountStatusCache;
+
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImpl(userRepository, pointsLedgerRepository, couponRepository,
+                passwordEncoder, new ObjectMapper().findAndRegisterModules(), accountStatusCache);
+    }
+
+    // ==================== Login rehash ====================
+
+    @Test
+    @DisplayName("Should rehash a lower-cost password with a compare-and-set on the verified hash")
+    void authenticateUser_RehashConCas() {
+        // Given
+        User user = createUser(OLD_HASH);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("secret123", OLD_HASH)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(OLD_HASH)).thenReturn(true);
+        when(passwordEncoder.encode("secret123")).thenReturn(NEW_HASH);
+        when(userRepository.replacePasswordHash(eq(USER_ID), eq(OLD_HASH), eq(NEW_HASH), any())).thenReturn(1);
+
+        // When
+        User autenticado = userService.authenticateUser(EMAIL, "secret123");
+
+        // Then
+        assertThat(autenticado.getPassword()).isEqualTo(NEW_HASH);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should keep the stored hash when the password changed concurrently")
+    void authenticateUser_CasPerdido() {
+        // Given: the compare-and-set finds another hash and updates nothing
+        User user = createUser(OLD_HASH);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("secret123", OLD_HASH)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(OLD_HASH)).thenReturn(true);
+        when(passwordEncoder.encode("secret123")).thenReturn(NEW_HASH);
+        when(userRepository.replacePasswordHash(eq(USER_ID), eq(OLD_HASH), eq(NEW_HASH), any())).thenReturn(0);
+
+        // When
+        User autenticado = userService.authenticateUser(EMAIL, "secret123");
+
+        // Then
+        assertThat(autenticado.getPassword()).isEqualTo(OLD_HASH);
+    }
+
+    @Test
+    @DisplayName("Should still log in when the rehash is rejected by a saturated pool")
+    void authenticateUser_RehashRechazado() {
+        // Given
+        User user = createUser(OLD_HASH);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("secret123", OLD_HASH)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(OLD_HASH)).thenReturn(true);
+        when(passwordEncoder.encode("secret123"))
+                .thenThrow(new PasswordHashingUnavailableException("Password hashing pool is saturated"));
+
+        // When
+        User autenticado = userService.authenticateUser(EMAIL, "secret123");
+
+        // Then
+        assertThat(autenticado.getPassword()).isEqualTo(OLD_HASH);
+        verify(userRepository, never()).replacePasswordHash(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should propagate a saturated pool on verification so the login answers 503")
+    void authenticateUser_VerificacionRechazada() {
+        // Given
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(createUser(OLD_HASH)));
+        when(passwordEncoder.matches("secret123", OLD_HASH))
+                .thenThrow(new PasswordHashingUnavailableException("Password hashing pool is saturated"));
+
+        // When / Then
+        assertThatThrownBy(() -> userService.authenticateUser(EMAIL, "secret123"))
+                .isInstanceOf(PasswordHashingUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Should migrate a plain text password with a compare-and-set")
+    void authenticateUser_MigraTextoPlano() {
+        // Given
+        User user = createUser("secret123");
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("secret123")).thenReturn(NEW_HASH);
+        when(userRepository.replacePasswordHash(eq(USER_ID), eq("secret123"), eq(NEW_HASH), any())).thenReturn(1);
+
+        // When
+        userService.authenticateUser(EMAIL, "secret123");
+
+        // Then
+        assertThat(user.getPassword()).isEqualTo(NEW_HASH);
+        assertThatThrownBy(() -> userService.authenticateUser(EMAIL, "otra"))
+                .isInstanceOf(InvalidCredentialsException.class);
+    }
+
+    // ==================== Points ====================
+
+    @Test
+    @DisplayName("Should credit positive points through the ledger")
+    void addPoints_Positivos() {
+        // Given
+        when(pointsLedgerRepository.credit(USER_ID, 50L, PointsReason.MANUAL.name(), null, "Ajuste")).thenReturn(1);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(createUser(OLD_HASH, 150L, "Bronze")));
+
+        // When
+        User user = userService.addPoints(USER_ID, 50L, "Ajuste");
+
+        // Then
+        assertThat(user.getPoints()).isEqualTo(150L);
+        verify(pointsLedgerRepository, never()).debit(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should turn negative points into a ledger debit of the absolute value")
+    void addPoints_NegativosDebitan() {
+        // Given
+        when(pointsLedgerRepository.debit(USER_ID, 30L, PointsReason.MANUAL.name(), null, "Corrección")).thenReturn(1);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(createUser(OLD_HASH, 70L, "Bronze")));
+
+        // When
+        userService.addPoints(USER_ID, -30L, "Corrección");
+
+        // Then
+        verify(pointsLedgerRepository, never()).credit(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a negative adjustment larger than the balance")
+    void addPoints_NegativosSinSaldo() {
+        // Given
+        when(pointsLedgerRepository.debit(USER_ID, 500L, PointsReason.MANUAL.name(), null, null)).thenReturn(0);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(createUser(OLD_HASH, 70L, "Bronze")));
+
+        // When / Then
+        assertThatThrownBy(() -> userService.addPoints(USER_ID, -500L, null))
+                .hasMessageContaining("Insufficient points. You have 70 points");
+    }
+
+    @Test
+    @DisplayName("Should report a missing user rather than insufficient points")
+    void addPoints_UsuarioInexistente() {
+        // Given
+        when(pointsLedgerRepository.debit(any(), any(), any(), any(), any())).thenReturn(0);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> userService.addPoints(USER_ID, -10L, null))
+                .hasMessageContaining("User not found");
+    }
+
+    // ==================== Coupons ====================
+
+    @Test
+    @DisplayName("Should debit the points and save a coupon with a random code")
+    void redeemPoints_Success() {
+        // Given
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(createUser(OLD_HASH, 500L, "Gold")));
+        when(pointsLedgerRepository.debit(eq(USER_ID), eq(200L), eq(PointsReason.REDEMPTION.name()), any(), any()))
+                .thenReturn(1);
+
+        // When
+        Coupon coupon = userService.redeemPoints(USER_ID, 200L);
+
+        // Then
+        assertThat(coupon.getCode()).matches("GOL-USER-1-[2-9A-HJ-NP-Z]{8}");
+        assertThat(coupon.getValue()).isEqualTo(4.0);
+        assertThat(coupon.getIsUsed()).isFalse();
+        verify(pointsLedgerRepository).debit(USER_ID, 200L, PointsReason.REDEMPTION.name(),
+                "COUPON:" + coupon.getId(), coupon.getCode());
+        verify(couponRepository).save(coupon);
+    }
+
+    @Test
+    @DisplayName("Should not repeat coupon codes across many redemptions of the same user")
+    void redeemPoints_CodigosDistintos() {
+        // Given
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(createUser(OLD_HASH, 1_000_000L, "Bronze")));
+        when(pointsLedgerRepository.debit(any(), any(), any(), any(), any())).thenReturn(1);
+
+        // When
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            codes.add(userService.redeemPoints(USER_ID, 100L).getCode());
+        }
+
+        // Then: the previous 4-digit suffix repeated within the first few hundred
+        assertThat(codes).hasSize(10_000);
+    }
+
+    @Test
+    @DisplayName("Should not save a coupon when a concurrent redemption spent the points")
+    void redeemPoints_DebitoRechazado() {
+        // Given
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(createUser(OLD_HASH, 500L, "Bronze")));
+        when(pointsLedgerRepository.debit(any(), any(), any(), any(), any())).thenReturn(0);
+
+        // When / Then
+        assertThatThrownBy(() -> userService.redeemPoints(USER_ID, 200L))
+                .hasMessageContaining("Insufficient points");
+        verify(couponRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject redemptions above the balance or below the minimum without debiting")
+    void redeemPoints_Validaciones() {
+        // Given
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(createUser(OLD_HASH, 150L, "Bronze")));
+
+        // When / Then
+        assertThatThrownBy(() -> userService.redeemPoints(USER_ID, 200L))
+                .hasMessageContaining("Insufficient points");
+        assertThatThrownBy(() -> userService.redeemPoints(USER_ID, 50L))
+                .hasMessageContaining("Minimum 100 points");
+        verifyNoInteractions(pointsLedgerRepository, couponRepository);
+    }
+
+    @Test
+    @DisplayName("Should return the coupon once marked as used")
+    void useCoupon_Success() {
+        // Given
+        Coupon coupon = createCoupon(true);
+        when(couponRepository.markUsed(eq(USER_ID), eq("GOL-USER-1-ABCDEFGH"), any(), any())).thenReturn(1);
+        when(couponRepository.findByUserIdAndCode(USER_ID, "GOL-USER-1-ABCDEFGH")).thenReturn(Optional.of(coupon));
+
+        // When / Then
+        assertThat(userService.useCoupon(USER_ID, "GOL-USER-1-ABCDEFGH")).isSameAs(coupon);
+    }
+
+    @Test
+    @DisplayName("Should tell an already used coupon from an expired one")
+    void useCoupon_UsadoOExpirado() {
+        // Given
+        when(couponRepository.markUsed(eq(USER_ID), any(), any(), any())).thenReturn(0);
+        when(couponRepository.findByUserIdAndCode(USER_ID, "GOL-USER-1-ABCDEFGH"))
+                .thenReturn(Optional.of(createCoupon(true)))
+                .thenReturn(Optional.of(createCoupon(false)));
+
+        // When / Then
+        assertThatThrownBy(() -> userService.useCoupon(USER_ID, "GOL-USER-1-ABCDEFGH"))
+                .hasMessageContaining("already used");
+        assertThatThrownBy(() -> userService.useCoupon(USER_ID, "GOL-USER-1-ABCDEFGH"))
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    @DisplayName("Should not reveal coupons of other users")
+    void useCoupon_OtroUsuario() {
+        // Given
+        when(couponRepository.markUsed(eq("otro"), any(), any(), any())).thenReturn(0);
+        when(couponRepository.findByUserIdAndCode("otro", "GOL-USER-1-ABCDEFGH")).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> userService.useCoupon("otro", "GOL-USER-1-ABCDEFGH"))
+                .hasMessageContaining("Coupon not found");
+    }
+
+    @Test
+    @DisplayName("Should delete only the user's own coupon")
+    void removeCoupon() {
+        // Given
+        when(couponRepository.deleteByIdAndUserId("coupon-1", USER_ID)).thenReturn(1);
+        when(couponRepository.deleteByIdAndUserId("coupon-1", "otro")).thenReturn(0);
+
+        // When / Then
+        userService.removeCoupon(USER_ID, "coupon-1");
+        assertThatThrownBy(() -> userService.removeCoupon("otro", "coupon-1"))
+                .hasMessageContaining("Coupon not found");
+    }
+
+    // ==================== Profile ====================
+
+    @Test
+    @DisplayName("Should not run an UPDATE when the request changes nothing")
+    void updateUserProfile_SinCambios() {
+        // Given
+        User user = createUserWithProfile();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        UpdateProfileRequest request = UpdateProfileRequest.builder()
+                .firstName("Ana")
+                .address(createAddress("Depto 45"))
+                .build();
+
+        // When
+        User actualizado = userService.updateUserProfile(USER_ID, request);
+
+        // Then
+        assertThat(actualizado).isSameAs(user);
+        verify(userRepository, never()).patchJsonColumns(any(), any());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should patch only the personal key that changed")
+    void updateUserProfile_UnCampoPersonal() {
+        // Given
+        User user = createUserWithProfile();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        UpdateProfileRequest request = UpdateProfileRequest.builder().lastName("Soto").build();
+
+        // When
+        User actualizado = userService.updateUserProfile(USER_ID, request);
+
+        // Then
+        assertThat(capturePatch()).isEqualTo(Map.of("personal", Map.of("lastName", "Soto")));
+        assertThat(actualizado.getPersonal().getFirstName()).isEqualTo("Ana");
+        assertThat(actualizado.getPersonal().getLastName()).isEqualTo("Soto");
+    }
+
+    @Test
+    @DisplayName("Should write a key removed from a replaced address as null and skip unchanged keys")
+    void updateUserProfile_DireccionConClaveEliminada() {
+        // Given
+        User user = createUserWithProfile();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        Address sinDepto = createAddress(null);
+        UpdateProfileRequest request = UpdateProfileRequest.builder().address(sinDepto).build();
+
+        // When
+        User actualizado = userService.updateUserProfile(USER_ID, request);
+
+        // Then
+        Map<String, Map<String, Object>> patch = capturePatch();
+        assertThat(patch).containsOnlyKeys("address");
+        assertThat(patch.get("address")).containsExactly(entry("addressLine2", null));
+        assertThat(actualizado.getAddress()).isEqualTo(sinDepto);
+    }
+
+    @Test
+    @DisplayName("Should leave stored keys outside the request out of the patch")
+    void updateUserProfile_PreservaClavesGuardadas() {
+        // Given: claves que el request no puede enviar (memberSince) o no envía (phone).
+        // Las que el modelo no conoce ni siquiera llegan al mapa; el || de patchJsonColumns
+        // las conserva en la base (UserRepositoryImplTest)
+        User user = createUserWithProfile();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        UpdateProfileRequest request = UpdateProfileRequest.builder().firstName("María").build();
+
+        // When
+        User actualizado = userService.updateUserProfile(USER_ID, request);
+
+        // Then
+        assertThat(capturePatch().get("personal")).containsOnlyKeys("firstName");
+        assertThat(actualizado.getPersonal().getMemberSince()).isEqualTo("2022");
+        assertThat(actualizado.getPersonal().getPhone()).isEqualTo("+56911112222");
+    }
+
+    private Map<String, Map<String, Object>> capturePatch() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Map<String, Object>>> patch = ArgumentCaptor.forClass(Map.class);
+        verify(userRepository).patchJsonColumns(eq(USER_ID), patch.capture());
+        return patch.getValue();
+    }
+
+    private User createUserWithProfile() {
+        User user = createUser(OLD_HASH);
+        Personal personal = new Personal();
+        personal.setFirstName("Ana");
+        personal.setLastName("Pérez");
+        personal.setPhone("+56911112222");
+        personal.setMemberSince("2022");
+        user.setPersonal(personal);
+        user.setAddress(createAddress("Depto 45"));
+        return user;
+    }
+
+    private Address createAddress(String addressLine2) {
+        Address address = new Address();
+        address.setAddressLine1("Av. Siempre Viva 742");
+        address.setAddressLine2(addressLine2);
+        address.setCity("Santiago");
+        address.setCountry("chile");
+        return address;
+    }
+
+    // ==================== Search ====================
+
+    @Test
+    @DisplayName("Should fetch one extra row and return an opaque cursor to the last result shown")
+    void searchUsers_CursorSiguientePagina() {
+        // Given
+        when(userRepository.searchUsers("ana", false, Integer.MAX_VALUE, "", 3))
+                .thenReturn(List.of(searchResult("u1", 4000), searchResult("u2", 3000), searchResult("u3", 3000)));
+
+        // When
+        UserSearchResponse page = userService.searchUsers("  Ana ", false, null, 2);
+
+        // Then
+        assertThat(page.getResults()).extracting(UserSearchResult::getId).containsExactly("u1", "u2");
+        assertThat(page.getNextCursor()).doesNotContain("u2");
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(new KeysetCursor.Claves(3000, "u2"));
+    }
+
+    @Test
+    @DisplayName("Should continue from the cursor keys and omit the cursor on an exactly full last page")
+    void searchUsers_UltimaPagina() {
+        // Given
+        when(userRepository.searchUsers("ana", false, 3000, "u2", 3))
+                .thenReturn(List.of(searchResult("u3", 3000), searchResult("u4", 1000)));
+
+        // When
+        UserSearchResponse page = userService.searchUsers("ana", false, KeysetCursor.encode(3000, "u2"), 2);
+
+        // Then
+        assertThat(page.getResults()).extracting(UserSearchResult::getId).containsExactly("u3", "u4");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors and blank queries with InvalidSearchRequestException")
+    void searchUsers_ArgumentosInvalidos() {
+        assertThatThrownBy(() -> userService.searchUsers("ana", false, "3000:u2", 2))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        assertThatThrownBy(() -> userService.searchUsers("   ", false, null, 2))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    private UserSearchResult searchResult(String id, int rank) {
+        return UserSearchResult.builder().id(id).username(id).rank(rank).build();
+    }
+
+    private User createUser(String password, Long points, String level) {
+        User user = createUser(password);
+        ClientStats stats = ClientStats.createDefault();
+        stats.setPoints(points);
+        stats.setLevel(level);
+        user.setStats(stats);
+        return user;
+    }
+
+    private Coupon createCoupon(boolean used) {
+        Coupon coupon = new Coupon();
+        coupon.setId("coupon-1");
+        coupon.setUserId(USER_ID);
+        coupon.setCode("GOL-USER-1-ABCDEFGH");
+        coupon.setIsUsed(used);
+        return coupon;
+    }
+
+    private User createUser(String password) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername("cliente");
+        user.setEmail(EMAIL);
+        user.setPassword(password);
+        user.setIsActive(true);
+        return user;
+    }
+}